@@ -0,0 +1,175 @@
+package biweekly.benchmark;
+
+import java.util.Date;
+import java.util.Random;
+
+import biweekly.ICalendar;
+import biweekly.component.DaylightSavingsTime;
+import biweekly.component.StandardTime;
+import biweekly.component.VEvent;
+import biweekly.component.VTimezone;
+import biweekly.component.VTodo;
+import biweekly.io.ICalTimeZone;
+import biweekly.io.TimezoneAssignment;
+import biweekly.util.DateTimeComponents;
+import biweekly.util.DayOfWeek;
+import biweekly.util.Frequency;
+import biweekly.util.Recurrence;
+import biweekly.util.UtcOffset;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Generates synthetic iCalendar objects for the benchmarks. The output is
+ * deterministic for a given seed, so benchmark runs are comparable with each
+ * other.
+ * @author Michael Angstadt
+ */
+public class CalendarGenerator {
+	private static final String[] WORDS = { "team", "meeting", "review", "lunch", "project", "planning", "call", "budget", "design", "release", "standup", "offsite" };
+
+	private final Random random;
+
+	/**
+	 * @param seed the random number generator seed
+	 */
+	public CalendarGenerator(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Builds a VTIMEZONE component that mirrors the current US Eastern time
+	 * rules.
+	 * @return the component
+	 */
+	public static VTimezone newYork() {
+		UtcOffset minus4 = new UtcOffset(false, 4, 0);
+		UtcOffset minus5 = new UtcOffset(false, 5, 0);
+
+		VTimezone component = new VTimezone("America/New_York");
+
+		StandardTime standard = new StandardTime();
+		standard.setDateStart(new DateTimeComponents(2007, 11, 4, 2, 0, 0, false));
+		standard.setTimezoneOffsetFrom(minus4);
+		standard.setTimezoneOffsetTo(minus5);
+		standard.setRecurrenceRule(new Recurrence.Builder(Frequency.YEARLY).byMonth(11).byDay(1, DayOfWeek.SUNDAY).build());
+		component.addStandardTime(standard);
+
+		DaylightSavingsTime daylight = new DaylightSavingsTime();
+		daylight.setDateStart(new DateTimeComponents(2007, 3, 11, 2, 0, 0, false));
+		daylight.setTimezoneOffsetFrom(minus5);
+		daylight.setTimezoneOffsetTo(minus4);
+		daylight.setRecurrenceRule(new Recurrence.Builder(Frequency.YEARLY).byMonth(3).byDay(2, DayOfWeek.SUNDAY).build());
+		component.addDaylightSavingsTime(daylight);
+
+		return component;
+	}
+
+	/**
+	 * Generates an iCalendar object. About one in five events is recurring,
+	 * and one in ten components is a to-do.
+	 * @param components the number of components to generate
+	 * @return the iCalendar object
+	 */
+	public ICalendar generate(int components) {
+		ICalendar ical = new ICalendar();
+
+		VTimezone component = newYork();
+		ical.getTimezoneInfo().setDefaultTimezone(new TimezoneAssignment(new ICalTimeZone(component), component));
+
+		long base = 1514764800000L; //2018-01-01
+		for (int i = 0; i < components; i++) {
+			Date start = new Date(base + random.nextInt(365 * 24) * 3600000L);
+			Date end = new Date(start.getTime() + (1 + random.nextInt(4)) * 1800000L);
+
+			if (random.nextInt(10) == 0) {
+				VTodo todo = new VTodo();
+				todo.setUid("todo-" + i + "@example.com");
+				todo.setSummary(sentence(3));
+				todo.setDateStart(start);
+				todo.setDateDue(end);
+				todo.setPriority(1 + random.nextInt(9));
+				ical.addTodo(todo);
+				continue;
+			}
+
+			VEvent event = new VEvent();
+			event.setUid("event-" + i + "@example.com");
+			event.setSequence(random.nextInt(3));
+			event.setSummary(sentence(4));
+			event.setDescription(sentence(40));
+			event.setLocation("Room " + random.nextInt(500));
+			event.setDateStart(start);
+			event.setDateEnd(end);
+			event.setOrganizer("organizer" + random.nextInt(20) + "@example.com");
+			int attendees = random.nextInt(6);
+			for (int j = 0; j < attendees; j++) {
+				event.addAttendee("attendee" + random.nextInt(200) + "@example.com");
+			}
+			event.addCategories(word(), word());
+
+			if (random.nextInt(5) == 0) {
+				event.setRecurrenceRule(recurrence());
+			}
+
+			ical.addEvent(event);
+		}
+
+		return ical;
+	}
+
+	/**
+	 * Generates a random recurrence rule.
+	 * @return the recurrence rule
+	 */
+	public Recurrence recurrence() {
+		switch (random.nextInt(4)) {
+		case 0:
+			return new Recurrence.Builder(Frequency.DAILY).count(10 + random.nextInt(50)).build();
+		case 1:
+			return new Recurrence.Builder(Frequency.WEEKLY).byDay(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY).count(30).build();
+		case 2:
+			return new Recurrence.Builder(Frequency.MONTHLY).byMonthDay(1 + random.nextInt(28)).count(24).build();
+		default:
+			return new Recurrence.Builder(Frequency.YEARLY).byMonth(1 + random.nextInt(12)).byDay(1, DayOfWeek.SUNDAY).count(10).build();
+		}
+	}
+
+	private String sentence(int words) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			sb.append(word());
+		}
+		return sb.toString();
+	}
+
+	private String word() {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+}
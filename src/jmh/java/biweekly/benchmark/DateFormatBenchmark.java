@@ -0,0 +1,95 @@
+package biweekly.benchmark;
+
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biweekly.util.ICalDateFormat;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Measures how long it takes to format and parse date strings.
+ * @author Michael Angstadt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateFormatBenchmark {
+	private Date date;
+	private TimeZone utc, newYork;
+
+	@Setup
+	public void setup() {
+		date = new Date(1371412800000L);
+		utc = TimeZone.getTimeZone("UTC");
+		newYork = TimeZone.getTimeZone("America/New_York");
+	}
+
+	@Benchmark
+	public String formatUtc() {
+		return ICalDateFormat.UTC_TIME_BASIC.format(date, utc);
+	}
+
+	@Benchmark
+	public String formatLocal() {
+		return ICalDateFormat.DATE_TIME_BASIC_WITHOUT_TZ.format(date, newYork);
+	}
+
+	@Benchmark
+	public String formatDate() {
+		return ICalDateFormat.DATE_BASIC.format(date, newYork);
+	}
+
+	@Benchmark
+	public Date parseUtc() {
+		return ICalDateFormat.parse("20130616T200000Z");
+	}
+
+	@Benchmark
+	public Date parseLocal() {
+		return ICalDateFormat.parse("20130616T160000", newYork);
+	}
+
+	@Benchmark
+	public Date parseExtended() {
+		return ICalDateFormat.parse("2013-06-16T16:00:00-04:00");
+	}
+}
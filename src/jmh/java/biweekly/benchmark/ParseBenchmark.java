@@ -0,0 +1,103 @@
+package biweekly.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biweekly.Biweekly;
+import biweekly.ICalendar;
+import biweekly.io.json.JCalReader;
+import biweekly.io.text.ICalReader;
+import biweekly.io.xml.XCalReader;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Measures how long it takes to parse iCalendar objects of various sizes in
+ * each of the supported formats.
+ * @author Michael Angstadt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+	@Param({ "10", "100", "1000" })
+	public int components;
+
+	private String text, xml, json;
+
+	@Setup
+	public void setup() {
+		ICalendar ical = new CalendarGenerator(components).generate(components);
+		text = Biweekly.write(ical).go();
+		xml = Biweekly.writeXml(ical).go();
+		json = Biweekly.writeJson(ical).go();
+	}
+
+	@Benchmark
+	public ICalendar text() throws IOException {
+		ICalReader reader = new ICalReader(text);
+		try {
+			return reader.readNext();
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Benchmark
+	public ICalendar xml() throws IOException {
+		XCalReader reader = new XCalReader(xml);
+		try {
+			return reader.readNext();
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Benchmark
+	public ICalendar json() throws IOException {
+		JCalReader reader = new JCalReader(json);
+		try {
+			return reader.readNext();
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package biweekly.benchmark;
+
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import biweekly.component.VEvent;
+import biweekly.util.DayOfWeek;
+import biweekly.util.Frequency;
+import biweekly.util.Google2445Utils;
+import biweekly.util.Recurrence;
+import biweekly.util.com.google.ical.compat.javautil.DateIterator;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Measures how long it takes to compute the first 500 occurrences of common
+ * recurrence rule shapes.
+ * @author Michael Angstadt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecurrenceBenchmark {
+	private static final int OCCURRENCES = 500;
+
+	@Param({ "daily", "weekly", "monthly", "yearly", "hourly" })
+	public String shape;
+
+	private VEvent event;
+	private TimeZone timezone;
+
+	@Setup
+	public void setup() {
+		Recurrence recur;
+		if ("daily".equals(shape)) {
+			recur = new Recurrence.Builder(Frequency.DAILY).build();
+		} else if ("weekly".equals(shape)) {
+			recur = new Recurrence.Builder(Frequency.WEEKLY).byDay(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY).build();
+		} else if ("monthly".equals(shape)) {
+			recur = new Recurrence.Builder(Frequency.MONTHLY).byDay(-1, DayOfWeek.FRIDAY).build();
+		} else if ("yearly".equals(shape)) {
+			recur = new Recurrence.Builder(Frequency.YEARLY).byMonth(3).byDay(2, DayOfWeek.SUNDAY).build();
+		} else {
+			recur = new Recurrence.Builder(Frequency.HOURLY).interval(3).byHour(9, 12, 15).build();
+		}
+
+		event = new VEvent();
+		event.setDateStart(new Date(1514797200000L)); //2018-01-01 09:00 UTC
+		event.setRecurrenceRule(recur);
+		timezone = TimeZone.getTimeZone("America/New_York");
+	}
+
+	@Benchmark
+	public void iterate(Blackhole blackhole) {
+		DateIterator it = Google2445Utils.getDateIterator(event, timezone);
+		for (int i = 0; i < OCCURRENCES && it.hasNext(); i++) {
+			blackhole.consume(it.next());
+		}
+	}
+}
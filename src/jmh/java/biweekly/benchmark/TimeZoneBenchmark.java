@@ -0,0 +1,87 @@
+package biweekly.benchmark;
+
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biweekly.io.ICalTimeZone;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Measures how long it takes an {@link ICalTimeZone} to calculate UTC
+ * offsets.
+ * @author Michael Angstadt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeZoneBenchmark {
+	private static final long START = 946684800000L; //2000-01-01
+	private static final long STEP = 7L * 24 * 60 * 60 * 1000 + 12345;
+
+	private ICalTimeZone timezone;
+	private long instant;
+	private int day;
+
+	@Setup
+	public void setup() {
+		timezone = new ICalTimeZone(CalendarGenerator.newYork());
+		instant = START;
+		day = 0;
+	}
+
+	@Benchmark
+	public int utcInstant() {
+		instant += STEP;
+		if (instant > START + 30L * 365 * 24 * 60 * 60 * 1000) {
+			instant = START;
+		}
+		return timezone.getOffset(instant);
+	}
+
+	@Benchmark
+	public int localFields() {
+		day = (day + 1) % (28 * 12 * 30);
+		int year = 2000 + day / (28 * 12);
+		int month = (day / 28) % 12;
+		int date = 1 + day % 28;
+		return timezone.getOffset(GregorianCalendar.AD, year, month, date, GregorianCalendar.SUNDAY, 9 * 60 * 60 * 1000);
+	}
+}
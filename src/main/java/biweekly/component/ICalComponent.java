@@ -4,6 +4,7 @@ import java.lang.reflect.Constructor;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -709,11 +710,42 @@ public abstract class ICalComponent {
 				return false;
 			}
 
-			List<V> otherValueCopy = new ArrayList<V>(otherValue);
-			for (V property : value) {
-				if (!otherValueCopy.remove(property)) {
-					return false;
-				}
+			if (!containSameElements(value, otherValue)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determines if two lists of the same size contain the same elements,
+	 * regardless of order. The elements are counted using a hash map, so this
+	 * runs in linear time.
+	 * @param list1 the first list
+	 * @param list2 the second list
+	 * @return true if they contain the same elements, false if not
+	 */
+	private static <V> boolean containSameElements(List<V> list1, List<V> list2) {
+		if (list1.size() == 1) {
+			return list1.get(0).equals(list2.get(0));
+		}
+
+		Map<V, Integer> counts = new HashMap<V, Integer>(list1.size() * 2);
+		for (V element : list1) {
+			Integer count = counts.get(element);
+			counts.put(element, (count == null) ? 1 : count + 1);
+		}
+
+		for (V element : list2) {
+			Integer count = counts.get(element);
+			if (count == null) {
+				return false;
+			}
+
+			if (count == 1) {
+				counts.remove(element);
+			} else {
+				counts.put(element, count - 1);
 			}
 		}
 		return true;
@@ -1679,6 +1679,28 @@ public class VTodo extends ICalComponent {
 		return Google2445Utils.getDateIterator(this, timezone);
 	}
 
+	/**
+	 * <p>
+	 * Computes the dates of this component that fall within the given time
+	 * window. The dates are the same as those returned by
+	 * {@link #getDateIterator}, but they are computed in bulk, which is faster.
+	 * </p>
+	 * <p>
+	 * In order for {@link RecurrenceRule} and {@link ExceptionRule} properties
+	 * to be included, a {@link DateStart} property must be defined.
+	 * </p>
+	 * @param start the start of the window (inclusive)
+	 * @param end the end of the window (exclusive)
+	 * @param timezone the timezone to iterate in. This is needed in order to
+	 * adjust for when the iterator passes over a daylight savings boundary.
+	 * This parameter is ignored if the start date does not have a time
+	 * component.
+	 * @return the dates, in ascending order (in milliseconds since the epoch)
+	 */
+	public long[] occurrencesBetween(Date start, Date end, TimeZone timezone) {
+		return Google2445Utils.occurrencesBetween(this, start, end, timezone);
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	protected void validate(List<ICalComponent> components, ICalVersion version, List<ValidationWarning> warnings) {
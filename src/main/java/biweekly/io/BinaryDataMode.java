@@ -0,0 +1,56 @@
+package biweekly.io;
+
+import biweekly.property.BinaryProperty;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Defines how the values of binary properties (such as ATTACH) are handled
+ * when an iCalendar object is parsed.
+ * @author Michael Angstadt
+ * @see StreamReader#setBinaryDataMode
+ */
+public enum BinaryDataMode {
+	/**
+	 * Base64-decode the data while parsing (default).
+	 */
+	DECODE,
+
+	/**
+	 * Keep the data in its base64-encoded form, and decode it only when
+	 * {@link BinaryProperty#getData} is called. If the property is written
+	 * without its data ever being accessed, the encoded data is written as-is.
+	 */
+	LAZY,
+
+	/**
+	 * Discard the data. The property and its parameters (such as the format
+	 * type) are still parsed. Because the property no longer has a value, it
+	 * is reported as having no value when the iCalendar object is validated
+	 * and it is written with an empty value.
+	 */
+	SKIP
+}
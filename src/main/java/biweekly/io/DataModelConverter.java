@@ -20,6 +20,7 @@ import biweekly.property.ValuedProperty;
 import biweekly.util.DateTimeComponents;
 import biweekly.util.ICalDate;
 import biweekly.util.UtcOffset;
+import biweekly.util.com.google.ical.util.TimeUtils;
 import biweekly.util.com.google.ical.values.DateTimeValue;
 
 /*
@@ -53,6 +54,8 @@ import biweekly.util.com.google.ical.values.DateTimeValue;
  * @author Michael Angstadt
  */
 public final class DataModelConverter {
+	private static final long EPOCH_SECS = TimeUtils.fixedFromGregorian(1970, 1, 1) * 24L * 60 * 60;
+
 	/**
 	 * Converts vCalendar timezone information to an iCalendar {@link VTimezone}
 	 * component.
@@ -110,22 +113,97 @@ public final class DataModelConverter {
 	 * @return the vCalendar properties
 	 */
 	public static VCalTimezoneProperties convert(VTimezone timezone, List<Date> dates) {
-		List<Daylight> daylights = new ArrayList<Daylight>();
-		Timezone tz = null;
 		if (dates.isEmpty()) {
-			return new VCalTimezoneProperties(daylights, tz);
+			return new VCalTimezoneProperties(new ArrayList<Daylight>(), null);
 		}
 
-		ICalTimeZone icalTz = new ICalTimeZone(timezone);
+		DaylightCollector collector = new DaylightCollector(timezone);
 		Collections.sort(dates);
-		Set<DateTimeValue> daylightStartDates = new HashSet<DateTimeValue>();
-		boolean zeroObservanceUsed = false;
 		for (Date date : dates) {
+			collector.add(date);
+		}
+		return collector.build();
+	}
+
+	/**
+	 * <p>
+	 * Converts an iCalendar {@link VTimezone} component into the appropriate
+	 * vCalendar properties, using a date range instead of a list of individual
+	 * dates.
+	 * </p>
+	 * <p>
+	 * A DAYLIGHT property is generated for every daylight savings period that
+	 * overlaps the given range, so the amount of work done is proportional to
+	 * the number of timezone transitions in the range, not the number of date
+	 * values in the vCalendar object.
+	 * </p>
+	 * @param timezone the TIMEZONE component
+	 * @param start the earliest date value in the vCalendar object that is
+	 * effected by the timezone (inclusive)
+	 * @param end the latest date value in the vCalendar object that is effected
+	 * by the timezone (inclusive)
+	 * @return the vCalendar properties
+	 */
+	public static VCalTimezoneProperties convert(VTimezone timezone, Date start, Date end) {
+		if (start == null || end == null || start.after(end)) {
+			return new VCalTimezoneProperties(new ArrayList<Daylight>(), null);
+		}
+
+		/*
+		 * Probe the start of the range, and then every observance transition
+		 * that comes after it, until the end of the range is passed. Each
+		 * probe falls into a different observance period.
+		 */
+		DaylightCollector collector = new DaylightCollector(timezone);
+		Date probe = start;
+		while (true) {
+			collector.add(probe);
+
+			DateTimeValue next = collector.icalTz.getNextTransitionStart(probe);
+			if (next == null) {
+				break;
+			}
+
+			long nextTime = toLocalMillis(next);
+			if (nextTime <= probe.getTime() || nextTime > end.getTime()) {
+				break;
+			}
+
+			probe = new Date(nextTime);
+		}
+		return collector.build();
+	}
+
+	/**
+	 * Accumulates the vCalendar timezone properties that apply to a series of
+	 * chronologically-ordered dates.
+	 */
+	private static class DaylightCollector {
+		private final ICalTimeZone icalTz;
+		private final List<Daylight> daylights = new ArrayList<Daylight>();
+		private final Set<DateTimeValue> daylightStartDates = new HashSet<DateTimeValue>();
+		private Timezone tz;
+		private boolean zeroObservanceUsed = false;
+
+		public DaylightCollector(VTimezone timezone) {
+			icalTz = new ICalTimeZone(timezone);
+		}
+
+		/**
+		 * Records a date.
+		 * @param date the date (must not come before any previously added
+		 * dates)
+		 */
+		public void add(Date date) {
 			Boundary boundary = icalTz.getObservanceBoundary(date);
+			if (boundary == null) {
+				return;
+			}
+
 			Observance observance = boundary.getObservanceIn();
 			Observance observanceAfter = boundary.getObservanceAfter();
 			if (observance == null && observanceAfter == null) {
-				continue;
+				return;
 			}
 
 			if (observance == null) {
@@ -149,7 +227,7 @@ public final class DataModelConverter {
 					}
 				}
 
-				continue;
+				return;
 			}
 
 			if (observance instanceof StandardTime) {
@@ -157,7 +235,7 @@ public final class DataModelConverter {
 				if (offset != null) {
 					tz = new Timezone(offset);
 				}
-				continue;
+				return;
 			}
 
 			if (observance instanceof DaylightSavingsTime && !daylightStartDates.contains(boundary.getObservanceInStart())) {
@@ -174,23 +252,39 @@ public final class DataModelConverter {
 				Daylight daylight = new Daylight(true, offset, convert(start), convert(end), standardName, daylightName);
 				daylights.add(daylight);
 				daylightStartDates.add(start);
-				continue;
 			}
 		}
 
-		if (tz == null) {
-			int rawOffset = icalTz.getRawOffset();
-			UtcOffset offset = new UtcOffset(rawOffset);
-			tz = new Timezone(offset);
-		}
+		/**
+		 * Builds the vCalendar properties from the recorded dates.
+		 * @return the vCalendar properties
+		 */
+		public VCalTimezoneProperties build() {
+			if (tz == null) {
+				int rawOffset = icalTz.getRawOffset();
+				UtcOffset offset = new UtcOffset(rawOffset);
+				tz = new Timezone(offset);
+			}
+
+			if (daylights.isEmpty()) {
+				Daylight daylight = new Daylight();
+				daylight.setDaylight(false);
+				daylights.add(daylight);
+			}
 
-		if (daylights.isEmpty()) {
-			Daylight daylight = new Daylight();
-			daylight.setDaylight(false);
-			daylights.add(daylight);
+			return new VCalTimezoneProperties(daylights, tz);
 		}
+	}
 
-		return new VCalTimezoneProperties(daylights, tz);
+	/**
+	 * Converts a local date-time value to the millisecond representation that
+	 * {@link ICalTimeZone#getObservanceBoundary} expects (the local date-time
+	 * fields expressed as if they were in UTC).
+	 * @param value the local date-time value
+	 * @return the milliseconds
+	 */
+	private static long toLocalMillis(DateTimeValue value) {
+		return (TimeUtils.secsSinceEpoch(value) - EPOCH_SECS) * 1000;
 	}
 
 	private static UtcOffset getOffset(UtcOffsetProperty property) {
@@ -5,17 +5,14 @@ import static biweekly.util.Google2445Utils.convertFromRawComponents;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.TimeZone;
 
@@ -34,9 +31,8 @@ import biweekly.util.Recurrence;
 import biweekly.util.UtcOffset;
 import biweekly.util.com.google.ical.iter.RecurrenceIterator;
 import biweekly.util.com.google.ical.iter.RecurrenceIteratorFactory;
-import biweekly.util.com.google.ical.util.DTBuilder;
+import biweekly.util.com.google.ical.util.TimeUtils;
 import biweekly.util.com.google.ical.values.DateTimeValue;
-import biweekly.util.com.google.ical.values.DateTimeValueImpl;
 import biweekly.util.com.google.ical.values.DateValue;
 
 /*
@@ -65,31 +61,85 @@ import biweekly.util.com.google.ical.values.DateValue;
  */
 
 /**
- * A timezone that is based on an iCalendar {@link VTimezone} component. This
- * class is not thread safe.
+ * <p>
+ * A timezone that is based on an iCalendar {@link VTimezone} component.
+ * </p>
+ * <p>
+ * The observances in the component are compiled into a table of transition
+ * instants when the object is created. The table covers every transition up
+ * to the end of a configurable window (see
+ * {@link #ICalTimeZone(VTimezone, int)}) and is extended automatically when a
+ * date beyond that window is queried. Offset lookups are binary searches over
+ * this table, so instances of this class are thread safe and can be shared.
+ * </p>
  * @author Michael Angstadt
  */
 @SuppressWarnings("serial")
 public class ICalTimeZone extends TimeZone {
+	/**
+	 * The default number of years past the current year that the transition
+	 * table is computed for.
+	 */
+	public static final int DEFAULT_PRECOMPUTE_YEARS = 30;
+
+	private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+	private static final int EPOCH_FIXED = TimeUtils.fixedFromGregorian(1970, 1, 1);
+	private static final long EPOCH_SECS = EPOCH_FIXED * DAY_MILLIS / 1000;
+	private static final int MAX_YEAR = 9999;
+
 	private final VTimezone component;
-	private final Map<Observance, List<DateValue>> observanceDateCache;
 	final List<Observance> sortedObservances;
+	private final UtcOffset[] offsetsFrom;
+	private final UtcOffset[] offsetsTo;
+	private final boolean[] daylight;
+	private final boolean useDaylightTime;
+	private final int offsetBeforeFirstObservance;
+	private final int precomputeYears;
 	private final int rawOffset;
 	private final TimeZone utc = TimeZone.getTimeZone("UTC");
-	private final Calendar utcCalendar = Calendar.getInstance(utc);
+	private volatile TransitionTable table;
 
 	/**
 	 * Creates a new timezone based on an iCalendar VTIMEZONE component.
 	 * @param component the VTIMEZONE component to wrap
 	 */
 	public ICalTimeZone(VTimezone component) {
-		this.component = component;
+		this(component, DEFAULT_PRECOMPUTE_YEARS);
+	}
 
-		int numObservances = component.getStandardTimes().size() + component.getDaylightSavingsTime().size();
-		observanceDateCache = new IdentityHashMap<Observance, List<DateValue>>(numObservances);
+	/**
+	 * Creates a new timezone based on an iCalendar VTIMEZONE component.
+	 * @param component the VTIMEZONE component to wrap
+	 * @param precomputeYears the number of years past the current year for
+	 * which to compute the timezone's transitions up front (transitions past
+	 * this point are computed when they are first needed)
+	 */
+	public ICalTimeZone(VTimezone component, int precomputeYears) {
+		this.component = component;
+		this.precomputeYears = Math.max(precomputeYears, 1);
 
 		sortedObservances = calculateSortedObservances();
 
+		int size = sortedObservances.size();
+		offsetsFrom = new UtcOffset[size];
+		offsetsTo = new UtcOffset[size];
+		daylight = new boolean[size];
+		boolean useDaylightTime = false;
+		for (int i = 0; i < size; i++) {
+			Observance observance = sortedObservances.get(i);
+			offsetsFrom[i] = getValue(observance.getTimezoneOffsetFrom());
+			offsetsTo[i] = getValue(observance.getTimezoneOffsetTo());
+			daylight[i] = (observance instanceof DaylightSavingsTime);
+			if (daylight[i]) {
+				useDaylightTime = true;
+			}
+		}
+		this.useDaylightTime = useDaylightTime;
+		offsetBeforeFirstObservance = calculateOffsetBeforeFirstObservance();
+
+		int currentYear = toDateTimeValue(System.currentTimeMillis()).year();
+		table = buildTable(currentYear + this.precomputeYears);
+
 		rawOffset = calculateRawOffset();
 
 		String id = getValue(component.getTimezoneId());
@@ -134,6 +184,29 @@ public class ICalTimeZone extends TimeZone {
 		return Collections.unmodifiableList(sortedObservances);
 	}
 
+	/**
+	 * Determines the offset to use for dates that come before the earliest
+	 * observance. This is the TZOFFSETFROM value of the first observance that
+	 * has both a DTSTART and a TZOFFSETFROM property.
+	 * @return the offset (in milliseconds)
+	 */
+	private int calculateOffsetBeforeFirstObservance() {
+		for (int i = 0; i < sortedObservances.size(); i++) {
+			Observance observance = sortedObservances.get(i);
+			if (getValue(observance.getDateStart()) == null) {
+				continue;
+			}
+
+			UtcOffset offsetFrom = offsetsFrom[i];
+			if (offsetFrom == null) {
+				continue;
+			}
+
+			return (int) offsetFrom.getMillis();
+		}
+		return 0;
+	}
+
 	@Override
 	public String getDisplayName(boolean daylight, int style, Locale locale) {
 		ListIterator<Observance> it = sortedObservances.listIterator(sortedObservances.size());
@@ -166,36 +239,136 @@ public class ICalTimeZone extends TimeZone {
 
 	@Override
 	public int getOffset(int era, int year, int month, int day, int dayOfWeek, int millis) {
-		int hour = millis / 1000 / 60 / 60;
-		millis -= hour * 1000 * 60 * 60;
-		int minute = millis / 1000 / 60;
-		millis -= minute * 1000 * 60;
-		int second = millis / 1000;
+		long local = (TimeUtils.fixedFromGregorian(year, month + 1, day) - EPOCH_FIXED) * DAY_MILLIS + millis;
+		TransitionTable table = getTable(local);
 
-		Observance observance = getObservance(year, month + 1, day, hour, minute, second);
-		if (observance == null) {
-			/*
-			 * Find the first observance that has a DTSTART property and a
-			 * TZOFFSETFROM property.
-			 */
-			for (Observance obs : sortedObservances) {
-				ICalDate dateStart = getValue(obs.getDateStart());
-				if (dateStart == null) {
-					continue;
+		int index = table.local.indexOf(local);
+		return (index < 0) ? offsetBeforeFirstObservance : table.local.offsets[index];
+	}
+
+	@Override
+	public int getOffset(long date) {
+		TransitionTable table = getTable(date + DAY_MILLIS);
+
+		int index = table.utc.indexOf(date);
+		return (index < 0) ? offsetBeforeFirstObservance : table.utc.offsets[index];
+	}
+
+	/**
+	 * <p>
+	 * Converts local times to UTC in bulk. Consecutive times that fall between
+	 * the same two transitions are converted without searching the transition
+	 * table, so this is fastest when the times are roughly in order.
+	 * </p>
+	 * <p>
+	 * Local times that are skipped when the clocks move forward are
+	 * interpreted using the offset from before the transition. Local times that
+	 * are repeated when the clocks move back are interpreted using the offset
+	 * from after the transition. This is the same as what
+	 * {@link java.util.GregorianCalendar} does for the JVM's timezones. Local
+	 * times before the first transition are interpreted using the raw offset,
+	 * which is also what {@link java.util.GregorianCalendar} does.
+	 * </p>
+	 * @param times the local times (in milliseconds since the epoch, as if the
+	 * local times were in UTC). Each time is replaced with its UTC time.
+	 * @param count the number of times in the array
+	 */
+	void toUtc(long[] times, int count) {
+		if (count == 0) {
+			return;
+		}
+
+		long max = Long.MIN_VALUE;
+		for (int i = 0; i < count; i++) {
+			if (times[i] > max) {
+				max = times[i];
+			}
+		}
+
+		//include the transitions that a repeated local time may belong to
+		Transitions local = getTable(max + DAY_MILLIS).local;
+		long[] instants = local.instants;
+		int[] offsets = local.offsets;
+
+		//the offset that applies to all times in the range [from, to)
+		long from = Long.MAX_VALUE, to = Long.MIN_VALUE;
+		int offset = 0;
+		for (int i = 0; i < count; i++) {
+			long time = times[i];
+			if (time < from || time >= to) {
+				int index = local.indexOf(time);
+				int next = nextTransition(local, index);
+				if (next < instants.length && time >= effectiveStart(local, next)) {
+					//the time is repeated and belongs to the next transition
+					index = next;
+					next = nextTransition(local, index);
 				}
 
-				UtcOffset offsetFrom = getValue(obs.getTimezoneOffsetFrom());
-				if (offsetFrom == null) {
-					continue;
+				if (index < 0) {
+					offset = rawOffset;
+					from = Long.MIN_VALUE;
+				} else {
+					offset = offsets[index];
+					from = effectiveStart(local, index);
 				}
+				to = (next < instants.length) ? effectiveStart(local, next) : Long.MAX_VALUE;
+
+				if (index >= 0) {
+					int gap = offset - offsetBefore(local, index);
+					if (gap > 0) {
+						//the time may have been skipped
+						if (time < from + gap) {
+							offset -= gap;
+							to = from + gap;
+						} else {
+							from += gap;
+						}
+					}
+				}
+			}
 
-				return (int) offsetFrom.getMillis();
+			times[i] = time - offset;
+		}
+	}
+
+	/**
+	 * Gets the index of the first transition that occurs after the given
+	 * transition.
+	 * @param transitions the transitions
+	 * @param index the index of the transition or -1 for the start of the table
+	 * @return the index of the next transition (may be out of bounds)
+	 */
+	private static int nextTransition(Transitions transitions, int index) {
+		int next = index + 1;
+		if (index >= 0) {
+			while (next < transitions.instants.length && transitions.instants[next] == transitions.instants[index]) {
+				next++;
 			}
-			return 0;
 		}
+		return next;
+	}
 
-		UtcOffset offsetTo = getValue(observance.getTimezoneOffsetTo());
-		return (offsetTo == null) ? 0 : (int) offsetTo.getMillis();
+	/**
+	 * Gets the first local time that a transition applies to. This is earlier
+	 * than the transition's local onset if the transition moves the clocks
+	 * back, because the repeated local times are assigned to the new offset.
+	 * @param transitions the local transitions
+	 * @param index the index of the transition
+	 * @return the local time
+	 */
+	private long effectiveStart(Transitions transitions, int index) {
+		int gap = transitions.offsets[index] - offsetBefore(transitions, index);
+		return transitions.instants[index] + Math.min(gap, 0);
+	}
+
+	/**
+	 * Gets the offset that was in effect right before a transition.
+	 * @param transitions the transitions
+	 * @param index the index of the transition
+	 * @return the offset in milliseconds
+	 */
+	private int offsetBefore(Transitions transitions, int index) {
+		return (int) offsetMillis(offsetsFrom[transitions.observances[index]]);
 	}
 
 	@Override
@@ -207,12 +380,12 @@ public class ICalTimeZone extends TimeZone {
 		Observance observance = getObservance(new Date());
 		if (observance == null) {
 			//return the offset of the first STANDARD component
-			for (Observance obs : sortedObservances) {
-				if (!(obs instanceof StandardTime)) {
+			for (int i = 0; i < sortedObservances.size(); i++) {
+				if (daylight[i]) {
 					continue;
 				}
 
-				UtcOffset offsetTo = getValue(obs.getTimezoneOffsetTo());
+				UtcOffset offsetTo = offsetsTo[i];
 				if (offsetTo == null) {
 					continue;
 				}
@@ -228,12 +401,15 @@ public class ICalTimeZone extends TimeZone {
 
 	@Override
 	public boolean inDaylightTime(Date date) {
-		if (!useDaylightTime()) {
+		if (!useDaylightTime) {
 			return false;
 		}
 
-		Observance observance = getObservance(date);
-		return (observance == null) ? false : (observance instanceof DaylightSavingsTime);
+		long time = date.getTime();
+		TransitionTable table = getTable(time);
+
+		int index = table.local.indexOf(time);
+		return (index < 0) ? false : daylight[table.local.observances[index]];
 	}
 
 	/**
@@ -247,29 +423,100 @@ public class ICalTimeZone extends TimeZone {
 
 	@Override
 	public boolean useDaylightTime() {
-		for (Observance observance : sortedObservances) {
-			if (observance instanceof DaylightSavingsTime) {
-				return true;
-			}
-		}
-		return false;
+		return useDaylightTime;
 	}
 
 	/**
-	 * Gets the timezone information of a date.
+	 * Gets the timezone information of a date. Note that the date's UTC
+	 * date/time components are compared against the local times of the
+	 * observances' onsets.
 	 * @param date the date
 	 * @return the timezone information
 	 */
 	public Boundary getObservanceBoundary(Date date) {
-		utcCalendar.setTime(date);
-		int year = utcCalendar.get(Calendar.YEAR);
-		int month = utcCalendar.get(Calendar.MONTH) + 1;
-		int day = utcCalendar.get(Calendar.DATE);
-		int hour = utcCalendar.get(Calendar.HOUR);
-		int minute = utcCalendar.get(Calendar.MINUTE);
-		int second = utcCalendar.get(Calendar.SECOND);
+		if (sortedObservances.isEmpty()) {
+			return null;
+		}
+
+		long local = date.getTime();
+		TransitionTable table = getTable(local);
+
+		int closestIndex = -1;
+		Observance observanceIn = null;
+		DateTimeValue observanceInStart = null;
+		int index = table.local.indexOf(local);
+		if (index >= 0) {
+			closestIndex = table.local.observances[index];
+			observanceIn = sortedObservances.get(closestIndex);
+			observanceInStart = toDateTimeValue(table.local.instants[index]);
+		}
+
+		Observance observanceAfter = null;
+		DateTimeValue observanceAfterStart = null;
+		int afterIndex = closestIndex + 1;
+		if (afterIndex < sortedObservances.size()) {
+			observanceAfter = sortedObservances.get(afterIndex);
+
+			//find the first onset of the observance that comes after the given date
+			while (true) {
+				long[] onsets = table.observanceOnsets[afterIndex];
+				int pos = Arrays.binarySearch(onsets, local);
+				pos = (pos < 0) ? -(pos + 1) : pos + 1;
+				while (pos < onsets.length && onsets[pos] <= local) {
+					pos++;
+				}
+
+				if (pos < onsets.length) {
+					observanceAfterStart = toDateTimeValue(onsets[pos]);
+					break;
+				}
+
+				if (table.exhausted[afterIndex]) {
+					break;
+				}
+
+				//the observance has more onsets that haven't been computed yet
+				table = extendTable(table.coveredUntil + 1);
+			}
+		}
+
+		return new Boundary(observanceInStart, observanceIn, observanceAfterStart, observanceAfter);
+	}
+
+	/**
+	 * Gets the local start time of the first observance transition that comes
+	 * after the given date. Like {@link #getObservanceBoundary}, the date's UTC
+	 * date/time components are compared against the local times of the
+	 * observances' onsets.
+	 * @param date the date
+	 * @return the start time of the next transition or null if there are no
+	 * more transitions
+	 */
+	public DateTimeValue getNextTransitionStart(Date date) {
+		if (sortedObservances.isEmpty()) {
+			return null;
+		}
+
+		long local = date.getTime();
+		TransitionTable table = getTable(local);
+		while (true) {
+			long[] instants = table.local.instants;
+			int pos = Math.max(table.local.indexOf(local), 0);
+			while (pos < instants.length && instants[pos] <= local) {
+				pos++;
+			}
 
-		return getObservanceBoundary(year, month, day, hour, minute, second);
+			if (pos < instants.length) {
+				return toDateTimeValue(instants[pos]);
+			}
+
+			if (table.coveredUntil == Long.MAX_VALUE) {
+				return null;
+			}
+
+			//more transitions exist that haven't been computed yet
+			table = extendTable(table.coveredUntil + 1);
+		}
 	}
 
 	/**
@@ -298,194 +545,127 @@ public class ICalTimeZone extends TimeZone {
 	}
 
 	/**
-	 * Gets the observance that a date is effected by.
-	 * @param year the year
-	 * @param month the month (1-12)
-	 * @param day the day of the month
-	 * @param hour the hour
-	 * @param minute the minute
-	 * @param second the second
-	 * @return the observance or null if an observance cannot be found
+	 * Gets a transition table that covers the given time, extending the
+	 * current table if necessary.
+	 * @param local the time (in local time)
+	 * @return the transition table
 	 */
-	private Observance getObservance(int year, int month, int day, int hour, int minute, int second) {
-		Boundary boundary = getObservanceBoundary(year, month, day, hour, minute, second);
-		return (boundary == null) ? null : boundary.getObservanceIn();
+	private TransitionTable getTable(long local) {
+		TransitionTable table = this.table;
+		return (local <= table.coveredUntil) ? table : extendTable(local);
 	}
 
 	/**
-	 * Gets the observance information of a date.
-	 * @param year the year
-	 * @param month the month (1-12)
-	 * @param day the day of the month
-	 * @param hour the hour
-	 * @param minute the minute
-	 * @param second the second
-	 * @return the observance information or null if none was found
+	 * Replaces the current transition table with one that covers the given
+	 * time.
+	 * @param local the time (in local time)
+	 * @return the new transition table
 	 */
-	private Boundary getObservanceBoundary(int year, int month, int day, int hour, int minute, int second) {
-		if (sortedObservances.isEmpty()) {
-			return null;
-		}
-
-		DateValue givenTime = new DateTimeValueImpl(year, month, day, hour, minute, second);
-		int closestIndex = -1;
-		Observance closest = null;
-		DateValue closestValue = null;
-		for (int i = 0; i < sortedObservances.size(); i++) {
-			Observance observance = sortedObservances.get(i);
-
-			//skip observances that start after the given time
-			ICalDate dtstart = getValue(observance.getDateStart());
-			if (dtstart != null) {
-				DateValue dtstartValue = convertFromRawComponents(dtstart);
-				if (dtstartValue.compareTo(givenTime) > 0) {
-					continue;
-				}
-			}
-
-			DateValue dateValue = getObservanceDateClosestToTheGivenDate(observance, givenTime, false);
-			if (dateValue != null && (closestValue == null || closestValue.compareTo(dateValue) < 0)) {
-				closestValue = dateValue;
-				closest = observance;
-				closestIndex = i;
-			}
-		}
-
-		Observance observanceIn = closest;
-		DateValue observanceInStart = closestValue;
-		Observance observanceAfter = null;
-		DateValue observanceAfterStart = null;
-		if (closestIndex < sortedObservances.size() - 1) {
-			observanceAfter = sortedObservances.get(closestIndex + 1);
-			observanceAfterStart = getObservanceDateClosestToTheGivenDate(observanceAfter, givenTime, true);
-		}
-
-		/*
-		 * If any of the DTSTART properties are missing their time components,
-		 * then observanceInStart/observanceAfterStart could be a DateValue
-		 * object. If so, convert it to a DateTimeValue object (see Issue 77).
-		 */
-		if (observanceInStart != null && !(observanceInStart instanceof DateTimeValue)) {
-			observanceInStart = new DTBuilder(observanceInStart).toDateTime();
-		}
-		if (observanceAfterStart != null && !(observanceAfterStart instanceof DateTimeValue)) {
-			observanceAfterStart = new DTBuilder(observanceAfterStart).toDateTime();
-		}
-
-		return new Boundary((DateTimeValue) observanceInStart, observanceIn, (DateTimeValue) observanceAfterStart, observanceAfter);
+	private synchronized TransitionTable extendTable(long local) {
+		TransitionTable table = this.table;
+		if (local <= table.coveredUntil) {
+			//another thread already extended the table
+			return table;
+		}
+
+		int year = (local >= (TimeUtils.fixedFromGregorian(MAX_YEAR, 1, 1) - EPOCH_FIXED) * DAY_MILLIS) ? MAX_YEAR : toDateTimeValue(local).year();
+		int untilYear = Math.max(year, table.untilYear + precomputeYears);
+		table = buildTable(untilYear);
+		this.table = table;
+		return table;
 	}
 
 	/**
-	 * Iterates through each of the timezone boundary dates defined by the given
-	 * observance and finds the date that comes closest to the given date.
-	 * @param observance the observance
-	 * @param givenDate the given date
-	 * @param after true to return the closest date <b>greater than</b> the
-	 * given date, false to return the closest date <b>less than or equal to</b>
-	 * the given date.
-	 * @return the closest date
+	 * Computes all of the timezone's transitions up to the end of the given
+	 * year.
+	 * @param untilYear the year
+	 * @return the transition table
 	 */
-	private DateValue getObservanceDateClosestToTheGivenDate(Observance observance, DateValue givenDate, boolean after) {
-		List<DateValue> dateCache = observanceDateCache.get(observance);
-		if (dateCache == null) {
-			dateCache = new ArrayList<DateValue>();
-			observanceDateCache.put(observance, dateCache);
-		}
-
-		if (dateCache.isEmpty()) {
-			DateValue prev = null, cur = null;
-			boolean stopped = false;
-			RecurrenceIterator it = createIterator(observance);
+	private TransitionTable buildTable(int untilYear) {
+		untilYear = Math.min(untilYear, MAX_YEAR);
+		long until = (TimeUtils.fixedFromGregorian(untilYear + 1, 1, 1) - EPOCH_FIXED) * DAY_MILLIS - 1;
+
+		int size = sortedObservances.size();
+		long[][] observanceOnsets = new long[size][];
+		boolean[] exhausted = new boolean[size];
+		boolean complete = true;
+		int total = 0;
+		for (int i = 0; i < size; i++) {
+			long[] onsets = new long[16];
+			int count = 0;
+
+			RecurrenceIterator it = createIterator(sortedObservances.get(i));
+			exhausted[i] = true;
 			while (it.hasNext()) {
-				cur = it.next();
-				dateCache.add(cur);
-
-				if (givenDate.compareTo(cur) < 0) {
-					//stop if we have passed the givenTime
-					stopped = true;
+				long onset = toLocalMillis(it.next());
+				if (onset > until) {
+					exhausted[i] = false;
 					break;
 				}
 
-				prev = cur;
-			}
-			return after ? (stopped ? cur : null) : prev;
-		}
-
-		DateValue last = dateCache.get(dateCache.size() - 1);
-		int comparison = last.compareTo(givenDate);
-		if ((after && comparison <= 0) || comparison < 0) {
-			RecurrenceIterator it = createIterator(observance);
-
-			/*
-			 * The "advanceTo()" method skips all dates that are less than the
-			 * given date. I would have thought that we would have to call
-			 * "next()" once because we want it to skip the date that is equal
-			 * to the "last" date. But this causes all the unit tests to fail,
-			 * so I guess not.
-			 */
-			it.advanceTo(last);
-			//it.next();
-
-			DateValue prev = null, cur = null;
-			boolean stopped = false;
-			while (it.hasNext()) {
-				cur = it.next();
-				dateCache.add(cur);
-
-				if (givenDate.compareTo(cur) < 0) {
-					//stop if we have passed the givenTime
-					stopped = true;
-					break;
+				if (count == onsets.length) {
+					onsets = resize(onsets, count * 2);
 				}
+				onsets[count++] = onset;
+			}
 
-				prev = cur;
+			complete &= exhausted[i];
+			observanceOnsets[i] = resize(onsets, count);
+			total += count;
+		}
+
+		long[] utcInstants = new long[total];
+		long[] localInstants = new long[total];
+		int[] observances = new int[total];
+		int pos = 0;
+		for (int i = 0; i < size; i++) {
+			long offsetFrom = offsetMillis(offsetsFrom[i]);
+			for (long onset : observanceOnsets[i]) {
+				localInstants[pos] = onset;
+				utcInstants[pos] = onset - offsetFrom;
+				observances[pos] = i;
+				pos++;
 			}
-			return after ? (stopped ? cur : null) : prev;
 		}
 
-		/*
-		 * The date is somewhere in the cached list, so find it.
-		 * 
-		 * Note: Read the "binarySearch" method Javadoc carefully for an
-		 * explanation of its return value.
-		 */
-		int index = Collections.binarySearch(dateCache, givenDate);
-
-		if (index < 0) {
-			/*
-			 * The index where the date would be if it was inside the list.
-			 */
-			index = (index * -1) - 1;
+		Transitions utc = new Transitions(utcInstants, observances);
+		Transitions local = new Transitions(localInstants, observances);
+		long coveredUntil = (complete || untilYear >= MAX_YEAR) ? Long.MAX_VALUE : until;
+		return new TransitionTable(untilYear, coveredUntil, observanceOnsets, exhausted, utc, local);
+	}
 
-			if (after) {
-				/*
-				 * This is where the date would be if it was inside the list, so
-				 * we want to return the date value that's currently at that
-				 * position.
-				 */
-				int afterIndex = index;
+	private static long[] resize(long[] array, int length) {
+		long[] copy = new long[length];
+		System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		return copy;
+	}
 
-				return (afterIndex < dateCache.size()) ? dateCache.get(afterIndex) : null;
-			}
+	private static long offsetMillis(UtcOffset offset) {
+		return (offset == null) ? 0 : offset.getMillis();
+	}
 
-			int beforeIndex = index - 1;
-			if (beforeIndex < 0) {
-				return null;
-			}
-			if (beforeIndex >= dateCache.size()) {
-				return dateCache.get(dateCache.size() - 1);
-			}
-			return dateCache.get(beforeIndex);
-		}
+	/**
+	 * Converts a date value to the number of milliseconds since the epoch,
+	 * treating the date value as if it were in UTC.
+	 * @param value the date value
+	 * @return the milliseconds
+	 */
+	private static long toLocalMillis(DateValue value) {
+		return (TimeUtils.secsSinceEpoch(value) - EPOCH_SECS) * 1000;
+	}
 
-		/*
-		 * An exact match was found.
-		 */
-		if (after) {
-			int afterIndex = index + 1; //remember: the date must be >
-			return (afterIndex < dateCache.size()) ? dateCache.get(afterIndex) : null;
+	/**
+	 * Converts a value created with {@link #toLocalMillis} back into a date
+	 * value.
+	 * @param millis the milliseconds
+	 * @return the date value
+	 */
+	private static DateTimeValue toDateTimeValue(long millis) {
+		long secs = millis / 1000;
+		if (millis < 0 && millis % 1000 != 0) {
+			secs--;
 		}
-		return dateCache.get(index); //remember: the date must be <=
+		return TimeUtils.timeFromSecsSinceEpoch(secs + EPOCH_SECS);
 	}
 
 	/**
@@ -659,6 +839,110 @@ public class ICalTimeZone extends TimeZone {
 		protected abstract DateValue toDateValue(T next);
 	}
 
+	/**
+	 * An immutable snapshot of all the timezone's transitions up to a certain
+	 * point in time.
+	 */
+	private static final class TransitionTable {
+		private final int untilYear;
+		private final long coveredUntil;
+		private final long[][] observanceOnsets;
+		private final boolean[] exhausted;
+		private final Transitions utc, local;
+
+		/**
+		 * @param untilYear the last year the table contains transitions for
+		 * @param coveredUntil all transitions that occur at or before this
+		 * (local) time are in the table
+		 * @param observanceOnsets the onsets of each observance, in local time
+		 * (indexed the same as {@link ICalTimeZone#sortedObservances})
+		 * @param exhausted whether each observance's list of onsets is
+		 * complete
+		 * @param utc the transitions, keyed by UTC time
+		 * @param local the transitions, keyed by local time
+		 */
+		public TransitionTable(int untilYear, long coveredUntil, long[][] observanceOnsets, boolean[] exhausted, Transitions utc, Transitions local) {
+			this.untilYear = untilYear;
+			this.coveredUntil = coveredUntil;
+			this.observanceOnsets = observanceOnsets;
+			this.exhausted = exhausted;
+			this.utc = utc;
+			this.local = local;
+		}
+	}
+
+	/**
+	 * A sorted list of transition instants, along with the offset that takes
+	 * effect at each instant.
+	 */
+	private final class Transitions {
+		private final long[] instants;
+		private final int[] offsets;
+		private final int[] observances;
+
+		/**
+		 * @param instants the transition instants, in any order (this array
+		 * is not modified; the transitions are sorted into new arrays)
+		 * @param observances the index of the observance each transition
+		 * belongs to (this array is not modified)
+		 */
+		public Transitions(final long[] instants, final int[] observances) {
+			Integer[] order = new Integer[instants.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+
+			/*
+			 * If two observances have transitions at the same instant, the
+			 * transition belonging to the observance with the earlier DTSTART
+			 * wins.
+			 */
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer left, Integer right) {
+					long l = instants[left], r = instants[right];
+					if (l != r) {
+						return (l < r) ? -1 : 1;
+					}
+					return observances[left] - observances[right];
+				}
+			});
+
+			long[] sortedInstants = new long[order.length];
+			int[] sortedObservances = new int[order.length];
+			for (int i = 0; i < order.length; i++) {
+				sortedInstants[i] = instants[order[i]];
+				sortedObservances[i] = observances[order[i]];
+			}
+
+			this.instants = sortedInstants;
+			this.observances = sortedObservances;
+			offsets = new int[order.length];
+			for (int i = 0; i < order.length; i++) {
+				offsets[i] = (int) offsetMillis(offsetsTo[sortedObservances[i]]);
+			}
+		}
+
+		/**
+		 * Finds the transition that is in effect at the given instant.
+		 * @param instant the instant
+		 * @return the index of the transition or -1 if the instant comes
+		 * before all transitions
+		 */
+		public int indexOf(long instant) {
+			int index = Arrays.binarySearch(instants, instant);
+			if (index < 0) {
+				index = -(index + 1) - 1;
+			}
+
+			//move to the first transition that has the same instant
+			while (index > 0 && instants[index - 1] == instants[index]) {
+				index--;
+			}
+
+			return index;
+		}
+	}
+
 	/**
 	 * Holds the timezone observance information of a particular date.
 	 */
@@ -0,0 +1,519 @@
+package biweekly.io;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import biweekly.component.DaylightSavingsTime;
+import biweekly.component.Observance;
+import biweekly.component.StandardTime;
+import biweekly.component.VTimezone;
+import biweekly.property.RecurrenceDates;
+import biweekly.util.DateTimeComponents;
+import biweekly.util.DayOfWeek;
+import biweekly.util.Frequency;
+import biweekly.util.ICalDate;
+import biweekly.util.Recurrence;
+import biweekly.util.UtcOffset;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Generates {@link VTimezone} components from the timezone rules that are
+ * built into the JVM. Unlike {@link TzUrlDotOrgGenerator}, this class does not
+ * require network access. This class is thread-safe.
+ * </p>
+ * <p>
+ * Each transition from the given start year onward is included in the
+ * component. The transitions of the timezone's current daylight savings rules
+ * are represented by RRULE properties. All earlier transitions are grouped
+ * together using RDATE properties.
+ * </p>
+ * <p>
+ * Generated components are kept in a bounded cache. There are two ways to
+ * retrieve them:
+ * </p>
+ * <ul>
+ * <li>{@link #generateShared} returns the same component instance to every
+ * caller, without copying it. The component <b>must not be modified</b>.
+ * This is the method to use when the component is only going to be read or
+ * written, such as when assigning timezones to the dates of an iCalendar
+ * object that is about to be written.</li>
+ * <li>{@link #generate} returns a new copy of the cached component, which can
+ * be modified freely.</li>
+ * </ul>
+ * <p>
+ * The copies are made from a private instance, so even if a caller modifies
+ * a shared component, the copies returned by {@link #generate} are not
+ * affected. Cache entries are keyed by the start year and the end year of the
+ * search, so that new entries are generated when the year changes.
+ * </p>
+ * @author Michael Angstadt
+ */
+public class JvmTimezoneGenerator {
+	private static final int CACHE_SIZE = 128;
+	private static final long ONE_DAY = 24L * 60 * 60 * 1000;
+
+	/**
+	 * The number of years past the current year to search for transitions.
+	 */
+	private static final int YEARS_AHEAD = 5;
+
+	/**
+	 * The minimum number of consecutive years a daylight savings rule must be
+	 * followed in order to be represented by an RRULE.
+	 */
+	private static final int MIN_RULE_YEARS = 3;
+
+	/**
+	 * The most recently generated components.
+	 */
+	private static final Map<String, CacheEntry> cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+		private static final long serialVersionUID = -6520564874011328123L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private final int startYear;
+
+	/**
+	 * Creates a generator that includes each transition from 1970 onward.
+	 */
+	public JvmTimezoneGenerator() {
+		this(1970);
+	}
+
+	/**
+	 * Creates a new generator.
+	 * @param startYear the year to start including transitions from
+	 */
+	public JvmTimezoneGenerator(int startYear) {
+		this.startYear = startYear;
+	}
+
+	/**
+	 * Generates an iCalendar {@link VTimezone} component from a Java
+	 * {@link TimeZone} object.
+	 * @param timezone the timezone object
+	 * @return a copy of the timezone component (it can be modified)
+	 * @see #generateShared
+	 */
+	public VTimezone generate(TimeZone timezone) {
+		return generate(timezone, currentYear());
+	}
+
+	/**
+	 * Generates an iCalendar {@link VTimezone} component from a Java
+	 * {@link TimeZone} object. Unlike {@link #generate}, the component is not
+	 * copied.
+	 * @param timezone the timezone object
+	 * @return the timezone component (this object is shared and must not be
+	 * modified)
+	 */
+	public VTimezone generateShared(TimeZone timezone) {
+		return generateShared(timezone, currentYear());
+	}
+
+	/**
+	 * Generates a copy of an iCalendar {@link VTimezone} component.
+	 * @param timezone the timezone object
+	 * @param currentYear the current year
+	 * @return the timezone component
+	 */
+	VTimezone generate(TimeZone timezone, int currentYear) {
+		return getEntry(timezone, currentYear).master.copy();
+	}
+
+	/**
+	 * Generates a shared iCalendar {@link VTimezone} component.
+	 * @param timezone the timezone object
+	 * @param currentYear the current year
+	 * @return the timezone component
+	 */
+	VTimezone generateShared(TimeZone timezone, int currentYear) {
+		return getEntry(timezone, currentYear).shared;
+	}
+
+	private static int currentYear() {
+		Calendar utc = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		return utc.get(Calendar.YEAR);
+	}
+
+	/**
+	 * Gets the cache entry of a timezone, generating it if necessary.
+	 * @param timezone the timezone object
+	 * @param currentYear the current year
+	 * @return the cache entry
+	 */
+	private CacheEntry getEntry(TimeZone timezone, int currentYear) {
+		int endYear = Math.max(startYear, currentYear) + YEARS_AHEAD;
+		String key = startYear + ":" + endYear + ":" + timezone.getID();
+		synchronized (cache) {
+			CacheEntry entry = cache.get(key);
+			if (entry != null && entry.timezone.hasSameRules(timezone)) {
+				return entry;
+			}
+		}
+
+		VTimezone component = build(timezone, endYear);
+		CacheEntry entry = new CacheEntry((TimeZone) timezone.clone(), component);
+
+		synchronized (cache) {
+			cache.put(key, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Clears the internal cache of generated timezone definitions.
+	 */
+	public static void clearCache() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	private VTimezone build(TimeZone timezone, int endYear) {
+		Calendar utc = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		utc.clear();
+		utc.set(startYear, Calendar.JANUARY, 1);
+		long start = utc.getTimeInMillis();
+		start -= timezone.getOffset(start);
+		utc.set(endYear, Calendar.JANUARY, 1);
+		long end = utc.getTimeInMillis();
+
+		List<Transition> transitions = findTransitions(timezone, start, end);
+
+		/*
+		 * Find the transitions that are described by the timezone's current
+		 * daylight savings rules.
+		 */
+		Rule daylightRule = null, standardRule = null;
+		if (timezone.useDaylightTime()) {
+			daylightRule = findRule(transitions, true, endYear - 1);
+			standardRule = findRule(transitions, false, endYear - 1);
+			if (daylightRule == null || standardRule == null) {
+				daylightRule = standardRule = null;
+			}
+		}
+
+		VTimezone component = new VTimezone(timezone.getID());
+
+		/*
+		 * Group the remaining transitions by their offsets and names.
+		 */
+		Map<String, Observance> history = new LinkedHashMap<String, Observance>();
+		for (Transition transition : transitions) {
+			Rule rule = transition.daylight ? daylightRule : standardRule;
+			if (rule != null && transition.utc >= rule.first.utc) {
+				continue;
+			}
+
+			String name = name(timezone, transition.daylight);
+			String key = transition.daylight + ":" + transition.offsetFrom + ":" + transition.offsetTo + ":" + name;
+			Observance observance = history.get(key);
+			if (observance == null) {
+				observance = createObservance(component, transition, name);
+				history.put(key, observance);
+				continue;
+			}
+
+			List<RecurrenceDates> rdates = observance.getRecurrenceDates();
+			RecurrenceDates rdate;
+			if (rdates.isEmpty()) {
+				rdate = new RecurrenceDates();
+				observance.addRecurrenceDates(rdate);
+			} else {
+				rdate = rdates.get(0);
+			}
+			rdate.getDates().add(new ICalDate(transition.localStart(), true));
+		}
+
+		if (daylightRule != null) {
+			Observance observance = createObservance(component, daylightRule.first, name(timezone, true));
+			observance.setRecurrenceRule(daylightRule.toRecurrence());
+			observance = createObservance(component, standardRule.first, name(timezone, false));
+			observance.setRecurrenceRule(standardRule.toRecurrence());
+		}
+
+		return component;
+	}
+
+	/**
+	 * Finds every point in time that the timezone's UTC offset changes. The
+	 * first transition in the returned list is a pseudo-transition that
+	 * represents the state of the timezone at the start of the search.
+	 * @param timezone the timezone
+	 * @param start the start of the search
+	 * @param end the end of the search
+	 * @return the transitions
+	 */
+	private static List<Transition> findTransitions(TimeZone timezone, long start, long end) {
+		List<Transition> transitions = new ArrayList<Transition>();
+
+		int offset = timezone.getOffset(start);
+		transitions.add(new Transition(start, offset, offset, timezone.inDaylightTime(new Date(start))));
+
+		long time = start;
+		while (time < end) {
+			long next = Math.min(time + ONE_DAY, end);
+			if (timezone.getOffset(next) == offset) {
+				time = next;
+				continue;
+			}
+
+			//binary search for the exact moment the offset changes
+			long lo = time, hi = next;
+			while (hi - lo > 1) {
+				long mid = (lo + hi) >>> 1;
+				if (timezone.getOffset(mid) == offset) {
+					lo = mid;
+				} else {
+					hi = mid;
+				}
+			}
+
+			int newOffset = timezone.getOffset(hi);
+			transitions.add(new Transition(hi, offset, newOffset, timezone.inDaylightTime(new Date(hi))));
+			offset = newOffset;
+			time = hi;
+		}
+
+		return transitions;
+	}
+
+	/**
+	 * Finds the transitions at the end of the given list that follow a yearly
+	 * rule, such as "the second Sunday in March at 2am".
+	 * @param transitions the transitions
+	 * @param daylight true to look at the transitions into daylight savings
+	 * time, false to look at the transitions into standard time
+	 * @param lastYear the year that the last transition must be in
+	 * @return the rule or null if the transitions do not follow a rule
+	 */
+	private static Rule findRule(List<Transition> transitions, boolean daylight, int lastYear) {
+		List<Transition> ofKind = new ArrayList<Transition>();
+		for (Transition transition : transitions.subList(1, transitions.size())) {
+			if (transition.daylight == daylight) {
+				ofKind.add(transition);
+			}
+		}
+		if (ofKind.isEmpty()) {
+			return null;
+		}
+
+		Transition last = ofKind.get(ofKind.size() - 1);
+		DateTimeComponents lastStart = last.localStart();
+		if (lastStart.getYear() != lastYear) {
+			return null;
+		}
+
+		Rule best = null;
+		boolean lastWeek = lastStart.getDate() > daysInMonth(lastStart) - 7;
+		for (boolean useLastWeek : new boolean[] { false, true }) {
+			if (useLastWeek && !lastWeek) {
+				continue;
+			}
+
+			int first = ofKind.size() - 1;
+			while (first > 0) {
+				Transition prev = ofKind.get(first - 1);
+				Transition cur = ofKind.get(first);
+				if (prev.localStart().getYear() != cur.localStart().getYear() - 1 || !follows(prev, last, useLastWeek)) {
+					break;
+				}
+				first--;
+			}
+
+			int years = ofKind.size() - first;
+			if (years >= MIN_RULE_YEARS && (best == null || ofKind.get(first).utc < best.first.utc)) {
+				best = new Rule(ofKind.get(first), useLastWeek);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Determines if two transitions follow the same yearly rule.
+	 * @param transition the transition to check
+	 * @param ruleTransition a transition that follows the rule
+	 * @param lastWeek true if the rule is based on the last week of the month,
+	 * false if it is based on the week number
+	 * @return true if the transition follows the rule, false if not
+	 */
+	private static boolean follows(Transition transition, Transition ruleTransition, boolean lastWeek) {
+		if (transition.offsetFrom != ruleTransition.offsetFrom || transition.offsetTo != ruleTransition.offsetTo) {
+			return false;
+		}
+
+		DateTimeComponents a = transition.localStart();
+		DateTimeComponents b = ruleTransition.localStart();
+		if (a.getMonth() != b.getMonth() || a.getHour() != b.getHour() || a.getMinute() != b.getMinute() || a.getSecond() != b.getSecond()) {
+			return false;
+		}
+		if (dayOfWeek(a) != dayOfWeek(b)) {
+			return false;
+		}
+
+		if (lastWeek) {
+			return a.getDate() > daysInMonth(a) - 7;
+		}
+		return weekOfMonth(a) == weekOfMonth(b);
+	}
+
+	private static Observance createObservance(VTimezone component, Transition transition, String name) {
+		Observance observance;
+		if (transition.daylight) {
+			DaylightSavingsTime daylight = new DaylightSavingsTime();
+			component.addDaylightSavingsTime(daylight);
+			observance = daylight;
+		} else {
+			StandardTime standard = new StandardTime();
+			component.addStandardTime(standard);
+			observance = standard;
+		}
+
+		observance.setDateStart(transition.localStart());
+		observance.setTimezoneOffsetFrom(new UtcOffset(transition.offsetFrom));
+		observance.setTimezoneOffsetTo(new UtcOffset(transition.offsetTo));
+		observance.addTimezoneName(name);
+		return observance;
+	}
+
+	private static String name(TimeZone timezone, boolean daylight) {
+		return timezone.getDisplayName(daylight, TimeZone.SHORT, Locale.US);
+	}
+
+	private static DayOfWeek dayOfWeek(DateTimeComponents date) {
+		int calendarConstant = calendar(date).get(Calendar.DAY_OF_WEEK);
+		for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+			if (dayOfWeek.getCalendarConstant() == calendarConstant) {
+				return dayOfWeek;
+			}
+		}
+		return null;
+	}
+
+	private static int daysInMonth(DateTimeComponents date) {
+		return calendar(date).getActualMaximum(Calendar.DAY_OF_MONTH);
+	}
+
+	private static int weekOfMonth(DateTimeComponents date) {
+		return (date.getDate() - 1) / 7 + 1;
+	}
+
+	private static Calendar calendar(DateTimeComponents date) {
+		Calendar c = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		c.clear();
+		c.set(date.getYear(), date.getMonth() - 1, date.getDate());
+		return c;
+	}
+
+	/**
+	 * A point in time where a timezone's UTC offset changes.
+	 */
+	private static class Transition {
+		private final long utc;
+		private final int offsetFrom, offsetTo;
+		private final boolean daylight;
+
+		public Transition(long utc, int offsetFrom, int offsetTo, boolean daylight) {
+			this.utc = utc;
+			this.offsetFrom = offsetFrom;
+			this.offsetTo = offsetTo;
+			this.daylight = daylight;
+		}
+
+		/**
+		 * Gets the local time the transition occurs at, as measured before
+		 * the transition (this is the value of the observance's DTSTART
+		 * property).
+		 * @return the local time
+		 */
+		public DateTimeComponents localStart() {
+			return new DateTimeComponents(new Date(utc + offsetFrom), TimeZone.getTimeZone("UTC"));
+		}
+	}
+
+	/**
+	 * A yearly daylight savings rule.
+	 */
+	private static class Rule {
+		private final Transition first;
+		private final boolean lastWeek;
+
+		/**
+		 * @param first the first transition that follows the rule
+		 * @param lastWeek true if the rule is based on the last week of the
+		 * month, false if it is based on the week number
+		 */
+		public Rule(Transition first, boolean lastWeek) {
+			this.first = first;
+			this.lastWeek = lastWeek;
+		}
+
+		public Recurrence toRecurrence() {
+			DateTimeComponents start = first.localStart();
+			int week = lastWeek ? -1 : weekOfMonth(start);
+			//@formatter:off
+			return new Recurrence.Builder(Frequency.YEARLY)
+				.byMonth(start.getMonth())
+				.byDay(week, dayOfWeek(start))
+			.build();
+			//@formatter:on
+		}
+	}
+
+	private static class CacheEntry {
+		private final TimeZone timezone;
+
+		/**
+		 * The instance that copies are made from (never handed out).
+		 */
+		private final VTimezone master;
+
+		/**
+		 * The instance that is shared between callers.
+		 */
+		private final VTimezone shared;
+
+		public CacheEntry(TimeZone timezone, VTimezone component) {
+			this.timezone = timezone;
+			this.master = component;
+			this.shared = component.copy();
+		}
+	}
+}
@@ -45,6 +45,7 @@ public class ParseContext {
 	private List<TimezonedDate> floatingDates = new ArrayList<TimezonedDate>();
 	private Integer lineNumber;
 	private String propertyName;
+	private BinaryDataMode binaryDataMode = BinaryDataMode.DECODE;
 
 	/**
 	 * Gets the version of the iCalendar object being parsed.
@@ -95,6 +96,22 @@ public class ParseContext {
 		this.propertyName = propertyName;
 	}
 
+	/**
+	 * Gets how the values of binary properties are handled.
+	 * @return the binary data mode
+	 */
+	public BinaryDataMode getBinaryDataMode() {
+		return binaryDataMode;
+	}
+
+	/**
+	 * Sets how the values of binary properties are handled.
+	 * @param binaryDataMode the binary data mode
+	 */
+	public void setBinaryDataMode(BinaryDataMode binaryDataMode) {
+		this.binaryDataMode = binaryDataMode;
+	}
+
 	/**
 	 * Adds a parsed date to this parse context so its timezone can be applied
 	 * to it after the iCalendar object has been parsed (if it has one).
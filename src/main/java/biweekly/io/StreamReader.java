@@ -4,13 +4,13 @@ import static biweekly.io.DataModelConverter.convert;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
 
 import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
@@ -23,7 +23,6 @@ import biweekly.property.Daylight;
 import biweekly.property.ICalProperty;
 import biweekly.property.Timezone;
 import biweekly.property.ValuedProperty;
-import biweekly.util.ICalDate;
 import biweekly.util.ICalDateFormat;
 
 /*
@@ -59,6 +58,9 @@ public abstract class StreamReader implements Closeable {
 	protected final List<ParseWarning> warnings = new ArrayList<ParseWarning>();
 	protected ScribeIndex index = new ScribeIndex();
 	protected ParseContext context;
+	private BinaryDataMode binaryDataMode = BinaryDataMode.DECODE;
+	private boolean internTimezones = false;
+	private ExecutorService timezoneExecutor;
 
 	/**
 	 * <p>
@@ -135,7 +137,7 @@ public abstract class StreamReader implements Closeable {
 	 */
 	public ICalendar readNext() throws IOException {
 		warnings.clear();
-		context = new ParseContext();
+		context = newParseContext();
 		ICalendar ical = _readNext();
 		if (ical == null) {
 			return null;
@@ -153,7 +155,83 @@ public abstract class StreamReader implements Closeable {
 	 */
 	protected abstract ICalendar _readNext() throws IOException;
 
-	private void handleTimezones(ICalendar ical) {
+	/**
+	 * Gets how the values of binary properties (such as ATTACH) are handled.
+	 * @return the binary data mode (defaults to {@link BinaryDataMode#DECODE})
+	 */
+	public BinaryDataMode getBinaryDataMode() {
+		return binaryDataMode;
+	}
+
+	/**
+	 * Sets how the values of binary properties (such as ATTACH) are handled.
+	 * Calendars with large inline attachments can be parsed faster, and with
+	 * less memory, if the attachment data is decoded lazily or skipped.
+	 * @param binaryDataMode the binary data mode (defaults to
+	 * {@link BinaryDataMode#DECODE})
+	 */
+	public void setBinaryDataMode(BinaryDataMode binaryDataMode) {
+		this.binaryDataMode = binaryDataMode;
+	}
+
+	/**
+	 * Gets whether parsed VTIMEZONE components are interned.
+	 * @return true if they are interned, false if not (defaults to false)
+	 * @see TimezoneRegistry
+	 */
+	public boolean isInternTimezones() {
+		return internTimezones;
+	}
+
+	/**
+	 * Sets whether parsed VTIMEZONE components are interned. When enabled,
+	 * iCalendar objects that define identical timezones share a single
+	 * {@link VTimezone} component and a single {@link TimeZone} object (see
+	 * {@link TimezoneRegistry}). This saves memory and time when many
+	 * iCalendar objects reference the same timezones, but the components in
+	 * each {@link TimezoneInfo} object then <b>must not be modified</b>.
+	 * @param internTimezones true to intern the components, false not to
+	 * (defaults to false)
+	 */
+	public void setInternTimezones(boolean internTimezones) {
+		this.internTimezones = internTimezones;
+	}
+
+	/**
+	 * Gets the executor that is used to convert date-time values to their
+	 * timezones.
+	 * @return the executor or null if the values are converted in the reading
+	 * thread (defaults to null)
+	 */
+	public ExecutorService getTimezoneExecutor() {
+		return timezoneExecutor;
+	}
+
+	/**
+	 * Sets the executor that is used to convert date-time values to their
+	 * timezones. When set, the values of each timezone are converted in
+	 * parallel once an iCalendar object has been read. This can speed up
+	 * reading iCalendar objects that contain very many date-time values in
+	 * several timezones. The executor is not shut down by this reader.
+	 * @param timezoneExecutor the executor or null to convert the values in
+	 * the reading thread (defaults to null)
+	 */
+	public void setTimezoneExecutor(ExecutorService timezoneExecutor) {
+		this.timezoneExecutor = timezoneExecutor;
+	}
+
+	/**
+	 * Creates a new parse context that is configured with this reader's
+	 * settings.
+	 * @return the parse context
+	 */
+	protected ParseContext newParseContext() {
+		ParseContext context = new ParseContext();
+		context.setBinaryDataMode(binaryDataMode);
+		return context;
+	}
+
+	private void handleTimezones(ICalendar ical) throws InterruptedIOException {
 		TimezoneInfo tzinfo = ical.getTimezoneInfo();
 
 		//convert vCalendar DAYLIGHT and TZ properties to a VTIMEZONE component
@@ -163,33 +241,61 @@ public abstract class StreamReader implements Closeable {
 		Iterator<VTimezone> it = ical.getComponents(VTimezone.class).iterator();
 		while (it.hasNext()) {
 			VTimezone component = it.next();
-
-			//make sure the component has an ID
-			String id = ValuedProperty.getValue(component.getTimezoneId());
-			if (id == null || id.trim().length() == 0) {
-				//note: do not remove invalid VTIMEZONE components from the ICalendar object
-				warnings.add(new ParseWarning.Builder().message(39).build());
-				continue;
+			if (addTimezone(component, tzinfo)) {
+				//remove the component from the ICalendar object
+				it.remove();
 			}
+		}
 
-			TimeZone timezone = new ICalTimeZone(component);
-			tzinfo.getTimezones().add(new TimezoneAssignment(timezone, component));
+		applyTimezones(context, tzinfo, vcalTimezone);
+	}
 
-			//remove the component from the ICalendar object
-			it.remove();
+	/**
+	 * Assigns a {@link TimeZone} object to a VTIMEZONE component and adds it to
+	 * a {@link TimezoneInfo} object.
+	 * @param component the VTIMEZONE component
+	 * @param tzinfo the object to add the timezone to
+	 * @return true if the timezone was added, false if the component is
+	 * invalid (a parse warning is added in this case)
+	 */
+	protected boolean addTimezone(VTimezone component, TimezoneInfo tzinfo) {
+		//make sure the component has an ID
+		String id = ValuedProperty.getValue(component.getTimezoneId());
+		if (id == null || id.trim().length() == 0) {
+			//note: do not remove invalid VTIMEZONE components from the ICalendar object
+			warnings.add(new ParseWarning.Builder().message(39).build());
+			return false;
 		}
 
-		if (vcalTimezone != null) {
-			//vCal: parse floating dates according to the DAYLIGHT and TZ properties (which were converted to a VTIMEZONE component)
-			for (TimezonedDate timezonedDate : context.getFloatingDates()) {
-				ICalDate date = timezonedDate.getDate();
+		if (internTimezones) {
+			tzinfo.getTimezones().add(TimezoneRegistry.intern(component));
+			return true;
+		}
 
-				//parse its raw date components under its real timezone
-				Date realDate = date.getRawComponents().toDate(vcalTimezone.getTimeZone());
+		TimeZone timezone = new ICalTimeZone(component);
+		tzinfo.getTimezones().add(new TimezoneAssignment(timezone, component));
+		return true;
+	}
 
-				//update the ICalDate object with the new timestamp
-				date.setTime(realDate.getTime());
-			}
+	/**
+	 * Parses the date values that were recorded in a parse context under their
+	 * real timezones, and records the timezone that each property is assigned
+	 * to.
+	 * @param context the parse context
+	 * @param tzinfo the timezones that were defined in the iCalendar object
+	 * (property assignments are also added to this object)
+	 * @param vcalTimezone the timezone defined by the vCalendar DAYLIGHT and TZ
+	 * properties or null if not set
+	 * @throws InterruptedIOException if the thread is interrupted while
+	 * waiting for the {@link #setTimezoneExecutor timezone executor} to
+	 * convert the date values
+	 */
+	protected void applyTimezones(ParseContext context, TimezoneInfo tzinfo, TimezoneAssignment vcalTimezone) throws InterruptedIOException {
+		TimezonedDateConverter converter = new TimezonedDateConverter();
+
+		if (vcalTimezone != null) {
+			//vCal: parse floating dates according to the DAYLIGHT and TZ properties (which were converted to a VTIMEZONE component)
+			converter.add(context.getFloatingDates(), vcalTimezone.getTimeZone());
 		} else {
 			//iCal: treat floating dates as floating dates
 			for (TimezonedDate timezonedDate : context.getFloatingDates()) {
@@ -231,28 +337,39 @@ public abstract class StreamReader implements Closeable {
 				}
 			}
 
-			Calendar cal = Calendar.getInstance(assignment.getTimeZone());
 			List<TimezonedDate> timezonedDates = entry.getValue();
 			for (TimezonedDate timezonedDate : timezonedDates) {
 				//assign the property to the timezone
 				ICalProperty property = timezonedDate.getProperty();
 				tzinfo.setTimezone(property, assignment);
 
-				ICalDate date = timezonedDate.getDate();
-
-				//parse its raw date components under its real timezone
-				Date realDate = date.getRawComponents().toDate(cal);
-
-				//update the Date object with the new timestamp
-				date.setTime(realDate.getTime());
-
 				//remove the TZID parameter
 				property.getParameters().setTimezoneId(null);
 			}
+
+			//parse the raw date components under their real timezone
+			converter.add(timezonedDates, assignment.getTimeZone());
+		}
+
+		try {
+			converter.convert(timezoneExecutor);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException ioe = new InterruptedIOException();
+			ioe.initCause(e);
+			throw ioe;
 		}
 	}
 
-	private TimezoneAssignment extractVCalTimezone(ICalendar ical) {
+	/**
+	 * Converts the vCalendar DAYLIGHT and TZ properties of an iCalendar object
+	 * to a VTIMEZONE component, and assigns it as the object's default
+	 * timezone. The properties are removed from the iCalendar object.
+	 * @param ical the iCalendar object
+	 * @return the timezone or null if the iCalendar object does not have any
+	 * DAYLIGHT or TZ properties
+	 */
+	protected TimezoneAssignment extractVCalTimezone(ICalendar ical) {
 		List<Daylight> daylights = ical.removeProperties(Daylight.class);
 		List<Timezone> timezones = ical.removeProperties(Timezone.class);
 
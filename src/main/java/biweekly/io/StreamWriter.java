@@ -7,6 +7,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +24,7 @@ import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
 import biweekly.property.ICalProperty;
 import biweekly.property.RawProperty;
+import biweekly.property.TimezoneId;
 
 /*
  Copyright (c) 2013-2018, Michael Angstadt
@@ -65,17 +67,18 @@ public abstract class StreamWriter implements Closeable {
 	 * @throws IllegalArgumentException if the scribe class for a component or
 	 * property object cannot be found (only happens when an experimental
 	 * property/component scribe is not registered with the
-	 * {@code registerScribe} method.)
+	 * {@code registerScribe} method.) If the writer checks for scribes while
+	 * writing (see {@link #checksScribesWhileWriting}), everything that comes
+	 * before the offending component or property will have already been
+	 * written, leaving an incomplete iCalendar object in the data stream.
 	 * @throws IOException if there's a problem writing to the data stream
 	 */
 	public void write(ICalendar ical) throws IOException {
-		Collection<Class<?>> unregistered = findScribeless(ical);
-		if (!unregistered.isEmpty()) {
-			List<String> classNames = new ArrayList<String>(unregistered.size());
-			for (Class<?> clazz : unregistered) {
-				classNames.add(clazz.getName());
+		if (!checksScribesWhileWriting()) {
+			Collection<Class<?>> unregistered = findScribeless(ical);
+			if (!unregistered.isEmpty()) {
+				throw scribesNotFound(unregistered);
 			}
-			throw Messages.INSTANCE.getIllegalArgumentException(13, classNames);
 		}
 
 		tzinfo = ical.getTimezoneInfo();
@@ -97,6 +100,87 @@ public abstract class StreamWriter implements Closeable {
 		return tzinfo.getComponents();
 	}
 
+	/**
+	 * Adds the {@link VTimezone} components that need to be written to the
+	 * output stream to the beginning of a VCALENDAR component's list of
+	 * sub-components. A timezone is not added if the list already contains it,
+	 * or already contains a timezone with the same TZID.
+	 * @param subComponents the VCALENDAR component's sub-components
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected void addTimezoneComponents(List subComponents) {
+		Collection<VTimezone> timezones = getTimezoneComponents();
+		if (timezones.isEmpty()) {
+			return;
+		}
+
+		Map<VTimezone, Boolean> existingComponents = new IdentityHashMap<VTimezone, Boolean>();
+		Set<String> existingIds = new HashSet<String>();
+		for (Object subComponent : subComponents) {
+			if (subComponent instanceof VTimezone) {
+				VTimezone timezone = (VTimezone) subComponent;
+				existingComponents.put(timezone, Boolean.TRUE);
+				String id = getTimezoneId(timezone);
+				if (id != null) {
+					existingIds.add(id);
+				}
+			}
+		}
+
+		LinkedList<VTimezone> toAdd = new LinkedList<VTimezone>();
+		for (VTimezone timezone : timezones) {
+			if (existingComponents.containsKey(timezone)) {
+				continue;
+			}
+
+			String id = getTimezoneId(timezone);
+			if (id != null && !existingIds.add(id)) {
+				continue;
+			}
+
+			existingComponents.put(timezone, Boolean.TRUE);
+			toAdd.addFirst(timezone);
+		}
+
+		subComponents.addAll(0, toAdd);
+	}
+
+	private static String getTimezoneId(VTimezone timezone) {
+		TimezoneId id = timezone.getTimezoneId();
+		return (id == null) ? null : id.getValue();
+	}
+
+	/**
+	 * Determines whether the writer looks up the scribe of each component and
+	 * property as it writes them. If this method returns false (the default),
+	 * the entire iCalendar object is checked for missing scribes before
+	 * anything is written. If it returns true, the subclass is responsible for
+	 * throwing the exception returned by {@link #scribesNotFound} when it
+	 * encounters a component or property that has no scribe. Checking while
+	 * writing avoids an extra pass over the iCalendar object, but means that
+	 * a missing scribe is only discovered after part of the iCalendar object
+	 * has been written.
+	 * @return true if scribes are checked while writing, false if they are
+	 * checked beforehand
+	 */
+	protected boolean checksScribesWhileWriting() {
+		return false;
+	}
+
+	/**
+	 * Creates the exception that is thrown when components or properties
+	 * without scribes are encountered.
+	 * @param classes the component/property classes that have no scribes
+	 * @return the exception
+	 */
+	protected static IllegalArgumentException scribesNotFound(Collection<? extends Class<?>> classes) {
+		List<String> classNames = new ArrayList<String>(classes.size());
+		for (Class<?> clazz : classes) {
+			classNames.add(clazz.getName());
+		}
+		return Messages.INSTANCE.getIllegalArgumentException(13, classNames);
+	}
+
 	/**
 	 * Gets the version that the next iCalendar object will be written as.
 	 * @return the version
@@ -101,6 +101,22 @@ public class TimezoneAssignment {
 		return new TimezoneAssignment(timezone, component);
 	}
 
+	/**
+	 * Creates a timezone whose VTIMEZONE component is generated from the
+	 * timezone rules that are built into the JVM. Unlike
+	 * {@link #download(TimeZone, boolean)}, this method does not require
+	 * network access.
+	 * @param timezone the Java timezone object
+	 * @return the timezone assignment (the VTIMEZONE component is shared and
+	 * must not be modified)
+	 * @see JvmTimezoneGenerator
+	 */
+	public static TimezoneAssignment generate(TimeZone timezone) {
+		JvmTimezoneGenerator generator = new JvmTimezoneGenerator();
+		VTimezone component = generator.generateShared(timezone);
+		return new TimezoneAssignment(timezone, component);
+	}
+
 	/**
 	 * Gets the Java object associated with the timezone.
 	 * @return the Java object
@@ -3,12 +3,14 @@ package biweekly.io;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import biweekly.component.ICalComponent;
 import biweekly.component.VTimezone;
 import biweekly.property.ICalProperty;
 import biweekly.property.TimezoneId;
@@ -44,21 +46,71 @@ import biweekly.property.ValuedProperty;
  * @author Michael Angstadt
  */
 public class TimezoneInfo {
+	/**
+	 * Indexes the timezones by the value of their component's TZID property.
+	 */
+	private final Map<String, TimezoneAssignment> timezonesById = new HashMap<String, TimezoneAssignment>();
+
 	@SuppressWarnings("serial")
 	private final Collection<TimezoneAssignment> assignments = new HashSet<TimezoneAssignment>() {
+		@Override
+		public boolean add(TimezoneAssignment assignment) {
+			boolean added = super.add(assignment);
+			if (added) {
+				index(assignment);
+			}
+			return added;
+		}
+
 		@Override
 		public boolean remove(Object assignment) {
-			//remove all property assignments
+			//remove all property and component assignments
 			Collection<TimezoneAssignment> values = propertyTimezones.values();
 			while (values.remove(assignment)) {
 				//empty
 			}
+			values = componentTimezones.values();
+			while (values.remove(assignment)) {
+				//empty
+			}
 
-			return super.remove(assignment);
+			boolean removed = super.remove(assignment);
+			if (removed) {
+				unindex((TimezoneAssignment) assignment);
+			}
+			return removed;
+		}
+
+		@Override
+		public void clear() {
+			super.clear();
+			timezonesById.clear();
+		}
+
+		@Override
+		public Iterator<TimezoneAssignment> iterator() {
+			final Iterator<TimezoneAssignment> it = super.iterator();
+			return new Iterator<TimezoneAssignment>() {
+				private TimezoneAssignment current;
+
+				public boolean hasNext() {
+					return it.hasNext();
+				}
+
+				public TimezoneAssignment next() {
+					return current = it.next();
+				}
+
+				public void remove() {
+					it.remove();
+					unindex(current);
+				}
+			};
 		}
 	};
 	private final Map<ICalProperty, TimezoneAssignment> propertyTimezones = new IdentityHashMap<ICalProperty, TimezoneAssignment>();
-	private final List<ICalProperty> floatingProperties = new ArrayList<ICalProperty>();
+	private final Map<ICalComponent, TimezoneAssignment> componentTimezones = new IdentityHashMap<ICalComponent, TimezoneAssignment>();
+	private final Map<ICalProperty, Boolean> floatingProperties = new IdentityHashMap<ICalProperty, Boolean>();
 
 	private TimezoneAssignment defaultTimezone;
 	private boolean globalFloatingTime = false;
@@ -99,7 +151,7 @@ public class TimezoneInfo {
 	 */
 	public void setDefaultTimezone(TimezoneAssignment timezone) {
 		if (timezone == null) {
-			if (defaultTimezone != null && !propertyTimezones.values().contains(defaultTimezone)) {
+			if (defaultTimezone != null && !isAssigned(defaultTimezone)) {
 				assignments.remove(defaultTimezone);
 			}
 		} else {
@@ -118,7 +170,7 @@ public class TimezoneInfo {
 	public void setTimezone(ICalProperty property, TimezoneAssignment timezone) {
 		if (timezone == null) {
 			TimezoneAssignment existing = propertyTimezones.remove(property);
-			if (existing != null && existing != defaultTimezone && !propertyTimezones.values().contains(existing)) {
+			if (existing != null && existing != defaultTimezone && !isAssigned(existing)) {
 				assignments.remove(existing);
 			}
 			return;
@@ -137,6 +189,45 @@ public class TimezoneInfo {
 		return propertyTimezones.get(property);
 	}
 
+	/**
+	 * <p>
+	 * Assigns a timezone to all of the properties in a specific component,
+	 * except for those that are assigned their own timezone (see
+	 * {@link #setTimezone}). Sub-components are not affected.
+	 * </p>
+	 * <p>
+	 * This uses less memory than assigning the timezone to each property
+	 * individually, which matters for iCalendar objects with very many
+	 * components.
+	 * </p>
+	 * @param component the component
+	 * @param timezone the timezone or null to format the component's
+	 * properties according to the default timezone (see
+	 * {@link #setDefaultTimezone}).
+	 */
+	public void setComponentTimezone(ICalComponent component, TimezoneAssignment timezone) {
+		if (timezone == null) {
+			TimezoneAssignment existing = componentTimezones.remove(component);
+			if (existing != null && existing != defaultTimezone && !isAssigned(existing)) {
+				assignments.remove(existing);
+			}
+			return;
+		}
+
+		assignments.add(timezone);
+		componentTimezones.put(component, timezone);
+	}
+
+	/**
+	 * Gets the timezone that is assigned to a component's properties.
+	 * @param component the component
+	 * @return the timezone or null if no timezone is assigned to the component
+	 * @see #setComponentTimezone
+	 */
+	public TimezoneAssignment getComponentTimezone(ICalComponent component) {
+		return componentTimezones.get(component);
+	}
+
 	/**
 	 * <p>
 	 * Determines the timezone that a particular property should be formatted in
@@ -150,7 +241,29 @@ public class TimezoneInfo {
 	 * @return the timezone or null for UTC
 	 */
 	public TimezoneAssignment getTimezoneToWriteIn(ICalProperty property) {
+		return getTimezoneToWriteIn(property, null);
+	}
+
+	/**
+	 * <p>
+	 * Determines the timezone that a particular property should be formatted in
+	 * when written to an output stream, taking the timezone of the component
+	 * it belongs to into account (see {@link #setComponentTimezone}).
+	 * </p>
+	 * <p>
+	 * Note: You should call {@link #isFloating(ICalProperty, ICalComponent)}
+	 * first, to determine if the property's value is floating (without a
+	 * timezone).
+	 * </p>
+	 * @param property the property
+	 * @param parent the component the property belongs to or null if unknown
+	 * @return the timezone or null for UTC
+	 */
+	public TimezoneAssignment getTimezoneToWriteIn(ICalProperty property, ICalComponent parent) {
 		TimezoneAssignment assignment = getTimezone(property);
+		if (assignment == null && parent != null) {
+			assignment = getComponentTimezone(parent);
+		}
 		return (assignment == null) ? defaultTimezone : assignment;
 	}
 
@@ -161,17 +274,25 @@ public class TimezoneInfo {
 	 * @return the timezone or null if not found
 	 */
 	public TimezoneAssignment getTimezoneById(String tzid) {
-		for (TimezoneAssignment assignment : assignments) {
-			VTimezone component = assignment.getComponent();
-			if (component == null) {
-				continue;
-			}
+		TimezoneAssignment indexed = timezonesById.get(tzid);
+		if (indexed != null && tzid.equals(getTimezoneId(indexed))) {
+			return indexed;
+		}
 
-			String componentId = ValuedProperty.getValue(component.getTimezoneId());
-			if (tzid.equals(componentId)) {
+		/*
+		 * The index is out of date if a component's TZID property was modified
+		 * after the component was added, so search each timezone.
+		 */
+		for (TimezoneAssignment assignment : assignments) {
+			if (tzid.equals(getTimezoneId(assignment))) {
+				timezonesById.put(tzid, assignment);
 				return assignment;
 			}
 		}
+
+		if (indexed != null) {
+			timezonesById.remove(tzid);
+		}
 		return null;
 	}
 
@@ -224,7 +345,19 @@ public class TimezoneInfo {
 	 * @return true to format in floating time, false not to
 	 */
 	public boolean isFloating(ICalProperty property) {
-		if (containsIdentity(floatingProperties, property)) {
+		return isFloating(property, null);
+	}
+
+	/**
+	 * Determines if a property value should be formatted in floating time when
+	 * written to an output stream, taking the timezone of the component it
+	 * belongs to into account (see {@link #setComponentTimezone}).
+	 * @param property the property
+	 * @param parent the component the property belongs to or null if unknown
+	 * @return true to format in floating time, false not to
+	 */
+	public boolean isFloating(ICalProperty property, ICalComponent parent) {
+		if (floatingProperties.containsKey(property)) {
 			return true;
 		}
 
@@ -232,6 +365,10 @@ public class TimezoneInfo {
 			return false;
 		}
 
+		if (parent != null && componentTimezones.containsKey(parent)) {
+			return false;
+		}
+
 		return globalFloatingTime;
 	}
 
@@ -252,9 +389,9 @@ public class TimezoneInfo {
 	 */
 	public void setFloating(ICalProperty property, boolean enable) {
 		if (enable) {
-			floatingProperties.add(property);
+			floatingProperties.put(property, Boolean.TRUE);
 		} else {
-			removeIdentity(floatingProperties, property);
+			floatingProperties.remove(property);
 		}
 	}
 
@@ -275,31 +412,53 @@ public class TimezoneInfo {
 	}
 
 	/**
-	 * Removes an object from a list using reference equality.
-	 * @param list the list
-	 * @param object the object to remove
+	 * Determines if a timezone is assigned to any properties or components.
+	 * @param assignment the timezone
+	 * @return true if it's assigned, false if not
 	 */
-	private static <T> void removeIdentity(List<T> list, T object) {
-		Iterator<T> it = list.iterator();
-		while (it.hasNext()) {
-			if (object == it.next()) {
-				it.remove();
-			}
+	private boolean isAssigned(TimezoneAssignment assignment) {
+		return propertyTimezones.containsValue(assignment) || componentTimezones.containsValue(assignment);
+	}
+
+	/**
+	 * Adds a timezone to the TZID index.
+	 * @param assignment the timezone
+	 */
+	private void index(TimezoneAssignment assignment) {
+		String tzid = getTimezoneId(assignment);
+		if (tzid != null && !timezonesById.containsKey(tzid)) {
+			timezonesById.put(tzid, assignment);
 		}
 	}
 
 	/**
-	 * Searches for an item in a list using reference equality.
-	 * @param list the list
-	 * @param object the object to search for
-	 * @return true if the object was found, false if not
+	 * Removes a timezone from the TZID index.
+	 * @param assignment the timezone
 	 */
-	private static <T> boolean containsIdentity(List<T> list, T object) {
-		for (T item : list) {
-			if (item == object) {
-				return true;
+	private void unindex(TimezoneAssignment assignment) {
+		String tzid = getTimezoneId(assignment);
+		if (tzid == null || timezonesById.get(tzid) != assignment) {
+			return;
+		}
+
+		timezonesById.remove(tzid);
+
+		//another timezone may have the same ID
+		for (TimezoneAssignment other : assignments) {
+			if (tzid.equals(getTimezoneId(other))) {
+				timezonesById.put(tzid, other);
+				break;
 			}
 		}
-		return false;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Gets the value of the TZID property of a timezone's component.
+	 * @param assignment the timezone
+	 * @return the TZID or null if the timezone doesn't have a component
+	 */
+	private static String getTimezoneId(TimezoneAssignment assignment) {
+		VTimezone component = assignment.getComponent();
+		return (component == null) ? null : ValuedProperty.getValue(component.getTimezoneId());
+	}
+}
@@ -0,0 +1,163 @@
+package biweekly.io;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import biweekly.component.VTimezone;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Process-wide registry of interned VTIMEZONE definitions. Components are
+ * compared by content, so each distinct timezone definition is represented by
+ * a single {@link VTimezone} instance and a single {@link ICalTimeZone}
+ * instance, no matter how many iCalendar objects it was parsed from. This
+ * class is thread-safe.
+ * </p>
+ * <p>
+ * Interned components are shared between all callers. They <b>must not be
+ * modified</b>. Call {@link VTimezone#copy} to get a copy that can be
+ * modified. The registry keys each definition on a private snapshot that is
+ * taken when the definition is interned, so modifying a shared component
+ * cannot corrupt the registry. If a shared component is found to have been
+ * modified, it is no longer handed out and is replaced by the next identical
+ * component that is interned.
+ * </p>
+ * @author Michael Angstadt
+ * @see StreamReader#setInternTimezones
+ */
+public final class TimezoneRegistry {
+	private static final int MAX_SIZE = 1024;
+
+	/**
+	 * The interned timezones, keyed by snapshots of their components. The
+	 * least recently used definitions are discarded once the registry is full.
+	 */
+	private static final Map<Key, TimezoneAssignment> registry = new LinkedHashMap<Key, TimezoneAssignment>(16, 0.75f, true) {
+		private static final long serialVersionUID = 4383962811239516754L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, TimezoneAssignment> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	/**
+	 * Gets the shared timezone assignment for the given VTIMEZONE component.
+	 * If an identical component has been interned before, its assignment is
+	 * returned. Otherwise, the given component becomes the shared instance.
+	 * @param component the VTIMEZONE component (must have a TZID property)
+	 * @return the shared timezone assignment (its component and
+	 * {@link TimeZone} object must not be modified)
+	 * @throws IllegalArgumentException if the component doesn't have a
+	 * {@link biweekly.property.TimezoneId TimezoneId} property
+	 */
+	public static TimezoneAssignment intern(VTimezone component) {
+		Key key = new Key(component);
+		synchronized (registry) {
+			TimezoneAssignment assignment = registry.get(key);
+			if (assignment != null && key.component.equals(assignment.getComponent())) {
+				return assignment;
+			}
+
+			/*
+			 * Either the definition has not been interned yet, or the shared
+			 * component was modified after it was interned. Either way, the
+			 * given component becomes the shared instance.
+			 */
+			assignment = new TimezoneAssignment(new ICalTimeZone(component), component);
+			registry.remove(key);
+			registry.put(key.snapshot(), assignment);
+			return assignment;
+		}
+	}
+
+	/**
+	 * Gets the number of distinct timezone definitions in the registry.
+	 * @return the number of definitions
+	 */
+	public static int size() {
+		synchronized (registry) {
+			return registry.size();
+		}
+	}
+
+	/**
+	 * Removes all timezone definitions from the registry.
+	 */
+	public static void clear() {
+		synchronized (registry) {
+			registry.clear();
+		}
+	}
+
+	private TimezoneRegistry() {
+		//hide
+	}
+
+	/**
+	 * A registry key. The hash code is computed once, when the key is
+	 * created.
+	 */
+	private static class Key {
+		private final VTimezone component;
+		private final int hashCode;
+
+		public Key(VTimezone component) {
+			this(component, component.hashCode());
+		}
+
+		private Key(VTimezone component, int hashCode) {
+			this.component = component;
+			this.hashCode = hashCode;
+		}
+
+		/**
+		 * Creates a copy of this key whose component is a private copy that
+		 * no caller has a reference to.
+		 * @return the copy
+		 */
+		public Key snapshot() {
+			return new Key(component.copy(), hashCode);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (obj == null) return false;
+			if (getClass() != obj.getClass()) return false;
+			Key other = (Key) obj;
+			return hashCode == other.hashCode && component.equals(other.component);
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package biweekly.io;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import biweekly.io.ParseContext.TimezonedDate;
+import biweekly.util.DateTimeComponents;
+import biweekly.util.ICalDate;
+import biweekly.util.com.google.ical.util.TimeUtils;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Converts the date-time values of a parsed iCalendar object to the timezones
+ * they were defined in. The values are grouped by timezone and each group is
+ * converted in bulk.
+ * </p>
+ * <p>
+ * Values in an {@link ICalTimeZone} are converted using the timezone's
+ * transition table, without creating {@link Calendar} objects. Values in all
+ * other timezones are converted using a single {@link Calendar} object per
+ * group.
+ * </p>
+ * <p>
+ * Note that the transition table resolves local times that fall inside of a
+ * daylight savings gap or overlap the same way the JVM's own timezones do.
+ * Converting a value by passing an {@link ICalTimeZone} to a {@link Calendar}
+ * object can give a different result for these times, because
+ * {@link Calendar} assumes that daylight savings time is always one hour
+ * ahead of standard time.
+ * </p>
+ * @author Michael Angstadt
+ */
+class TimezonedDateConverter {
+	private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+	private static final int EPOCH_FIXED = TimeUtils.fixedFromGregorian(1970, 1, 1);
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	private final List<List<TimezonedDate>> groups = new ArrayList<List<TimezonedDate>>();
+	private final List<TimeZone> timezones = new ArrayList<TimeZone>();
+
+	/**
+	 * Adds a group of date-time values to convert.
+	 * @param dates the date-time values (their raw components are assumed to
+	 * be in the given timezone)
+	 * @param timezone the timezone
+	 */
+	public void add(List<TimezonedDate> dates, TimeZone timezone) {
+		groups.add(dates);
+		timezones.add(timezone);
+	}
+
+	/**
+	 * Converts all of the date-time values that were added.
+	 * @param executor the executor to convert each group in parallel with or
+	 * null to convert the groups in the current thread
+	 * @throws InterruptedException if the current thread is interrupted while
+	 * waiting for the groups to be converted (the groups that have not been
+	 * converted yet are cancelled)
+	 */
+	public void convert(ExecutorService executor) throws InterruptedException {
+		if (executor == null || groups.size() < 2) {
+			for (int i = 0; i < groups.size(); i++) {
+				convert(groups.get(i), timezones.get(i));
+			}
+			return;
+		}
+
+		List<Future<?>> futures = new ArrayList<Future<?>>(groups.size());
+		for (int i = 0; i < groups.size(); i++) {
+			final List<TimezonedDate> dates = groups.get(i);
+			final TimeZone timezone = timezones.get(i);
+			futures.add(executor.submit(new Runnable() {
+				public void run() {
+					convert(dates, timezone);
+				}
+			}));
+		}
+
+		for (int i = 0; i < futures.size(); i++) {
+			Future<?> future = futures.get(i);
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				cancel(futures, i);
+				throw e;
+			} catch (ExecutionException e) {
+				cancel(futures, i + 1);
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new RuntimeException(cause);
+			}
+		}
+	}
+
+	/**
+	 * Cancels the conversion tasks that have not completed yet.
+	 * @param futures the tasks
+	 * @param start the index of the first task to cancel
+	 */
+	private static void cancel(List<Future<?>> futures, int start) {
+		for (int i = start; i < futures.size(); i++) {
+			futures.get(i).cancel(true);
+		}
+	}
+
+	/**
+	 * Converts a group of date-time values.
+	 * @param dates the date-time values (their raw components are assumed to
+	 * be in the given timezone)
+	 * @param timezone the timezone
+	 */
+	public static void convert(List<TimezonedDate> dates, TimeZone timezone) {
+		if (!(timezone instanceof ICalTimeZone)) {
+			Calendar cal = Calendar.getInstance(timezone);
+			for (TimezonedDate timezonedDate : dates) {
+				ICalDate date = timezonedDate.getDate();
+				date.setTime(date.getRawComponents().toDate(cal).getTime());
+			}
+			return;
+		}
+
+		int size = dates.size();
+		long[] times = new long[size];
+		Calendar utc = null;
+		for (int i = 0; i < size; i++) {
+			DateTimeComponents components = dates.get(i).getDate().getRawComponents();
+			if (canConvert(components)) {
+				times[i] = toLocalMillis(components);
+				continue;
+			}
+
+			/*
+			 * Let the Calendar class compute the local time of out-of-range
+			 * values, but apply the timezone's offset the same way as for all
+			 * the other values.
+			 */
+			if (utc == null) {
+				utc = Calendar.getInstance(UTC);
+			}
+			times[i] = components.toDate(utc).getTime();
+		}
+
+		((ICalTimeZone) timezone).toUtc(times, size);
+
+		for (int i = 0; i < size; i++) {
+			dates.get(i).getDate().setTime(times[i]);
+		}
+	}
+
+	/**
+	 * Determines if the local time of a set of date-time components can be
+	 * computed without using the {@link Calendar} class. {@link Calendar} uses the Julian
+	 * calendar for dates before the Gregorian cutover and rolls over
+	 * out-of-range field values.
+	 * @param components the date-time components
+	 * @return true if they can be converted, false if not
+	 */
+	private static boolean canConvert(DateTimeComponents components) {
+		int year = components.getYear();
+		int month = components.getMonth();
+		//@formatter:off
+		return
+			year > 1582 && year <= 9999 &&
+			month >= 1 && month <= 12 &&
+			components.getDate() >= 1 && components.getDate() <= TimeUtils.monthLength(year, month) &&
+			components.getHour() >= 0 && components.getHour() <= 23 &&
+			components.getMinute() >= 0 && components.getMinute() <= 59 &&
+			components.getSecond() >= 0 && components.getSecond() <= 59;
+		//@formatter:on
+	}
+
+	/**
+	 * Converts a set of date-time components to the number of milliseconds
+	 * since the epoch, treating the components as if they were in UTC.
+	 * @param components the date-time components
+	 * @return the milliseconds
+	 */
+	private static long toLocalMillis(DateTimeComponents components) {
+		long days = TimeUtils.fixedFromGregorian(components.getYear(), components.getMonth(), components.getDate()) - EPOCH_FIXED;
+		return days * DAY_MILLIS + ((components.getHour() * 60L + components.getMinute()) * 60 + components.getSecond()) * 1000;
+	}
+}
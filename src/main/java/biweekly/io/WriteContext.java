@@ -44,6 +44,8 @@ public class WriteContext {
 	private final TimezoneInfo timezoneOptions;
 	private final TimezoneAssignment globalTimezone;
 	private final List<Date> dates = new ArrayList<Date>();
+	private boolean trackDateRangeOnly = false;
+	private long earliestDate = Long.MAX_VALUE, latestDate = Long.MIN_VALUE;
 	private ICalComponent parent;
 
 	public WriteContext(ICalVersion version, TimezoneInfo timezoneOptions, TimezoneAssignment globalTimezone) {
@@ -96,12 +98,50 @@ public class WriteContext {
 	/**
 	 * Gets the timezoned date-time property values that are in the iCalendar
 	 * object.
-	 * @return the timezoned date-time property values
+	 * @return the timezoned date-time property values (this list will be
+	 * empty if {@link #isTrackDateRangeOnly} is enabled)
 	 */
 	public List<Date> getDates() {
 		return dates;
 	}
 
+	/**
+	 * Gets the earliest timezoned date-time property value that was recorded.
+	 * @return the earliest date or null if no dates were recorded
+	 */
+	public Date getEarliestDate() {
+		return (earliestDate == Long.MAX_VALUE) ? null : new Date(earliestDate);
+	}
+
+	/**
+	 * Gets the latest timezoned date-time property value that was recorded.
+	 * @return the latest date or null if no dates were recorded
+	 */
+	public Date getLatestDate() {
+		return (latestDate == Long.MIN_VALUE) ? null : new Date(latestDate);
+	}
+
+	/**
+	 * Gets whether only the earliest and latest date values are recorded,
+	 * instead of every date value.
+	 * @return true if only the date range is recorded, false if every date is
+	 * recorded (defaults to false)
+	 */
+	public boolean isTrackDateRangeOnly() {
+		return trackDateRangeOnly;
+	}
+
+	/**
+	 * Sets whether only the earliest and latest date values should be
+	 * recorded, instead of every date value. Enabling this keeps memory usage
+	 * constant, no matter how many date values the iCalendar object has.
+	 * @param trackDateRangeOnly true to only record the date range, false to
+	 * record every date (defaults to false)
+	 */
+	public void setTrackDateRangeOnly(boolean trackDateRangeOnly) {
+		this.trackDateRangeOnly = trackDateRangeOnly;
+	}
+
 	/**
 	 * Records the timezoned date-time values that are being written. This is
 	 * used to generate a DAYLIGHT property for vCalendar objects.
@@ -110,7 +150,19 @@ public class WriteContext {
 	 * @param date the date value
 	 */
 	public void addDate(ICalDate date, boolean floating, TimeZone tz) {
-		if (date != null && date.hasTime() && !floating && tz != null) {
+		if (date == null || !date.hasTime() || floating || tz == null) {
+			return;
+		}
+
+		long time = date.getTime();
+		if (time < earliestDate) {
+			earliestDate = time;
+		}
+		if (time > latestDate) {
+			latestDate = time;
+		}
+
+		if (!trackDateRangeOnly) {
 			dates.add(date);
 		}
 	}
@@ -6,9 +6,11 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
+import biweekly.io.BinaryDataMode;
 import biweekly.io.ParseWarning;
 import biweekly.io.StreamReader;
 import biweekly.io.scribe.ScribeIndex;
@@ -55,6 +57,9 @@ abstract class ChainingParser<T extends ChainingParser<?>> {
 
 	ScribeIndex index;
 	List<List<ParseWarning>> warnings;
+	BinaryDataMode binaryDataMode;
+	boolean internTimezones = false;
+	ExecutorService timezoneExecutor;
 
 	@SuppressWarnings("unchecked")
 	final T this_ = (T) this;
@@ -126,6 +131,45 @@ abstract class ChainingParser<T extends ChainingParser<?>> {
 		return this_;
 	}
 
+	/**
+	 * Sets how the values of binary properties (such as ATTACH) are handled.
+	 * @param binaryDataMode the binary data mode (defaults to
+	 * {@link BinaryDataMode#DECODE})
+	 * @return this
+	 * @see StreamReader#setBinaryDataMode
+	 */
+	public T binaryData(BinaryDataMode binaryDataMode) {
+		this.binaryDataMode = binaryDataMode;
+		return this_;
+	}
+
+	/**
+	 * Sets whether iCalendar objects that define identical timezones should
+	 * share a single VTIMEZONE component and {@link java.util.TimeZone
+	 * TimeZone} object. Shared components must not be modified.
+	 * @param internTimezones true to share the timezones, false not to
+	 * (defaults to false)
+	 * @return this
+	 * @see StreamReader#setInternTimezones
+	 */
+	public T internTimezones(boolean internTimezones) {
+		this.internTimezones = internTimezones;
+		return this_;
+	}
+
+	/**
+	 * Sets the executor that is used to convert date-time values to their
+	 * timezones in parallel.
+	 * @param timezoneExecutor the executor or null to convert the values in
+	 * the reading thread (defaults to null)
+	 * @return this
+	 * @see StreamReader#setTimezoneExecutor
+	 */
+	public T timezoneExecutor(ExecutorService timezoneExecutor) {
+		this.timezoneExecutor = timezoneExecutor;
+		return this_;
+	}
+
 	/**
 	 * Reads the first iCalendar object from the stream.
 	 * @return the iCalendar object or null if there are none
@@ -133,9 +177,7 @@ abstract class ChainingParser<T extends ChainingParser<?>> {
 	 */
 	public ICalendar first() throws IOException {
 		StreamReader reader = constructReader();
-		if (index != null) {
-			reader.setScribeIndex(index);
-		}
+		configure(reader);
 
 		try {
 			ICalendar ical = reader.readNext();
@@ -157,9 +199,7 @@ abstract class ChainingParser<T extends ChainingParser<?>> {
 	 */
 	public List<ICalendar> all() throws IOException {
 		StreamReader reader = constructReader();
-		if (index != null) {
-			reader.setScribeIndex(index);
-		}
+		configure(reader);
 
 		try {
 			List<ICalendar> icals = new ArrayList<ICalendar>();
@@ -178,9 +218,24 @@ abstract class ChainingParser<T extends ChainingParser<?>> {
 		}
 	}
 
+	/**
+	 * Applies the settings of this chaining parser to a reader.
+	 * @param reader the reader
+	 */
+	void configure(StreamReader reader) {
+		if (index != null) {
+			reader.setScribeIndex(index);
+		}
+		if (binaryDataMode != null) {
+			reader.setBinaryDataMode(binaryDataMode);
+		}
+		reader.setInternTimezones(internTimezones);
+		reader.setTimezoneExecutor(timezoneExecutor);
+	}
+
 	abstract StreamReader constructReader() throws IOException;
 
-	private boolean closeWhenDone() {
+	boolean closeWhenDone() {
 		return in == null && reader == null;
 	}
 }
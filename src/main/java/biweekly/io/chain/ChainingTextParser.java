@@ -1,13 +1,32 @@
 package biweekly.io.chain;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.github.mangstadt.vinnie.io.Context;
+import com.github.mangstadt.vinnie.io.SyntaxRules;
+import com.github.mangstadt.vinnie.io.VObjectDataAdapter;
+import com.github.mangstadt.vinnie.io.VObjectReader;
 
 import biweekly.Biweekly;
+import biweekly.ICalendar;
+import biweekly.io.ParseWarning;
 import biweekly.io.StreamReader;
 import biweekly.io.text.ICalReader;
+import biweekly.util.Utf8Reader;
 
 /*
  Copyright (c) 2013-2018, Michael Angstadt
@@ -42,7 +61,14 @@ import biweekly.io.text.ICalReader;
  * @author Michael Angstadt
  */
 public class ChainingTextParser<T extends ChainingTextParser<?>> extends ChainingParser<T> {
+	/**
+	 * The maximum number of VCALENDAR components that are held in memory
+	 * while waiting to be parsed by the executor.
+	 */
+	private static final int MAX_PENDING = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+
 	private boolean caretDecoding = true;
+	private ExecutorService executor;
 
 	public ChainingTextParser(String string) {
 		super(string);
@@ -75,6 +101,170 @@ public class ChainingTextParser<T extends ChainingTextParser<?>> extends Chainin
 		return this_;
 	}
 
+	/**
+	 * <p>
+	 * Parses the iCalendar objects in parallel when {@link #all} is called.
+	 * The calling thread splits the data stream into individual VCALENDAR
+	 * components and each component is then parsed by the given executor.
+	 * The parsed iCalendar objects and their warnings are returned in the
+	 * order in which they appear in the data stream.
+	 * </p>
+	 * <p>
+	 * Only a limited number of components (twice the number of available
+	 * processors) are waiting to be parsed at any one time. The calling thread
+	 * stops reading the data stream until the oldest one has been parsed. If
+	 * a component cannot be parsed, the components that are still waiting to
+	 * be parsed are cancelled and the exception is thrown.
+	 * </p>
+	 * <p>
+	 * The executor is not shut down when parsing completes.
+	 * </p>
+	 * @param executor the executor to parse the iCalendar objects with or null
+	 * to parse them on the calling thread (default)
+	 * @return this
+	 */
+	public T parallel(ExecutorService executor) {
+		this.executor = executor;
+		return this_;
+	}
+
+	@Override
+	public List<ICalendar> all() throws IOException {
+		if (executor == null) {
+			return super.all();
+		}
+
+		Reader reader = newRawReader();
+		LinkedList<Future<ParseResult>> pending = new LinkedList<Future<ParseResult>>();
+		List<ICalendar> icals = new ArrayList<ICalendar>();
+		try {
+			/*
+			 * Let vinnie find where each VCALENDAR component begins, so that
+			 * folded lines and quoted-printable soft line breaks are handled
+			 * the same way they are when the components are parsed.
+			 */
+			RecordingReader recorder = new RecordingReader(reader);
+			VObjectReader vobjectReader = new VObjectReader(recorder, SyntaxRules.iCalendar());
+			SplitListener listener = new SplitListener();
+
+			boolean started = false;
+			while (true) {
+				listener.beginLine = -1;
+				vobjectReader.parse(listener);
+				if (listener.beginLine < 0) {
+					//end of stream
+					if (started) {
+						submit(recorder.take(Integer.MAX_VALUE), pending, icals);
+					}
+					break;
+				}
+
+				String ical = recorder.take(listener.beginLine);
+				if (started) {
+					submit(ical, pending, icals);
+				}
+				started = true;
+			}
+
+			while (!pending.isEmpty()) {
+				collect(pending.removeFirst(), icals);
+			}
+		} catch (IOException e) {
+			cancel(pending);
+			throw e;
+		} catch (RuntimeException e) {
+			cancel(pending);
+			throw e;
+		} catch (Error e) {
+			cancel(pending);
+			throw e;
+		} finally {
+			if (closeWhenDone()) {
+				reader.close();
+			}
+		}
+
+		return icals;
+	}
+
+	/**
+	 * Submits a VCALENDAR component to the executor. If the maximum number of
+	 * components are already waiting to be parsed, this method waits for the
+	 * oldest one to finish first.
+	 * @param ical the VCALENDAR component
+	 * @param pending the parse tasks that have not been collected yet
+	 * @param icals the list to add the parsed iCalendar objects to
+	 * @throws IOException if a parse task threw an I/O exception or the thread
+	 * was interrupted
+	 */
+	private void submit(String ical, LinkedList<Future<ParseResult>> pending, List<ICalendar> icals) throws IOException {
+		if (pending.size() >= MAX_PENDING) {
+			collect(pending.removeFirst(), icals);
+		}
+		pending.add(executor.submit(new ParseTask(ical)));
+	}
+
+	/**
+	 * Waits for a parse task to complete and adds its result to the list.
+	 * @param future the parse task
+	 * @param icals the list to add the parsed iCalendar object to
+	 * @throws IOException if the task threw an I/O exception or the thread was
+	 * interrupted
+	 */
+	private void collect(Future<ParseResult> future, List<ICalendar> icals) throws IOException {
+		ParseResult result = get(future);
+		if (result.ical == null) {
+			return;
+		}
+
+		if (warnings != null) {
+			warnings.add(result.warnings);
+		}
+		icals.add(result.ical);
+	}
+
+	/**
+	 * Cancels parse tasks that are no longer needed. The newest tasks are
+	 * cancelled first, so that the executor does not start any of the queued
+	 * tasks when the running ones are interrupted.
+	 * @param pending the parse tasks
+	 */
+	private static void cancel(LinkedList<Future<ParseResult>> pending) {
+		while (!pending.isEmpty()) {
+			pending.removeLast().cancel(true);
+		}
+	}
+
+	/**
+	 * Waits for a parse task to complete.
+	 * @param future the parse task
+	 * @return the result of the task
+	 * @throws IOException if the task threw an I/O exception or the thread was
+	 * interrupted
+	 */
+	private static ParseResult get(Future<ParseResult> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException ioe = new InterruptedIOException();
+			ioe.initCause(e);
+			throw ioe;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
 	@Override
 	StreamReader constructReader() throws IOException {
 		ICalReader reader = newReader();
@@ -82,6 +272,19 @@ public class ChainingTextParser<T extends ChainingTextParser<?>> extends Chainin
 		return reader;
 	}
 
+	private Reader newRawReader() throws IOException {
+		if (string != null) {
+			return new StringReader(string);
+		}
+		if (in != null) {
+			return new Utf8Reader(in);
+		}
+		if (reader != null) {
+			return reader;
+		}
+		return new BufferedReader(new Utf8Reader(file));
+	}
+
 	private ICalReader newReader() throws IOException {
 		if (string != null) {
 			return new ICalReader(string);
@@ -94,4 +297,108 @@ public class ChainingTextParser<T extends ChainingTextParser<?>> extends Chainin
 		}
 		return new ICalReader(file);
 	}
+
+	/**
+	 * Stops parsing when a top-level VCALENDAR component begins, and records
+	 * the line it begins on.
+	 */
+	private static class SplitListener extends VObjectDataAdapter {
+		private int beginLine;
+
+		@Override
+		public void onComponentBegin(String name, Context context) {
+			if (context.getParentComponents().isEmpty() && "VCALENDAR".equalsIgnoreCase(name)) {
+				beginLine = context.getLineNumber();
+				context.stop();
+			}
+		}
+	}
+
+	/**
+	 * Keeps a copy of the characters that are read from a reader, so that the
+	 * text of each VCALENDAR component can be retrieved by line number.
+	 */
+	private static class RecordingReader extends FilterReader {
+		private final StringBuilder buffer = new StringBuilder();
+
+		/**
+		 * The line number of the first character in the buffer.
+		 */
+		private int bufferLine = 1;
+
+		public RecordingReader(Reader in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int c = super.read();
+			if (c >= 0) {
+				buffer.append((char) c);
+			}
+			return c;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			int read = super.read(cbuf, off, len);
+			if (read > 0) {
+				buffer.append(cbuf, off, read);
+			}
+			return read;
+		}
+
+		/**
+		 * Removes all of the text that comes before the given line from the
+		 * buffer.
+		 * @param line the line number
+		 * @return the removed text
+		 */
+		public String take(int line) {
+			int i = 0;
+			while (bufferLine < line && i < buffer.length()) {
+				char c = buffer.charAt(i++);
+				if (c == '\r' && i < buffer.length() && buffer.charAt(i) == '\n') {
+					i++;
+				}
+				if (c == '\r' || c == '\n') {
+					bufferLine++;
+				}
+			}
+
+			String text = buffer.substring(0, i);
+			buffer.delete(0, i);
+			return text;
+		}
+	}
+
+	/**
+	 * Parses a single VCALENDAR component.
+	 */
+	private class ParseTask implements Callable<ParseResult> {
+		private final String ical;
+
+		public ParseTask(String ical) {
+			this.ical = ical;
+		}
+
+		public ParseResult call() throws IOException {
+			ICalReader reader = new ICalReader(ical);
+			reader.setCaretDecodingEnabled(caretDecoding);
+			configure(reader);
+
+			ParseResult result = new ParseResult();
+			result.ical = reader.readNext();
+			result.warnings = reader.getWarnings();
+			return result;
+		}
+	}
+
+	/**
+	 * The result of a {@link ParseTask}.
+	 */
+	private static class ParseResult {
+		private ICalendar ical;
+		private List<ParseWarning> warnings;
+	}
 }
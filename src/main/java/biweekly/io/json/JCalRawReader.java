@@ -162,11 +162,14 @@ public class JCalRawReader implements Closeable {
 		while (parser.nextToken() != JsonToken.END_ARRAY) { //until we reach the end sub-components array
 			checkCurrent(JsonToken.START_ARRAY);
 			parser.nextToken();
-			parseComponent(new ArrayList<String>(components));
+			parseComponent(components);
 		}
 
 		//read the end of the component array (e.g. the last bracket in this example: ["comp", [ /* props */ ], [ /* comps */] ])
 		checkNext(JsonToken.END_ARRAY);
+
+		components.remove(components.size() - 1);
+		listener.endComponent(components, componentName);
 	}
 
 	private void parseProperty(List<String> components) throws IOException {
@@ -298,7 +301,10 @@ public class JCalRawReader implements Closeable {
 	}
 
 	/**
-	 * Handles the iCalendar data as it is read off the data stream.
+	 * Handles the iCalendar data as it is read off the data stream. The
+	 * component hierarchy lists that are passed into these methods are reused
+	 * by the parser, so they must be copied if they are to be retained after
+	 * the method returns.
 	 * @author Michael Angstadt
 	 */
 	public interface JCalDataStreamListener {
@@ -309,6 +315,14 @@ public class JCalRawReader implements Closeable {
 		 */
 		void readComponent(List<String> parentHierarchy, String componentName);
 
+		/**
+		 * Called when the parser finishes reading a component (after all of
+		 * its properties and sub-components have been read).
+		 * @param parentHierarchy the component's parent components
+		 * @param componentName the component name (e.g. "vevent")
+		 */
+		void endComponent(List<String> parentHierarchy, String componentName);
+
 		/**
 		 * Called when a property is read.
 		 * @param componentHierarchy the hierarchy of components that the
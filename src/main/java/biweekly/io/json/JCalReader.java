@@ -8,10 +8,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
@@ -153,7 +150,8 @@ public class JCalReader extends StreamReader {
 	}
 
 	private class JCalDataStreamListenerImpl implements JCalDataStreamListener {
-		private final Map<List<String>, ICalComponent> components = new HashMap<List<String>, ICalComponent>();
+		private final List<ICalComponent> stack = new ArrayList<ICalComponent>();
+		private ICalComponent root;
 
 		public void readProperty(List<String> componentHierarchy, String propertyName, ICalParameters parameters, ICalDataType dataType, JCalValue value) {
 			context.getWarnings().clear();
@@ -161,7 +159,7 @@ public class JCalReader extends StreamReader {
 			context.setPropertyName(propertyName);
 
 			//get the component that the property belongs to
-			ICalComponent parent = components.get(componentHierarchy);
+			ICalComponent parent = stack.get(stack.size() - 1);
 
 			//unmarshal the property
 			ICalPropertyScribe<? extends ICalProperty> scribe = index.getPropertyScribe(propertyName, ICalVersion.V2_0);
@@ -205,36 +203,34 @@ public class JCalReader extends StreamReader {
 			ICalComponentScribe<? extends ICalComponent> scribe = index.getComponentScribe(componentName, ICalVersion.V2_0);
 			ICalComponent component = scribe.emptyInstance();
 
-			ICalComponent parent = components.get(parentHierarchy);
-			if (parent != null) {
+			if (stack.isEmpty()) {
+				root = component;
+			} else {
+				ICalComponent parent = stack.get(stack.size() - 1);
 				parent.addComponent(component);
 			}
 
-			List<String> hierarchy = new ArrayList<String>(parentHierarchy);
-			hierarchy.add(componentName);
-			components.put(hierarchy, component);
+			stack.add(component);
+		}
+
+		public void endComponent(List<String> parentHierarchy, String componentName) {
+			stack.remove(stack.size() - 1);
 		}
 
 		public ICalendar getICalendar() {
-			if (components.isEmpty()) {
+			if (root == null) {
 				//EOF
 				return null;
 			}
 
-			ICalComponent component = components.get(Arrays.asList(icalScribe.getComponentName().toLowerCase()));
-			if (component == null) {
-				//should never happen because the parser always looks for a "vcalendar" component
-				return null;
-			}
-
-			if (component instanceof ICalendar) {
+			if (root instanceof ICalendar) {
 				//should happen every time
-				return (ICalendar) component;
+				return (ICalendar) root;
 			}
 
 			//this will only happen if the user decides to override the ICalendarScribe for some reason
 			ICalendar ical = icalScribe.emptyInstance();
-			ical.addComponent(component);
+			ical.addComponent(root);
 			return ical;
 		}
 	}
@@ -5,14 +5,12 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
-import java.util.Collection;
 import java.util.List;
 
 import biweekly.ICalDataType;
 import biweekly.ICalVersion;
 import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
-import biweekly.component.VTimezone;
 import biweekly.io.SkipMeException;
 import biweekly.io.StreamWriter;
 import biweekly.io.scribe.component.ICalComponentScribe;
@@ -207,12 +205,7 @@ public class JCalWriter extends StreamWriter implements Flushable {
 		List subComponents = componentScribe.getComponents(component);
 		if (component instanceof ICalendar) {
 			//add the VTIMEZONE components that were auto-generated by TimezoneOptions
-			Collection<VTimezone> tzs = getTimezoneComponents();
-			for (VTimezone tz : tzs) {
-				if (!subComponents.contains(tz)) {
-					subComponents.add(0, tz);
-				}
-			}
+			addTimezoneComponents(subComponents);
 		}
 		for (Object subComponentObj : subComponents) {
 			ICalComponent subComponent = (ICalComponent) subComponentObj;
@@ -0,0 +1,106 @@
+package biweekly.io.scribe;
+
+import java.util.Map;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * An immutable, case-insensitive hash table that maps component and property
+ * names to their scribes. Lookups do not create any objects, so the table can
+ * be queried once for every line of an iCalendar data stream without
+ * generating garbage. Instances are thread-safe.
+ * @author Michael Angstadt
+ * @param <T> the value type
+ */
+final class NameTable<T> {
+	private final String[] keys;
+	private final Object[] values;
+	private final int mask;
+
+	/**
+	 * Creates a new table.
+	 * @param map the entries to put in the table (keys must be in upper case)
+	 */
+	public NameTable(Map<String, ? extends T> map) {
+		//keep the load factor at or below 0.5 so that there is always an empty slot
+		int capacity = 1;
+		while (capacity < map.size() * 2) {
+			capacity <<= 1;
+		}
+
+		keys = new String[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+
+		for (Map.Entry<String, ? extends T> entry : map.entrySet()) {
+			String key = entry.getKey();
+			int i = hash(key) & mask;
+			while (keys[i] != null) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = entry.getValue();
+		}
+	}
+
+	/**
+	 * Gets a value from the table.
+	 * @param name the name (case-insensitive)
+	 * @return the value or null if not found
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(String name) {
+		int length = name.length();
+		int i = hash(name) & mask;
+		String key;
+		while ((key = keys[i]) != null) {
+			if (key.length() == length && key.regionMatches(true, 0, name, 0, length)) {
+				return (T) values[i];
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Calculates the case-insensitive hash code of a name.
+	 * @param name the name
+	 * @return the hash code
+	 */
+	private static int hash(String name) {
+		int h = 0;
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				c -= 'a' - 'A';
+			} else if (c > 127) {
+				c = Character.toUpperCase(c);
+			}
+			h = 31 * h + c;
+		}
+		return h ^ (h >>> 16);
+	}
+}
@@ -1,5 +1,6 @@
 package biweekly.io.scribe;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -146,11 +147,17 @@ import biweekly.property.Xml;
  *   writer.write(ical);
  * }
  * </pre>
+ * <p>
+ * ScribeIndex instances are not thread-safe. To share an index between
+ * readers/writers that run on different threads, call {@link #freeze} to
+ * create an immutable copy of the index.
+ * </p>
  * @author Michael Angstadt
  */
 public class ScribeIndex {
 	//define standard component scribes
 	private static final Map<String, ICalComponentScribe<? extends ICalComponent>> standardCompByName = new HashMap<String, ICalComponentScribe<? extends ICalComponent>>();
+	private static final NameTable<ICalComponentScribe<? extends ICalComponent>> standardCompTable;
 	private static final Map<Class<? extends ICalComponent>, ICalComponentScribe<? extends ICalComponent>> standardCompByClass = new HashMap<Class<? extends ICalComponent>, ICalComponentScribe<? extends ICalComponent>>();
 	static {
 		registerStandard(new ICalendarScribe());
@@ -162,12 +169,15 @@ public class ScribeIndex {
 		registerStandard(new VTimezoneScribe());
 		registerStandard(new StandardTimeScribe());
 		registerStandard(new DaylightSavingsTimeScribe());
+
+		standardCompTable = new NameTable<ICalComponentScribe<? extends ICalComponent>>(standardCompByName);
 	}
 
 	//define standard property scribes
 	private static final Map<String, ICalPropertyScribe<? extends ICalProperty>> standardPropByName = new HashMap<String, ICalPropertyScribe<? extends ICalProperty>>();
 	private static final Map<Class<? extends ICalProperty>, ICalPropertyScribe<? extends ICalProperty>> standardPropByClass = new HashMap<Class<? extends ICalProperty>, ICalPropertyScribe<? extends ICalProperty>>();
 	private static final Map<QName, ICalPropertyScribe<? extends ICalProperty>> standardPropByQName = new HashMap<QName, ICalPropertyScribe<? extends ICalProperty>>();
+	private static final Map<ICalVersion, NameTable<ICalPropertyScribe<? extends ICalProperty>>> standardPropTables;
 	static {
 		//RFC 5545
 		registerStandard(new ActionScribe());
@@ -238,8 +248,13 @@ public class ScribeIndex {
 		registerStandard(new NameScribe());
 		registerStandard(new SourceScribe());
 		registerStandard(new RefreshIntervalScribe());
+
+		standardPropTables = buildPropertyTables(standardPropByName);
 	}
 
+	private static final NameTable<ICalComponentScribe<? extends ICalComponent>> emptyCompTable = new NameTable<ICalComponentScribe<? extends ICalComponent>>(new HashMap<String, ICalComponentScribe<? extends ICalComponent>>(0));
+	private static final Map<ICalVersion, NameTable<ICalPropertyScribe<? extends ICalProperty>>> emptyPropTables = buildPropertyTables(new HashMap<String, ICalPropertyScribe<? extends ICalProperty>>(0));
+
 	private final Map<String, ICalComponentScribe<? extends ICalComponent>> experimentalCompByName = new HashMap<String, ICalComponentScribe<? extends ICalComponent>>(0);
 	private final Map<Class<? extends ICalComponent>, ICalComponentScribe<? extends ICalComponent>> experimentalCompByClass = new HashMap<Class<? extends ICalComponent>, ICalComponentScribe<? extends ICalComponent>>(0);
 
@@ -247,6 +262,71 @@ public class ScribeIndex {
 	private final Map<Class<? extends ICalProperty>, ICalPropertyScribe<? extends ICalProperty>> experimentalPropByClass = new HashMap<Class<? extends ICalProperty>, ICalPropertyScribe<? extends ICalProperty>>(0);
 	private final Map<QName, ICalPropertyScribe<? extends ICalProperty>> experimentalPropByQName = new HashMap<QName, ICalPropertyScribe<? extends ICalProperty>>(0);
 
+	/*
+	 * Lookup tables that are derived from the name maps above. If the index is
+	 * frozen, they also contain the standard scribes.
+	 */
+	private volatile NameTable<ICalComponentScribe<? extends ICalComponent>> experimentalCompTable = emptyCompTable;
+	private volatile Map<ICalVersion, NameTable<ICalPropertyScribe<? extends ICalProperty>>> experimentalPropTables = emptyPropTables;
+
+	private final boolean frozen;
+
+	/**
+	 * Creates a new scribe index.
+	 */
+	public ScribeIndex() {
+		frozen = false;
+	}
+
+	/**
+	 * Creates an immutable copy of a scribe index.
+	 * @param original the index to copy
+	 */
+	private ScribeIndex(ScribeIndex original) {
+		experimentalCompByName.putAll(standardCompByName);
+		experimentalCompByName.putAll(original.experimentalCompByName);
+		experimentalCompByClass.putAll(standardCompByClass);
+		experimentalCompByClass.putAll(original.experimentalCompByClass);
+
+		experimentalPropByName.putAll(standardPropByName);
+		experimentalPropByName.putAll(original.experimentalPropByName);
+		experimentalPropByClass.putAll(standardPropByClass);
+		experimentalPropByClass.putAll(original.experimentalPropByClass);
+		experimentalPropByQName.putAll(standardPropByQName);
+		experimentalPropByQName.putAll(original.experimentalPropByQName);
+
+		experimentalCompTable = new NameTable<ICalComponentScribe<? extends ICalComponent>>(experimentalCompByName);
+		experimentalPropTables = buildPropertyTables(experimentalPropByName);
+		frozen = true;
+	}
+
+	/**
+	 * <p>
+	 * Creates an immutable copy of this index. The copy can be safely shared
+	 * between any number of readers and writers, including ones that are
+	 * running concurrently on different threads. Changes that are later made
+	 * to this index are not reflected in the copy.
+	 * </p>
+	 * <p>
+	 * Because the copy contains both the standard scribes and the registered
+	 * scribes in a single table, name lookups are slightly faster than with a
+	 * mutable index.
+	 * </p>
+	 * @return the immutable copy (or this object if it's already frozen)
+	 */
+	public ScribeIndex freeze() {
+		return frozen ? this : new ScribeIndex(this);
+	}
+
+	/**
+	 * Determines if this index is immutable.
+	 * @return true if it's immutable, false if not
+	 * @see #freeze
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
 	/**
 	 * Gets a component scribe by name.
 	 * @param componentName the component name (e.g. "VEVENT")
@@ -254,20 +334,18 @@ public class ScribeIndex {
 	 * @return the component scribe or a {@link RawComponentScribe} if not found
 	 */
 	public ICalComponentScribe<? extends ICalComponent> getComponentScribe(String componentName, ICalVersion version) {
-		componentName = componentName.toUpperCase();
-
-		ICalComponentScribe<? extends ICalComponent> scribe = experimentalCompByName.get(componentName);
-		if (scribe == null) {
-			scribe = standardCompByName.get(componentName);
+		ICalComponentScribe<? extends ICalComponent> scribe = experimentalCompTable.get(componentName);
+		if (scribe == null && !frozen) {
+			scribe = standardCompTable.get(componentName);
 		}
 
 		if (scribe == null) {
-			return new RawComponentScribe(componentName);
+			return new RawComponentScribe(componentName.toUpperCase());
 		}
 
 		if (version != null && !scribe.getSupportedVersions().contains(version)) {
 			//treat the component as a raw component if the current iCal version doesn't support it
-			return new RawComponentScribe(componentName);
+			return new RawComponentScribe(componentName.toUpperCase());
 		}
 
 		return scribe;
@@ -280,21 +358,19 @@ public class ScribeIndex {
 	 * @return the property scribe or a {@link RawPropertyScribe} if not found
 	 */
 	public ICalPropertyScribe<? extends ICalProperty> getPropertyScribe(String propertyName, ICalVersion version) {
-		propertyName = propertyName.toUpperCase();
-
-		String key = propertyNameKey(propertyName, version);
-		ICalPropertyScribe<? extends ICalProperty> scribe = experimentalPropByName.get(key);
-		if (scribe == null) {
-			scribe = standardPropByName.get(key);
+		ICalVersion tableVersion = (version == null) ? ICalVersion.V2_0 : version;
+		ICalPropertyScribe<? extends ICalProperty> scribe = experimentalPropTables.get(tableVersion).get(propertyName);
+		if (scribe == null && !frozen) {
+			scribe = standardPropTables.get(tableVersion).get(propertyName);
 		}
 
 		if (scribe == null) {
-			return new RawPropertyScribe(propertyName);
+			return new RawPropertyScribe(propertyName.toUpperCase());
 		}
 
 		if (version != null && !scribe.getSupportedVersions().contains(version)) {
 			//treat the property as a raw property if the current iCal version doesn't support it
-			return new RawPropertyScribe(propertyName);
+			return new RawPropertyScribe(propertyName.toUpperCase());
 		}
 
 		return scribe;
@@ -380,43 +456,61 @@ public class ScribeIndex {
 	/**
 	 * Registers a component scribe.
 	 * @param scribe the scribe to register
+	 * @throws UnsupportedOperationException if the index is frozen
 	 */
 	public void register(ICalComponentScribe<? extends ICalComponent> scribe) {
+		checkNotFrozen();
 		experimentalCompByName.put(scribe.getComponentName().toUpperCase(), scribe);
 		experimentalCompByClass.put(scribe.getComponentClass(), scribe);
+		experimentalCompTable = new NameTable<ICalComponentScribe<? extends ICalComponent>>(experimentalCompByName);
 	}
 
 	/**
 	 * Registers a property scribe.
 	 * @param scribe the scribe to register
+	 * @throws UnsupportedOperationException if the index is frozen
 	 */
 	public void register(ICalPropertyScribe<? extends ICalProperty> scribe) {
+		checkNotFrozen();
 		for (ICalVersion version : ICalVersion.values()) {
 			experimentalPropByName.put(propertyNameKey(scribe, version), scribe);
 		}
 		experimentalPropByClass.put(scribe.getPropertyClass(), scribe);
 		experimentalPropByQName.put(scribe.getQName(), scribe);
+		experimentalPropTables = buildPropertyTables(experimentalPropByName);
 	}
 
 	/**
 	 * Unregisters a component scribe.
 	 * @param scribe the scribe to unregister
+	 * @throws UnsupportedOperationException if the index is frozen
 	 */
 	public void unregister(ICalComponentScribe<? extends ICalComponent> scribe) {
+		checkNotFrozen();
 		experimentalCompByName.remove(scribe.getComponentName().toUpperCase());
 		experimentalCompByClass.remove(scribe.getComponentClass());
+		experimentalCompTable = new NameTable<ICalComponentScribe<? extends ICalComponent>>(experimentalCompByName);
 	}
 
 	/**
 	 * Unregisters a property scribe
 	 * @param scribe the scribe to unregister
+	 * @throws UnsupportedOperationException if the index is frozen
 	 */
 	public void unregister(ICalPropertyScribe<? extends ICalProperty> scribe) {
+		checkNotFrozen();
 		for (ICalVersion version : ICalVersion.values()) {
 			experimentalPropByName.remove(propertyNameKey(scribe, version));
 		}
 		experimentalPropByClass.remove(scribe.getPropertyClass());
 		experimentalPropByQName.remove(scribe.getQName());
+		experimentalPropTables = buildPropertyTables(experimentalPropByName);
+	}
+
+	private void checkNotFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException("This ScribeIndex is frozen and cannot be modified.");
+		}
 	}
 
 	/**
@@ -448,4 +542,26 @@ public class ScribeIndex {
 	private static String propertyNameKey(String propertyName, ICalVersion version) {
 		return version.ordinal() + propertyName.toUpperCase();
 	}
+
+	/**
+	 * Builds a lookup table for each iCalendar version.
+	 * @param propByName the property scribes, keyed by
+	 * {@link #propertyNameKey(String, ICalVersion)}
+	 * @return the lookup tables
+	 */
+	private static Map<ICalVersion, NameTable<ICalPropertyScribe<? extends ICalProperty>>> buildPropertyTables(Map<String, ICalPropertyScribe<? extends ICalProperty>> propByName) {
+		Map<ICalVersion, NameTable<ICalPropertyScribe<? extends ICalProperty>>> tables = new EnumMap<ICalVersion, NameTable<ICalPropertyScribe<? extends ICalProperty>>>(ICalVersion.class);
+		for (ICalVersion version : ICalVersion.values()) {
+			String prefix = Integer.toString(version.ordinal());
+			Map<String, ICalPropertyScribe<? extends ICalProperty>> versionMap = new HashMap<String, ICalPropertyScribe<? extends ICalProperty>>();
+			for (Map.Entry<String, ICalPropertyScribe<? extends ICalProperty>> entry : propByName.entrySet()) {
+				String key = entry.getKey();
+				if (key.startsWith(prefix)) {
+					versionMap.put(key.substring(prefix.length()), entry.getValue());
+				}
+			}
+			tables.put(version, new NameTable<ICalPropertyScribe<? extends ICalProperty>>(versionMap));
+		}
+		return tables;
+	}
 }
@@ -337,4 +337,9 @@ public class AttendeeScribe extends ICalPropertyScribe<Attendee> {
 
 		return "";
 	}
+
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
 }
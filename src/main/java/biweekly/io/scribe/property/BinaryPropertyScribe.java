@@ -1,7 +1,11 @@
 package biweekly.io.scribe.property;
 
+import java.io.File;
+import java.io.IOException;
+
 import biweekly.ICalDataType;
 import biweekly.ICalVersion;
+import biweekly.io.BinaryDataMode;
 import biweekly.io.ParseContext;
 import biweekly.io.WriteContext;
 import biweekly.io.json.JCalValue;
@@ -9,6 +13,7 @@ import biweekly.io.xml.XCalElement;
 import biweekly.parameter.Encoding;
 import biweekly.parameter.ICalParameters;
 import biweekly.property.BinaryProperty;
+import biweekly.util.StreamingBase64;
 import biweekly.util.org.apache.commons.codec.binary.Base64;
 
 import com.github.mangstadt.vinnie.io.VObjectPropertyValues;
@@ -53,7 +58,7 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty> extends ICa
 
 		if (property.getUri() != null) {
 			copy.setEncoding(null);
-		} else if (property.getData() != null) {
+		} else if (property.hasData()) {
 			copy.setEncoding(Encoding.BASE64);
 		}
 
@@ -65,7 +70,7 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty> extends ICa
 		if (property.getUri() != null) {
 			return (version == ICalVersion.V1_0) ? ICalDataType.URL : ICalDataType.URI;
 		}
-		if (property.getData() != null) {
+		if (property.hasData()) {
 			return ICalDataType.BINARY;
 		}
 		return defaultDataType(version);
@@ -78,12 +83,8 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty> extends ICa
 			return uri;
 		}
 
-		byte[] data = property.getData();
-		if (data != null) {
-			return Base64.encodeBase64String(data);
-		}
-
-		return "";
+		String base64 = encodeData(property);
+		return (base64 == null) ? "" : base64;
 	}
 
 	@Override
@@ -91,8 +92,7 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty> extends ICa
 		value = VObjectPropertyValues.unescape(value);
 
 		if (dataType == ICalDataType.BINARY || parameters.getEncoding() == Encoding.BASE64) {
-			byte[] data = Base64.decodeBase64(value);
-			return newInstance(data);
+			return newBinaryInstance(value, context);
 		}
 
 		return newInstance(value, dataType);
@@ -106,15 +106,20 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty> extends ICa
 			return;
 		}
 
-		byte[] data = property.getData();
-		if (data != null) {
-			element.append(ICalDataType.BINARY, Base64.encodeBase64String(data));
+		String base64 = encodeData(property);
+		if (base64 != null) {
+			element.append(ICalDataType.BINARY, base64);
 			return;
 		}
 
 		element.append(defaultDataType(context.getVersion()), "");
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected T _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		String uri = element.first(ICalDataType.URI);
@@ -124,8 +129,7 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty> extends ICa
 
 		String base64Data = element.first(ICalDataType.BINARY);
 		if (base64Data != null) {
-			byte[] data = Base64.decodeBase64(base64Data);
-			return newInstance(data);
+			return newBinaryInstance(base64Data, context);
 		}
 
 		throw missingXmlElements(ICalDataType.URI, ICalDataType.BINARY);
@@ -138,9 +142,9 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty> extends ICa
 			return JCalValue.single(uri);
 		}
 
-		byte[] data = property.getData();
-		if (data != null) {
-			return JCalValue.single(Base64.encodeBase64String(data));
+		String base64 = encodeData(property);
+		if (base64 != null) {
+			return JCalValue.single(base64);
 		}
 
 		return JCalValue.single("");
@@ -151,13 +155,63 @@ public abstract class BinaryPropertyScribe<T extends BinaryProperty> extends ICa
 		String valueStr = value.asSingle();
 
 		if (dataType == ICalDataType.BINARY) {
-			byte[] data = Base64.decodeBase64(valueStr);
-			return newInstance(data);
+			return newBinaryInstance(valueStr, context);
 		}
 
 		return newInstance(valueStr, dataType);
 	}
 
+	/**
+	 * Base64-encodes a property's binary data. If the data is stored in a
+	 * file, the file is encoded in chunks instead of being read into memory
+	 * all at once, but the entire base64 string is still built in memory.
+	 * This is used by the vCal 1.0, xCal, and jCal writers. Only
+	 * {@link biweekly.io.text.ICalWriter} (iCalendar 2.0) streams the file
+	 * straight to the output.
+	 * @param property the property
+	 * @return the base64 string or null if the property does not have binary
+	 * data
+	 * @throws IllegalStateException if there's a problem reading the file
+	 */
+	private static String encodeData(BinaryProperty property) {
+		String encodedData = property.getEncodedData();
+		if (encodedData != null) {
+			return encodedData;
+		}
+
+		File file = property.getFile();
+		if (file != null) {
+			try {
+				return StreamingBase64.encode(file);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		byte[] data = property.getData();
+		return (data == null) ? null : Base64.encodeBase64String(data);
+	}
+
+	/**
+	 * Creates a property object from a base64-encoded value, decoding it
+	 * according to the parse context's {@link BinaryDataMode}.
+	 * @param base64 the base64-encoded value
+	 * @param context the parse context
+	 * @return the property object
+	 */
+	private T newBinaryInstance(String base64, ParseContext context) {
+		switch (context.getBinaryDataMode()) {
+		case LAZY:
+			T property = newInstance((byte[]) null);
+			property.setEncodedData(base64);
+			return property;
+		case SKIP:
+			return newInstance((byte[]) null);
+		default:
+			return newInstance(Base64.decodeBase64(base64));
+		}
+	}
+
 	/**
 	 * Creates a property object from the given binary data.
 	 * @param data the data
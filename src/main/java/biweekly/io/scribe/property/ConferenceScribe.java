@@ -61,6 +61,11 @@ public class ConferenceScribe extends ICalPropertyScribe<Conference> {
 		element.append(ICalDataType.URI, write(property));
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected Conference _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		String uri = element.first(ICalDataType.URI);
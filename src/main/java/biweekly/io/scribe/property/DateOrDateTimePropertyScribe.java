@@ -89,6 +89,11 @@ public abstract class DateOrDateTimePropertyScribe<T extends DateOrDateTimePrope
 		element.append(dataType, dateStr);
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected T _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		String value = element.first(ICalDataType.DATE_TIME);
@@ -71,6 +71,11 @@ public abstract class DateTimePropertyScribe<T extends DateTimeProperty> extends
 		element.append(dataType, dateStr);
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected T _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		ICalDataType dataType = defaultDataType(context.getVersion());
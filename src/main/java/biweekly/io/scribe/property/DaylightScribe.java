@@ -126,4 +126,9 @@ public class DaylightScribe extends ICalPropertyScribe<Daylight> {
 	public Set<ICalVersion> getSupportedVersions() {
 		return EnumSet.of(ICalVersion.V1_0);
 	}
+
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
 }
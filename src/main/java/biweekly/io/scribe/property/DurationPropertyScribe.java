@@ -74,6 +74,11 @@ public class DurationPropertyScribe extends ICalPropertyScribe<DurationProperty>
 		element.append(dataType(property, null), durationStr);
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected DurationProperty _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		ICalDataType dataType = defaultDataType(context.getVersion());
@@ -118,6 +118,11 @@ public class FreeBusyScribe extends ICalPropertyScribe<FreeBusy> {
 		}
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected FreeBusy _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		List<XCalElement> periodElements = element.children(ICalDataType.PERIOD);
@@ -102,6 +102,11 @@ public class GeoScribe extends ICalPropertyScribe<Geo> {
 		element.append("longitude", formatter.format(longitude));
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected Geo _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		String latitudeStr = element.first("latitude");
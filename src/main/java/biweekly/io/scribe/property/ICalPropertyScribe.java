@@ -210,6 +210,45 @@ public abstract class ICalPropertyScribe<T extends ICalProperty> {
 		_writeXml(property, xcalElement, context);
 	}
 
+	/**
+	 * Marshals a property's value to an xCal element.
+	 * @param property the property
+	 * @param element the property's xCal element
+	 * @param context the context
+	 * @throws SkipMeException if the property should not be written to the data
+	 * stream
+	 * @see #isXmlStreamable
+	 */
+	public final void writeXml(T property, XCalElement element, WriteContext context) {
+		_writeXml(property, element, context);
+	}
+
+	/**
+	 * <p>
+	 * Determines whether this scribe can write its xCal values to a streaming
+	 * {@link XCalElement}. Streaming elements write their child elements
+	 * directly to the output stream instead of building a DOM. They only
+	 * support the {@code append} methods, and the return values of the
+	 * {@code append} methods that return {@link Element} objects are null.
+	 * </p>
+	 * <p>
+	 * The default implementation returns false. Child classes whose
+	 * {@link #_writeXml} implementation fits the above restrictions can
+	 * override this method to return true (the scribes that come with biweekly
+	 * do this).
+	 * </p>
+	 * <p>
+	 * A streaming scribe may throw a {@link SkipMeException} before it starts
+	 * appending its second value, in which case nothing is written. If it
+	 * throws the exception later, the values it has already appended will
+	 * have been written.
+	 * </p>
+	 * @return true if the scribe supports streaming xCal elements, false if not
+	 */
+	public boolean isXmlStreamable() {
+		return false;
+	}
+
 	/**
 	 * Marshals a property's value to a JSON data stream (jCal).
 	 * @param property the property
@@ -259,7 +298,22 @@ public abstract class ICalPropertyScribe<T extends ICalProperty> {
 	 * {@link ICalendar} object
 	 */
 	public final T parseXml(Element element, ICalParameters parameters, ParseContext context) {
-		T property = _parseXml(new XCalElement(element), parameters, context);
+		return parseXml(new XCalElement(element), parameters, context);
+	}
+
+	/**
+	 * Unmarshals a property's value from an XML document (xCal).
+	 * @param element the property's XML element
+	 * @param parameters the property's parameters
+	 * @param context the context
+	 * @return the unmarshalled property
+	 * @throws CannotParseException if the scribe could not parse the property's
+	 * value
+	 * @throws SkipMeException if the property should not be added to the final
+	 * {@link ICalendar} object
+	 */
+	public final T parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
+		T property = _parseXml(element, parameters, context);
 		property.setParameters(parameters);
 		return property;
 	}
@@ -644,8 +698,8 @@ public abstract class ICalPropertyScribe<T extends ICalProperty> {
 		TimezoneAssignment globalTz = context.getGlobalTimezone();
 		if (globalTz == null) {
 			TimezoneInfo tzinfo = context.getTimezoneInfo();
-			floating = tzinfo.isFloating(property);
-			TimezoneAssignment assignment = tzinfo.getTimezoneToWriteIn(property);
+			floating = tzinfo.isFloating(property, context.getParent());
+			TimezoneAssignment assignment = tzinfo.getTimezoneToWriteIn(property, context.getParent());
 			tz = (assignment == null) ? null : assignment.getTimeZone();
 		} else {
 			floating = false;
@@ -784,7 +838,7 @@ public abstract class ICalPropertyScribe<T extends ICalProperty> {
 
 		//floating values don't have timezones
 		TimezoneInfo tzinfo = context.getTimezoneInfo();
-		boolean floating = tzinfo.isFloating(property);
+		boolean floating = tzinfo.isFloating(property, context.getParent());
 		if (floating) {
 			return parameters;
 		}
@@ -792,7 +846,7 @@ public abstract class ICalPropertyScribe<T extends ICalProperty> {
 		TimezoneAssignment tz;
 		TimezoneAssignment globalTz = context.getGlobalTimezone();
 		if (globalTz == null) {
-			tz = tzinfo.getTimezoneToWriteIn(property);
+			tz = tzinfo.getTimezoneToWriteIn(property, context.getParent());
 			if (tz == null) {
 				//write in UTC
 				return parameters;
@@ -74,6 +74,11 @@ public abstract class IntegerPropertyScribe<T extends IntegerProperty> extends I
 		element.append(dataType(property, null), valueStr);
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected T _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		ICalDataType dataType = defaultDataType(context.getVersion());
@@ -93,6 +93,11 @@ public abstract class ListPropertyScribe<T extends ListProperty<V>, V> extends I
 		}
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected T _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		ICalDataType dataType = defaultDataType(context.getVersion());
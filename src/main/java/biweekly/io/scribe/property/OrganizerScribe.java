@@ -115,4 +115,9 @@ public class OrganizerScribe extends ICalPropertyScribe<Organizer> {
 	public Set<ICalVersion> getSupportedVersions() {
 		return EnumSet.of(ICalVersion.V2_0_DEPRECATED, ICalVersion.V2_0);
 	}
+
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
 }
\ No newline at end of file
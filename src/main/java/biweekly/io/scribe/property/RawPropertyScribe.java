@@ -76,6 +76,11 @@ public class RawPropertyScribe extends ICalPropertyScribe<RawProperty> {
 		return new RawProperty(propertyName, dataType, value);
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected RawProperty _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		XCalValue firstValue = element.firstValue();
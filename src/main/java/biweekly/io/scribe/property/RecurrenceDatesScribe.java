@@ -191,6 +191,11 @@ public class RecurrenceDatesScribe extends ICalPropertyScribe<RecurrenceDates> {
 		element.append(defaultDataType(context.getVersion()), "");
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected RecurrenceDates _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		List<XCalElement> periodElements = element.children(PERIOD);
@@ -7,8 +7,6 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.w3c.dom.Element;
-
 import com.github.mangstadt.vinnie.io.VObjectPropertyValues;
 
 import biweekly.ICalDataType;
@@ -22,7 +20,6 @@ import biweekly.io.TimezoneInfo;
 import biweekly.io.WriteContext;
 import biweekly.io.json.JCalValue;
 import biweekly.io.xml.XCalElement;
-import biweekly.io.xml.XCalNamespaceContext;
 import biweekly.parameter.ICalParameters;
 import biweekly.property.DateStart;
 import biweekly.property.ICalProperty;
@@ -34,7 +31,6 @@ import biweekly.util.Frequency;
 import biweekly.util.ICalDate;
 import biweekly.util.ListMultimap;
 import biweekly.util.Recurrence;
-import biweekly.util.XmlUtils;
 
 /*
  Copyright (c) 2013-2018, Michael Angstadt
@@ -594,6 +590,11 @@ public abstract class RecurrencePropertyScribe<T extends RecurrenceProperty> ext
 		}
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected T _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		ICalDataType dataType = defaultDataType(context.getVersion());
@@ -603,14 +604,9 @@ public abstract class RecurrencePropertyScribe<T extends RecurrenceProperty> ext
 		}
 
 		ListMultimap<String, String> rules = new ListMultimap<String, String>();
-		for (Element child : XmlUtils.toElementList(value.getElement().getChildNodes())) {
-			if (!XCalNamespaceContext.XCAL_NS.equals(child.getNamespaceURI())) {
-				continue;
-			}
-
-			String name = child.getLocalName().toUpperCase();
-			String text = child.getTextContent();
-			rules.put(name, text);
+		for (Map.Entry<String, List<String>> child : value.childValues()) {
+			String name = child.getKey().toUpperCase();
+			rules.putAll(name, child.getValue());
 		}
 
 		Recurrence.Builder builder = new Recurrence.Builder((Frequency) null);
@@ -974,7 +970,7 @@ public abstract class RecurrencePropertyScribe<T extends RecurrenceProperty> ext
 		 * If DTSTART is floating, then UNTIL should be floating.
 		 */
 		TimezoneInfo tzinfo = context.getTimezoneInfo();
-		boolean dtstartFloating = tzinfo.isFloating(dtstart);
+		boolean dtstartFloating = tzinfo.isFloating(dtstart, parent);
 		if (dtstartFloating) {
 			return date(until).extended(extended).tz(true, null).write();
 		}
@@ -74,6 +74,11 @@ public class RefreshIntervalScribe extends ICalPropertyScribe<RefreshInterval> {
 		element.append(dataType(property, null), durationStr);
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected RefreshInterval _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		ICalDataType dataType = defaultDataType(context.getVersion());
@@ -84,6 +84,11 @@ public class RequestStatusScribe extends ICalPropertyScribe<RequestStatus> {
 		}
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected RequestStatus _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		String code = element.first("code");
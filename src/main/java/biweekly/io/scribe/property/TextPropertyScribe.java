@@ -71,6 +71,11 @@ public abstract class TextPropertyScribe<T extends TextProperty> extends ICalPro
 		element.append(dataType(property, context.getVersion()), property.getValue());
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected T _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		ICalDataType dataType = defaultDataType(context.getVersion());
@@ -108,6 +108,11 @@ public class TriggerScribe extends ICalPropertyScribe<Trigger> {
 		element.append(defaultDataType(context.getVersion()), "");
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected Trigger _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		String value = element.first(ICalDataType.DURATION);
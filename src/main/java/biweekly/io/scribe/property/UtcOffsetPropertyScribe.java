@@ -75,6 +75,11 @@ public abstract class UtcOffsetPropertyScribe<T extends UtcOffsetProperty> exten
 		element.append(dataType(property, null), offsetStr);
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected T _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		ICalDataType dataType = defaultDataType(context.getVersion());
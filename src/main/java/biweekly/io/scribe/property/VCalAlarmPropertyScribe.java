@@ -187,4 +187,9 @@ public abstract class VCalAlarmPropertyScribe<T extends VCalAlarmProperty> exten
 	public Set<ICalVersion> getSupportedVersions() {
 		return EnumSet.of(ICalVersion.V1_0);
 	}
+
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
 }
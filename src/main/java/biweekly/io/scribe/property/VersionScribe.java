@@ -85,6 +85,11 @@ public class VersionScribe extends ICalPropertyScribe<Version> {
 		element.append(dataType(property, null), value);
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected Version _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		ICalDataType dataType = defaultDataType(context.getVersion());
@@ -90,6 +90,11 @@ public class XmlScribe extends ICalPropertyScribe<Xml> {
 		super._writeXml(property, element, context);
 	}
 
+	@Override
+	public boolean isXmlStreamable() {
+		return true;
+	}
+
 	@Override
 	protected Xml _parseXml(XCalElement element, ICalParameters parameters, ParseContext context) {
 		Xml xml = new Xml(element.getElement());
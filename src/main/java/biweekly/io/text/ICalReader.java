@@ -5,21 +5,27 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 
 import biweekly.ICalDataType;
 import biweekly.ICalVersion;
 import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
+import biweekly.component.VTimezone;
 import biweekly.io.CannotParseException;
 import biweekly.io.DataModelConversionException;
+import biweekly.io.ParseContext;
 import biweekly.io.ParseWarning;
 import biweekly.io.SkipMeException;
 import biweekly.io.StreamReader;
+import biweekly.io.TimezoneAssignment;
+import biweekly.io.TimezoneInfo;
 import biweekly.io.scribe.ScribeIndex;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
@@ -27,6 +33,7 @@ import biweekly.io.scribe.property.RawPropertyScribe;
 import biweekly.parameter.Encoding;
 import biweekly.parameter.ICalParameters;
 import biweekly.property.ICalProperty;
+import biweekly.util.ICalDateFormat;
 import biweekly.util.Utf8Reader;
 
 import com.github.mangstadt.vinnie.VObjectProperty;
@@ -91,6 +98,9 @@ public class ICalReader extends StreamReader {
 
 	private final VObjectReader reader;
 	private final ICalVersion defaultVersion;
+	private ComponentListener componentListener;
+	private TimezoneInfo componentTimezoneInfo;
+	private int maxPendingComponents = 1000;
 
 	/**
 	 * Creates a new iCalendar reader.
@@ -251,10 +261,135 @@ public class ICalReader extends StreamReader {
 		return listener.ical;
 	}
 
+	/**
+	 * <p>
+	 * Reads the next top-level component (a direct child of a VCALENDAR
+	 * component) of the given type from the data stream. Unlike
+	 * {@link #readNext}, the rest of the iCalendar object is not kept in
+	 * memory, which makes this method suitable for very large data streams.
+	 * Components that are not of the given type are discarded.
+	 * </p>
+	 * <p>
+	 * The date-time values of each component are converted to the timezones
+	 * they are assigned to, using the VTIMEZONE components that were read
+	 * before the component. If a component references a timezone that has not
+	 * been read yet, and the timezone ID is not a valid Olsen ID, then the
+	 * component is held back until the VTIMEZONE component is read or until the
+	 * end of the VCALENDAR component is reached. The timezone settings of the
+	 * returned component can be retrieved by calling
+	 * {@link #getComponentTimezoneInfo}.
+	 * </p>
+	 * <p>
+	 * At most {@link #getMaxPendingComponents} components are held back at a
+	 * time. Once this limit is exceeded, the oldest held-back component is
+	 * released with its unresolved dates treated as if the timezone was never
+	 * defined (a parse warning is added), so that a timezone ID that is never
+	 * defined does not cause the rest of the VCALENDAR component to pile up in
+	 * memory. This also applies to VCALENDAR components whose VTIMEZONE
+	 * components come after all of the other components: only the last
+	 * {@code maxPendingComponents} components before the VTIMEZONE components
+	 * will have their timezones resolved.
+	 * </p>
+	 * <p>
+	 * The properties of the VCALENDAR component itself are not returned. Calls
+	 * to this method should not be mixed with calls to {@link #readNext}.
+	 * </p>
+	 * <p>
+	 * <b>Example:</b>
+	 * </p>
+	 * 
+	 * <pre class="brush:java">
+	 * ICalReader reader = new ICalReader(file);
+	 * try {
+	 *   VEvent event;
+	 *   while ((event = reader.readNextComponent(VEvent.class)) != null) {
+	 *     //...
+	 *   }
+	 * } finally {
+	 *   reader.close();
+	 * }
+	 * </pre>
+	 * @param clazz the component class (e.g. {@code VEvent.class})
+	 * @param <T> the component class
+	 * @return the next component or null if there are no more
+	 * @throws IOException if there's a problem reading from the stream
+	 */
+	public <T extends ICalComponent> T readNextComponent(Class<T> clazz) throws IOException {
+		warnings.clear();
+		if (componentListener == null) {
+			componentListener = new ComponentListener();
+		}
+
+		while (true) {
+			ReadComponent next = componentListener.ready.poll();
+			if (next == null) {
+				if (componentListener.eof) {
+					componentTimezoneInfo = null;
+					return null;
+				}
+
+				componentListener.stopped = false;
+				reader.parse(componentListener);
+				if (componentListener.interrupted != null) {
+					InterruptedIOException e = componentListener.interrupted;
+					componentListener.interrupted = null;
+					throw e;
+				}
+				if (!componentListener.stopped) {
+					componentListener.eof = true;
+					if (componentListener.ical != null) {
+						//the data stream ended before the VCALENDAR component was closed
+						componentListener.calendarEnded();
+					}
+				}
+				continue;
+			}
+
+			if (clazz.isInstance(next.component)) {
+				componentTimezoneInfo = next.tzinfo;
+				return clazz.cast(next.component);
+			}
+		}
+	}
+
+	/**
+	 * Gets the maximum number of components that
+	 * {@link #readNextComponent} holds back while waiting for the VTIMEZONE
+	 * components they reference.
+	 * @return the maximum number of components (defaults to 1000)
+	 */
+	public int getMaxPendingComponents() {
+		return maxPendingComponents;
+	}
+
+	/**
+	 * Sets the maximum number of components that
+	 * {@link #readNextComponent} holds back while waiting for the VTIMEZONE
+	 * components they reference. Larger values let more components be
+	 * resolved against VTIMEZONE components that appear late in the
+	 * VCALENDAR component, at the cost of keeping more components in memory.
+	 * @param maxPendingComponents the maximum number of components (defaults
+	 * to 1000)
+	 */
+	public void setMaxPendingComponents(int maxPendingComponents) {
+		this.maxPendingComponents = maxPendingComponents;
+	}
+
+	/**
+	 * Gets the timezone settings of the component that was last returned by
+	 * {@link #readNextComponent}. The returned object contains the timezones
+	 * that were defined in the VCALENDAR component, as well as the timezone
+	 * that each of the component's date-time properties is assigned to.
+	 * @return the timezone settings or null if no component has been returned
+	 */
+	public TimezoneInfo getComponentTimezoneInfo() {
+		return componentTimezoneInfo;
+	}
+
 	private class VObjectDataListenerImpl implements VObjectDataListener {
-		private ICalendar ical = null;
-		private ICalVersion version = defaultVersion;
-		private ComponentStack stack = new ComponentStack();
+		protected ICalendar ical = null;
+		protected ICalVersion version = defaultVersion;
+		protected final ComponentStack stack = new ComponentStack();
 
 		public void onComponentBegin(String name, Context vobjectContext) {
 			//ignore everything until a VCALENDAR component is read
@@ -380,7 +515,7 @@ public class ICalReader extends StreamReader {
 			//@formatter:on
 		}
 
-		private boolean isVCalendarComponent(String componentName) {
+		protected boolean isVCalendarComponent(String componentName) {
 			return VCALENDAR_COMPONENT_NAME.equals(componentName);
 		}
 
@@ -430,6 +565,198 @@ public class ICalReader extends StreamReader {
 		}
 	}
 
+	/**
+	 * Reads each top-level component of a VCALENDAR component without adding
+	 * it to the VCALENDAR component.
+	 */
+	private class ComponentListener extends VObjectDataListenerImpl {
+		private final LinkedList<ReadComponent> ready = new LinkedList<ReadComponent>();
+		private final LinkedList<ReadComponent> pending = new LinkedList<ReadComponent>();
+		private ParseContext calendarContext;
+		private TimezoneAssignment vcalTimezone;
+		private boolean vcalTimezoneExtracted;
+		private boolean stopped, eof;
+
+		/**
+		 * The exception that was thrown when the thread was interrupted while
+		 * converting date values (the listener methods cannot throw checked
+		 * exceptions).
+		 */
+		private InterruptedIOException interrupted;
+
+		@Override
+		public void onComponentBegin(String name, Context vobjectContext) {
+			if (stack.size() != 1) {
+				if (ical == null && isVCalendarComponent(name)) {
+					//start of a new VCALENDAR component
+					version = defaultVersion;
+					context = newParseContext();
+					calendarContext = context;
+					vcalTimezone = null;
+					vcalTimezoneExtracted = false;
+				}
+
+				super.onComponentBegin(name, vobjectContext);
+				return;
+			}
+
+			//each top-level component gets its own context so its dates can be processed separately
+			ICalComponentScribe<? extends ICalComponent> scribe = index.getComponentScribe(name, version);
+			stack.push(scribe.emptyInstance());
+			context = newParseContext();
+			context.setVersion(version);
+		}
+
+		@Override
+		public void onComponentEnd(String name, Context vobjectContext) {
+			//VCALENDAR component not read yet, ignore
+			if (ical == null) {
+				return;
+			}
+
+			ICalComponent component = stack.pop();
+			if (stack.isEmpty()) {
+				//"END:VCALENDAR" reached
+				try {
+					calendarEnded();
+				} catch (InterruptedIOException e) {
+					interrupted = e;
+				}
+				stop(vobjectContext);
+				return;
+			}
+
+			if (stack.size() > 1) {
+				return;
+			}
+
+			ReadComponent read = new ReadComponent(component, context);
+			context = calendarContext;
+
+			if (component instanceof VTimezone) {
+				addTimezone((VTimezone) component, ical.getTimezoneInfo());
+			}
+
+			pending.add(read);
+			try {
+				flushPending(false);
+			} catch (InterruptedIOException e) {
+				interrupted = e;
+				stop(vobjectContext);
+				return;
+			}
+
+			if (!ready.isEmpty()) {
+				stop(vobjectContext);
+			}
+		}
+
+		private void stop(Context vobjectContext) {
+			stopped = true;
+			vobjectContext.stop();
+		}
+
+		/**
+		 * Processes the timezones of all the remaining components in the
+		 * current VCALENDAR component.
+		 * @throws InterruptedIOException if the thread is interrupted while
+		 * converting date values
+		 */
+		public void calendarEnded() throws InterruptedIOException {
+			flushPending(true);
+			applyTimezones(calendarContext, ical.getTimezoneInfo(), getVCalTimezone());
+			ical = null;
+			calendarContext = null;
+		}
+
+		/**
+		 * Moves components from the pending queue to the ready queue, in the
+		 * order in which they were read. If the queue holds more than
+		 * {@link #maxPendingComponents} components, the oldest components are
+		 * moved even if they reference timezones that haven't been defined
+		 * yet.
+		 * @param force true to move all components, even ones that reference
+		 * timezones that haven't been defined yet
+		 * @throws InterruptedIOException if the thread is interrupted while
+		 * converting date values
+		 */
+		private void flushPending(boolean force) throws InterruptedIOException {
+			while (!pending.isEmpty()) {
+				ReadComponent read = pending.getFirst();
+				if (!force && pending.size() <= maxPendingComponents && !canResolveTimezones(read.context)) {
+					break;
+				}
+
+				pending.removeFirst();
+
+				TimezoneInfo calendarTzinfo = ical.getTimezoneInfo();
+				TimezoneInfo tzinfo = new TimezoneInfo();
+				tzinfo.getTimezones().addAll(calendarTzinfo.getTimezones());
+				tzinfo.setDefaultTimezone(calendarTzinfo.getDefaultTimezone());
+				applyTimezones(read.context, tzinfo, getVCalTimezone());
+
+				read.tzinfo = tzinfo;
+				read.context = null;
+				ready.add(read);
+			}
+		}
+
+		/**
+		 * Determines if all the timezones that a component's dates reference
+		 * are known.
+		 * @param context the component's parse context
+		 * @return true if the timezones are known, false if not
+		 */
+		private boolean canResolveTimezones(ParseContext context) {
+			TimezoneInfo tzinfo = ical.getTimezoneInfo();
+			for (String tzid : context.getTimezonedDates().keySet()) {
+				if (tzid.startsWith("/")) {
+					continue;
+				}
+				if (tzinfo.getTimezoneById(tzid) != null) {
+					continue;
+				}
+				if (ICalDateFormat.parseTimeZoneId(tzid) != null) {
+					continue;
+				}
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Gets the timezone defined by the vCalendar DAYLIGHT and TZ properties.
+		 * These properties are located at the top of the VCALENDAR component,
+		 * so they will have been read by the time this method is called.
+		 * @return the timezone or null if not defined
+		 */
+		private TimezoneAssignment getVCalTimezone() {
+			if (!vcalTimezoneExtracted) {
+				vcalTimezone = extractVCalTimezone(ical);
+				vcalTimezoneExtracted = true;
+			}
+			return vcalTimezone;
+		}
+	}
+
+	/**
+	 * A top-level component that was read by the {@link ComponentListener}.
+	 */
+	private static class ReadComponent {
+		private final ICalComponent component;
+		private ParseContext context;
+		private TimezoneInfo tzinfo;
+
+		/**
+		 * @param component the component
+		 * @param context the context that holds the component's date values
+		 */
+		public ReadComponent(ICalComponent component, ParseContext context) {
+			this.component = component;
+			this.context = context;
+		}
+	}
+
 	/**
 	 * Keeps track of the hierarchy of nested components.
 	 */
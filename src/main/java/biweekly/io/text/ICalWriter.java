@@ -3,13 +3,18 @@ package biweekly.io.text;
 import static biweekly.io.DataModelConverter.convert;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.Flushable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import biweekly.ICalDataType;
@@ -22,15 +27,20 @@ import biweekly.io.DataModelConverter.VCalTimezoneProperties;
 import biweekly.io.SkipMeException;
 import biweekly.io.StreamWriter;
 import biweekly.io.scribe.component.ICalComponentScribe;
+import biweekly.io.scribe.property.BinaryPropertyScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
 import biweekly.parameter.ICalParameters;
+import biweekly.property.BinaryProperty;
 import biweekly.property.Daylight;
 import biweekly.property.ICalProperty;
 import biweekly.property.Timezone;
 import biweekly.property.Version;
+import biweekly.util.IOUtils;
+import biweekly.util.StreamingBase64;
 import biweekly.util.Utf8Writer;
 
 import com.github.mangstadt.vinnie.VObjectParameters;
+import com.github.mangstadt.vinnie.io.FoldedLineWriter;
 import com.github.mangstadt.vinnie.io.VObjectWriter;
 
 /*
@@ -97,6 +107,15 @@ import com.github.mangstadt.vinnie.io.VObjectWriter;
  * writer.getVObjectWriter().getFoldedLineWriter().setIndent("\t");
  *
  * </pre>
+ * <p>
+ * <b>Missing scribes:</b> This class looks up the scribe of each component
+ * and property as it writes them, instead of checking the entire iCalendar
+ * object beforehand. If a component or property without a registered scribe
+ * is encountered, an {@link IllegalArgumentException} is thrown and the data
+ * stream will contain an incomplete VCALENDAR component (everything up to the
+ * offending component or property, without the closing END lines). Output is
+ * not buffered, so the data stream should be discarded if this happens.
+ * </p>
  * @author Michael Angstadt
  * @see <a href="http://www.imc.org/pdi/pdiproddev.html">1.0 specs</a>
  * @see <a href="https://tools.ietf.org/html/rfc2445">RFC 2445</a>
@@ -105,6 +124,8 @@ import com.github.mangstadt.vinnie.io.VObjectWriter;
 public class ICalWriter extends StreamWriter implements Flushable {
 	private final VObjectWriter writer;
 	private ICalVersion targetVersion;
+	private boolean trackDateRangeOnly = false;
+	private Date daylightRangeStart, daylightRangeEnd;
 
 	/**
 	 * Creates a new iCalendar writer.
@@ -165,6 +186,11 @@ public class ICalWriter extends StreamWriter implements Flushable {
 		return targetVersion;
 	}
 
+	@Override
+	protected boolean checksScribesWhileWriting() {
+		return true;
+	}
+
 	/**
 	 * Sets the version that the written iCalendar objects will adhere to.
 	 * @param targetVersion the iCalendar version
@@ -207,6 +233,85 @@ public class ICalWriter extends StreamWriter implements Flushable {
 		writer.setCaretEncodingEnabled(enable);
 	}
 
+	/**
+	 * <p>
+	 * Gets whether only the earliest and latest timezoned date values of each
+	 * vCalendar object are recorded while writing (disabled by default). Only
+	 * applies to vCalendar 1.0.
+	 * </p>
+	 * @return true if only the date range is recorded, false if every date is
+	 * recorded
+	 * @see #setTrackDateRangeOnly(boolean)
+	 */
+	public boolean isTrackDateRangeOnly() {
+		return trackDateRangeOnly;
+	}
+
+	/**
+	 * <p>
+	 * Sets whether only the earliest and latest timezoned date values of each
+	 * vCalendar object should be recorded while writing (disabled by default).
+	 * Only applies to vCalendar 1.0.
+	 * </p>
+	 * <p>
+	 * By default, every timezoned date value is held in memory so that the TZ
+	 * and DAYLIGHT properties can be generated once the object's components
+	 * have been written. Enabling this setting keeps memory usage constant
+	 * instead. A DAYLIGHT property is then written for every daylight savings
+	 * period that overlaps the range, including periods that fall between
+	 * date values.
+	 * </p>
+	 * @param trackDateRangeOnly true to only record the date range, false to
+	 * record every date
+	 */
+	public void setTrackDateRangeOnly(boolean trackDateRangeOnly) {
+		this.trackDateRangeOnly = trackDateRangeOnly;
+	}
+
+	/**
+	 * Gets the start of the date range hint for the vCalendar TZ and DAYLIGHT
+	 * properties.
+	 * @return the start of the range or null if not set
+	 * @see #setDaylightRange(Date, Date)
+	 */
+	public Date getDaylightRangeStart() {
+		return daylightRangeStart;
+	}
+
+	/**
+	 * Gets the end of the date range hint for the vCalendar TZ and DAYLIGHT
+	 * properties.
+	 * @return the end of the range or null if not set
+	 * @see #setDaylightRange(Date, Date)
+	 */
+	public Date getDaylightRangeEnd() {
+		return daylightRangeEnd;
+	}
+
+	/**
+	 * <p>
+	 * Sets the range of dates that the vCalendar TZ and DAYLIGHT properties
+	 * should cover. Only applies to vCalendar 1.0.
+	 * </p>
+	 * <p>
+	 * When a range is set, the TZ and DAYLIGHT properties are generated from
+	 * the range and written before the vCalendar object's components, instead
+	 * of after them. The date values in the vCalendar object are not recorded.
+	 * </p>
+	 * @param start the start of the range (inclusive) or null to remove the
+	 * range
+	 * @param end the end of the range (inclusive) or null to remove the range
+	 */
+	public void setDaylightRange(Date start, Date end) {
+		if (start == null || end == null) {
+			daylightRangeStart = daylightRangeEnd = null;
+			return;
+		}
+
+		daylightRangeStart = start;
+		daylightRangeEnd = end;
+	}
+
 	@Override
 	protected void _write(ICalendar ical) throws IOException {
 		writeComponent(ical, null);
@@ -225,6 +330,10 @@ public class ICalWriter extends StreamWriter implements Flushable {
 		boolean inICalRoot = inICalendar && getTargetVersion() != ICalVersion.V1_0;
 
 		ICalComponentScribe componentScribe = index.getComponentScribe(component);
+		if (componentScribe == null) {
+			throw scribesNotFound(Collections.singleton(component.getClass()));
+		}
+
 		try {
 			componentScribe.checkForDataModelConversions(component, parent, getTargetVersion());
 		} catch (DataModelConversionException e) {
@@ -244,21 +353,25 @@ public class ICalWriter extends StreamWriter implements Flushable {
 			propertyObjs.add(0, new Version(getTargetVersion()));
 		}
 
+		boolean hasDaylightRange = (daylightRangeStart != null);
+		if (inVCalRoot) {
+			context.setTrackDateRangeOnly(trackDateRangeOnly || hasDaylightRange);
+		}
+
 		for (Object propertyObj : propertyObjs) {
 			context.setParent(component); //set parent here incase a scribe resets the parent
 			ICalProperty property = (ICalProperty) propertyObj;
 			writeProperty(property);
 		}
 
+		if (inVCalRoot && hasDaylightRange) {
+			writeVCalTimezoneProperties(daylightRangeStart, daylightRangeEnd, null);
+		}
+
 		List subComponents = componentScribe.getComponents(component);
 		if (inICalRoot) {
 			//add the VTIMEZONE components
-			Collection<VTimezone> timezones = getTimezoneComponents();
-			for (VTimezone timezone : timezones) {
-				if (!subComponents.contains(timezone)) {
-					subComponents.add(0, timezone);
-				}
-			}
+			addTimezoneComponents(subComponents);
 		}
 
 		for (Object subComponentObj : subComponents) {
@@ -266,43 +379,68 @@ public class ICalWriter extends StreamWriter implements Flushable {
 			writeComponent(subComponent, component);
 		}
 
-		if (inVCalRoot) {
-			Collection<VTimezone> timezones = getTimezoneComponents();
-			if (!timezones.isEmpty()) {
-				VTimezone timezone = timezones.iterator().next();
-				VCalTimezoneProperties props = convert(timezone, context.getDates());
-
-				Timezone tz = props.getTz();
-				if (tz != null) {
-					writeProperty(tz);
-				}
-				for (Daylight daylight : props.getDaylights()) {
-					writeProperty(daylight);
-				}
+		if (inVCalRoot && !hasDaylightRange) {
+			if (trackDateRangeOnly) {
+				writeVCalTimezoneProperties(context.getEarliestDate(), context.getLatestDate(), null);
+			} else {
+				writeVCalTimezoneProperties(null, null, context.getDates());
 			}
 		}
 
 		writer.writeEndComponent(componentScribe.getComponentName());
 	}
 
+	/**
+	 * Writes the TZ and DAYLIGHT properties of a vCalendar object.
+	 * @param start the start of the date range to cover (only used if
+	 * "dates" is null)
+	 * @param end the end of the date range to cover (only used if "dates" is
+	 * null)
+	 * @param dates the dates to cover or null to use the date range
+	 * @throws IOException if there's a problem writing to the data stream
+	 */
+	private void writeVCalTimezoneProperties(Date start, Date end, List<Date> dates) throws IOException {
+		Collection<VTimezone> timezones = getTimezoneComponents();
+		if (timezones.isEmpty()) {
+			return;
+		}
+
+		VTimezone timezone = timezones.iterator().next();
+		VCalTimezoneProperties props = (dates == null) ? convert(timezone, start, end) : convert(timezone, dates);
+
+		Timezone tz = props.getTz();
+		if (tz != null) {
+			writeProperty(tz);
+		}
+		for (Daylight daylight : props.getDaylights()) {
+			writeProperty(daylight);
+		}
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private void writeProperty(ICalProperty property) throws IOException {
 		ICalPropertyScribe scribe = index.getPropertyScribe(property);
+		if (scribe == null) {
+			throw scribesNotFound(Collections.singleton(property.getClass()));
+		}
 
 		//marshal property
-		String value;
-		try {
-			value = scribe.writeText(property, context);
-		} catch (SkipMeException e) {
-			return;
-		} catch (DataModelConversionException e) {
-			for (ICalComponent c : e.getComponents()) {
-				writeComponent(c, context.getParent());
-			}
-			for (ICalProperty p : e.getProperties()) {
-				writeProperty(p);
+		String value = null;
+		File file = getStreamableFile(property, scribe);
+		if (file == null) {
+			try {
+				value = scribe.writeText(property, context);
+			} catch (SkipMeException e) {
+				return;
+			} catch (DataModelConversionException e) {
+				for (ICalComponent c : e.getComponents()) {
+					writeComponent(c, context.getParent());
+				}
+				for (ICalProperty p : e.getProperties()) {
+					writeProperty(p);
+				}
+				return;
 			}
-			return;
 		}
 
 		//get parameters
@@ -324,9 +462,72 @@ public class ICalWriter extends StreamWriter implements Flushable {
 		String propertyName = scribe.getPropertyName(getTargetVersion());
 
 		//write property to data stream
+		if (file != null) {
+			writeBase64Property(propertyName, parameters, file);
+			return;
+		}
 		writer.writeProperty(null, propertyName, new VObjectParameters(parameters.getMap()), value);
 	}
 
+	/**
+	 * Gets the file whose contents can be base64-encoded straight to the
+	 * output stream instead of being marshalled to a string first.
+	 * @param property the property
+	 * @param scribe the property's scribe
+	 * @return the file or null if the property's value cannot be streamed
+	 */
+	private File getStreamableFile(ICalProperty property, ICalPropertyScribe<?> scribe) {
+		if (targetVersion == ICalVersion.V1_0) {
+			//old style syntax has different rules for base64 values
+			return null;
+		}
+		if (!(property instanceof BinaryProperty) || !(scribe instanceof BinaryPropertyScribe)) {
+			return null;
+		}
+		return ((BinaryProperty) property).getFile();
+	}
+
+	/**
+	 * Writes a property whose value is the base64 encoding of a file. The file
+	 * is encoded in chunks as it is read, so its contents are never held in
+	 * memory all at once.
+	 * @param propertyName the property name
+	 * @param parameters the property parameters
+	 * @param file the file
+	 * @throws IOException if there's a problem reading the file or writing to
+	 * the output stream
+	 */
+	private void writeBase64Property(String propertyName, ICalParameters parameters, File file) throws IOException {
+		/*
+		 * Let vinnie write the property name and parameters, so that they are
+		 * validated and escaped in the usual way. Then, write the value
+		 * directly to the folded line writer.
+		 */
+		StringWriter sw = new StringWriter();
+		VObjectWriter headerWriter = new VObjectWriter(sw, writer.getSyntaxStyle());
+		headerWriter.getFoldedLineWriter().setLineLength(null);
+		headerWriter.setCaretEncodingEnabled(writer.isCaretEncodingEnabled());
+		headerWriter.writeProperty(null, propertyName, new VObjectParameters(parameters.getMap()), "");
+
+		String header = sw.toString();
+		int end = header.length();
+		while (end > 0 && (header.charAt(end - 1) == '\r' || header.charAt(end - 1) == '\n')) {
+			end--;
+		}
+
+		FoldedLineWriter out = writer.getFoldedLineWriter();
+		out.write(header, 0, end);
+
+		InputStream in = new FileInputStream(file);
+		try {
+			StreamingBase64.encode(in, out);
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+
+		out.writeln();
+	}
+
 	/**
 	 * Flushes the output stream.
 	 * @throws IOException if there's a problem flushing the output stream
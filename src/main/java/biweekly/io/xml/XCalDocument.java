@@ -15,7 +15,6 @@ import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -42,7 +41,6 @@ import biweekly.ICalDataType;
 import biweekly.ICalVersion;
 import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
-import biweekly.component.VTimezone;
 import biweekly.io.CannotParseException;
 import biweekly.io.ParseWarning;
 import biweekly.io.SkipMeException;
@@ -711,12 +709,7 @@ public class XCalDocument {
 			List subComponents = componentScribe.getComponents(component);
 			if (component instanceof ICalendar) {
 				//add the VTIMEZONE components that were auto-generated by TimezoneOptions
-				Collection<VTimezone> tzs = getTimezoneComponents();
-				for (VTimezone tz : tzs) {
-					if (!subComponents.contains(tz)) {
-						subComponents.add(0, tz);
-					}
-				}
+				addTimezoneComponents(subComponents);
 			}
 			Element componentsWrapperElement = buildElement(COMPONENTS);
 			for (Object subComponentObj : subComponents) {
@@ -0,0 +1,448 @@
+package biweekly.io.xml;
+
+import static biweekly.io.xml.XCalQNames.ICALENDAR;
+import static biweekly.io.xml.XCalQNames.VCALENDAR;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.namespace.QName;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Splits an xCal document into standalone XML documents, each one containing a
+ * single {@code <vcalendar>} element. This allows a large xCal document to be
+ * parsed one iCalendar object at a time, without having to read the entire
+ * document first.
+ * </p>
+ * <p>
+ * Each fragment contains the document's DOCTYPE declaration (if any), the
+ * start tags of the {@code <vcalendar>} element's ancestors (so that namespace
+ * declarations and entities are preserved), the raw {@code <vcalendar>}
+ * element, and the ancestors' end tags. The fragments are not validated by
+ * this class. If a part of the document is malformed, a fragment is returned
+ * that reproduces the problem, so that it is reported by the XML parser.
+ * </p>
+ * @author Michael Angstadt
+ */
+class XCalDocumentScanner {
+	private static final Pattern attributeRegex = Pattern.compile("([^\\s=]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private int bufferPos = 0, bufferLen = 0;
+
+	private final List<OpenElement> stack = new ArrayList<OpenElement>();
+	private String doctype = "";
+	private boolean rootSeen = false, done = false;
+
+	/**
+	 * The index (in {@link #stack}) of the {@code <icalendar>} element that
+	 * is being read from or -1 if no {@code <icalendar>} element is open.
+	 */
+	private int icalendarIndex = -1;
+
+	/**
+	 * The raw text of the {@code <vcalendar>} element that is being read or
+	 * null if one is not being read.
+	 */
+	private StringBuilder capture;
+	private int captureDepth;
+
+	/**
+	 * @param reader the XML document
+	 */
+	public XCalDocumentScanner(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads the next {@code <vcalendar>} element from the document.
+	 * @return an XML document that contains the element or null if the end of
+	 * the document has been reached
+	 * @throws IOException if there's a problem reading from the input stream
+	 */
+	public String next() throws IOException {
+		if (done) {
+			return null;
+		}
+
+		while (true) {
+			int c = read();
+			if (c < 0) {
+				done = true;
+				if (capture != null || !stack.isEmpty() || !rootSeen) {
+					//unterminated document
+					return fragment((capture == null) ? "" : capture.toString(), false);
+				}
+				return null;
+			}
+
+			if (c != '<') {
+				continue;
+			}
+
+			c = read();
+			switch (c) {
+			case '!':
+				String declaration = readDeclaration();
+				if (declaration != null && !rootSeen) {
+					doctype = "<!" + declaration;
+				}
+				continue;
+
+			case '?':
+				skipUntil("?>");
+				continue;
+
+			case '/':
+				String name = readUntil('>').trim();
+				String fragment = (capture == null) ? endTag(name) : endCapturedTag();
+				if (fragment != null) {
+					return fragment;
+				}
+				continue;
+
+			case -1:
+				continue;
+
+			default:
+				String tag = "<" + (char) c + readTag();
+				fragment = (capture == null) ? startTag(tag) : startCapturedTag(tag);
+				if (fragment != null) {
+					return fragment;
+				}
+				continue;
+			}
+		}
+	}
+
+	/**
+	 * Handles a start tag that is not inside of a {@code <vcalendar>} element.
+	 * @param tag the raw tag
+	 * @return a malformed fragment if the tag is not allowed here, null
+	 * otherwise
+	 */
+	private String startTag(String tag) {
+		if (rootSeen && stack.isEmpty()) {
+			//a second root element
+			done = true;
+			return doctype + "<root/>" + tag;
+		}
+		rootSeen = true;
+
+		boolean selfClosing = tag.endsWith("/>");
+		OpenElement element = new OpenElement(tag);
+		QName qname = element.resolve(stack);
+
+		if (icalendarIndex >= 0 && icalendarIndex == stack.size() - 1 && VCALENDAR.equals(qname)) {
+			if (selfClosing) {
+				return fragment(tag, true);
+			}
+
+			capture = new StringBuilder(tag);
+			captureDepth = 1;
+			return null;
+		}
+
+		if (selfClosing) {
+			return null;
+		}
+
+		if (icalendarIndex < 0 && ICALENDAR.equals(qname)) {
+			icalendarIndex = stack.size();
+		}
+		stack.add(element);
+		return null;
+	}
+
+	/**
+	 * Handles an end tag that is not inside of a {@code <vcalendar>} element.
+	 * @param name the tag name
+	 * @return a malformed fragment if the end tag does not match its start
+	 * tag, null otherwise
+	 */
+	private String endTag(String name) {
+		if (stack.isEmpty() || !stack.get(stack.size() - 1).name.equals(name)) {
+			done = true;
+			return fragment("</" + name + ">", false);
+		}
+
+		stack.remove(stack.size() - 1);
+		if (icalendarIndex == stack.size()) {
+			icalendarIndex = -1;
+		}
+		return null;
+	}
+
+	/**
+	 * Handles a start tag that is inside of a {@code <vcalendar>} element.
+	 * The tag has already been added to the captured text.
+	 * @param tag the raw tag
+	 * @return always null
+	 */
+	private String startCapturedTag(String tag) {
+		if (!tag.endsWith("/>")) {
+			captureDepth++;
+		}
+		return null;
+	}
+
+	/**
+	 * Handles an end tag that is inside of a {@code <vcalendar>} element.
+	 * @return the fragment if the {@code <vcalendar>} element has ended, null
+	 * otherwise
+	 */
+	private String endCapturedTag() {
+		captureDepth--;
+		if (captureDepth > 0) {
+			return null;
+		}
+
+		String element = capture.toString();
+		capture = null;
+		return fragment(element, true);
+	}
+
+	/**
+	 * Builds a standalone XML document.
+	 * @param element the element to put in the document
+	 * @param close true to close the ancestor elements, false not to
+	 * @return the XML document
+	 */
+	private String fragment(String element, boolean close) {
+		StringBuilder sb = new StringBuilder(doctype);
+		for (OpenElement ancestor : stack) {
+			sb.append(ancestor.tag);
+		}
+		sb.append(element);
+		if (close) {
+			for (int i = stack.size() - 1; i >= 0; i--) {
+				sb.append("</").append(stack.get(i).name).append('>');
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Reads the rest of a start tag.
+	 * @return the rest of the tag, including the closing angle bracket
+	 * @throws IOException if there's a problem reading from the input stream
+	 */
+	private String readTag() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		char quote = 0;
+		int c;
+		while ((c = read()) >= 0) {
+			sb.append((char) c);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = (char) c;
+			} else if (c == '>') {
+				break;
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Reads a comment, CDATA section, or DOCTYPE declaration. The "&lt;!" has
+	 * already been read.
+	 * @return the DOCTYPE declaration or null if it was a comment or CDATA
+	 * section
+	 * @throws IOException if there's a problem reading from the input stream
+	 */
+	private String readDeclaration() throws IOException {
+		int c = read();
+		if (c == '-') {
+			//skip the second dash of the "<!--" opener so that "<!---->" is closed properly
+			read();
+			skipUntil("-->");
+			return null;
+		}
+		if (c == '[') {
+			//skip the rest of the "<![CDATA[" opener
+			readUntil('[');
+			skipUntil("]]>");
+			return null;
+		}
+
+		StringBuilder sb = new StringBuilder();
+		if (c >= 0) {
+			sb.append((char) c);
+		}
+
+		char quote = 0;
+		int depth = 0;
+		while ((c = read()) >= 0) {
+			sb.append((char) c);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = (char) c;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+			} else if (c == '>' && depth <= 0) {
+				break;
+			}
+		}
+		return sb.toString();
+	}
+
+	private String readUntil(char end) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		int c;
+		while ((c = read()) >= 0 && c != end) {
+			sb.append((char) c);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Skips characters until the given string has been read. Uses the
+	 * Knuth-Morris-Pratt algorithm so that a match that overlaps a failed
+	 * partial match (for example, "]]]&gt;" when looking for "]]&gt;") is
+	 * found.
+	 * @param end the string to look for
+	 * @throws IOException if there's a problem reading from the input stream
+	 */
+	private void skipUntil(String end) throws IOException {
+		int[] fallback = new int[end.length()];
+		for (int i = 1, k = 0; i < end.length(); i++) {
+			while (k > 0 && end.charAt(i) != end.charAt(k)) {
+				k = fallback[k - 1];
+			}
+			if (end.charAt(i) == end.charAt(k)) {
+				k++;
+			}
+			fallback[i] = k;
+		}
+
+		int matched = 0;
+		int c;
+		while (matched < end.length() && (c = read()) >= 0) {
+			while (matched > 0 && c != end.charAt(matched)) {
+				matched = fallback[matched - 1];
+			}
+			if (c == end.charAt(matched)) {
+				matched++;
+			}
+		}
+	}
+
+	/**
+	 * Reads the next character, adding it to the captured {@code <vcalendar>}
+	 * element if one is being read.
+	 * @return the character or -1 if the end of the stream has been reached
+	 * @throws IOException if there's a problem reading from the input stream
+	 */
+	private int read() throws IOException {
+		if (bufferPos == bufferLen) {
+			bufferLen = reader.read(buffer);
+			bufferPos = 0;
+			if (bufferLen <= 0) {
+				bufferLen = 0;
+				return -1;
+			}
+		}
+
+		char c = buffer[bufferPos++];
+		if (capture != null) {
+			capture.append(c);
+		}
+		return c;
+	}
+
+	/**
+	 * An element whose start tag has been read, but whose end tag has not.
+	 */
+	private static class OpenElement {
+		private final String tag;
+		private final String name;
+		private final Map<String, String> namespaces = new HashMap<String, String>();
+
+		public OpenElement(String tag) {
+			this.tag = tag;
+
+			int end = 1;
+			while (end < tag.length()) {
+				char c = tag.charAt(end);
+				if (Character.isWhitespace(c) || c == '/' || c == '>') {
+					break;
+				}
+				end++;
+			}
+			name = tag.substring(1, end);
+
+			Matcher m = attributeRegex.matcher(tag.substring(end));
+			while (m.find()) {
+				String attribute = m.group(1);
+				String value = (m.group(2) == null) ? m.group(3) : m.group(2);
+				if (attribute.equals("xmlns")) {
+					namespaces.put("", value);
+				} else if (attribute.startsWith("xmlns:")) {
+					namespaces.put(attribute.substring(6), value);
+				}
+			}
+		}
+
+		/**
+		 * Determines the element's qualified name.
+		 * @param ancestors the element's ancestors
+		 * @return the qualified name
+		 */
+		public QName resolve(List<OpenElement> ancestors) {
+			int colon = name.indexOf(':');
+			String prefix = (colon < 0) ? "" : name.substring(0, colon);
+			String localName = name.substring(colon + 1);
+
+			String namespace = namespaces.get(prefix);
+			for (int i = ancestors.size() - 1; namespace == null && i >= 0; i--) {
+				namespace = ancestors.get(i).namespaces.get(prefix);
+			}
+			if (namespace == null) {
+				namespace = "";
+			}
+
+			return new QName(namespace, localName);
+		}
+	}
+}
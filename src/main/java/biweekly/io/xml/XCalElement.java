@@ -10,6 +10,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import biweekly.ICalDataType;
+import biweekly.util.ListMultimap;
 import biweekly.util.XmlUtils;
 
 /*
@@ -38,12 +39,31 @@ import biweekly.util.XmlUtils;
  */
 
 /**
+ * <p>
  * Wraps xCal functionality around an XML {@link Element} object.
+ * </p>
+ * <p>
+ * An xCal element can also wrap an element that was read from a SAX stream.
+ * Such elements are only converted to a DOM {@link Element} if
+ * {@link #getElement} or {@link #document} is called.
+ * </p>
+ * <p>
+ * An xCal element can also be <i>streaming</i>, which means that the child
+ * elements that are appended to it are written directly to the output stream
+ * instead of being added to a DOM. Streaming elements can only be appended
+ * to. The methods that read from the element and the methods that return DOM
+ * objects are not supported.
+ * </p>
  * @author Michael Angstadt
  */
 public class XCalElement {
-	private final Element element;
-	private final Document document;
+	private Element element;
+	private Document document;
+	private final ParsedNode node;
+
+	private final Sink sink;
+	private final String localName;
+	private XCalElement openChild;
 
 	/**
 	 * Creates a new xCal element.
@@ -52,6 +72,40 @@ public class XCalElement {
 	public XCalElement(Element element) {
 		this.element = element;
 		document = element.getOwnerDocument();
+		node = null;
+		sink = null;
+		localName = null;
+	}
+
+	/**
+	 * Creates a new xCal element that wraps an element read from a SAX
+	 * stream.
+	 * @param node the element to wrap
+	 */
+	XCalElement(ParsedNode node) {
+		this.node = node;
+		sink = null;
+		localName = null;
+	}
+
+	/**
+	 * Creates a new streaming xCal element.
+	 * @param sink the sink to write the child elements to
+	 */
+	XCalElement(Sink sink) {
+		this(sink, null);
+	}
+
+	/**
+	 * Creates a new streaming xCal element.
+	 * @param sink the sink to write the child elements to
+	 * @param localName the name of this element or null if this element's
+	 * start and end tags are written by the caller
+	 */
+	private XCalElement(Sink sink, String localName) {
+		node = null;
+		this.sink = sink;
+		this.localName = localName;
 	}
 
 	/**
@@ -71,9 +125,9 @@ public class XCalElement {
 	 * @return the element's text or null if not found
 	 */
 	public String first(String localName) {
-		for (Element child : children()) {
-			if (localName.equals(child.getLocalName()) && XCAL_NS.equals(child.getNamespaceURI())) {
-				return child.getTextContent();
+		for (XCalElement child : children()) {
+			if (child.isXCal(localName)) {
+				return child.text();
 			}
 		}
 		return null;
@@ -97,10 +151,9 @@ public class XCalElement {
 	 */
 	public List<String> all(String localName) {
 		List<String> childrenText = new ArrayList<String>();
-		for (Element child : children()) {
-			if (localName.equals(child.getLocalName()) && XCAL_NS.equals(child.getNamespaceURI())) {
-				String text = child.getTextContent();
-				childrenText.add(text);
+		for (XCalElement child : children()) {
+			if (child.isXCal(localName)) {
+				childrenText.add(child.text());
 			}
 		}
 		return childrenText;
@@ -110,7 +163,7 @@ public class XCalElement {
 	 * Adds a value.
 	 * @param dataType the data type or null for the "unknown" data type
 	 * @param value the value
-	 * @return the created element
+	 * @return the created element or null if this element is streaming
 	 */
 	public Element append(ICalDataType dataType, String value) {
 		String dataTypeStr = toLocalName(dataType);
@@ -121,9 +174,19 @@ public class XCalElement {
 	 * Adds a child element.
 	 * @param name the name of the child element
 	 * @param value the value of the child element.
-	 * @return the created element
+	 * @return the created element or null if this element is streaming
 	 */
 	public Element append(String name, String value) {
+		if (sink != null) {
+			closeOpenChild();
+			sink.start(name);
+			if (value != null && value.length() > 0) {
+				sink.text(value);
+			}
+			sink.end(name);
+			return null;
+		}
+
 		Element child = document.createElementNS(XCAL_NS, name);
 		child.setTextContent(value);
 		element.appendChild(child);
@@ -136,6 +199,13 @@ public class XCalElement {
 	 * @return the created element
 	 */
 	public XCalElement append(String name) {
+		if (sink != null) {
+			closeOpenChild();
+			sink.start(name);
+			openChild = new XCalElement(sink, name);
+			return openChild;
+		}
+
 		return new XCalElement(append(name, (String) null));
 	}
 
@@ -164,26 +234,89 @@ public class XCalElement {
 
 	/**
 	 * Gets the owner document.
-	 * @return the owner document
+	 * @return the owner document or null if this element is streaming
 	 */
 	public Document document() {
+		getElement();
 		return document;
 	}
 
 	/**
 	 * Gets the wrapped XML element.
-	 * @return the wrapped XML element
+	 * @return the wrapped XML element or null if this element is streaming
 	 */
 	public Element getElement() {
+		if (element == null && node != null) {
+			document = XmlUtils.createDocument();
+			element = node.toElement(document);
+		}
 		return element;
 	}
 
+	/**
+	 * Writes the end tags of any child elements that are still open. This
+	 * must be called once all of a streaming element's children have been
+	 * appended.
+	 */
+	void finish() {
+		closeOpenChild();
+		if (localName != null) {
+			sink.end(localName);
+		}
+	}
+
+	private void closeOpenChild() {
+		if (openChild != null) {
+			openChild.finish();
+			openChild = null;
+		}
+	}
+
 	/**
 	 * Gets the child elements of the wrapped XML element.
 	 * @return the child elements
+	 * @throws UnsupportedOperationException if this element is streaming
+	 */
+	private List<XCalElement> children() {
+		if (node != null) {
+			List<XCalElement> children = new ArrayList<XCalElement>();
+			for (ParsedNode child : node.children()) {
+				children.add(new XCalElement(child));
+			}
+			return children;
+		}
+
+		if (element == null) {
+			throw new UnsupportedOperationException("Streaming xCal elements cannot be read from.");
+		}
+
+		List<XCalElement> children = new ArrayList<XCalElement>();
+		for (Element child : XmlUtils.toElementList(element.getChildNodes())) {
+			children.add(new XCalElement(child));
+		}
+		return children;
+	}
+
+	/**
+	 * Determines if this element is in the xCal namespace and has the given
+	 * name.
+	 * @param localName the name
+	 * @return true if it does, false if not
 	 */
-	private List<Element> children() {
-		return XmlUtils.toElementList(element.getChildNodes());
+	private boolean isXCal(String localName) {
+		return localName.equals(localName()) && XCAL_NS.equals(namespace());
+	}
+
+	private String localName() {
+		return (node == null) ? element.getLocalName() : node.localName;
+	}
+
+	private String namespace() {
+		return (node == null) ? element.getNamespaceURI() : node.namespace;
+	}
+
+	private String text() {
+		return (node == null) ? element.getTextContent() : node.getTextContent();
 	}
 
 	/**
@@ -194,9 +327,9 @@ public class XCalElement {
 	public List<XCalElement> children(ICalDataType dataType) {
 		String localName = dataType.getName().toLowerCase();
 		List<XCalElement> children = new ArrayList<XCalElement>();
-		for (Element child : children()) {
-			if (localName.equals(child.getLocalName()) && XCAL_NS.equals(child.getNamespaceURI())) {
-				children.add(new XCalElement(child));
+		for (XCalElement child : children()) {
+			if (child.isXCal(localName)) {
+				children.add(child);
 			}
 		}
 		return children;
@@ -209,14 +342,29 @@ public class XCalElement {
 	 */
 	public XCalElement child(ICalDataType dataType) {
 		String localName = dataType.getName().toLowerCase();
-		for (Element child : children()) {
-			if (localName.equals(child.getLocalName()) && XCAL_NS.equals(child.getNamespaceURI())) {
-				return new XCalElement(child);
+		for (XCalElement child : children()) {
+			if (child.isXCal(localName)) {
+				return child;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Gets the names and values of all the child elements that are in the xCal
+	 * namespace.
+	 * @return the child elements (key = element name, value = text content)
+	 */
+	public ListMultimap<String, String> childValues() {
+		ListMultimap<String, String> values = new ListMultimap<String, String>();
+		for (XCalElement child : children()) {
+			if (XCAL_NS.equals(child.namespace())) {
+				values.put(child.localName(), child.text());
+			}
+		}
+		return values;
+	}
+
 	/**
 	 * Finds the first child element that has the xCard namespace and returns
 	 * its data type and value. If no such element is found, the parent
@@ -225,16 +373,14 @@ public class XCalElement {
 	 * @return the value and data type
 	 */
 	public XCalValue firstValue() {
-		for (Element child : children()) {
-			String childNamespace = child.getNamespaceURI();
-			if (XCAL_NS.equals(childNamespace)) {
-				ICalDataType dataType = toDataType(child.getLocalName());
-				String value = child.getTextContent();
-				return new XCalValue(dataType, value);
+		for (XCalElement child : children()) {
+			if (XCAL_NS.equals(child.namespace())) {
+				ICalDataType dataType = toDataType(child.localName());
+				return new XCalValue(dataType, child.text());
 			}
 		}
 
-		return new XCalValue(null, element.getTextContent());
+		return new XCalValue(null, text());
 	}
 
 	/**
@@ -256,6 +402,138 @@ public class XCalElement {
 		return "unknown".equals(localName) ? null : ICalDataType.get(localName);
 	}
 
+	/**
+	 * An XML element that was read from a SAX stream. It holds only what the
+	 * scribes need to read a property value, and is converted to a DOM
+	 * {@link Element} on demand.
+	 */
+	static class ParsedNode {
+		private final String namespace, localName;
+		private final List<String> attributes = new ArrayList<String>();
+		private final List<Object> content = new ArrayList<Object>();
+		private final ParsedNode parent;
+
+		/**
+		 * @param namespace the element's namespace
+		 * @param localName the element's name
+		 * @param parent the parent element or null if this is the root
+		 */
+		ParsedNode(String namespace, String localName, ParsedNode parent) {
+			this.namespace = namespace;
+			this.localName = localName;
+			this.parent = parent;
+		}
+
+		/**
+		 * Adds an attribute.
+		 * @param name the attribute name
+		 * @param value the attribute value
+		 */
+		void attribute(String name, String value) {
+			attributes.add(name);
+			attributes.add(value);
+		}
+
+		/**
+		 * Adds text content.
+		 * @param text the text
+		 */
+		void text(String text) {
+			if (text.length() > 0) {
+				content.add(text);
+			}
+		}
+
+		/**
+		 * Adds a child element.
+		 * @param namespace the child's namespace
+		 * @param localName the child's name
+		 * @return the child element
+		 */
+		ParsedNode append(String namespace, String localName) {
+			ParsedNode child = new ParsedNode(namespace, localName, this);
+			content.add(child);
+			return child;
+		}
+
+		/**
+		 * Gets the parent element.
+		 * @return the parent element or null if this is the root
+		 */
+		ParsedNode parent() {
+			return parent;
+		}
+
+		private List<ParsedNode> children() {
+			List<ParsedNode> children = new ArrayList<ParsedNode>();
+			for (Object item : content) {
+				if (item instanceof ParsedNode) {
+					children.add((ParsedNode) item);
+				}
+			}
+			return children;
+		}
+
+		private String getTextContent() {
+			if (content.size() == 1 && content.get(0) instanceof String) {
+				return (String) content.get(0);
+			}
+
+			StringBuilder sb = new StringBuilder();
+			appendTextContent(sb);
+			return sb.toString();
+		}
+
+		private void appendTextContent(StringBuilder sb) {
+			for (Object item : content) {
+				if (item instanceof ParsedNode) {
+					((ParsedNode) item).appendTextContent(sb);
+				} else {
+					sb.append((String) item);
+				}
+			}
+		}
+
+		private Element toElement(Document document) {
+			Element element = document.createElementNS(namespace, localName);
+			for (int i = 0; i < attributes.size(); i += 2) {
+				element.setAttribute(attributes.get(i), attributes.get(i + 1));
+			}
+			for (Object item : content) {
+				if (item instanceof ParsedNode) {
+					element.appendChild(((ParsedNode) item).toElement(document));
+				} else {
+					element.appendChild(document.createTextNode((String) item));
+				}
+			}
+			return element;
+		}
+	}
+
+	/**
+	 * Receives the child elements that are appended to a streaming
+	 * {@link XCalElement}. All elements are in the xCal namespace.
+	 */
+	interface Sink {
+		/**
+		 * Writes a start tag.
+		 * @param localName the element name
+		 */
+		void start(String localName);
+
+		/**
+		 * Writes text content.
+		 * @param text the text
+		 */
+		void text(String text);
+
+		/**
+		 * Writes an end tag.
+		 * @param localName the element name
+		 */
+		void end(String localName);
+	}
+
 	/**
 	 * Represents the data type and value of a child element under an
 	 * {@link XCalElement}.
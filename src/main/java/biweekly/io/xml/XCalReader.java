@@ -14,13 +14,15 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.xml.namespace.QName;
 import javax.xml.transform.ErrorListener;
@@ -33,7 +35,6 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.stream.StreamSource;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.xml.sax.Attributes;
@@ -50,6 +51,7 @@ import biweekly.io.SkipMeException;
 import biweekly.io.StreamReader;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
+import biweekly.io.xml.XCalElement.ParsedNode;
 import biweekly.parameter.ICalParameters;
 import biweekly.property.ICalProperty;
 import biweekly.property.Version;
@@ -87,7 +89,13 @@ import biweekly.util.XmlUtils;
 
 /**
  * <p>
- * Reads xCals (XML-encoded iCalendar objects) in a streaming fashion.
+ * Reads xCals (XML-encoded iCalendar objects).
+ * </p>
+ * <p>
+ * The XML document is read in the calling thread, one iCalendar object at a
+ * time. Each call to {@link #readNext} reads only as much of the document as
+ * is needed to parse the next {@code <vcalendar>} element, so large documents
+ * do not have to be held in memory.
  * </p>
  * <p>
  * <b>Example:</b>
@@ -110,16 +118,17 @@ import biweekly.util.XmlUtils;
  * @see <a href="http://tools.ietf.org/html/rfc6321">RFC 6321</a>
  */
 public class XCalReader extends StreamReader {
-	private final Source source;
-	private final Closeable stream;
+	private static final Pattern encodingRegex = Pattern.compile("encoding\\s*=\\s*[\"']([^\"']+)[\"']");
 
-	private volatile ICalendar readICal;
-	private volatile TransformerException thrown;
+	private final Reader reader;
+	private final InputStream in;
+	private final Node node;
+	private final Closeable stream;
 
-	private final ReadThread thread = new ReadThread();
-	private final Object lock = new Object();
-	private final BlockingQueue<Object> readerBlock = new ArrayBlockingQueue<Object>(1);
-	private final BlockingQueue<Object> threadBlock = new ArrayBlockingQueue<Object>(1);
+	private Transformer transformer;
+	private XCalDocumentScanner scanner;
+	private Iterator<Element> vcalendarElements;
+	private boolean finished = false, closed = false;
 
 	/**
 	 * @param str the string to read from
@@ -132,7 +141,9 @@ public class XCalReader extends StreamReader {
 	 * @param in the input stream to read from
 	 */
 	public XCalReader(InputStream in) {
-		source = new StreamSource(in);
+		reader = null;
+		this.in = in;
+		node = null;
 		stream = in;
 	}
 
@@ -148,7 +159,9 @@ public class XCalReader extends StreamReader {
 	 * @param reader the reader to read from
 	 */
 	public XCalReader(Reader reader) {
-		source = new StreamSource(reader);
+		this.reader = reader;
+		in = null;
+		node = null;
 		stream = reader;
 	}
 
@@ -156,54 +169,66 @@ public class XCalReader extends StreamReader {
 	 * @param node the DOM node to read from
 	 */
 	public XCalReader(Node node) {
-		source = new DOMSource(node);
+		reader = null;
+		in = null;
+		this.node = node;
 		stream = null;
 	}
 
 	@Override
 	protected ICalendar _readNext() throws IOException {
-		readICal = null;
-		warnings.clear();
-		context = new ParseContext();
-		thrown = null;
+		if (closed || finished) {
+			return null;
+		}
 
-		if (!thread.started) {
-			thread.start();
-		} else {
-			if (thread.finished || thread.closed) {
+		while (true) {
+			Source source = nextSource();
+			if (source == null) {
+				finished = true;
 				return null;
 			}
 
+			ContentHandlerImpl handler = new ContentHandlerImpl(node != null);
 			try {
-				threadBlock.put(lock);
-			} catch (InterruptedException e) {
-				return null;
+				transformer().transform(source, new SAXResult(handler));
+			} catch (TransformerException e) {
+				finished = true;
+				throw new IOException(e);
+			}
+
+			if (handler.complete) {
+				context = handler.context;
+				warnings.addAll(handler.warnings);
+				return handler.ical;
 			}
 		}
+	}
 
-		//wait until thread reads xCard
-		try {
-			readerBlock.take();
-		} catch (InterruptedException e) {
-			return null;
+	/**
+	 * Gets the next {@code <vcalendar>} element to parse.
+	 * @return the element or null if there are no more elements
+	 * @throws IOException if there's a problem reading from the input stream
+	 */
+	private Source nextSource() throws IOException {
+		if (node != null) {
+			if (vcalendarElements == null) {
+				List<Element> elements = new ArrayList<Element>();
+				findVCalendarElements(node, elements);
+				vcalendarElements = elements.iterator();
+			}
+			return vcalendarElements.hasNext() ? new DOMSource(vcalendarElements.next()) : null;
 		}
 
-		if (thrown != null) {
-			throw new IOException(thrown);
+		if (scanner == null) {
+			scanner = new XCalDocumentScanner((reader == null) ? toReader(in) : reader);
 		}
 
-		return readICal;
+		String fragment = scanner.next();
+		return (fragment == null) ? null : new StreamSource(new StringReader(fragment));
 	}
 
-	private class ReadThread extends Thread {
-		private final SAXResult result;
-		private final Transformer transformer;
-		private volatile boolean finished = false, started = false, closed = false;
-
-		public ReadThread() {
-			setName(getClass().getSimpleName());
-
-			//create the transformer
+	private Transformer transformer() {
+		if (transformer == null) {
 			try {
 				TransformerFactory factory = TransformerFactory.newInstance();
 				XmlUtils.applyXXEProtection(factory);
@@ -216,42 +241,103 @@ public class XCalReader extends StreamReader {
 
 			//prevent error messages from being printed to stderr
 			transformer.setErrorListener(new NoOpErrorListener());
+		}
+		return transformer;
+	}
+
+	/**
+	 * Finds the {@code <vcalendar>} elements that are children of
+	 * {@code <icalendar>} elements, in document order.
+	 * @param node the node to search
+	 * @param found the list to add the elements to
+	 */
+	private static void findVCalendarElements(Node node, List<Element> found) {
+		if (XmlUtils.hasQName(node, ICALENDAR)) {
+			for (Element child : XmlUtils.toElementList(node.getChildNodes())) {
+				if (XmlUtils.hasQName(child, VCALENDAR)) {
+					found.add(child);
+				}
+			}
+			return;
+		}
 
-			result = new SAXResult(new ContentHandlerImpl());
+		for (Element child : XmlUtils.toElementList(node.getChildNodes())) {
+			findVCalendarElements(child, found);
 		}
+	}
 
-		@Override
-		public void run() {
-			started = true;
+	/**
+	 * Determines the character encoding of an XML document from its byte
+	 * order mark or XML declaration.
+	 * @param in the XML document
+	 * @return a reader that decodes the document
+	 * @throws IOException if there's a problem reading from the input stream
+	 */
+	private static Reader toReader(InputStream in) throws IOException {
+		if (!in.markSupported()) {
+			in = new BufferedInputStream(in);
+		}
 
-			try {
-				transformer.transform(source, result);
-			} catch (TransformerException e) {
-				if (!thread.closed) {
-					thrown = e;
+		byte[] head = new byte[1024];
+		in.mark(head.length);
+		int len = 0;
+		int read;
+		while (len < head.length && (read = in.read(head, len, head.length - len)) > 0) {
+			len += read;
+		}
+		in.reset();
+
+		String charset = "UTF-8";
+		if (len >= 2 && ((head[0] == (byte) 0xFE && head[1] == (byte) 0xFF) || (head[0] == (byte) 0xFF && head[1] == (byte) 0xFE))) {
+			charset = "UTF-16";
+		} else if (len >= 2 && head[0] == '<' && head[1] == 0) {
+			charset = "UTF-16LE";
+		} else if (len >= 2 && head[0] == 0 && head[1] == '<') {
+			charset = "UTF-16BE";
+		} else {
+			String declaration = new String(head, 0, len, "ISO-8859-1");
+			if (declaration.startsWith("<?xml")) {
+				int end = declaration.indexOf("?>");
+				if (end >= 0) {
+					declaration = declaration.substring(0, end);
 				}
-			} finally {
-				finished = true;
-				try {
-					readerBlock.put(lock);
-				} catch (InterruptedException e) {
-					//ignore
+
+				Matcher m = encodingRegex.matcher(declaration);
+				if (m.find()) {
+					charset = m.group(1);
 				}
 			}
 		}
+
+		return new InputStreamReader(in, charset);
 	}
 
 	private class ContentHandlerImpl extends DefaultHandler {
-		private final Document DOC = XmlUtils.createDocument();
 		private final XCalStructure structure = new XCalStructure();
 		private final StringBuilder characterBuffer = new StringBuilder();
 		private final LinkedList<ICalComponent> componentStack = new LinkedList<ICalComponent>();
 
-		private Element propertyElement, parent;
+		private ParsedNode propertyElement, parent;
 		private QName paramName;
 		private ICalComponent curComponent;
 		private ICalParameters parameters;
 
+		private ICalendar ical;
+		private ParseContext context;
+		private List<ParseWarning> warnings;
+		private boolean complete = false;
+
+		/**
+		 * @param insideICalendar true if the {@code <icalendar>} element will
+		 * not be sent to the handler because the parsing starts at a
+		 * {@code <vcalendar>} element, false if not
+		 */
+		public ContentHandlerImpl(boolean insideICalendar) {
+			if (insideICalendar) {
+				structure.push(ElementType.icalendar);
+			}
+		}
+
 		@Override
 		public void characters(char[] buffer, int start, int length) throws SAXException {
 			characterBuffer.append(buffer, start, length);
@@ -282,7 +368,9 @@ public class XCalReader extends StreamReader {
 						ICalComponent component = scribe.emptyInstance();
 
 						curComponent = component;
-						readICal = (ICalendar) component;
+						ical = (ICalendar) component;
+						context = newParseContext();
+						warnings = new ArrayList<ParseWarning>();
 						typeToPush = ElementType.component;
 					}
 					break;
@@ -315,7 +403,8 @@ public class XCalReader extends StreamReader {
 
 				case properties:
 					//start property element
-					propertyElement = createElement(namespace, localName, attributes);
+					propertyElement = new ParsedNode(namespace, localName, null);
+					applyAttributesTo(propertyElement, attributes);
 					parameters = new ICalParameters();
 					parent = propertyElement;
 					typeToPush = ElementType.property;
@@ -350,12 +439,10 @@ public class XCalReader extends StreamReader {
 
 			//append element to property element
 			if (propertyElement != null && typeToPush != ElementType.property && typeToPush != ElementType.parameters && !structure.isUnderParameters()) {
-				if (textContent.length() > 0) {
-					parent.appendChild(DOC.createTextNode(textContent));
-				}
+				parent.text(textContent);
 
-				Element element = createElement(namespace, localName, attributes);
-				parent.appendChild(element);
+				ParsedNode element = parent.append(namespace, localName);
+				applyAttributesTo(element, attributes);
 				parent = element;
 			}
 
@@ -395,13 +482,14 @@ public class XCalReader extends StreamReader {
 					context.getWarnings().clear();
 					context.setPropertyName(localName);
 
-					propertyElement.appendChild(DOC.createTextNode(textContent));
+					propertyElement.text(textContent);
 
 					//unmarshal property and add to parent component
-					QName propertyQName = new QName(propertyElement.getNamespaceURI(), propertyElement.getLocalName());
+					QName propertyQName = new QName(namespace, localName);
 					ICalPropertyScribe<? extends ICalProperty> scribe = index.getPropertyScribe(propertyQName);
+					XCalElement xcalElement = new XCalElement(propertyElement);
 					try {
-						ICalProperty property = scribe.parseXml(propertyElement, parameters, context);
+						ICalProperty property = scribe.parseXml(xcalElement, parameters, context);
 						if (property instanceof Version && curComponent instanceof ICalendar) {
 							Version versionProp = (Version) property;
 							ICalVersion version = versionProp.toICalVersion();
@@ -433,7 +521,7 @@ public class XCalReader extends StreamReader {
 						//@formatter:on
 
 						scribe = index.getPropertyScribe(Xml.class);
-						ICalProperty property = scribe.parseXml(propertyElement, parameters, context);
+						ICalProperty property = scribe.parseXml(xcalElement, parameters, context);
 						curComponent.addProperty(property);
 					}
 
@@ -445,13 +533,7 @@ public class XCalReader extends StreamReader {
 
 					//</vcalendar>
 					if (VCALENDAR.getNamespaceURI().equals(namespace) && VCALENDAR.getLocalPart().equals(localName)) {
-						//wait for readNext() to be called again
-						try {
-							readerBlock.put(lock);
-							threadBlock.take();
-						} catch (InterruptedException e) {
-							throw new SAXException(e);
-						}
+						complete = true;
 						return;
 					}
 					break;
@@ -470,10 +552,8 @@ public class XCalReader extends StreamReader {
 
 			//append element to property element
 			if (propertyElement != null && type != ElementType.property && type != ElementType.parameters && !structure.isUnderParameters()) {
-				if (textContent.length() > 0) {
-					parent.appendChild(DOC.createTextNode(textContent));
-				}
-				parent = (Element) parent.getParentNode();
+				parent.text(textContent);
+				parent = parent.parent();
 			}
 		}
 
@@ -483,13 +563,7 @@ public class XCalReader extends StreamReader {
 			return textContent;
 		}
 
-		private Element createElement(String namespace, String localName, Attributes attributes) {
-			Element element = DOC.createElementNS(namespace, localName);
-			applyAttributesTo(element, attributes);
-			return element;
-		}
-
-		private void applyAttributesTo(Element element, Attributes attributes) {
+		private void applyAttributesTo(ParsedNode element, Attributes attributes) {
 			for (int i = 0; i < attributes.getLength(); i++) {
 				String qname = attributes.getQName(i);
 				if (qname.startsWith("xmlns:")) {
@@ -498,7 +572,7 @@ public class XCalReader extends StreamReader {
 
 				String name = attributes.getLocalName(i);
 				String value = attributes.getValue(i);
-				element.setAttribute(name, value);
+				element.attribute(name, value);
 			}
 		}
 	}
@@ -608,10 +682,7 @@ public class XCalReader extends StreamReader {
 	 * Closes the underlying input stream.
 	 */
 	public void close() throws IOException {
-		if (thread.isAlive()) {
-			thread.closed = true;
-			thread.interrupt();
-		}
+		closed = true;
 
 		if (stream != null) {
 			stream.close();
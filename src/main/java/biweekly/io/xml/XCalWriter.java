@@ -10,7 +10,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,7 +39,6 @@ import org.xml.sax.helpers.AttributesImpl;
 import biweekly.ICalDataType;
 import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
-import biweekly.component.VTimezone;
 import biweekly.io.SkipMeException;
 import biweekly.io.scribe.component.ICalComponentScribe;
 import biweekly.io.scribe.property.ICalPropertyScribe;
@@ -333,12 +332,7 @@ public class XCalWriter extends XCalWriterBase {
 		List subComponents = scribe.getComponents(component);
 		if (component instanceof ICalendar) {
 			//add the VTIMEZONE components that were auto-generated by TimezoneOptions
-			Collection<VTimezone> tzs = getTimezoneComponents();
-			for (VTimezone tz : tzs) {
-				if (!subComponents.contains(tz)) {
-					subComponents.add(0, tz);
-				}
-			}
+			addTimezoneComponents(subComponents);
 		}
 		if (!subComponents.isEmpty()) {
 			start(COMPONENTS);
@@ -366,6 +360,9 @@ public class XCalWriter extends XCalWriterBase {
 				return;
 			}
 			propertyElement = value.getDocumentElement();
+		} else if (scribe.isXmlStreamable()) {
+			writeStreaming(property, scribe, parameters);
+			return;
 		} else {
 			QName qname = scribe.getQName();
 			propertyElement = DOC.createElementNS(qname.getNamespaceURI(), qname.getLocalPart());
@@ -384,6 +381,48 @@ public class XCalWriter extends XCalWriterBase {
 		end(propertyElement);
 	}
 
+	/**
+	 * <p>
+	 * Writes a property without building a DOM. The property's value is
+	 * written directly to the output stream as the scribe appends it to the
+	 * {@link XCalElement}.
+	 * </p>
+	 * <p>
+	 * The first value the scribe appends is held back until the scribe starts
+	 * appending a second value or finishes. If the scribe throws a
+	 * {@link SkipMeException} before then, nothing is written, just like when
+	 * the property is written to a DOM. If the scribe throws the exception
+	 * after it has started appending a second value, the values that have
+	 * already been written cannot be taken back, so the property is closed
+	 * with the values it has.
+	 * </p>
+	 * @param property the property
+	 * @param scribe the property's scribe
+	 * @param parameters the property's parameters
+	 * @throws SAXException if there's a problem writing to the output stream
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void writeStreaming(ICalProperty property, ICalPropertyScribe scribe, ICalParameters parameters) throws SAXException {
+		PropertySink sink = new PropertySink(scribe.getQName(), parameters);
+		XCalElement element = new XCalElement(sink);
+		try {
+			scribe.writeXml(property, element, context);
+			element.finish();
+			sink.end();
+		} catch (SkipMeException e) {
+			if (sink.started) {
+				/*
+				 * The start of the property has already been written, so the
+				 * property must be completed to keep the XML well-formed.
+				 */
+				element.finish();
+				sink.end();
+			}
+		} catch (SAXRuntimeException e) {
+			throw e.getCause();
+		}
+	}
+
 	private void write(Element propertyElement) throws SAXException {
 		NodeList children = propertyElement.getChildNodes();
 		for (int i = 0; i < children.getLength(); i++) {
@@ -510,6 +549,138 @@ public class XCalWriter extends XCalWriterBase {
 		return attributes;
 	}
 
+	/**
+	 * Writes the value of a property directly to the output stream. The
+	 * property's start tag and parameters are not written until the scribe
+	 * writes the first part of the property's value so that the scribe can
+	 * still skip the property by throwing a {@link SkipMeException}.
+	 */
+	private class PropertySink implements XCalElement.Sink {
+		private final QName qname;
+		private final ICalParameters parameters;
+		private boolean started = false;
+
+		/**
+		 * The events of the first value, which are held back until the scribe
+		 * starts the second value or finishes. Each event is an array
+		 * containing a start tag name, an end tag name, and text, only one of
+		 * which is non-null.
+		 */
+		private final List<String[]> buffer = new ArrayList<String[]>();
+		private int depth = 0;
+
+		public PropertySink(QName qname, ICalParameters parameters) {
+			this.qname = qname;
+			this.parameters = parameters;
+		}
+
+		public void start(String localName) {
+			if (!started && depth == 0 && !buffer.isEmpty()) {
+				//the scribe is starting its second value
+				flush();
+			}
+
+			depth++;
+			if (!started) {
+				buffer.add(new String[] { localName, null, null });
+				return;
+			}
+
+			try {
+				XCalWriter.this.start(localName);
+			} catch (SAXException e) {
+				throw new SAXRuntimeException(e);
+			}
+		}
+
+		public void text(String text) {
+			if (!started) {
+				buffer.add(new String[] { null, null, text });
+				return;
+			}
+
+			try {
+				XCalWriter.this.text(text);
+			} catch (SAXException e) {
+				throw new SAXRuntimeException(e);
+			}
+		}
+
+		public void end(String localName) {
+			depth--;
+			if (!started) {
+				buffer.add(new String[] { null, localName, null });
+				return;
+			}
+
+			try {
+				XCalWriter.this.end(localName);
+			} catch (SAXException e) {
+				throw new SAXRuntimeException(e);
+			}
+		}
+
+		/**
+		 * Writes the property's end tag.
+		 * @throws SAXException if there's a problem writing to the output
+		 * stream
+		 */
+		public void end() throws SAXException {
+			try {
+				flush();
+			} catch (SAXRuntimeException e) {
+				throw e.getCause();
+			}
+			XCalWriter.this.end(qname);
+		}
+
+		/**
+		 * Writes the property's start tag and parameters, followed by the
+		 * events that were held back.
+		 */
+		private void flush() {
+			if (started) {
+				return;
+			}
+
+			try {
+				XCalWriter.this.start(qname);
+				write(parameters);
+				for (String[] event : buffer) {
+					if (event[0] != null) {
+						XCalWriter.this.start(event[0]);
+					} else if (event[1] != null) {
+						XCalWriter.this.end(event[1]);
+					} else {
+						XCalWriter.this.text(event[2]);
+					}
+				}
+			} catch (SAXException e) {
+				throw new SAXRuntimeException(e);
+			}
+
+			buffer.clear();
+			started = true;
+		}
+	}
+
+	/**
+	 * Allows a {@link SAXException} to be thrown from the methods of
+	 * {@link XCalElement.Sink}.
+	 */
+	private static class SAXRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public SAXRuntimeException(SAXException cause) {
+			super(cause);
+		}
+
+		@Override
+		public SAXException getCause() {
+			return (SAXException) super.getCause();
+		}
+	}
+
 	/**
 	 * Terminates the XML document and closes the output stream.
 	 */
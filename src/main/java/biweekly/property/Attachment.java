@@ -72,7 +72,8 @@ public class Attachment extends BinaryProperty {
 	/**
 	 * Creates a new attachment.
 	 * @param formatType the content-type of the data (e.g. "image/png")
-	 * @param file the file to attach
+	 * @param file the file to attach (it is read into memory immediately; to
+	 * read it only when the property is written, use {@link #setFile})
 	 * @throws IOException if there's a problem reading from the file
 	 */
 	public Attachment(String formatType, File file) throws IOException {
@@ -116,6 +117,18 @@ public class Attachment extends BinaryProperty {
 		contentId = null;
 	}
 
+	@Override
+	public void setEncodedData(String encodedData) {
+		super.setEncodedData(encodedData);
+		contentId = null;
+	}
+
+	@Override
+	public void setFile(File file) {
+		super.setFile(file);
+		contentId = null;
+	}
+
 	@Override
 	public void setUri(String uri) {
 		super.setUri(uri);
@@ -138,11 +151,13 @@ public class Attachment extends BinaryProperty {
 		this.contentId = contentId;
 		uri = null;
 		data = null;
+		encodedData = null;
+		file = null;
 	}
 
 	@Override
 	protected void validate(List<ICalComponent> components, ICalVersion version, List<ValidationWarning> warnings) {
-		if (uri == null && data == null && contentId == null) {
+		if (uri == null && !hasData() && contentId == null) {
 			warnings.add(new ValidationWarning(26));
 		}
 	}
@@ -10,7 +10,9 @@ import java.util.Map;
 import biweekly.ICalVersion;
 import biweekly.ValidationWarning;
 import biweekly.component.ICalComponent;
+import biweekly.io.BinaryDataMode;
 import biweekly.util.Gobble;
+import biweekly.util.org.apache.commons.codec.binary.Base64;
 
 /*
  Copyright (c) 2013-2018, Michael Angstadt
@@ -38,16 +40,35 @@ import biweekly.util.Gobble;
  */
 
 /**
+ * <p>
  * A property whose value is a binary resource (such as an image or document).
+ * </p>
+ * <p>
+ * The {@link #BinaryProperty(File) File constructor} reads the file into
+ * memory. To attach a large file without holding it in memory, call
+ * {@link #setFile} instead. The file is then read when the property is
+ * written. Only {@link biweekly.io.text.ICalWriter} (iCalendar 2.0) streams
+ * the file to the output. The other writers (vCal 1.0, xCal, and jCal) build
+ * the base64-encoded value as a string first.
+ * </p>
  * @author Michael Angstadt
  */
 public class BinaryProperty extends ICalProperty {
-	protected byte[] data;
+	protected volatile byte[] data;
+	protected volatile String encodedData;
+	protected File file;
 	protected String uri;
 
+	/**
+	 * The hash code of the decoded form of {@link #encodedData}, so that the
+	 * encoded data only has to be decoded once by {@link #hashCode}.
+	 */
+	private volatile DecodedHash decodedHash;
+
 	/**
 	 * Creates a new binary property.
-	 * @param file a file containing the binary data
+	 * @param file a file containing the binary data (it is read into memory
+	 * immediately)
 	 * @throws IOException if there's a problem reading from the file
 	 */
 	public BinaryProperty(File file) throws IOException {
@@ -77,16 +98,45 @@ public class BinaryProperty extends ICalProperty {
 	 */
 	public BinaryProperty(BinaryProperty original) {
 		super(original);
-		data = (original.data == null) ? null : original.data.clone();
+		encodedData = original.encodedData;
+		byte[] originalData = original.data;
+		data = (encodedData != null || originalData == null) ? null : originalData.clone();
+		decodedHash = original.decodedHash;
+		file = original.file;
 		uri = original.uri;
 	}
 
 	/**
-	 * Gets the property's binary data.
+	 * Gets the property's binary data. If the data is stored in a file, the
+	 * file is read into memory every time this method is called. If the data
+	 * is stored in base64-encoded form, it is decoded the first time this
+	 * method is called. It is safe to call this method from multiple threads.
 	 * @return the binary data or null if not set
+	 * @throws IllegalStateException if the data is stored in a file and there
+	 * was a problem reading the file
 	 */
 	public byte[] getData() {
-		return data;
+		String encodedData = this.encodedData;
+		if (encodedData != null) {
+			/*
+			 * Assign the decoded data before clearing the encoded data so
+			 * that other threads always see one or the other.
+			 */
+			byte[] data = Base64.decodeBase64(encodedData);
+			this.data = data;
+			this.encodedData = null;
+			return data;
+		}
+
+		if (file == null) {
+			return data;
+		}
+
+		try {
+			return new Gobble(file).asByteArray();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 
 	/**
@@ -95,9 +145,76 @@ public class BinaryProperty extends ICalProperty {
 	 */
 	public void setData(byte[] data) {
 		this.data = data;
+		encodedData = null;
+		file = null;
+		uri = null;
+	}
+
+	/**
+	 * Gets the property's binary data in base64-encoded form, if the data has
+	 * not been decoded yet (see {@link BinaryDataMode#LAZY}). Calling
+	 * {@link #equals} or {@link #hashCode} does not replace the encoded data
+	 * with the decoded data. To compute the hash code, the data is decoded
+	 * once and the resulting hash code is cached. Two properties that both
+	 * have encoded data are compared by their encoded text (ignoring
+	 * whitespace), and are only decoded if the text differs but the hash codes
+	 * match.
+	 * @return the base64-encoded data or null if the data is not stored in
+	 * this form
+	 */
+	public String getEncodedData() {
+		return encodedData;
+	}
+
+	/**
+	 * Sets the property's binary data in base64-encoded form. The data is not
+	 * decoded until {@link #getData} is called.
+	 * @param encodedData the base64-encoded data
+	 */
+	public void setEncodedData(String encodedData) {
+		this.encodedData = encodedData;
+		data = null;
+		file = null;
+		uri = null;
+	}
+
+	/**
+	 * Gets the file that contains the property's binary data.
+	 * @return the file or null if the data is not stored in a file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * <p>
+	 * Sets the property's binary data to the contents of a file. The file is
+	 * not read until the property is written (or until {@link #getData} is
+	 * called), so it must still exist at that time.
+	 * </p>
+	 * <p>
+	 * Two properties whose data are stored in files are equal if they refer
+	 * to the same file path. The contents of the files are not compared, and
+	 * a property whose data is stored in a file is never equal to a property
+	 * whose data is stored in memory.
+	 * </p>
+	 * @param file the file
+	 */
+	public void setFile(File file) {
+		this.file = file;
+		data = null;
+		encodedData = null;
 		uri = null;
 	}
 
+	/**
+	 * Determines if the property has binary data (as opposed to a URI).
+	 * @return true if it has binary data, false if not
+	 */
+	public boolean hasData() {
+		return data != null || encodedData != null || file != null;
+	}
+
 	/**
 	 * Gets the property's URI.
 	 * @return the URI (e.g. "http://example.com/image.png") or null if not set
@@ -113,6 +230,8 @@ public class BinaryProperty extends ICalProperty {
 	public void setUri(String uri) {
 		this.uri = uri;
 		data = null;
+		encodedData = null;
+		file = null;
 	}
 
 	@Override
@@ -127,7 +246,7 @@ public class BinaryProperty extends ICalProperty {
 
 	@Override
 	protected void validate(List<ICalComponent> components, ICalVersion version, List<ValidationWarning> warnings) {
-		if (uri == null && data == null) {
+		if (uri == null && !hasData()) {
 			warnings.add(new ValidationWarning(26));
 		}
 	}
@@ -136,15 +255,94 @@ public class BinaryProperty extends ICalProperty {
 	protected Map<String, Object> toStringValues() {
 		Map<String, Object> values = new LinkedHashMap<String, Object>();
 		values.put("data", (data == null) ? "null" : "length: " + data.length);
+		values.put("encodedData", (encodedData == null) ? "null" : "length: " + encodedData.length());
+		values.put("file", file);
 		values.put("uri", uri);
 		return values;
 	}
 
+	/**
+	 * Calculates the hash code of the property's in-memory binary data. If the
+	 * data is stored in base64-encoded form, it is decoded the first time this
+	 * method is called and the hash code is cached.
+	 * @return the hash code
+	 */
+	private int dataHashCode() {
+		if (file != null) {
+			return 0;
+		}
+
+		String encodedData = this.encodedData;
+		if (encodedData == null) {
+			return Arrays.hashCode(data);
+		}
+
+		DecodedHash decodedHash = this.decodedHash;
+		if (decodedHash == null || decodedHash.encodedData != encodedData) {
+			decodedHash = new DecodedHash(encodedData, Arrays.hashCode(Base64.decodeBase64(encodedData)));
+			this.decodedHash = decodedHash;
+		}
+		return decodedHash.hashCode;
+	}
+
+	/**
+	 * Determines if two properties have the same in-memory binary data.
+	 * @param other the other property
+	 * @return true if the data is the same, false if not
+	 */
+	private boolean dataEquals(BinaryProperty other) {
+		String encodedData = this.encodedData;
+		String otherEncodedData = other.encodedData;
+		if (encodedData != null && otherEncodedData != null && equalsIgnoreWhitespace(encodedData, otherEncodedData)) {
+			return true;
+		}
+
+		if (dataHashCode() != other.dataHashCode()) {
+			return false;
+		}
+		return Arrays.equals(peekData(), other.peekData());
+	}
+
+	private static boolean equalsIgnoreWhitespace(String a, String b) {
+		int i = 0, j = 0;
+		while (true) {
+			while (i < a.length() && Character.isWhitespace(a.charAt(i))) {
+				i++;
+			}
+			while (j < b.length() && Character.isWhitespace(b.charAt(j))) {
+				j++;
+			}
+			if (i == a.length() || j == b.length()) {
+				return i == a.length() && j == b.length();
+			}
+			if (a.charAt(i++) != b.charAt(j++)) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Gets the property's in-memory binary data. If the data is stored in
+	 * base64-encoded form, a decoded copy is returned, but the property itself
+	 * is not modified.
+	 * @return the binary data or null if not set (or if the data is stored in
+	 * a file)
+	 */
+	private byte[] peekData() {
+		if (file != null) {
+			return null;
+		}
+
+		String encodedData = this.encodedData;
+		return (encodedData == null) ? data : Base64.decodeBase64(encodedData);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = super.hashCode();
-		result = prime * result + Arrays.hashCode(data);
+		result = prime * result + dataHashCode();
+		result = prime * result + ((file == null) ? 0 : file.hashCode());
 		result = prime * result + ((uri == null) ? 0 : uri.hashCode());
 		return result;
 	}
@@ -157,7 +355,23 @@ public class BinaryProperty extends ICalProperty {
 		if (uri == null) {
 			if (other.uri != null) return false;
 		} else if (!uri.equals(other.uri)) return false;
-		if (!Arrays.equals(data, other.data)) return false;
+		if (!dataEquals(other)) return false;
+		if (file == null) {
+			if (other.file != null) return false;
+		} else if (!file.equals(other.file)) return false;
 		return true;
 	}
+
+	/**
+	 * The hash code of a base64-encoded string's decoded data.
+	 */
+	private static class DecodedHash {
+		private final String encodedData;
+		private final int hashCode;
+
+		public DecodedHash(String encodedData, int hashCode) {
+			this.encodedData = encodedData;
+			this.hashCode = hashCode;
+		}
+	}
 }
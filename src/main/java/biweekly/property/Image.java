@@ -69,7 +69,8 @@ public class Image extends BinaryProperty {
 	/**
 	 * Creates a new attachment.
 	 * @param formatType the content-type of the data (e.g. "image/png")
-	 * @param file the file to attach
+	 * @param file the file to attach (it is read into memory immediately; to
+	 * read it only when the property is written, use {@link #setFile})
 	 * @throws IOException if there's a problem reading from the file
 	 */
 	public Image(String formatType, File file) throws IOException {
@@ -134,7 +135,7 @@ public class Image extends BinaryProperty {
 	@Override
 	protected void validate(List<ICalComponent> components, ICalVersion version, List<ValidationWarning> warnings) {
 		super.validate(components, version, warnings);
-		if (data != null && getFormatType() == null) {
+		if (hasData() && getFormatType() == null) {
 			warnings.add(new ValidationWarning(56));
 		}
 	}
@@ -0,0 +1,583 @@
+package biweekly.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import biweekly.ICalendar;
+import biweekly.component.ICalComponent;
+import biweekly.component.VTimezone;
+import biweekly.property.ICalProperty;
+import biweekly.property.RecurrenceId;
+import biweekly.property.Sequence;
+import biweekly.property.TimezoneId;
+import biweekly.property.Uid;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Represents the differences between two versions of an iCalendar object,
+ * such as two downloads of the same calendar feed.
+ * </p>
+ * <p>
+ * Components are matched up by their UID and RECURRENCE-ID properties
+ * (VTIMEZONE components are matched up by their TZID property). If an
+ * iCalendar object contains more than one revision of the same component, the
+ * revision with the highest SEQUENCE value is matched. A matched component
+ * that is not equal to its counterpart is reported as a
+ * {@link ComponentChange}, which lists the individual properties and
+ * sub-components that were added and removed, as well as the SEQUENCE values
+ * of both revisions. Components that cannot be matched (for example, because
+ * they do not have a UID) are reported as either added or removed.
+ * </p>
+ * <p>
+ * SEQUENCE is not part of the match key itself, because a revised component
+ * is expected to have a higher SEQUENCE value than the original. Matching on
+ * it would report every rescheduled component as removed and re-added.
+ * </p>
+ * <p>
+ * The diff can also be applied to a copy of the original iCalendar object in
+ * order to bring it up to date.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ *
+ * <pre class="brush:java">
+ * CalendarDiff diff = CalendarDiff.diff(yesterday, today);
+ * for (ComponentChange change : diff.getChangedComponents()) {
+ *   //...
+ * }
+ * diff.apply(cached);
+ * </pre>
+ * @author Michael Angstadt
+ */
+public class CalendarDiff {
+	private final List<ICalProperty> addedProperties = new ArrayList<ICalProperty>();
+	private final List<ICalProperty> removedProperties = new ArrayList<ICalProperty>();
+	private final List<ICalComponent> addedComponents = new ArrayList<ICalComponent>();
+	private final List<ICalComponent> removedComponents = new ArrayList<ICalComponent>();
+	private final List<ComponentChange> changedComponents = new ArrayList<ComponentChange>();
+
+	private CalendarDiff() {
+		//use diff()
+	}
+
+	/**
+	 * Determines the differences between two iCalendar objects.
+	 * @param original the original iCalendar object
+	 * @param revised the revised iCalendar object
+	 * @return the differences
+	 */
+	public static CalendarDiff diff(ICalendar original, ICalendar revised) {
+		CalendarDiff diff = new CalendarDiff();
+		diff(original.getProperties(), revised.getProperties(), diff.removedProperties, diff.addedProperties);
+
+		Map<ComponentKey, ICalComponent> originalByKey = new LinkedHashMap<ComponentKey, ICalComponent>();
+		List<ICalComponent> originalUnmatched = new ArrayList<ICalComponent>();
+		index(original, originalByKey, originalUnmatched);
+
+		Map<ComponentKey, ICalComponent> revisedByKey = new LinkedHashMap<ComponentKey, ICalComponent>();
+		List<ICalComponent> revisedUnmatched = new ArrayList<ICalComponent>();
+		index(revised, revisedByKey, revisedUnmatched);
+
+		for (Map.Entry<ComponentKey, ICalComponent> entry : revisedByKey.entrySet()) {
+			ICalComponent revisedComponent = entry.getValue();
+			ICalComponent originalComponent = originalByKey.remove(entry.getKey());
+			if (originalComponent == null) {
+				diff.addedComponents.add(revisedComponent);
+				continue;
+			}
+
+			if (originalComponent.equals(revisedComponent)) {
+				continue;
+			}
+
+			diff.changedComponents.add(new ComponentChange(originalComponent, revisedComponent));
+		}
+		diff.removedComponents.addAll(originalByKey.values());
+
+		diff(originalUnmatched, revisedUnmatched, diff.removedComponents, diff.addedComponents);
+
+		return diff;
+	}
+
+	/**
+	 * Gets the top-level properties that were added to the iCalendar object.
+	 * @return the added properties (immutable)
+	 */
+	public List<ICalProperty> getAddedProperties() {
+		return Collections.unmodifiableList(addedProperties);
+	}
+
+	/**
+	 * Gets the top-level properties that were removed from the iCalendar
+	 * object.
+	 * @return the removed properties (immutable)
+	 */
+	public List<ICalProperty> getRemovedProperties() {
+		return Collections.unmodifiableList(removedProperties);
+	}
+
+	/**
+	 * Gets the components that were added to the iCalendar object.
+	 * @return the added components (immutable)
+	 */
+	public List<ICalComponent> getAddedComponents() {
+		return Collections.unmodifiableList(addedComponents);
+	}
+
+	/**
+	 * Gets the components that were removed from the iCalendar object.
+	 * @return the removed components (immutable)
+	 */
+	public List<ICalComponent> getRemovedComponents() {
+		return Collections.unmodifiableList(removedComponents);
+	}
+
+	/**
+	 * Gets the components that exist in both iCalendar objects, but whose
+	 * contents have changed.
+	 * @return the changed components (immutable)
+	 */
+	public List<ComponentChange> getChangedComponents() {
+		return Collections.unmodifiableList(changedComponents);
+	}
+
+	/**
+	 * Determines if the two iCalendar objects are equal.
+	 * @return true if there are no differences, false if not
+	 */
+	public boolean isEmpty() {
+		return addedProperties.isEmpty() && removedProperties.isEmpty() && addedComponents.isEmpty() && removedComponents.isEmpty() && changedComponents.isEmpty();
+	}
+
+	/**
+	 * <p>
+	 * Applies this diff to an iCalendar object, turning it into the revised
+	 * iCalendar object. The iCalendar object should be equal to (or be a copy
+	 * of) the original iCalendar object.
+	 * </p>
+	 * <p>
+	 * Copies of the added properties and components are inserted into the
+	 * iCalendar object. Removals and changes that refer to components that do
+	 * not exist in the iCalendar object are ignored.
+	 * </p>
+	 * <p>
+	 * This method runs in time that is linear in the number of components in
+	 * the iCalendar object: the components of the affected types are indexed
+	 * once, and the removed components are taken out in a single pass over
+	 * their types. Sub-components of the iCalendar object's components are
+	 * only visited if their parent component changed.
+	 * </p>
+	 * @param ical the iCalendar object to modify
+	 */
+	public void apply(ICalendar ical) {
+		for (ICalProperty property : removedProperties) {
+			ical.removeProperty(property);
+		}
+		for (ICalProperty property : addedProperties) {
+			ical.addProperty(property.copy());
+		}
+
+		if (!removedComponents.isEmpty() || !changedComponents.isEmpty()) {
+			//only the component types that are affected by the diff need to be indexed
+			Set<Class<? extends ICalComponent>> classes = new HashSet<Class<? extends ICalComponent>>();
+			for (ICalComponent component : removedComponents) {
+				classes.add(component.getClass());
+			}
+			for (ComponentChange change : changedComponents) {
+				classes.add(change.original.getClass());
+			}
+
+			Map<ComponentKey, ICalComponent> byKey = new HashMap<ComponentKey, ICalComponent>();
+			List<ICalComponent> unmatched = new ArrayList<ICalComponent>();
+			for (Class<? extends ICalComponent> clazz : classes) {
+				index(ical.getComponents().get(clazz), byKey, unmatched);
+			}
+
+			Map<ICalComponent, Boolean> toRemove = new IdentityHashMap<ICalComponent, Boolean>();
+			List<ICalComponent> unkeyedToRemove = new ArrayList<ICalComponent>();
+			for (ICalComponent component : removedComponents) {
+				ComponentKey key = ComponentKey.of(component);
+				ICalComponent existing = (key == null) ? null : byKey.get(key);
+				if (existing == null || !existing.equals(component)) {
+					//unkeyed component or an older revision of a matched component
+					unkeyedToRemove.add(component);
+				} else {
+					toRemove.put(existing, Boolean.TRUE);
+				}
+			}
+
+			for (ComponentChange change : changedComponents) {
+				ICalComponent existing = byKey.get(ComponentKey.of(change.original));
+				if (existing != null) {
+					change.apply(existing);
+				}
+			}
+
+			removeAll(ical, toRemove);
+			for (ICalComponent component : unkeyedToRemove) {
+				ical.removeComponent(component);
+			}
+		}
+
+		for (ICalComponent component : addedComponents) {
+			ical.addComponent(component.copy());
+		}
+	}
+
+	/**
+	 * Removes the given sub-component instances from a component in a single
+	 * pass. Only the sub-components that have the same type as one of the
+	 * removed components are visited.
+	 * @param parent the parent component
+	 * @param toRemove the sub-components to remove
+	 */
+	private static void removeAll(ICalComponent parent, Map<ICalComponent, Boolean> toRemove) {
+		if (toRemove.isEmpty()) {
+			return;
+		}
+
+		Set<Class<? extends ICalComponent>> classes = new HashSet<Class<? extends ICalComponent>>();
+		for (ICalComponent component : toRemove.keySet()) {
+			classes.add(component.getClass());
+		}
+
+		ListMultimap<Class<? extends ICalComponent>, ICalComponent> components = parent.getComponents();
+		for (Class<? extends ICalComponent> clazz : classes) {
+			List<ICalComponent> kept = new ArrayList<ICalComponent>();
+			boolean changed = false;
+			for (ICalComponent component : components.get(clazz)) {
+				if (toRemove.containsKey(component)) {
+					changed = true;
+				} else {
+					kept.add(component);
+				}
+			}
+
+			if (changed) {
+				components.replace(clazz, kept);
+			}
+		}
+	}
+
+	/**
+	 * Sorts the sub-components of an iCalendar object into those that can be
+	 * matched by key and those that can't.
+	 * @param ical the iCalendar object
+	 * @param byKey the components that can be matched by key
+	 * @param unmatched the components that cannot be matched by key
+	 */
+	private static void index(ICalendar ical, Map<ComponentKey, ICalComponent> byKey, List<ICalComponent> unmatched) {
+		index(ical.getComponents().values(), byKey, unmatched);
+	}
+
+	/**
+	 * Sorts components into those that can be matched by key and those that
+	 * can't. If more than one component has the same key, the one with the
+	 * highest SEQUENCE value (or the first one, if they have the same value)
+	 * is treated as matchable.
+	 * @param components the components
+	 * @param byKey the components that can be matched by key
+	 * @param unmatched the components that cannot be matched by key
+	 */
+	private static void index(List<ICalComponent> components, Map<ComponentKey, ICalComponent> byKey, List<ICalComponent> unmatched) {
+		for (ICalComponent component : components) {
+			ComponentKey key = ComponentKey.of(component);
+			if (key == null) {
+				unmatched.add(component);
+				continue;
+			}
+
+			ICalComponent existing = byKey.get(key);
+			if (existing == null) {
+				byKey.put(key, component);
+				continue;
+			}
+
+			if (sequence(component) > sequence(existing)) {
+				byKey.put(key, component);
+				unmatched.add(existing);
+			} else {
+				unmatched.add(component);
+			}
+		}
+	}
+
+	/**
+	 * Gets the value of a component's SEQUENCE property.
+	 * @param component the component
+	 * @return the value or null if the component does not have a SEQUENCE
+	 * property
+	 */
+	private static Integer getSequence(ICalComponent component) {
+		Sequence sequence = component.getProperty(Sequence.class);
+		return (sequence == null) ? null : sequence.getValue();
+	}
+
+	/**
+	 * Gets the value of a component's SEQUENCE property for comparison.
+	 * @param component the component
+	 * @return the value (defaults to zero)
+	 */
+	private static int sequence(ICalComponent component) {
+		Integer sequence = getSequence(component);
+		return (sequence == null) ? 0 : sequence;
+	}
+
+	/**
+	 * Compares the values of two multimaps, ignoring order.
+	 * @param original the original multimap
+	 * @param revised the revised multimap
+	 * @param removed the list to add the values that are only in the original
+	 * multimap to
+	 * @param added the list to add the values that are only in the revised
+	 * multimap to
+	 */
+	private static <K, V> void diff(ListMultimap<K, V> original, ListMultimap<K, V> revised, List<? super V> removed, List<? super V> added) {
+		for (Map.Entry<K, List<V>> entry : original) {
+			diff(entry.getValue(), revised.get(entry.getKey()), removed, added);
+		}
+		for (Map.Entry<K, List<V>> entry : revised) {
+			if (!original.containsKey(entry.getKey())) {
+				added.addAll(entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Compares the elements of two lists, ignoring order. The elements are
+	 * counted using a hash map, so this runs in linear time.
+	 * @param original the original list
+	 * @param revised the revised list
+	 * @param removed the list to add the elements that are only in the
+	 * original list to
+	 * @param added the list to add the elements that are only in the revised
+	 * list to
+	 */
+	private static <V> void diff(List<V> original, List<V> revised, List<? super V> removed, List<? super V> added) {
+		Map<V, Integer> counts = new HashMap<V, Integer>(original.size() * 2);
+		for (V element : original) {
+			Integer count = counts.get(element);
+			counts.put(element, (count == null) ? 1 : count + 1);
+		}
+
+		for (V element : revised) {
+			Integer count = counts.get(element);
+			if (count == null || count == 0) {
+				added.add(element);
+			} else {
+				counts.put(element, count - 1);
+			}
+		}
+
+		for (V element : original) {
+			Integer count = counts.get(element);
+			if (count > 0) {
+				removed.add(element);
+				counts.put(element, count - 1);
+			}
+		}
+	}
+
+	/**
+	 * Represents a component that exists in both iCalendar objects, but whose
+	 * contents have changed.
+	 */
+	public static class ComponentChange {
+		private final ICalComponent original, revised;
+		private final List<ICalProperty> addedProperties = new ArrayList<ICalProperty>();
+		private final List<ICalProperty> removedProperties = new ArrayList<ICalProperty>();
+		private final List<ICalComponent> addedComponents = new ArrayList<ICalComponent>();
+		private final List<ICalComponent> removedComponents = new ArrayList<ICalComponent>();
+
+		private ComponentChange(ICalComponent original, ICalComponent revised) {
+			this.original = original;
+			this.revised = revised;
+			diff(original.getProperties(), revised.getProperties(), removedProperties, addedProperties);
+			diff(original.getComponents(), revised.getComponents(), removedComponents, addedComponents);
+		}
+
+		/**
+		 * Gets the component as it appears in the original iCalendar object.
+		 * @return the original component
+		 */
+		public ICalComponent getOriginal() {
+			return original;
+		}
+
+		/**
+		 * Gets the component as it appears in the revised iCalendar object.
+		 * @return the revised component
+		 */
+		public ICalComponent getRevised() {
+			return revised;
+		}
+
+		/**
+		 * Gets the SEQUENCE value of the original component.
+		 * @return the SEQUENCE value or null if the original component does
+		 * not have one
+		 */
+		public Integer getOriginalSequence() {
+			return getSequence(original);
+		}
+
+		/**
+		 * Gets the SEQUENCE value of the revised component.
+		 * @return the SEQUENCE value or null if the revised component does not
+		 * have one
+		 */
+		public Integer getRevisedSequence() {
+			return getSequence(revised);
+		}
+
+		/**
+		 * Determines if the component was rescheduled (if the revised
+		 * component has a higher SEQUENCE value than the original).
+		 * @return true if the component was rescheduled, false if not
+		 */
+		public boolean isRescheduled() {
+			return sequence(revised) > sequence(original);
+		}
+
+		/**
+		 * Gets the properties that were added to the component.
+		 * @return the added properties (immutable)
+		 */
+		public List<ICalProperty> getAddedProperties() {
+			return Collections.unmodifiableList(addedProperties);
+		}
+
+		/**
+		 * Gets the properties that were removed from the component.
+		 * @return the removed properties (immutable)
+		 */
+		public List<ICalProperty> getRemovedProperties() {
+			return Collections.unmodifiableList(removedProperties);
+		}
+
+		/**
+		 * Gets the sub-components that were added to the component.
+		 * @return the added sub-components (immutable)
+		 */
+		public List<ICalComponent> getAddedComponents() {
+			return Collections.unmodifiableList(addedComponents);
+		}
+
+		/**
+		 * Gets the sub-components that were removed from the component.
+		 * @return the removed sub-components (immutable)
+		 */
+		public List<ICalComponent> getRemovedComponents() {
+			return Collections.unmodifiableList(removedComponents);
+		}
+
+		private void apply(ICalComponent component) {
+			for (ICalProperty property : removedProperties) {
+				component.removeProperty(property);
+			}
+			for (ICalProperty property : addedProperties) {
+				component.addProperty(property.copy());
+			}
+			for (ICalComponent subComponent : removedComponents) {
+				component.removeComponent(subComponent);
+			}
+			for (ICalComponent subComponent : addedComponents) {
+				component.addComponent(subComponent.copy());
+			}
+		}
+	}
+
+	/**
+	 * Identifies a component across two versions of an iCalendar object.
+	 */
+	private static class ComponentKey {
+		private final Class<? extends ICalComponent> clazz;
+		private final String id;
+		private final RecurrenceId recurrenceId;
+
+		private ComponentKey(Class<? extends ICalComponent> clazz, String id, RecurrenceId recurrenceId) {
+			this.clazz = clazz;
+			this.id = id;
+			this.recurrenceId = recurrenceId;
+		}
+
+		/**
+		 * Builds the key of a component.
+		 * @param component the component
+		 * @return the key or null if the component cannot be matched by key
+		 */
+		public static ComponentKey of(ICalComponent component) {
+			if (component instanceof VTimezone) {
+				TimezoneId tzid = component.getProperty(TimezoneId.class);
+				String id = (tzid == null) ? null : tzid.getValue();
+				return (id == null) ? null : new ComponentKey(component.getClass(), id, null);
+			}
+
+			Uid uid = component.getProperty(Uid.class);
+			String id = (uid == null) ? null : uid.getValue();
+			if (id == null) {
+				return null;
+			}
+
+			RecurrenceId recurrenceId = component.getProperty(RecurrenceId.class);
+			return new ComponentKey(component.getClass(), id, recurrenceId);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + clazz.hashCode();
+			result = prime * result + id.hashCode();
+			result = prime * result + ((recurrenceId == null) ? 0 : recurrenceId.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (obj == null) return false;
+			if (getClass() != obj.getClass()) return false;
+			ComponentKey other = (ComponentKey) obj;
+			if (clazz != other.clazz) return false;
+			if (!id.equals(other.id)) return false;
+			if (recurrenceId == null) {
+				if (other.recurrenceId != null) return false;
+			} else if (!recurrenceId.equals(other.recurrenceId)) return false;
+			return true;
+		}
+	}
+}
@@ -6,8 +6,6 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import biweekly.Messages;
 
@@ -64,7 +62,6 @@ import biweekly.Messages;
  */
 public final class DateTimeComponents implements Comparable<DateTimeComponents>, Serializable {
 	private static final long serialVersionUID = 7668029303206402368L;
-	private static final Pattern regex = Pattern.compile("^(\\d{4})-?(\\d{2})-?(\\d{2})(T(\\d{2}):?(\\d{2}):?(\\d{2})(Z?))?.*");
 	private final int year, month, date, hour, minute, second;
 	private final boolean hasTime, utc;
 
@@ -90,35 +87,50 @@ public final class DateTimeComponents implements Comparable<DateTimeComponents>,
 	 * @throws IllegalArgumentException if the date string cannot be parsed
 	 */
 	public static DateTimeComponents parse(String dateString, Boolean hasTime) {
-		Matcher m = regex.matcher(dateString);
-		if (!m.find()) {
+		/*
+		 * Format: yyyy[-]MM[-]dd[T]HH[:]mm[:]ss[Z]
+		 * 
+		 * The time component is optional. Any characters that come after the
+		 * last recognized component are ignored.
+		 */
+		DateTimeScanner scanner = new DateTimeScanner(dateString);
+		int year = scanner.digits(4);
+		scanner.next('-');
+		int month = (year < 0) ? -1 : scanner.digits(2);
+		scanner.next('-');
+		int date = (month < 0) ? -1 : scanner.digits(2);
+		if (date < 0) {
 			throw Messages.INSTANCE.getIllegalArgumentException(19, dateString);
 		}
 
-		int i = 1;
-		int year = Integer.parseInt(m.group(i++));
-		int month = Integer.parseInt(m.group(i++));
-		int date = Integer.parseInt(m.group(i++));
-
-		i++; //skip
+		int hour = -1, minute = -1, second = -1;
+		boolean utc = false;
+		if (scanner.next('T')) {
+			hour = scanner.digits(2);
+			if (hour >= 0) {
+				scanner.next(':');
+				minute = scanner.digits(2);
+			}
+			if (minute >= 0) {
+				scanner.next(':');
+				second = scanner.digits(2);
+			}
+			if (second >= 0) {
+				utc = scanner.next('Z');
+			}
+		}
 
-		String hourStr = m.group(i++);
+		boolean timeFound = (second >= 0);
 		if (hasTime == null) {
-			hasTime = (hourStr != null);
+			hasTime = timeFound;
 		}
 		if (!hasTime) {
 			return new DateTimeComponents(year, month, date);
 		}
 
-		int hour = (hourStr == null) ? 0 : Integer.parseInt(hourStr);
-
-		String minuteStr = m.group(i++);
-		int minute = (minuteStr == null) ? 0 : Integer.parseInt(minuteStr);
-
-		String secondStr = m.group(i++);
-		int second = (secondStr == null) ? 0 : Integer.parseInt(secondStr);
-
-		boolean utc = "Z".equals(m.group(i++));
+		if (!timeFound) {
+			hour = minute = second = 0;
+		}
 
 		return new DateTimeComponents(year, month, date, hour, minute, second, utc);
 	}
@@ -0,0 +1,157 @@
+package biweekly.util;
+
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Reads the components of an ISO-8601 date string one character at a time.
+ * Used in place of regular expressions when parsing date values.
+ * @author Michael Angstadt
+ */
+final class DateTimeScanner {
+	private final String value;
+	private int pos = 0;
+
+	/**
+	 * @param value the string to scan
+	 */
+	public DateTimeScanner(String value) {
+		this.value = value;
+	}
+
+	/**
+	 * Reads a fixed number of digits.
+	 * @param count the number of digits to read
+	 * @return the value of the digits or -1 if the next characters in the
+	 * string are not digits (in which case, the position of the scanner is
+	 * not advanced)
+	 */
+	public int digits(int count) {
+		if (pos + count > value.length()) {
+			return -1;
+		}
+
+		int result = 0;
+		for (int i = pos; i < pos + count; i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			result = result * 10 + (c - '0');
+		}
+
+		pos += count;
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Reads the digits of a decimal fraction (the portion after the decimal
+	 * point) and rounds it to the nearest thousandth.
+	 * </p>
+	 * <p>
+	 * For example, if the next characters are "1235", then 124 is returned.
+	 * </p>
+	 * @return the fraction in thousandths or -1 if the next character is not a
+	 * digit
+	 */
+	public int thousandths() {
+		int result = 0;
+		int count = 0;
+		boolean roundUp = false;
+		while (pos < value.length()) {
+			char c = value.charAt(pos);
+			if (c < '0' || c > '9') {
+				break;
+			}
+
+			if (count < 3) {
+				result = result * 10 + (c - '0');
+			} else if (count == 3) {
+				roundUp = (c >= '5');
+			}
+
+			count++;
+			pos++;
+		}
+
+		if (count == 0) {
+			return -1;
+		}
+
+		for (int i = count; i < 3; i++) {
+			result *= 10;
+		}
+		return roundUp ? result + 1 : result;
+	}
+
+	/**
+	 * Reads the next character if it matches the given character.
+	 * @param c the character
+	 * @return true if the character was read, false if the next character is
+	 * different or the end of the string has been reached
+	 */
+	public boolean next(char c) {
+		if (pos < value.length() && value.charAt(pos) == c) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the next character without advancing the scanner.
+	 * @return the next character or 0 if the end of the string has been
+	 * reached
+	 */
+	public char peek() {
+		return (pos < value.length()) ? value.charAt(pos) : 0;
+	}
+
+	/**
+	 * Gets the position of the scanner.
+	 * @return the index of the next character to be read
+	 */
+	public int position() {
+		return pos;
+	}
+
+	/**
+	 * Moves the scanner to the given position.
+	 * @param pos the index of the next character to be read
+	 */
+	public void reset(int pos) {
+		this.pos = pos;
+	}
+
+	/**
+	 * Determines if all the characters in the string have been read.
+	 * @return true if the end of the string has been reached, false if not
+	 */
+	public boolean atEnd() {
+		return pos >= value.length();
+	}
+}
@@ -0,0 +1,291 @@
+package biweekly.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+
+import biweekly.ICalendar;
+import biweekly.component.ICalComponent;
+import biweekly.component.VEvent;
+import biweekly.component.VFreeBusy;
+import biweekly.parameter.FreeBusyType;
+import biweekly.property.FreeBusy;
+import biweekly.property.Status;
+import biweekly.property.Transparency;
+import biweekly.util.OccurrenceIndex.Occurrence;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Calculates a person's free/busy time from the events in one or more
+ * iCalendar objects.
+ * </p>
+ * <p>
+ * Recurring events are expanded over the given time window. Events that are
+ * marked as transparent or cancelled are ignored, and tentative events are
+ * reported as {@link FreeBusyType#BUSY_TENTATIVE}. Overlapping and adjacent
+ * busy times are merged, and busy time takes precedence over tentative time.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ * 
+ * <pre class="brush:java">
+ * FreeBusyCalculator calculator = new FreeBusyCalculator(start, end);
+ * calculator.add(workCalendar);
+ * calculator.add(personalCalendar);
+ * VFreeBusy freeBusy = calculator.build();
+ * </pre>
+ * @author Michael Angstadt
+ */
+public class FreeBusyCalculator {
+	private final long start, end;
+	private final Intervals busy = new Intervals();
+	private final Intervals tentative = new Intervals();
+
+	/**
+	 * @param start the start of the time window
+	 * @param end the end of the time window
+	 */
+	public FreeBusyCalculator(Date start, Date end) {
+		this.start = start.getTime();
+		this.end = end.getTime();
+	}
+
+	/**
+	 * Calculates the free/busy time of a set of iCalendar objects.
+	 * @param icals the iCalendar objects
+	 * @param start the start of the time window
+	 * @param end the end of the time window
+	 * @return the free/busy component
+	 */
+	public static VFreeBusy calculate(Collection<ICalendar> icals, Date start, Date end) {
+		FreeBusyCalculator calculator = new FreeBusyCalculator(start, end);
+		for (ICalendar ical : icals) {
+			calculator.add(ical);
+		}
+		return calculator.build();
+	}
+
+	/**
+	 * Adds the events of an iCalendar object to the calculation.
+	 * @param ical the iCalendar object
+	 * @return this
+	 */
+	public FreeBusyCalculator add(ICalendar ical) {
+		if (start >= end) {
+			return this;
+		}
+
+		OccurrenceIndex index = new OccurrenceIndex(ical, new Date(start), new Date(end));
+		for (Occurrence occurrence : index.getOccurrences(start, end)) {
+			ICalComponent component = occurrence.getComponent();
+			if (!(component instanceof VEvent)) {
+				continue;
+			}
+
+			Intervals intervals = intervalsFor((VEvent) component);
+			if (intervals != null) {
+				add(intervals, occurrence.getStart().getTime(), occurrence.getEnd().getTime());
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a busy time period to the calculation.
+	 * @param type the type ({@link FreeBusyType#BUSY} or
+	 * {@link FreeBusyType#BUSY_TENTATIVE})
+	 * @param start the start of the period
+	 * @param end the end of the period
+	 * @return this
+	 */
+	public FreeBusyCalculator add(FreeBusyType type, Date start, Date end) {
+		if (type != FreeBusyType.BUSY && type != FreeBusyType.BUSY_TENTATIVE) {
+			throw new IllegalArgumentException("Unsupported free/busy type: " + type);
+		}
+
+		add((type == FreeBusyType.BUSY) ? busy : tentative, start.getTime(), end.getTime());
+		return this;
+	}
+
+	private void add(Intervals intervals, long start, long end) {
+		//clip to the time window
+		start = Math.max(start, this.start);
+		end = Math.min(end, this.end);
+		if (start < end) {
+			intervals.add(start, end);
+		}
+	}
+
+	/**
+	 * Determines how an event affects the person's availability.
+	 * @param event the event
+	 * @return the intervals to add the event's occurrences to or null if the
+	 * event does not make the person busy
+	 */
+	private Intervals intervalsFor(VEvent event) {
+		Transparency transp = event.getTransparency();
+		if (transp != null && transp.isTransparent()) {
+			return null;
+		}
+
+		Status status = event.getStatus();
+		if (status != null) {
+			if (status.isCancelled()) {
+				return null;
+			}
+			if (status.isTentative()) {
+				return tentative;
+			}
+		}
+
+		return busy;
+	}
+
+	/**
+	 * Builds the free/busy component. The component contains at most one
+	 * {@link FreeBusy} property per {@link FreeBusyType}.
+	 * @return the free/busy component
+	 */
+	public VFreeBusy build() {
+		VFreeBusy freeBusy = new VFreeBusy();
+		freeBusy.setDateStart(new Date(start));
+		freeBusy.setDateEnd(new Date(end));
+
+		FreeBusy busyProperty = new FreeBusy();
+		busyProperty.setType(FreeBusyType.BUSY);
+		FreeBusy tentativeProperty = new FreeBusy();
+		tentativeProperty.setType(FreeBusyType.BUSY_TENTATIVE);
+
+		long[] busyStarts = busy.sortedStarts();
+		long[] busyEnds = busy.sortedEnds();
+		long[] tentativeStarts = tentative.sortedStarts();
+		long[] tentativeEnds = tentative.sortedEnds();
+
+		/*
+		 * Sweep through the start and end points in chronological order,
+		 * keeping count of how many busy and tentative periods are open.
+		 */
+		int bs = 0, be = 0, ts = 0, te = 0;
+		int busyCount = 0, tentativeCount = 0;
+		FreeBusy current = null;
+		long periodStart = 0;
+		while (true) {
+			long t = Math.min(Math.min(peek(busyStarts, bs), peek(busyEnds, be)), Math.min(peek(tentativeStarts, ts), peek(tentativeEnds, te)));
+			if (t == Long.MAX_VALUE) {
+				break;
+			}
+
+			while (bs < busyStarts.length && busyStarts[bs] == t) {
+				busyCount++;
+				bs++;
+			}
+			while (be < busyEnds.length && busyEnds[be] == t) {
+				busyCount--;
+				be++;
+			}
+			while (ts < tentativeStarts.length && tentativeStarts[ts] == t) {
+				tentativeCount++;
+				ts++;
+			}
+			while (te < tentativeEnds.length && tentativeEnds[te] == t) {
+				tentativeCount--;
+				te++;
+			}
+
+			FreeBusy next;
+			if (busyCount > 0) {
+				next = busyProperty;
+			} else if (tentativeCount > 0) {
+				next = tentativeProperty;
+			} else {
+				next = null;
+			}
+
+			if (next != current) {
+				if (current != null) {
+					current.getValues().add(new Period(new Date(periodStart), new Date(t)));
+				}
+				current = next;
+				periodStart = t;
+			}
+		}
+
+		if (!busyProperty.getValues().isEmpty()) {
+			freeBusy.addFreeBusy(busyProperty);
+		}
+		if (!tentativeProperty.getValues().isEmpty()) {
+			freeBusy.addFreeBusy(tentativeProperty);
+		}
+		return freeBusy;
+	}
+
+	private static long peek(long[] array, int index) {
+		return (index < array.length) ? array[index] : Long.MAX_VALUE;
+	}
+
+	/**
+	 * A growable list of time periods.
+	 */
+	private static class Intervals {
+		private int size = 0;
+		private long[] starts = new long[16];
+		private long[] ends = new long[16];
+
+		public void add(long start, long end) {
+			if (size == starts.length) {
+				long[] newStarts = new long[size * 2];
+				System.arraycopy(starts, 0, newStarts, 0, size);
+				starts = newStarts;
+
+				long[] newEnds = new long[size * 2];
+				System.arraycopy(ends, 0, newEnds, 0, size);
+				ends = newEnds;
+			}
+
+			starts[size] = start;
+			ends[size] = end;
+			size++;
+		}
+
+		public long[] sortedStarts() {
+			return sorted(starts);
+		}
+
+		public long[] sortedEnds() {
+			return sorted(ends);
+		}
+
+		private long[] sorted(long[] array) {
+			long[] copy = new long[size];
+			System.arraycopy(array, 0, copy, 0, size);
+			Arrays.sort(copy);
+			return copy;
+		}
+	}
+}
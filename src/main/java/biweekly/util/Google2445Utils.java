@@ -18,6 +18,7 @@ import biweekly.property.RecurrenceRule;
 import biweekly.property.ValuedProperty;
 import biweekly.util.com.google.ical.compat.javautil.DateIterator;
 import biweekly.util.com.google.ical.compat.javautil.DateIteratorFactory;
+import biweekly.util.com.google.ical.iter.PackedRecurrenceIterator;
 import biweekly.util.com.google.ical.iter.RecurrenceIterable;
 import biweekly.util.com.google.ical.iter.RecurrenceIterator;
 import biweekly.util.com.google.ical.iter.RecurrenceIteratorFactory;
@@ -25,6 +26,7 @@ import biweekly.util.com.google.ical.values.DateTimeValue;
 import biweekly.util.com.google.ical.values.DateTimeValueImpl;
 import biweekly.util.com.google.ical.values.DateValue;
 import biweekly.util.com.google.ical.values.DateValueImpl;
+import biweekly.util.com.google.ical.values.PackedDateValue;
 
 /*
  Copyright (c) 2013-2018, Michael Angstadt
@@ -57,6 +59,8 @@ import biweekly.util.com.google.ical.values.DateValueImpl;
  * @see <a href="https://code.google.com/p/google-rfc-2445/">google-rfc-2445</a>
  */
 public final class Google2445Utils {
+	private static final int GREGORIAN_CUTOVER_YEAR = 1582;
+
 	/**
 	 * <p>
 	 * Converts an {@link ICalDate} object to a google-rfc-2445
@@ -235,6 +239,93 @@ public final class Google2445Utils {
 	 * @return the iterator
 	 */
 	public static DateIterator getDateIterator(ICalComponent component, TimeZone timezone) {
+		RecurrenceIterator iterator = createRecurrenceIterator(component, timezone);
+		return (iterator == null) ? new EmptyDateIterator() : DateIteratorFactory.createDateIterator(iterator);
+	}
+
+	/**
+	 * <p>
+	 * Computes the dates of a component that fall within the given time
+	 * window. The dates are computed in the same way as
+	 * {@link #getDateIterator(ICalComponent, TimeZone)}.
+	 * </p>
+	 * <p>
+	 * This method is faster than using a {@link DateIterator} because it does
+	 * not create a {@link Date} object for each date. Also, for simple rules
+	 * such as "FREQ=DAILY;INTERVAL=3", it jumps directly to the start of the
+	 * window instead of computing every date that comes before it.
+	 * </p>
+	 * @param component the component
+	 * @param start the start of the window (inclusive)
+	 * @param end the end of the window (exclusive)
+	 * @param timezone the timezone to iterate in. This is needed in order to
+	 * adjust for when the iterator passes over a daylight savings boundary.
+	 * This parameter is ignored if the start date of the given component does
+	 * not have a time component.
+	 * @return the dates, in ascending order (in milliseconds since the epoch)
+	 */
+	public static long[] occurrencesBetween(ICalComponent component, Date start, Date end, TimeZone timezone) {
+		LongArraySink sink = new LongArraySink();
+		occurrencesBetween(component, start, end, timezone, sink);
+		return sink.toArray();
+	}
+
+	/**
+	 * Computes the dates of a component that fall within the given time
+	 * window and passes them to a sink. The dates are computed in the same way
+	 * as {@link #getDateIterator(ICalComponent, TimeZone)}.
+	 * @param component the component
+	 * @param start the start of the window (inclusive)
+	 * @param end the end of the window (exclusive)
+	 * @param timezone the timezone to iterate in. This is needed in order to
+	 * adjust for when the iterator passes over a daylight savings boundary.
+	 * This parameter is ignored if the start date of the given component does
+	 * not have a time component.
+	 * @param sink receives each date, in ascending order (in milliseconds
+	 * since the epoch)
+	 * @return the number of dates that were passed to the sink
+	 * @see #occurrencesBetween(ICalComponent, Date, Date, TimeZone)
+	 */
+	public static int occurrencesBetween(ICalComponent component, Date start, Date end, TimeZone timezone, OccurrenceSink sink) {
+		long startMillis = start.getTime();
+		long endMillis = end.getTime();
+		if (startMillis >= endMillis) {
+			return 0;
+		}
+
+		RecurrenceIterator iterator = createRecurrenceIterator(component, timezone);
+		if (iterator == null) {
+			return 0;
+		}
+
+		iterator.advanceTo(toDateValueUtc(start));
+
+		PackedRecurrenceIterator packedIterator = (iterator instanceof PackedRecurrenceIterator) ? (PackedRecurrenceIterator) iterator : null;
+		int count = 0;
+		while (iterator.hasNext()) {
+			long packed = (packedIterator == null) ? PackedDateValue.pack(iterator.next()) : packedIterator.nextPacked();
+			long millis = toMillisUtc(packed);
+			if (millis >= endMillis) {
+				break;
+			}
+			if (millis < startMillis) {
+				continue;
+			}
+
+			sink.add(millis);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Creates a recurrence iterator that computes the dates of a component.
+	 * @param component the component
+	 * @param timezone the timezone to iterate in
+	 * @return the iterator or null if the component does not have any dates
+	 * @see #getDateIterator(ICalComponent, TimeZone)
+	 */
+	private static RecurrenceIterator createRecurrenceIterator(ICalComponent component, TimeZone timezone) {
 		DateStart dtstart = component.getProperty(DateStart.class);
 		ICalDate start = ValuedProperty.getValue(dtstart);
 
@@ -270,7 +361,7 @@ public final class Google2445Utils {
 
 		if (include.isEmpty()) {
 			if (start == null) {
-				return new EmptyDateIterator();
+				return null;
 			}
 			include.add(new ICalDateRecurrenceIterator(Arrays.asList(start)));
 		}
@@ -300,12 +391,59 @@ public final class Google2445Utils {
 
 		RecurrenceIterator includeJoined = join(include);
 		if (exclude.isEmpty()) {
-			return DateIteratorFactory.createDateIterator(includeJoined);
+			return includeJoined;
 		}
 
 		RecurrenceIterator excludeJoined = join(exclude);
-		RecurrenceIterator iterator = RecurrenceIteratorFactory.except(includeJoined, excludeJoined);
-		return DateIteratorFactory.createDateIterator(iterator);
+		return RecurrenceIteratorFactory.except(includeJoined, excludeJoined);
+	}
+
+	/**
+	 * Converts a Java {@link Date} object to a {@link DateValue} object in
+	 * the same way that {@link DateIterator#advanceTo} does.
+	 * @param date the Java date object
+	 * @return the date value object (in UTC)
+	 */
+	private static DateValue toDateValueUtc(Date date) {
+		Calendar c = Calendar.getInstance(utc());
+		c.setTime(date);
+
+		int year = c.get(Calendar.YEAR);
+		int month = c.get(Calendar.MONTH) + 1;
+		int day = c.get(Calendar.DATE);
+		int hour = c.get(Calendar.HOUR_OF_DAY);
+		int minute = c.get(Calendar.MINUTE);
+		int second = c.get(Calendar.SECOND);
+
+		/*
+		 * Midnight is treated as a date value so that dates that occur at
+		 * midnight are not skipped.
+		 */
+		if ((hour | minute | second) == 0) {
+			return new DateValueImpl(year, month, day);
+		}
+		return new DateTimeValueImpl(year, month, day, hour, minute, second);
+	}
+
+	/**
+	 * Converts a packed date value to a timestamp in the same way that
+	 * {@link DateIterator#next} does.
+	 * @param packed the packed date value (in UTC)
+	 * @return the timestamp (in milliseconds since the epoch)
+	 */
+	private static long toMillisUtc(long packed) {
+		/*
+		 * Dates before the Gregorian calendar cutover are handled by the
+		 * Julian calendar, so let Calendar convert them.
+		 */
+		if (PackedDateValue.year(packed) <= GREGORIAN_CUTOVER_YEAR) {
+			Calendar c = Calendar.getInstance(utc());
+			c.clear();
+			c.set(PackedDateValue.year(packed), PackedDateValue.month(packed) - 1, PackedDateValue.day(packed), PackedDateValue.hour(packed), PackedDateValue.minute(packed), PackedDateValue.second(packed));
+			return c.getTimeInMillis();
+		}
+
+		return PackedDateValue.toEpochSecond(packed) * 1000;
 	}
 
 	/**
@@ -328,10 +466,23 @@ public final class Google2445Utils {
 	 * Returns a UTC timezone object.
 	 * @return the timezone object
 	 */
-	private static TimeZone utc() {
+	static TimeZone utc() {
 		return TimeZone.getTimeZone("UTC");
 	}
 
+	/**
+	 * Receives the dates computed by
+	 * {@link Google2445Utils#occurrencesBetween(ICalComponent, Date, Date, TimeZone, OccurrenceSink)}
+	 * .
+	 */
+	public interface OccurrenceSink {
+		/**
+		 * Called for each date.
+		 * @param date the date (in milliseconds since the epoch)
+		 */
+		void add(long date);
+	}
+
 	/**
 	 * A {@link DateIterator} with nothing in it.
 	 */
@@ -353,6 +504,29 @@ public final class Google2445Utils {
 		}
 	}
 
+	/**
+	 * Collects dates into a {@code long} array.
+	 */
+	private static class LongArraySink implements OccurrenceSink {
+		private long[] dates = new long[16];
+		private int size = 0;
+
+		public void add(long date) {
+			if (size == dates.length) {
+				long[] copy = new long[dates.length * 2];
+				System.arraycopy(dates, 0, copy, 0, size);
+				dates = copy;
+			}
+			dates[size++] = date;
+		}
+
+		public long[] toArray() {
+			long[] array = new long[size];
+			System.arraycopy(dates, 0, array, 0, size);
+			return array;
+		}
+	}
+
 	private static class ICalDateRecurrenceIterator implements RecurrenceIterator {
 		private final List<ICalDate> dates;
 		private int index = 0;
@@ -1,13 +1,12 @@
 package biweekly.util;
 
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.FieldPosition;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /*
  Copyright (c) 2013-2018, Michael Angstadt
@@ -46,31 +45,31 @@ public enum ICalDateFormat {
 	 * Example: 20120701
 	 */
 	DATE_BASIC(
-	"yyyyMMdd"),
+	"yyyyMMdd", false, false, Zone.NONE),
 	
 	/**
 	 * Example: 2012-07-01
 	 */
 	DATE_EXTENDED(
-	"yyyy-MM-dd"),
+	"yyyy-MM-dd", true, false, Zone.NONE),
 	
 	/**
 	 * Example: 20120701T142110-0500
 	 */
 	DATE_TIME_BASIC(
-	"yyyyMMdd'T'HHmmssZ"),
+	"yyyyMMdd'T'HHmmssZ", false, true, Zone.OFFSET),
 	
 	/**
 	 * Example: 20120701T142110
 	 */
 	DATE_TIME_BASIC_WITHOUT_TZ(
-	"yyyyMMdd'T'HHmmss"),
+	"yyyyMMdd'T'HHmmss", false, true, Zone.NONE),
 	
 	/**
 	 * Example: 2012-07-01T14:21:10-05:00
 	 */
 	DATE_TIME_EXTENDED(
-	"yyyy-MM-dd'T'HH:mm:ssZ"){
+	"yyyy-MM-dd'T'HH:mm:ssZ", true, true, Zone.OFFSET){
 		@Override
 		public DateFormat getDateFormat(TimeZone timezone) {
 			DateFormat df = new SimpleDateFormat(formatStr){
@@ -99,13 +98,13 @@ public enum ICalDateFormat {
 	 * Example: 2012-07-01T14:21:10
 	 */
 	DATE_TIME_EXTENDED_WITHOUT_TZ(
-	"yyyy-MM-dd'T'HH:mm:ss"),
+	"yyyy-MM-dd'T'HH:mm:ss", true, true, Zone.NONE),
 	
 	/**
 	 * Example: 20120701T192110Z
 	 */
 	UTC_TIME_BASIC(
-	"yyyyMMdd'T'HHmmss'Z'"){
+	"yyyyMMdd'T'HHmmss'Z'", false, true, Zone.UTC){
 		@Override
 		public DateFormat getDateFormat(TimeZone timezone) {
 			//always use the UTC timezone
@@ -118,7 +117,7 @@ public enum ICalDateFormat {
 	 * Example: 2012-07-01T19:21:10Z
 	 */
 	UTC_TIME_EXTENDED(
-	"yyyy-MM-dd'T'HH:mm:ss'Z'"){
+	"yyyy-MM-dd'T'HH:mm:ss'Z'", true, true, Zone.UTC){
 		@Override
 		public DateFormat getDateFormat(TimeZone timezone) {
 			//always use the UTC timezone
@@ -133,12 +132,53 @@ public enum ICalDateFormat {
 	 */
 	protected final String formatStr;
 
+	private final boolean extended;
+	private final boolean time;
+	private final Zone zone;
+
+	/**
+	 * The date that the Gregorian calendar went into effect. The
+	 * {@link SimpleDateFormat} class uses the Julian calendar for dates before
+	 * this.
+	 */
+	private static final long GREGORIAN_CUTOVER = -12219292800000L;
+
+	private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
 	/**
 	 * @param formatStr the {@link SimpleDateFormat} format string used for
 	 * parsing dates.
+	 * @param extended true if the format uses extended format, false for basic
+	 * @param time true if the format includes a time component, false if not
+	 * @param zone how the format writes the timezone
 	 */
-	private ICalDateFormat(String formatStr) {
+	private ICalDateFormat(String formatStr, boolean extended, boolean time, Zone zone) {
 		this.formatStr = formatStr;
+		this.extended = extended;
+		this.time = time;
+		this.zone = zone;
+	}
+
+	/**
+	 * Defines how a format writes the timezone of a date-time value.
+	 */
+	private enum Zone {
+		/**
+		 * Nothing is written.
+		 */
+		NONE,
+
+		/**
+		 * The date is converted to UTC and a "Z" is written.
+		 */
+		UTC,
+
+		/**
+		 * The date's UTC offset is written.
+		 */
+		OFFSET
 	}
 
 	/**
@@ -182,8 +222,143 @@ public enum ICalDateFormat {
 	 * @return the date string
 	 */
 	public String format(Date date, TimeZone timezone) {
-		DateFormat df = getDateFormat(timezone);
-		return df.format(date);
+		StringBuilder sb = new StringBuilder(25);
+		format(date, timezone, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Formats a date in this ISO format.
+	 * @param date the date to format
+	 * @param timezone the timezone to format the date in or null for the
+	 * default timezone
+	 * @param sb the buffer to write the date string to
+	 */
+	public void format(Date date, TimeZone timezone, StringBuilder sb) {
+		try {
+			format(date, timezone, (Appendable) sb);
+		} catch (IOException e) {
+			//StringBuilder does not throw IOExceptions
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Formats a date in this ISO format.
+	 * </p>
+	 * <p>
+	 * This method produces the same output as the {@link DateFormat} object
+	 * returned by {@link #getDateFormat(TimeZone)}, but calculates the date
+	 * fields directly from the date's timestamp. It is thread safe and does
+	 * not create any objects.
+	 * </p>
+	 * @param date the date to format
+	 * @param timezone the timezone to format the date in or null for the
+	 * default timezone
+	 * @param out the object to write the date string to
+	 * @throws IOException if there's a problem writing to the output
+	 */
+	public void format(Date date, TimeZone timezone, Appendable out) throws IOException {
+		long millis = date.getTime();
+		if (millis < GREGORIAN_CUTOVER) {
+			out.append(getDateFormat(timezone).format(date));
+			return;
+		}
+
+		if (zone == Zone.UTC) {
+			timezone = UTC;
+		} else if (timezone == null) {
+			timezone = TimeZone.getDefault();
+		}
+
+		int offset = timezone.getOffset(millis);
+		long local = millis + offset;
+		long days = local / DAY_MILLIS;
+		if (local % DAY_MILLIS < 0) {
+			days--;
+		}
+		int millisOfDay = (int) (local - days * DAY_MILLIS);
+
+		/*
+		 * Convert the number of days since 1970-01-01 to a year, month, and
+		 * date.
+		 * 
+		 * See: http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+		 */
+		long z = days + 719468;
+		long era = ((z >= 0) ? z : z - 146096) / 146097;
+		int dayOfEra = (int) (z - era * 146097);
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int mp = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+		int month = (mp < 10) ? mp + 3 : mp - 9;
+		int year = (int) (yearOfEra + era * 400) + ((month <= 2) ? 1 : 0);
+
+		appendYear(out, year);
+		if (extended) {
+			out.append('-');
+		}
+		append2(out, month);
+		if (extended) {
+			out.append('-');
+		}
+		append2(out, day);
+
+		if (!time) {
+			return;
+		}
+
+		int seconds = millisOfDay / 1000;
+		out.append('T');
+		append2(out, seconds / 3600);
+		if (extended) {
+			out.append(':');
+		}
+		append2(out, (seconds / 60) % 60);
+		if (extended) {
+			out.append(':');
+		}
+		append2(out, seconds % 60);
+
+		switch (zone) {
+		case UTC:
+			out.append('Z');
+			break;
+		case OFFSET:
+			int offsetMinutes = offset / (60 * 1000);
+			if (offsetMinutes < 0) {
+				out.append('-');
+				offsetMinutes = -offsetMinutes;
+			} else {
+				out.append('+');
+			}
+			append2(out, offsetMinutes / 60);
+			if (extended) {
+				out.append(':');
+			}
+			append2(out, offsetMinutes % 60);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private static void appendYear(Appendable out, int year) throws IOException {
+		if (year > 9999) {
+			out.append(Integer.toString(year));
+			return;
+		}
+
+		out.append((char) ('0' + year / 1000));
+		out.append((char) ('0' + (year / 100) % 10));
+		append2(out, year % 100);
+	}
+
+	private static void append2(Appendable out, int value) throws IOException {
+		out.append((char) ('0' + value / 10));
+		out.append((char) ('0' + value % 10));
 	}
 
 	/**
@@ -208,12 +383,12 @@ public enum ICalDateFormat {
 	 * accepted ISO8601 formats
 	 */
 	public static Date parse(String dateStr, TimeZone timezone) {
-		TimestampPattern p = new TimestampPattern(dateStr);
-		if (!p.matches()) {
+		Timestamp p = Timestamp.parse(dateStr);
+		if (p == null) {
 			throw parseException(dateStr);
 		}
 
-		if (p.hasOffset()) {
+		if (p.hasOffset) {
 			timezone = TimeZone.getTimeZone("UTC");
 		} else if (timezone == null) {
 			timezone = TimeZone.getDefault();
@@ -222,18 +397,18 @@ public enum ICalDateFormat {
 		Calendar c = Calendar.getInstance(timezone);
 		c.clear();
 
-		c.set(Calendar.YEAR, p.year());
-		c.set(Calendar.MONTH, p.month() - 1);
-		c.set(Calendar.DATE, p.date());
+		c.set(Calendar.YEAR, p.year);
+		c.set(Calendar.MONTH, p.month - 1);
+		c.set(Calendar.DATE, p.date);
 
-		if (p.hasTime()) {
-			c.set(Calendar.HOUR_OF_DAY, p.hour());
-			c.set(Calendar.MINUTE, p.minute());
-			c.set(Calendar.SECOND, p.second());
-			c.set(Calendar.MILLISECOND, p.millisecond());
+		if (p.hasTime) {
+			c.set(Calendar.HOUR_OF_DAY, p.hour);
+			c.set(Calendar.MINUTE, p.minute);
+			c.set(Calendar.SECOND, p.second);
+			c.set(Calendar.MILLISECOND, p.millisecond);
 
-			if (p.hasOffset()) {
-				c.set(Calendar.ZONE_OFFSET, p.offsetMillis());
+			if (p.hasOffset) {
+				c.set(Calendar.ZONE_OFFSET, p.offsetMillis);
 			}
 		}
 
@@ -241,96 +416,107 @@ public enum ICalDateFormat {
 	}
 
 	/**
-	 * Wrapper for a complex regular expression that parses multiple date
-	 * formats.
+	 * Parses the components of a timestamp in any of the supported formats.
 	 */
-	private static class TimestampPattern {
-		//@formatter:off
-		private static final Pattern regex = Pattern.compile(
-			"^(\\d{4})-?(\\d{2})-?(\\d{2})" +
-			"(" +
-				"T(\\d{2}):?(\\d{2}):?(\\d{2})(\\.\\d+)?" +
-				"(" +
-					"Z|([-+])((\\d{2})|((\\d{2}):?(\\d{2})))" +
-				")?" +
-			")?$"
-		);
-		//@formatter:on
-
-		private final Matcher m;
-		private final boolean matches;
-
-		public TimestampPattern(String str) {
-			m = regex.matcher(str);
-			matches = m.find();
-		}
-
-		public boolean matches() {
-			return matches;
-		}
-
-		public int year() {
-			return parseInt(1);
-		}
-
-		public int month() {
-			return parseInt(2);
-		}
-
-		public int date() {
-			return parseInt(3);
-		}
-
-		public boolean hasTime() {
-			return m.group(5) != null;
-		}
-
-		public int hour() {
-			return parseInt(5);
-		}
-
-		public int minute() {
-			return parseInt(6);
-		}
-
-		public int second() {
-			return parseInt(7);
-		}
+	private static class Timestamp {
+		private int year, month, date;
+		private boolean hasTime;
+		private int hour, minute, second, millisecond;
+		private boolean hasOffset;
+		private int offsetMillis;
+
+		/**
+		 * Parses a timestamp.
+		 * @param str the timestamp string
+		 * @return the parsed timestamp or null if the string is not in a
+		 * supported format
+		 */
+		public static Timestamp parse(String str) {
+			/*
+			 * Format: yyyy[-]MM[-]dd[THH[:]mm[:]ss[.SSS][Z|+HH|+HH[:]mm]]
+			 */
+			DateTimeScanner scanner = new DateTimeScanner(str);
+			Timestamp t = new Timestamp();
+
+			t.year = scanner.digits(4);
+			if (t.year < 0) {
+				return null;
+			}
+			scanner.next('-');
+			t.month = scanner.digits(2);
+			if (t.month < 0) {
+				return null;
+			}
+			scanner.next('-');
+			t.date = scanner.digits(2);
+			if (t.date < 0) {
+				return null;
+			}
 
-		public int millisecond() {
-			if (m.group(8) == null) {
-				return 0;
+			if (scanner.atEnd()) {
+				return t;
 			}
 
-			double ms = Double.parseDouble(m.group(8)) * 1000;
-			return (int) Math.round(ms);
-		}
+			if (!scanner.next('T')) {
+				return null;
+			}
+			t.hasTime = true;
+			t.hour = scanner.digits(2);
+			if (t.hour < 0) {
+				return null;
+			}
+			scanner.next(':');
+			t.minute = scanner.digits(2);
+			if (t.minute < 0) {
+				return null;
+			}
+			scanner.next(':');
+			t.second = scanner.digits(2);
+			if (t.second < 0) {
+				return null;
+			}
 
-		public boolean hasOffset() {
-			return m.group(9) != null;
-		}
+			if (scanner.next('.')) {
+				t.millisecond = scanner.thousandths();
+				if (t.millisecond < 0) {
+					return null;
+				}
+			}
 
-		public int offsetMillis() {
-			if (m.group(9).equals("Z")) {
-				return 0;
+			if (scanner.atEnd()) {
+				return t;
 			}
 
-			int positive = m.group(10).equals("+") ? 1 : -1;
+			t.hasOffset = true;
+			if (scanner.next('Z')) {
+				return scanner.atEnd() ? t : null;
+			}
 
-			int offsetHour, offsetMinute;
-			if (m.group(12) != null) {
-				offsetHour = parseInt(12);
-				offsetMinute = 0;
+			int positive;
+			if (scanner.next('+')) {
+				positive = 1;
+			} else if (scanner.next('-')) {
+				positive = -1;
 			} else {
-				offsetHour = parseInt(14);
-				offsetMinute = parseInt(15);
+				return null;
 			}
 
-			return (offsetHour * 60 * 60 * 1000 + offsetMinute * 60 * 1000) * positive;
-		}
+			int offsetHour = scanner.digits(2);
+			if (offsetHour < 0) {
+				return null;
+			}
+
+			int offsetMinute = 0;
+			if (!scanner.atEnd()) {
+				scanner.next(':');
+				offsetMinute = scanner.digits(2);
+				if (offsetMinute < 0 || !scanner.atEnd()) {
+					return null;
+				}
+			}
 
-		private int parseInt(int group) {
-			return Integer.parseInt(m.group(group));
+			t.offsetMillis = (offsetHour * 60 * 60 * 1000 + offsetMinute * 60 * 1000) * positive;
+			return t;
 		}
 	}
 
@@ -350,7 +536,30 @@ public enum ICalDateFormat {
 	 * @return true if it has a timezone, false if not
 	 */
 	public static boolean dateHasTimezone(String dateStr) {
-		return isUTC(dateStr) || dateStr.matches(".*?[-+]\\d\\d:?\\d\\d");
+		if (isUTC(dateStr)) {
+			return true;
+		}
+
+		//look for an offset at the end of the string (e.g. "-0400" or "-04:00")
+		int length = dateStr.length();
+		int start = length - 5;
+		if (start >= 0 && dateStr.charAt(start + 2) == ':') {
+			start--;
+		}
+		if (start < 0) {
+			return false;
+		}
+
+		DateTimeScanner scanner = new DateTimeScanner(dateStr);
+		scanner.reset(start);
+		if (!scanner.next('-') && !scanner.next('+')) {
+			return false;
+		}
+		if (scanner.digits(2) < 0) {
+			return false;
+		}
+		scanner.next(':');
+		return scanner.digits(2) >= 0 && scanner.atEnd();
 	}
 
 	/**
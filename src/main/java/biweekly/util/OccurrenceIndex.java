@@ -0,0 +1,717 @@
+package biweekly.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import biweekly.ICalendar;
+import biweekly.component.ICalComponent;
+import biweekly.component.VEvent;
+import biweekly.component.VJournal;
+import biweekly.component.VTodo;
+import biweekly.io.TimezoneAssignment;
+import biweekly.io.TimezoneInfo;
+import biweekly.property.DateDue;
+import biweekly.property.DateEnd;
+import biweekly.property.DateStart;
+import biweekly.property.DurationProperty;
+import biweekly.property.RecurrenceId;
+import biweekly.property.Uid;
+import biweekly.property.ValuedProperty;
+import biweekly.util.Google2445Utils.OccurrenceSink;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * <p>
+ * Answers the question "what is happening between these two dates?" for an
+ * iCalendar object. When the index is created, the recurrence rules of each
+ * event, to-do, and journal entry are expanded up to a given horizon and all
+ * of the resulting occurrences are stored in a single table, sorted by start
+ * date. Time range queries then run in logarithmic time, no matter how many
+ * components or recurrences the iCalendar object has.
+ * </p>
+ * <p>
+ * Components that share the same UID are treated as a single recurring
+ * series. Components that have a {@link RecurrenceId} property override the
+ * matching occurrence of the series' master component (the
+ * {@link biweekly.parameter.Range#THIS_AND_FUTURE THISANDFUTURE} range is not
+ * supported).
+ * </p>
+ * <p>
+ * If a component is modified after the index is created, call
+ * {@link #reindex} to update the index. Only the affected series is expanded
+ * again, but its new occurrences are then merged into the table, which takes
+ * time that is linear in the total number of indexed occurrences. When many
+ * components change at once, pass them all to
+ * {@link #reindex(Collection)} or {@link #remove(Collection)} so that the
+ * table is only merged once.
+ * </p>
+ * <p>
+ * <b>Example:</b>
+ * </p>
+ * 
+ * <pre class="brush:java">
+ * ICalendar ical = ...
+ * Date horizonStart = ...
+ * Date horizonEnd = ...
+ * OccurrenceIndex index = new OccurrenceIndex(ical, horizonStart, horizonEnd);
+ * 
+ * for (OccurrenceIndex.Occurrence occurrence : index.getOccurrences(start, end)) {
+ *   ICalComponent component = occurrence.getComponent();
+ *   Date occurrenceStart = occurrence.getStart();
+ *   Date occurrenceEnd = occurrence.getEnd();
+ * }
+ * </pre>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * @author Michael Angstadt
+ */
+public class OccurrenceIndex {
+	private static final long ONE_DAY = 24L * 60 * 60 * 1000;
+
+	private final TimezoneInfo tzinfo;
+	private final long horizonStart, horizonEnd;
+
+	private final Map<Object, Series> seriesByKey = new HashMap<Object, Series>();
+	private final Map<ICalComponent, Series> seriesByComponent = new IdentityHashMap<ICalComponent, Series>();
+
+	/*
+	 * The occurrence table. All arrays are parallel and are sorted by start
+	 * date. "maxEnds" turns the table into an implicit interval tree: the
+	 * element in the middle of each range holds the largest end date of that
+	 * range.
+	 */
+	private int size = 0;
+	private long[] starts = new long[0];
+	private long[] ends = new long[0];
+	private long[] maxEnds = new long[0];
+	private ICalComponent[] components = new ICalComponent[0];
+	private Series[] owners = new Series[0];
+
+	/**
+	 * Creates an index of all the events, to-dos, and journal entries in an
+	 * iCalendar object.
+	 * @param ical the iCalendar object
+	 * @param horizonStart occurrences that end before this date are not
+	 * indexed
+	 * @param horizonEnd occurrences that start on or after this date are not
+	 * indexed
+	 */
+	public OccurrenceIndex(ICalendar ical, Date horizonStart, Date horizonEnd) {
+		this.tzinfo = ical.getTimezoneInfo();
+		this.horizonStart = horizonStart.getTime();
+		this.horizonEnd = horizonEnd.getTime();
+
+		List<Series> all = new ArrayList<Series>();
+		for (ICalComponent component : ical.getComponents().values()) {
+			if (!isIndexable(component)) {
+				continue;
+			}
+
+			Series series = seriesFor(component);
+			if (series.components.isEmpty()) {
+				all.add(series);
+			}
+			series.components.add(component);
+			seriesByComponent.put(component, series);
+		}
+
+		Table table = new Table();
+		for (Series series : all) {
+			expand(series, table);
+		}
+		table.sort();
+		replace(table, false);
+	}
+
+	/**
+	 * Gets the occurrences that overlap the given time range. An occurrence
+	 * overlaps the range if it starts before the end of the range and ends
+	 * after the start of the range. Occurrences that have no duration are
+	 * included if they start within the range.
+	 * @param start the start of the range (inclusive)
+	 * @param end the end of the range (exclusive)
+	 * @return the occurrences, sorted by start date
+	 */
+	public List<Occurrence> getOccurrences(Date start, Date end) {
+		return getOccurrences(start.getTime(), end.getTime());
+	}
+
+	/**
+	 * Gets the occurrences that overlap the given time range. An occurrence
+	 * overlaps the range if it starts before the end of the range and ends
+	 * after the start of the range. Occurrences that have no duration are
+	 * included if they start within the range.
+	 * @param start the start of the range in milliseconds since the epoch
+	 * (inclusive)
+	 * @param end the end of the range in milliseconds since the epoch
+	 * (exclusive)
+	 * @return the occurrences, sorted by start date
+	 */
+	public List<Occurrence> getOccurrences(long start, long end) {
+		if (start >= end) {
+			return Collections.emptyList();
+		}
+
+		List<Occurrence> occurrences = new ArrayList<Occurrence>();
+		query(0, size - 1, start, end, occurrences);
+		return occurrences;
+	}
+
+	private void query(int lo, int hi, long start, long end, List<Occurrence> occurrences) {
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (maxEnds[mid] <= start) {
+				//nothing in this range ends after the start of the query
+				return;
+			}
+
+			query(lo, mid - 1, start, end, occurrences);
+
+			if (starts[mid] >= end) {
+				//everything to the right starts after the end of the query
+				return;
+			}
+			if (effectiveEnd(mid) > start) {
+				occurrences.add(new Occurrence(components[mid], starts[mid], ends[mid]));
+			}
+
+			lo = mid + 1;
+		}
+	}
+
+	/**
+	 * Gets the total number of indexed occurrences.
+	 * @return the number of occurrences
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Updates the index after a component was added to or modified in the
+	 * iCalendar object. The occurrences of the component's series are
+	 * recalculated. If the component's UID was changed, the occurrences of
+	 * its old series are recalculated as well. The recalculated occurrences
+	 * are merged into the occurrence table in O(N) time, where N is the total
+	 * number of indexed occurrences.
+	 * @param component the component
+	 */
+	public void reindex(ICalComponent component) {
+		reindex(Collections.singletonList(component));
+	}
+
+	/**
+	 * Updates the index after components were added to or modified in the
+	 * iCalendar object. The occurrence table is only merged once, no matter
+	 * how many components are given.
+	 * @param components the components
+	 * @see #reindex(ICalComponent)
+	 */
+	public void reindex(Collection<? extends ICalComponent> components) {
+		Set<Series> dirty = new LinkedHashSet<Series>();
+		for (ICalComponent component : components) {
+			if (!isIndexable(component)) {
+				detach(component, dirty);
+				continue;
+			}
+
+			Series oldSeries = seriesByComponent.get(component);
+			Series newSeries = seriesFor(component);
+			if (oldSeries != newSeries) {
+				if (oldSeries != null) {
+					oldSeries.components.remove(component);
+					dirty.add(oldSeries);
+				}
+				newSeries.components.add(component);
+				seriesByComponent.put(component, newSeries);
+			}
+			dirty.add(newSeries);
+		}
+
+		update(dirty);
+	}
+
+	/**
+	 * Updates the index after a component was removed from the iCalendar
+	 * object. The remaining occurrences of the component's series are merged
+	 * into the occurrence table in O(N) time, where N is the total number of
+	 * indexed occurrences.
+	 * @param component the component
+	 */
+	public void remove(ICalComponent component) {
+		remove(Collections.singletonList(component));
+	}
+
+	/**
+	 * Updates the index after components were removed from the iCalendar
+	 * object. The occurrence table is only merged once, no matter how many
+	 * components are given.
+	 * @param components the components
+	 * @see #remove(ICalComponent)
+	 */
+	public void remove(Collection<? extends ICalComponent> components) {
+		Set<Series> dirty = new LinkedHashSet<Series>();
+		for (ICalComponent component : components) {
+			detach(component, dirty);
+		}
+
+		update(dirty);
+	}
+
+	/**
+	 * Removes a component from its series.
+	 * @param component the component
+	 * @param dirty the set to add the component's series to
+	 */
+	private void detach(ICalComponent component, Set<Series> dirty) {
+		Series series = seriesByComponent.remove(component);
+		if (series != null) {
+			series.components.remove(component);
+			dirty.add(series);
+		}
+	}
+
+	/**
+	 * Recalculates the occurrences of the given series and merges them into
+	 * the occurrence table.
+	 * @param dirty the series to recalculate
+	 */
+	private void update(Set<Series> dirty) {
+		if (dirty.isEmpty()) {
+			return;
+		}
+
+		for (Series series : dirty) {
+			series.dirty = true;
+		}
+
+		Table table = new Table();
+		for (Series series : dirty) {
+			expand(series, table);
+			discardIfEmpty(series);
+		}
+		table.sort();
+		replace(table, true);
+
+		for (Series series : dirty) {
+			series.dirty = false;
+		}
+	}
+
+	private void discardIfEmpty(Series series) {
+		if (series.components.isEmpty()) {
+			seriesByKey.remove(series.key);
+		}
+	}
+
+	private static boolean isIndexable(ICalComponent component) {
+		return component instanceof VEvent || component instanceof VTodo || component instanceof VJournal;
+	}
+
+	/**
+	 * Gets the series that a component belongs to, creating it if necessary.
+	 * @param component the component
+	 * @return the series
+	 */
+	private Series seriesFor(ICalComponent component) {
+		String uid = ValuedProperty.getValue(component.getProperty(Uid.class));
+		Object key = (uid == null) ? new IdentityKey(component) : uid;
+
+		Series series = seriesByKey.get(key);
+		if (series == null) {
+			series = new Series(key);
+			seriesByKey.put(key, series);
+		}
+		return series;
+	}
+
+	/**
+	 * Calculates the occurrences of a series that fall within the horizon.
+	 * @param series the series
+	 * @param table the table to add the occurrences to
+	 */
+	private void expand(final Series series, final Table table) {
+		List<ICalComponent> masters = new ArrayList<ICalComponent>(1);
+		final Map<Long, ICalComponent> overrides = new HashMap<Long, ICalComponent>();
+		for (ICalComponent component : series.components) {
+			ICalDate recurrenceId = ValuedProperty.getValue(component.getProperty(RecurrenceId.class));
+			if (recurrenceId == null) {
+				masters.add(component);
+			} else {
+				overrides.put(recurrenceId.getTime(), component);
+			}
+		}
+
+		for (final ICalComponent master : masters) {
+			final long duration = duration(master);
+			Date windowStart = new Date(horizonStart - Math.max(duration, 0));
+			Google2445Utils.occurrencesBetween(master, windowStart, new Date(horizonEnd), timezone(master), new OccurrenceSink() {
+				public void add(long start) {
+					if (!overrides.containsKey(start)) {
+						OccurrenceIndex.this.add(table, master, series, start, start + duration);
+					}
+				}
+			});
+		}
+
+		for (Map.Entry<Long, ICalComponent> entry : overrides.entrySet()) {
+			ICalComponent override = entry.getValue();
+			ICalDate dtstart = ValuedProperty.getValue(override.getProperty(DateStart.class));
+			long start = (dtstart == null) ? entry.getKey() : dtstart.getTime();
+			long duration = duration(override);
+			if (duration == 0 && !masters.isEmpty() && !hasDuration(override)) {
+				//inherit the duration of the master component
+				duration = duration(masters.get(0));
+			}
+			add(table, override, series, start, start + duration);
+		}
+	}
+
+	private void add(Table table, ICalComponent component, Series series, long start, long end) {
+		if (start >= horizonEnd || Math.max(end, start + 1) <= horizonStart) {
+			return;
+		}
+		table.add(start, end, component, series);
+	}
+
+	/**
+	 * Gets the timezone to calculate a component's recurrences in.
+	 * @param component the component
+	 * @return the timezone
+	 */
+	private TimeZone timezone(ICalComponent component) {
+		DateStart dtstart = component.getProperty(DateStart.class);
+		if (dtstart == null) {
+			return Google2445Utils.utc();
+		}
+
+		TimezoneAssignment assignment = tzinfo.getTimezone(dtstart);
+		if (assignment == null) {
+			assignment = tzinfo.getComponentTimezone(component);
+		}
+		if (assignment != null) {
+			return assignment.getTimeZone();
+		}
+
+		return tzinfo.isFloating(dtstart, component) ? TimeZone.getDefault() : Google2445Utils.utc();
+	}
+
+	private static boolean hasDuration(ICalComponent component) {
+		return component.getProperty(DateEnd.class) != null || component.getProperty(DateDue.class) != null || component.getProperty(DurationProperty.class) != null;
+	}
+
+	/**
+	 * Calculates the length of each of a component's occurrences.
+	 * @param component the component
+	 * @return the length in milliseconds
+	 */
+	private static long duration(ICalComponent component) {
+		ICalDate start = ValuedProperty.getValue(component.getProperty(DateStart.class));
+		if (start == null) {
+			return 0;
+		}
+
+		Duration duration = ValuedProperty.getValue(component.getProperty(DurationProperty.class));
+		if (duration != null) {
+			return duration.toMillis();
+		}
+
+		ICalDate end = ValuedProperty.getValue(component.getProperty(DateEnd.class));
+		if (end == null) {
+			end = ValuedProperty.getValue(component.getProperty(DateDue.class));
+		}
+		if (end != null) {
+			return end.getTime() - start.getTime();
+		}
+
+		//RFC 5545 p.54: an all-day event without an end date lasts for one day
+		return start.hasTime() ? 0 : ONE_DAY;
+	}
+
+	/**
+	 * Rebuilds the occurrence table. This takes time that is linear in the
+	 * size of both tables.
+	 * @param table the new occurrences (must be sorted)
+	 * @param merge true to merge them into the existing table, discarding the
+	 * existing occurrences of series that are marked as dirty, false to
+	 * replace the existing table
+	 */
+	private void replace(Table table, boolean merge) {
+		int oldSize = merge ? size : 0;
+		int capacity = oldSize + table.size;
+		long[] newStarts = new long[capacity];
+		long[] newEnds = new long[capacity];
+		ICalComponent[] newComponents = new ICalComponent[capacity];
+		Series[] newOwners = new Series[capacity];
+
+		int i = 0, j = 0, k = 0;
+		while (i < oldSize || j < table.size) {
+			if (i < oldSize && owners[i].dirty) {
+				i++;
+				continue;
+			}
+
+			boolean takeOld = (j >= table.size) || (i < oldSize && starts[i] <= table.starts[j]);
+			if (takeOld) {
+				newStarts[k] = starts[i];
+				newEnds[k] = ends[i];
+				newComponents[k] = components[i];
+				newOwners[k] = owners[i];
+				i++;
+			} else {
+				newStarts[k] = table.starts[j];
+				newEnds[k] = table.ends[j];
+				newComponents[k] = table.components[j];
+				newOwners[k] = table.owners[j];
+				j++;
+			}
+			k++;
+		}
+
+		size = k;
+		starts = newStarts;
+		ends = newEnds;
+		components = newComponents;
+		owners = newOwners;
+		maxEnds = new long[capacity];
+		buildTree(0, size - 1);
+	}
+
+	/**
+	 * Populates the {@link #maxEnds} array.
+	 * @param lo the lowest index of the range
+	 * @param hi the highest index of the range
+	 * @return the largest end date of the range
+	 */
+	private long buildTree(int lo, int hi) {
+		if (lo > hi) {
+			return Long.MIN_VALUE;
+		}
+
+		int mid = (lo + hi) >>> 1;
+		long max = effectiveEnd(mid);
+		max = Math.max(max, buildTree(lo, mid - 1));
+		max = Math.max(max, buildTree(mid + 1, hi));
+		maxEnds[mid] = max;
+		return max;
+	}
+
+	/**
+	 * Gets the end date of an occurrence, treating occurrences that have no
+	 * duration as lasting one millisecond.
+	 * @param index the occurrence's index in the table
+	 * @return the end date
+	 */
+	private long effectiveEnd(int index) {
+		return Math.max(ends[index], starts[index] + 1);
+	}
+
+	/**
+	 * An occurrence of an event, to-do, or journal entry.
+	 */
+	public static class Occurrence {
+		private final ICalComponent component;
+		private final long start, end;
+
+		private Occurrence(ICalComponent component, long start, long end) {
+			this.component = component;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Gets the component that defines this occurrence. For occurrences
+		 * that were overridden, this is the overriding component.
+		 * @return the component
+		 */
+		public ICalComponent getComponent() {
+			return component;
+		}
+
+		/**
+		 * Gets the start date of the occurrence.
+		 * @return the start date
+		 */
+		public Date getStart() {
+			return new Date(start);
+		}
+
+		/**
+		 * Gets the end date of the occurrence.
+		 * @return the end date
+		 */
+		public Date getEnd() {
+			return new Date(end);
+		}
+
+		@Override
+		public String toString() {
+			return "Occurrence [start=" + getStart() + ", end=" + getEnd() + ", component=" + component.getClass().getSimpleName() + "]";
+		}
+	}
+
+	/**
+	 * A master component and all of the components that override its
+	 * occurrences.
+	 */
+	private static class Series {
+		private final Object key;
+		private final List<ICalComponent> components = new ArrayList<ICalComponent>(1);
+		private boolean dirty = false;
+
+		public Series(Object key) {
+			this.key = key;
+		}
+	}
+
+	/**
+	 * Used as the series key of a component that doesn't have a UID.
+	 */
+	private static class IdentityKey {
+		private final ICalComponent component;
+
+		public IdentityKey(ICalComponent component) {
+			this.component = component;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(component);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof IdentityKey && ((IdentityKey) obj).component == component;
+		}
+	}
+
+	/**
+	 * A growable list of occurrences.
+	 */
+	private static class Table {
+		private int size = 0;
+		private long[] starts = new long[16];
+		private long[] ends = new long[16];
+		private ICalComponent[] components = new ICalComponent[16];
+		private Series[] owners = new Series[16];
+
+		public void add(long start, long end, ICalComponent component, Series owner) {
+			if (size == starts.length) {
+				int capacity = size * 2;
+				starts = copy(starts, capacity);
+				ends = copy(ends, capacity);
+
+				ICalComponent[] newComponents = new ICalComponent[capacity];
+				System.arraycopy(components, 0, newComponents, 0, size);
+				components = newComponents;
+
+				Series[] newOwners = new Series[capacity];
+				System.arraycopy(owners, 0, newOwners, 0, size);
+				owners = newOwners;
+			}
+
+			starts[size] = start;
+			ends[size] = end;
+			components[size] = component;
+			owners[size] = owner;
+			size++;
+		}
+
+		private static long[] copy(long[] array, int capacity) {
+			long[] copy = new long[capacity];
+			System.arraycopy(array, 0, copy, 0, array.length);
+			return copy;
+		}
+
+		/**
+		 * Sorts the occurrences by start date, using a merge sort so that
+		 * occurrences with the same start date keep their order.
+		 */
+		public void sort() {
+			if (size < 2) {
+				return;
+			}
+
+			int[] order = new int[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			mergeSort(order, new int[size], 0, size);
+
+			long[] sortedStarts = new long[size];
+			long[] sortedEnds = new long[size];
+			ICalComponent[] sortedComponents = new ICalComponent[size];
+			Series[] sortedOwners = new Series[size];
+			for (int i = 0; i < size; i++) {
+				int from = order[i];
+				sortedStarts[i] = starts[from];
+				sortedEnds[i] = ends[from];
+				sortedComponents[i] = components[from];
+				sortedOwners[i] = owners[from];
+			}
+			starts = sortedStarts;
+			ends = sortedEnds;
+			components = sortedComponents;
+			owners = sortedOwners;
+		}
+
+		private void mergeSort(int[] order, int[] buffer, int from, int to) {
+			if (to - from < 2) {
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			mergeSort(order, buffer, from, mid);
+			mergeSort(order, buffer, mid, to);
+			if (starts[order[mid - 1]] <= starts[order[mid]]) {
+				return;
+			}
+
+			System.arraycopy(order, from, buffer, from, to - from);
+			int i = from, j = mid, k = from;
+			while (i < mid && j < to) {
+				order[k++] = (starts[buffer[j]] < starts[buffer[i]]) ? buffer[j++] : buffer[i++];
+			}
+			while (i < mid) {
+				order[k++] = buffer[i++];
+			}
+			while (j < to) {
+				order[k++] = buffer[j++];
+			}
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package biweekly.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Base64-encodes binary data in fixed-size chunks, so that neither the raw
+ * data nor the encoded data has to be held in memory all at once.
+ * @author Michael Angstadt
+ */
+public final class StreamingBase64 {
+	private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	/**
+	 * The number of bytes that are encoded at a time (must be a multiple of
+	 * 3 so that padding characters are only added to the last chunk).
+	 */
+	private static final int CHUNK_SIZE = 3 * 4096;
+
+	private StreamingBase64() {
+		//hide
+	}
+
+	/**
+	 * Base64-encodes the contents of a file.
+	 * @param file the file
+	 * @return the base64 string
+	 * @throws IOException if there's a problem reading the file
+	 */
+	public static String encode(File file) throws IOException {
+		long encodedLength = encodedLength(file.length());
+		StringWriter writer = new StringWriter((int) Math.min(encodedLength, Integer.MAX_VALUE));
+
+		InputStream in = new FileInputStream(file);
+		try {
+			encode(in, writer);
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+
+		return writer.toString();
+	}
+
+	/**
+	 * Base64-encodes the contents of an input stream, writing the encoded
+	 * characters to the given writer as the data is read. The input stream is
+	 * not closed.
+	 * @param in the input stream
+	 * @param out the writer
+	 * @throws IOException if there's a problem reading from the input stream
+	 * or writing to the writer
+	 */
+	public static void encode(InputStream in, Writer out) throws IOException {
+		byte[] buffer = new byte[CHUNK_SIZE];
+		char[] encoded = new char[CHUNK_SIZE / 3 * 4];
+
+		int read;
+		while ((read = readFully(in, buffer)) > 0) {
+			int length = encode(buffer, read, encoded);
+			out.write(encoded, 0, length);
+
+			if (read < buffer.length) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Calculates the length of the base64 encoding of binary data.
+	 * @param length the length of the binary data
+	 * @return the length of the base64 string
+	 */
+	public static long encodedLength(long length) {
+		return (length + 2) / 3 * 4;
+	}
+
+	/**
+	 * Base64-encodes a block of bytes.
+	 * @param data the bytes
+	 * @param length the number of bytes to encode
+	 * @param out the array to write the encoded characters to
+	 * @return the number of characters written
+	 */
+	private static int encode(byte[] data, int length, char[] out) {
+		int i = 0, j = 0;
+		for (; i + 2 < length; i += 3) {
+			int bits = ((data[i] & 0xff) << 16) | ((data[i + 1] & 0xff) << 8) | (data[i + 2] & 0xff);
+			out[j++] = ALPHABET[(bits >>> 18) & 0x3f];
+			out[j++] = ALPHABET[(bits >>> 12) & 0x3f];
+			out[j++] = ALPHABET[(bits >>> 6) & 0x3f];
+			out[j++] = ALPHABET[bits & 0x3f];
+		}
+
+		int remaining = length - i;
+		if (remaining > 0) {
+			int bits = (data[i] & 0xff) << 16;
+			if (remaining == 2) {
+				bits |= (data[i + 1] & 0xff) << 8;
+			}
+
+			out[j++] = ALPHABET[(bits >>> 18) & 0x3f];
+			out[j++] = ALPHABET[(bits >>> 12) & 0x3f];
+			out[j++] = (remaining == 2) ? ALPHABET[(bits >>> 6) & 0x3f] : '=';
+			out[j++] = '=';
+		}
+
+		return j;
+	}
+
+	/**
+	 * Reads from an input stream until the buffer is full or the end of the
+	 * stream is reached.
+	 * @param in the input stream
+	 * @param buffer the buffer
+	 * @return the number of bytes read
+	 * @throws IOException if there's a problem reading from the stream
+	 */
+	private static int readFully(InputStream in, byte[] buffer) throws IOException {
+		int total = 0;
+		while (total < buffer.length) {
+			int read = in.read(buffer, total, buffer.length - total);
+			if (read < 0) {
+				break;
+			}
+			total += read;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package biweekly.util.com.google.ical.iter;
+
+import java.util.TimeZone;
+
+import biweekly.util.com.google.ical.iter.Conditions.Condition;
+import biweekly.util.com.google.ical.util.Predicate;
+import biweekly.util.com.google.ical.values.DateValue;
+
+/**
+ * <p>
+ * An RRULE that has been compiled against a particular start date and
+ * timezone. The work of interpreting the rule (normalizing its rule parts,
+ * optimizing out BYSETPOS, and choosing generators and filters) is shared by
+ * every start date and timezone the rule is used with. Only the parts that
+ * depend on the start date and timezone (such as converting UNTIL to the
+ * iteration timezone) are done when the rule is compiled against them.
+ * </p>
+ * <p>
+ * Instances of this class are immutable and can be shared between threads.
+ * Each call to {@link #iterator} creates a fresh set of generators, which hold
+ * the per-iteration state.
+ * </p>
+ * @author Michael Angstadt
+ * @see RecurrenceIteratorFactory#compileRecurrence
+ */
+public final class CompiledRRule implements RecurrenceIterable {
+	private final RRulePlan plan;
+	private final DateValue dtStart;
+	private final DateValue start;
+	private final TimeZone tzid;
+	private final Predicate<? super DateValue> filter;
+	private final Condition untilCondition;
+
+	CompiledRRule(RRulePlan plan, DateValue dtStart, DateValue start, TimeZone tzid, Predicate<? super DateValue> filter, Condition untilCondition) {
+		this.plan = plan;
+		this.dtStart = dtStart;
+		this.start = start;
+		this.tzid = tzid;
+		this.filter = filter;
+		this.untilCondition = untilCondition;
+	}
+
+	/**
+	 * Gets the start date of the series.
+	 * @return the start date
+	 */
+	public DateValue getStartDate() {
+		return dtStart;
+	}
+
+	/**
+	 * Gets the timezone that the series is iterated in.
+	 * @return the timezone
+	 */
+	public TimeZone getTimezone() {
+		return tzid;
+	}
+
+	/**
+	 * Gets the part of the compiled rule that does not depend on the start
+	 * date or timezone.
+	 * @return the plan
+	 */
+	RRulePlan getPlan() {
+		return plan;
+	}
+
+	/**
+	 * Creates a new iterator over the dates in the series.
+	 * @return the iterator
+	 */
+	public PackedRecurrenceIterator iterator() {
+		if (plan.serialStep > 0) {
+			return new SerialRRuleIteratorImpl(dtStart, tzid, plan.serialStep, plan.count, untilCondition);
+		}
+
+		ThrottledGenerator year = Generators.serialYearGenerator(plan.yearInterval, dtStart);
+		Generator month = plan.monthGenerator.create(dtStart, start);
+		Generator day = plan.dayGenerator.create(dtStart, start);
+		Generator hour = plan.hourGenerator.create(dtStart, start);
+		Generator minute = plan.minuteGenerator.create(dtStart, start);
+		Generator second = plan.secondGenerator.create(dtStart, start);
+
+		//the count condition keeps track of how many dates it has seen
+		Condition condition = (plan.count != 0) ? Conditions.countCondition(plan.count) : untilCondition;
+
+		Generator instanceGenerator;
+		if (plan.bySetPos.length > 0) {
+			instanceGenerator = InstanceGenerators.bySetPosInstanceGenerator(plan.bySetPos, plan.freq, plan.wkst, filter, year, month, day, hour, minute, second);
+		} else {
+			instanceGenerator = InstanceGenerators.serialInstanceGenerator(filter, year, month, day, hour, minute, second);
+		}
+
+		return new RRuleIteratorImpl(dtStart, tzid, condition, instanceGenerator, year, month, day, hour, minute, second, plan.canShortcutAdvance);
+	}
+}
@@ -41,6 +41,7 @@ package biweekly.util.com.google.ical.iter;
 
 import biweekly.util.com.google.ical.util.Predicate;
 import biweekly.util.com.google.ical.values.DateValue;
+import biweekly.util.com.google.ical.values.PackedDateValue;
 
 /**
  * Factory for predicates used to test whether a recurrence is over.
@@ -48,18 +49,60 @@ import biweekly.util.com.google.ical.values.DateValue;
  * @author Michael Angstadt
  */
 final class Conditions {
+	/**
+	 * A condition that can be applied to {@link PackedDateValue packed}
+	 * dates, as well as to {@link DateValue} objects.
+	 */
+	static abstract class Condition implements Predicate<DateValue> {
+		private static final long serialVersionUID = 2530218014462958283L;
+
+		public boolean apply(DateValue value) {
+			return apply(PackedDateValue.pack(value));
+		}
+
+		/**
+		 * Applies the condition to a packed date.
+		 * @param packed the packed date
+		 * @return the result
+		 */
+		abstract boolean apply(long packed);
+	}
+
+	private static final Condition ALWAYS_TRUE = new Condition() {
+		private static final long serialVersionUID = -5287493290637497155L;
+
+		@Override
+		boolean apply(long packed) {
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "AlwaysTrueCondition";
+		}
+	};
+
+	/**
+	 * Constructs a condition that passes all dates.
+	 * @return the condition
+	 */
+	static Condition alwaysTrue() {
+		return ALWAYS_TRUE;
+	}
+
 	/**
 	 * Constructs a condition that fails after counting a certain number of
 	 * dates.
 	 * @param count the number of dates to count before the condition fails
 	 * @return the condition
 	 */
-	static Predicate<DateValue> countCondition(final int count) {
-		return new Predicate<DateValue>() {
+	static Condition countCondition(final int count) {
+		return new Condition() {
 			private static final long serialVersionUID = -3770774958208833665L;
 			int count_ = count;
 
-			public boolean apply(DateValue value) {
+			@Override
+			boolean apply(long packed) {
 				return --count_ >= 0;
 			}
 
@@ -76,12 +119,14 @@ final class Conditions {
 	 * @param until the date
 	 * @return the condition
 	 */
-	static Predicate<DateValue> untilCondition(final DateValue until) {
-		return new Predicate<DateValue>() {
+	static Condition untilCondition(final DateValue until) {
+		final long untilPacked = PackedDateValue.pack(until);
+		return new Condition() {
 			private static final long serialVersionUID = -130394842437801858L;
 
-			public boolean apply(DateValue date) {
-				return date.compareTo(until) <= 0;
+			@Override
+			boolean apply(long packed) {
+				return packed <= untilPacked;
 			}
 
 			@Override
@@ -46,6 +46,7 @@ import biweekly.util.DayOfWeek;
 import biweekly.util.Frequency;
 import biweekly.util.com.google.ical.util.DTBuilder;
 import biweekly.util.com.google.ical.util.Predicate;
+import biweekly.util.com.google.ical.util.Predicates;
 import biweekly.util.com.google.ical.util.TimeUtils;
 import biweekly.util.com.google.ical.values.DateValue;
 import biweekly.util.com.google.ical.values.TimeValue;
@@ -62,6 +63,9 @@ class InstanceGenerators {
 	 * collecting.
 	 */
 	static Generator serialInstanceGenerator(final Predicate<? super DateValue> filter, final Generator yearGenerator, final Generator monthGenerator, final Generator dayGenerator, final Generator hourGenerator, final Generator minuteGenerator, final Generator secondGenerator) {
+		//don't create a DateTimeValue object for every candidate if there is nothing to filter
+		final boolean filtered = (filter != Predicates.alwaysTrue());
+
 		if (skipSubDayGenerators(hourGenerator, minuteGenerator, secondGenerator)) {
 			//fast case for generators that are not more frequent than daily
 			return new Generator() {
@@ -81,7 +85,7 @@ class InstanceGenerators {
 							}
 						}
 						//apply filters to generated dates
-					} while (!filter.apply(builder.toDateTime()));
+					} while (filtered && !filter.apply(builder.toDateTime()));
 
 					return true;
 				}
@@ -113,7 +117,7 @@ class InstanceGenerators {
 							}
 						}
 						//apply filters to generated dates
-					} while (!filter.apply(builder.toDateTime()));
+					} while (filtered && !filter.apply(builder.toDateTime()));
 					//TODO: maybe group the filters into different kinds so we don't
 					//apply filters that only affect days to every second.
 
@@ -41,11 +41,11 @@ package biweekly.util.com.google.ical.iter;
 
 import java.util.TimeZone;
 
+import biweekly.util.com.google.ical.iter.Conditions.Condition;
 import biweekly.util.com.google.ical.util.DTBuilder;
-import biweekly.util.com.google.ical.util.Predicate;
 import biweekly.util.com.google.ical.util.TimeUtils;
 import biweekly.util.com.google.ical.values.DateValue;
-import biweekly.util.com.google.ical.values.DateValueImpl;
+import biweekly.util.com.google.ical.values.PackedDateValue;
 import biweekly.util.com.google.ical.values.TimeValue;
 
 /**
@@ -53,12 +53,17 @@ import biweekly.util.com.google.ical.values.TimeValue;
  * @author mikesamuel+svn@gmail.com (Mike Samuel)
  * @author Michael Angstadt
  */
-final class RRuleIteratorImpl implements RecurrenceIterator {
+final class RRuleIteratorImpl implements PackedRecurrenceIterator {
+	/**
+	 * Marks the absence of a packed date.
+	 */
+	private static final long NONE = Long.MIN_VALUE;
+
 	/**
 	 * Determines when the recurrence ends. The condition is applied
 	 * <b>after</b> the date is converted to UTC.
 	 */
-	private final Predicate<? super DateValue> condition;
+	private final Condition condition;
 
 	/**
 	 * Applies the various period generators to generate an entire date. This
@@ -80,9 +85,10 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	private final Generator monthGenerator;
 
 	/**
-	 * A date that has been computed but not yet yielded to the user.
+	 * A date that has been computed but not yet yielded to the user (packed),
+	 * or {@link #NONE}.
 	 */
-	private DateValue pendingUtc;
+	private long pendingUtc = NONE;
 
 	/**
 	 * Used to build successive dates. At the start of the building process,
@@ -115,6 +121,16 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	 */
 	private final TimeZone tzid;
 
+	/**
+	 * Converts generated dates to UTC.
+	 */
+	private final UtcConverter utcConverter;
+
+	/**
+	 * True if the generated dates have a time component.
+	 */
+	private final boolean hasTime;
+
 	/**
 	 * Creates the iterator.
 	 * @param dtStart the start date of the recurrence
@@ -131,7 +147,7 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	 * @param canShortcutAdvance false iff shortcutting advance would break the
 	 * semantics of the iteration, true if not
 	 */
-	RRuleIteratorImpl(DateValue dtStart, TimeZone tzid, Predicate<? super DateValue> condition, Generator instanceGenerator, ThrottledGenerator yearGenerator, Generator monthGenerator, Generator dayGenerator, Generator hourGenerator, Generator minuteGenerator, Generator secondGenerator, boolean canShortcutAdvance) {
+	RRuleIteratorImpl(DateValue dtStart, TimeZone tzid, Condition condition, Generator instanceGenerator, ThrottledGenerator yearGenerator, Generator monthGenerator, Generator dayGenerator, Generator hourGenerator, Generator minuteGenerator, Generator secondGenerator, boolean canShortcutAdvance) {
 
 		this.condition = condition;
 		this.instanceGenerator = instanceGenerator;
@@ -140,6 +156,8 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 		this.dtStart = dtStart;
 		this.tzid = tzid;
 		this.canShortcutAdvance = canShortcutAdvance;
+		utcConverter = new UtcConverter(tzid);
+		hasTime = dtStart instanceof TimeValue;
 
 		int initWorkLimit = 1000;
 
@@ -182,21 +200,22 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 			done = true;
 		}
 
+		long dtStartUtc = PackedDateValue.pack(TimeUtils.toUtc(dtStart, tzid));
 		while (!done) {
 			pendingUtc = generateInstance();
-			if (pendingUtc == null) {
+			if (pendingUtc == NONE) {
 				done = true;
 				break;
 			}
 
-			if (pendingUtc.compareTo(TimeUtils.toUtc(dtStart, tzid)) >= 0) {
+			if (pendingUtc >= dtStartUtc) {
 				/*
 				 * We only apply the condition to the ones past dtStart to avoid
 				 * counting useless instances.
 				 */
 				if (!condition.apply(pendingUtc)) {
 					done = true;
-					pendingUtc = null;
+					pendingUtc = NONE;
 				}
 				break;
 			}
@@ -209,18 +228,23 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 	}
 
 	public boolean hasNext() {
-		if (pendingUtc == null) {
+		if (pendingUtc == NONE) {
 			fetchNext();
 		}
-		return pendingUtc != null;
+		return pendingUtc != NONE;
 	}
 
 	public DateValue next() {
-		if (pendingUtc == null) {
+		long next = nextPacked();
+		return (next == NONE) ? null : PackedDateValue.unpack(next);
+	}
+
+	public long nextPacked() {
+		if (pendingUtc == NONE) {
 			fetchNext();
 		}
-		DateValue next = pendingUtc;
-		pendingUtc = null;
+		long next = pendingUtc;
+		pendingUtc = NONE;
 		return next;
 	}
 
@@ -233,7 +257,8 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 		 * Don't throw away a future pending date since the iterators will not
 		 * generate it again.
 		 */
-		if (pendingUtc != null && dateUtc.compareTo(pendingUtc) <= 0) {
+		long dateUtcPacked = PackedDateValue.pack(dateUtc);
+		if (pendingUtc != NONE && dateUtcPacked <= pendingUtc) {
 			return;
 		}
 
@@ -244,7 +269,7 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 			return;
 		}
 
-		pendingUtc = null;
+		pendingUtc = NONE;
 
 		try {
 			if (canShortcutAdvance) {
@@ -279,8 +304,8 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 
 			//consume any remaining instances
 			while (!done) {
-				DateValue dUtc = generateInstance();
-				if (dUtc == null) {
+				long dUtc = generateInstance();
+				if (dUtc == NONE) {
 					done = true;
 					return;
 				}
@@ -290,7 +315,7 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 					return;
 				}
 
-				if (dUtc.compareTo(dateUtc) >= 0) {
+				if (dUtc >= dateUtcPacked) {
 					pendingUtc = dUtc;
 					break;
 				}
@@ -302,14 +327,14 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 
 	/** calculates and stored the next date in this recurrence. */
 	private void fetchNext() {
-		if (pendingUtc != null || done) {
+		if (pendingUtc != NONE || done) {
 			return;
 		}
 
-		DateValue dUtc = generateInstance();
+		long dUtc = generateInstance();
 
 		//check the exit condition
-		if (dUtc == null || !condition.apply(dUtc)) {
+		if (dUtc == NONE || !condition.apply(dUtc)) {
 			done = true;
 			return;
 		}
@@ -318,33 +343,34 @@ final class RRuleIteratorImpl implements RecurrenceIterator {
 		yearGenerator.workDone();
 	}
 
-	private static final DateValue MIN_DATE = new DateValueImpl(Integer.MIN_VALUE, 1, 1);
+	private static final long MIN_DATE = PackedDateValue.pack(Integer.MIN_VALUE, 1, 1);
 
 	/**
 	 * Make sure the iterator is monotonically increasing. The local time is
 	 * guaranteed to be monotonic, but because of daylight savings shifts, the
 	 * time in UTC may not be.
 	 */
-	private DateValue lastUtc_ = MIN_DATE;
+	private long lastUtc_ = MIN_DATE;
 
 	/**
 	 * Generates a date.
-	 * @return a date value in UTC or null if a date value could not be
-	 * generated
+	 * @return a packed date value in UTC or {@link #NONE} if a date value could
+	 * not be generated
 	 */
-	private DateValue generateInstance() {
+	private long generateInstance() {
 		try {
 			do {
 				if (!instanceGenerator.generate(builder)) {
-					return null;
+					return NONE;
 				}
-				DateValue dUtc = dtStart instanceof TimeValue ? TimeUtils.toUtc(builder.toDateTime(), tzid) : builder.toDate();
-				if (dUtc.compareTo(lastUtc_) > 0) {
+				builder.normalize();
+				long dUtc = hasTime ? utcConverter.toUtc(PackedDateValue.pack(builder.year, builder.month, builder.day, builder.hour, builder.minute, builder.second)) : PackedDateValue.pack(builder.year, builder.month, builder.day);
+				if (dUtc > lastUtc_) {
 					return dUtc;
 				}
 			} while (true);
 		} catch (Generator.IteratorShortCircuitingException ex) {
-			return null;
+			return NONE;
 		}
 	}
 }
@@ -0,0 +1,317 @@
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package biweekly.util.com.google.ical.iter;
+
+import java.util.TimeZone;
+
+import biweekly.util.ByDay;
+import biweekly.util.DayOfWeek;
+import biweekly.util.Frequency;
+import biweekly.util.Google2445Utils;
+import biweekly.util.ICalDate;
+import biweekly.util.com.google.ical.iter.Conditions.Condition;
+import biweekly.util.com.google.ical.util.Predicate;
+import biweekly.util.com.google.ical.util.Predicates;
+import biweekly.util.com.google.ical.util.TimeUtils;
+import biweekly.util.com.google.ical.values.DateTimeValueImpl;
+import biweekly.util.com.google.ical.values.DateValue;
+import biweekly.util.com.google.ical.values.DateValueImpl;
+import biweekly.util.com.google.ical.values.TimeValue;
+
+/**
+ * <p>
+ * The part of a compiled RRULE that does not depend on the start date or
+ * timezone. Interpreting the rule (normalizing its rule parts, optimizing out
+ * BYSETPOS, and choosing generators and filters) is done once per rule, and
+ * the result is shared by every start date and timezone that the rule is used
+ * with.
+ * </p>
+ * <p>
+ * Instances of this class are immutable and can be shared between threads.
+ * </p>
+ * @author Michael Angstadt
+ * @see RecurrenceIteratorFactory#compileRecurrence
+ */
+final class RRulePlan {
+	final Frequency freq;
+	final DayOfWeek wkst;
+	final int[] bySetPos;
+	final int yearInterval;
+	final GeneratorFactory monthGenerator, dayGenerator, hourGenerator, minuteGenerator, secondGenerator;
+	final int count;
+	final boolean canShortcutAdvance;
+	final long serialStep;
+	private final int weekInterval;
+	private final Predicate<? super DateValue> filter;
+	private final ICalDate until;
+
+	/**
+	 * @param freq the frequency
+	 * @param wkst the day the week starts on
+	 * @param bySetPos the BYSETPOS values
+	 * @param yearInterval the interval of the year generator
+	 * @param weekInterval the interval to filter weeks by, or zero not to
+	 * filter weeks (the filter depends on the start date)
+	 * @param monthGenerator the month generator
+	 * @param dayGenerator the day generator
+	 * @param hourGenerator the hour generator
+	 * @param minuteGenerator the minute generator
+	 * @param secondGenerator the second generator
+	 * @param filter the filter that does not depend on the start date
+	 * @param count the COUNT, or zero if the rule has no COUNT
+	 * @param until the UNTIL date, or null if the rule has no UNTIL date
+	 * @param canShortcutAdvance true if the iterator can skip ahead, false if
+	 * not
+	 * @param serialStep the fixed distance between instances, or zero if the
+	 * instances are not a fixed distance apart
+	 */
+	RRulePlan(Frequency freq, DayOfWeek wkst, int[] bySetPos, int yearInterval, int weekInterval, GeneratorFactory monthGenerator, GeneratorFactory dayGenerator, GeneratorFactory hourGenerator, GeneratorFactory minuteGenerator, GeneratorFactory secondGenerator, Predicate<? super DateValue> filter, int count, ICalDate until, boolean canShortcutAdvance, long serialStep) {
+		this.freq = freq;
+		this.wkst = wkst;
+		this.bySetPos = bySetPos;
+		this.yearInterval = yearInterval;
+		this.weekInterval = weekInterval;
+		this.monthGenerator = monthGenerator;
+		this.dayGenerator = dayGenerator;
+		this.hourGenerator = hourGenerator;
+		this.minuteGenerator = minuteGenerator;
+		this.secondGenerator = secondGenerator;
+		this.filter = filter;
+		this.count = count;
+		this.until = until;
+		this.canShortcutAdvance = canShortcutAdvance;
+		this.serialStep = serialStep;
+	}
+
+	/**
+	 * Binds this plan to a start date and timezone.
+	 * @param dtStart the start date of the series
+	 * @param tzid the timezone that the start date is in, as well as the
+	 * timezone to iterate in
+	 * @return the compiled rule
+	 */
+	CompiledRRule bind(DateValue dtStart, TimeZone tzid) {
+		boolean hasTime = dtStart instanceof TimeValue;
+
+		DateValue start = dtStart;
+		if (bySetPos.length > 0) {
+			/*
+			 * Roll back until the beginning of the period to make sure that any
+			 * positive indices are indexed properly. The actual iterator
+			 * implementation is responsible for anything < dtStart.
+			 */
+			switch (freq) {
+			case YEARLY:
+				start = hasTime ? new DateTimeValueImpl(start.year(), 1, 1, 0, 0, 0) : new DateValueImpl(start.year(), 1, 1);
+				break;
+			case MONTHLY:
+				start = hasTime ? new DateTimeValueImpl(start.year(), start.month(), 1, 0, 0, 0) : new DateValueImpl(start.year(), start.month(), 1);
+				break;
+			case WEEKLY:
+				int d = (7 + wkst.ordinal() - TimeUtils.dayOfWeek(dtStart).getCalendarConstant()) % 7;
+				start = TimeUtils.add(dtStart, new DateValueImpl(0, 0, -d));
+				break;
+			default:
+				break;
+			}
+		}
+
+		Predicate<? super DateValue> filter = this.filter;
+		if (weekInterval > 0) {
+			Predicate<DateValue> weekIntervalFilter = Filters.weekIntervalFilter(weekInterval, wkst, dtStart);
+			if (filter == Predicates.alwaysTrue()) {
+				filter = weekIntervalFilter;
+			} else {
+				filter = Predicates.<DateValue> and(filter, weekIntervalFilter);
+			}
+		}
+
+		/*
+		 * The condition tells the iterator when to halt. The condition is
+		 * exclusive, so the date that triggers it will not be included. If the
+		 * rule has a COUNT, the condition is created each time the rule is
+		 * iterated over.
+		 */
+		Condition untilCondition = null;
+		if (count == 0) {
+			if (until != null) {
+				DateValue untilUtc = Google2445Utils.convert(until, tzid);
+				if ((untilUtc instanceof TimeValue) != hasTime) {
+					// TODO(msamuel): warn
+					if (hasTime) {
+						untilUtc = TimeUtils.dayStart(untilUtc);
+					} else {
+						untilUtc = TimeUtils.toDateValue(untilUtc);
+					}
+				}
+				untilCondition = Conditions.untilCondition(untilUtc);
+			} else {
+				untilCondition = Conditions.alwaysTrue();
+			}
+		}
+
+		return new CompiledRRule(this, dtStart, start, tzid, filter, untilCondition);
+	}
+
+	/**
+	 * Creates new instances of a generator. Generators are stateful, so each
+	 * iterator needs its own.
+	 */
+	static final class GeneratorFactory {
+		private enum Type {
+			SERIAL_MONTH, SERIAL_DAY, SERIAL_HOUR, SERIAL_MINUTE, SERIAL_SECOND, START_MONTH, START_MONTH_DAY, BY_MONTH, BY_MONTH_DAY, BY_YEAR_DAY, BY_WEEK_NO, BY_DAY, BY_HOUR, BY_MINUTE, BY_SECOND
+		}
+
+		private final Type type;
+		private final int interval;
+		private final int[] values;
+		private final ByDay[] days;
+		private final boolean weeksInYear;
+		private final DayOfWeek weekStart;
+
+		private GeneratorFactory(Type type, int interval, int[] values, ByDay[] days, boolean weeksInYear, DayOfWeek weekStart) {
+			this.type = type;
+			this.interval = interval;
+			this.values = values;
+			this.days = days;
+			this.weeksInYear = weeksInYear;
+			this.weekStart = weekStart;
+		}
+
+		static GeneratorFactory serialMonth(int interval) {
+			return new GeneratorFactory(Type.SERIAL_MONTH, interval, null, null, false, null);
+		}
+
+		static GeneratorFactory serialDay(int interval) {
+			return new GeneratorFactory(Type.SERIAL_DAY, interval, null, null, false, null);
+		}
+
+		static GeneratorFactory serialHour(int interval) {
+			return new GeneratorFactory(Type.SERIAL_HOUR, interval, null, null, false, null);
+		}
+
+		static GeneratorFactory serialMinute(int interval) {
+			return new GeneratorFactory(Type.SERIAL_MINUTE, interval, null, null, false, null);
+		}
+
+		static GeneratorFactory serialSecond(int interval) {
+			return new GeneratorFactory(Type.SERIAL_SECOND, interval, null, null, false, null);
+		}
+
+		/**
+		 * Creates a factory for a generator that generates the month of the
+		 * start date.
+		 * @return the factory
+		 */
+		static GeneratorFactory startMonth() {
+			return new GeneratorFactory(Type.START_MONTH, 0, null, null, false, null);
+		}
+
+		/**
+		 * Creates a factory for a generator that generates the day of the
+		 * month of the start date.
+		 * @return the factory
+		 */
+		static GeneratorFactory startMonthDay() {
+			return new GeneratorFactory(Type.START_MONTH_DAY, 0, null, null, false, null);
+		}
+
+		static GeneratorFactory byMonth(int[] months) {
+			return new GeneratorFactory(Type.BY_MONTH, 0, Util.uniquify(months), null, false, null);
+		}
+
+		static GeneratorFactory byMonthDay(int[] dates) {
+			return new GeneratorFactory(Type.BY_MONTH_DAY, 0, Util.uniquify(dates), null, false, null);
+		}
+
+		static GeneratorFactory byYearDay(int[] yearDays) {
+			return new GeneratorFactory(Type.BY_YEAR_DAY, 0, Util.uniquify(yearDays), null, false, null);
+		}
+
+		static GeneratorFactory byWeekNo(int[] weekNumbers, DayOfWeek weekStart) {
+			return new GeneratorFactory(Type.BY_WEEK_NO, 0, Util.uniquify(weekNumbers), null, false, weekStart);
+		}
+
+		static GeneratorFactory byDay(ByDay[] days, boolean weeksInYear) {
+			return new GeneratorFactory(Type.BY_DAY, 0, null, days.clone(), weeksInYear, null);
+		}
+
+		static GeneratorFactory byHour(int[] hours) {
+			return new GeneratorFactory(Type.BY_HOUR, 0, hours.clone(), null, false, null);
+		}
+
+		static GeneratorFactory byMinute(int[] minutes) {
+			return new GeneratorFactory(Type.BY_MINUTE, 0, minutes.clone(), null, false, null);
+		}
+
+		static GeneratorFactory bySecond(int[] seconds) {
+			return new GeneratorFactory(Type.BY_SECOND, 0, seconds.clone(), null, false, null);
+		}
+
+		/**
+		 * Creates a new generator.
+		 * @param dtStart the start date of the series
+		 * @param start the start date rolled back to the beginning of its
+		 * period (only differs from the start date of the series when the rule
+		 * has a BYSETPOS)
+		 * @return the generator
+		 */
+		Generator create(DateValue dtStart, DateValue start) {
+			switch (type) {
+			case SERIAL_MONTH:
+				return Generators.serialMonthGenerator(interval, dtStart);
+			case SERIAL_DAY:
+				return Generators.serialDayGenerator(interval, dtStart);
+			case SERIAL_HOUR:
+				return Generators.serialHourGenerator(interval, dtStart);
+			case SERIAL_MINUTE:
+				return Generators.serialMinuteGenerator(interval, dtStart);
+			case SERIAL_SECOND:
+				return Generators.serialSecondGenerator(interval, dtStart);
+			case START_MONTH:
+				return Generators.byMonthGenerator(new int[] { dtStart.month() }, start);
+			case START_MONTH_DAY:
+				return Generators.byMonthDayGenerator(new int[] { dtStart.day() }, start);
+			case BY_MONTH:
+				return Generators.byMonthGenerator(values, start);
+			case BY_MONTH_DAY:
+				return Generators.byMonthDayGenerator(values, start);
+			case BY_YEAR_DAY:
+				return Generators.byYearDayGenerator(values, start);
+			case BY_WEEK_NO:
+				return Generators.byWeekNoGenerator(values, weekStart, start);
+			case BY_DAY:
+				return Generators.byDayGenerator(days, weeksInYear, start);
+			case BY_HOUR:
+				return Generators.byHourGenerator(values, start);
+			case BY_MINUTE:
+				return Generators.byMinuteGenerator(values, start);
+			default:
+				return Generators.bySecondGenerator(values, start);
+			}
+		}
+	}
+}
@@ -43,22 +43,21 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import biweekly.util.ByDay;
 import biweekly.util.DayOfWeek;
 import biweekly.util.Frequency;
-import biweekly.util.Google2445Utils;
 import biweekly.util.ICalDate;
 import biweekly.util.Recurrence;
+import biweekly.util.com.google.ical.iter.RRulePlan.GeneratorFactory;
 import biweekly.util.com.google.ical.util.Predicate;
 import biweekly.util.com.google.ical.util.Predicates;
-import biweekly.util.com.google.ical.util.TimeUtils;
 import biweekly.util.com.google.ical.values.DateTimeValue;
-import biweekly.util.com.google.ical.values.DateTimeValueImpl;
 import biweekly.util.com.google.ical.values.DateValue;
-import biweekly.util.com.google.ical.values.DateValueImpl;
 import biweekly.util.com.google.ical.values.TimeValue;
 
 /**
@@ -114,12 +113,8 @@ public class RecurrenceIteratorFactory {
 	 * timezone to iterate in
 	 * @return the iterable
 	 */
-	public static RecurrenceIterable createRecurrenceIterable(final Recurrence rrule, final DateValue dtStart, final TimeZone tzid) {
-		return new RecurrenceIterable() {
-			public RecurrenceIterator iterator() {
-				return createRecurrenceIterator(rrule, dtStart, tzid);
-			}
-		};
+	public static RecurrenceIterable createRecurrenceIterable(Recurrence rrule, DateValue dtStart, TimeZone tzid) {
+		return compileRecurrence(rrule, dtStart, tzid);
 	}
 
 	/**
@@ -131,6 +126,63 @@ public class RecurrenceIteratorFactory {
 	 * @return the iterator
 	 */
 	public static RecurrenceIterator createRecurrenceIterator(Recurrence rrule, DateValue dtStart, TimeZone tzid) {
+		return compileRecurrence(rrule, dtStart, tzid).iterator();
+	}
+
+	/**
+	 * <p>
+	 * Compiles an RRULE. The compiled rule can be iterated over any number of
+	 * times.
+	 * </p>
+	 * <p>
+	 * The part of the compiled rule that does not depend on the start date or
+	 * timezone is cached, keyed by the rule and by whether the start date has
+	 * a time component. Compiling the same rule again (for example, when
+	 * expanding many events with different start dates that share a rule)
+	 * reuses the cached part, so only the start date, the timezone, and the
+	 * UNTIL date have to be bound to it. The cache holds the
+	 * {@value #PLAN_CACHE_SIZE} most recently used rules.
+	 * </p>
+	 * @param rrule the recurrence rule
+	 * @param dtStart the start date of the series
+	 * @param tzid the timezone that the start date is in, as well as the
+	 * timezone to iterate in
+	 * @return the compiled rule
+	 */
+	public static CompiledRRule compileRecurrence(Recurrence rrule, DateValue dtStart, TimeZone tzid) {
+		boolean hasTime = dtStart instanceof TimeValue;
+		PlanKey key = new PlanKey(rrule, hasTime);
+		RRulePlan plan;
+		synchronized (planCache) {
+			plan = planCache.get(key);
+		}
+		if (plan == null) {
+			plan = compile(rrule, hasTime);
+			synchronized (planCache) {
+				planCache.put(key, plan);
+			}
+		}
+		return plan.bind(dtStart, tzid);
+	}
+
+	/**
+	 * Removes all compiled rules from the cache.
+	 */
+	public static void clearRecurrenceCache() {
+		synchronized (planCache) {
+			planCache.clear();
+		}
+	}
+
+	/**
+	 * Compiles the part of an RRULE that does not depend on the start date or
+	 * timezone.
+	 * @param rrule the recurrence rule
+	 * @param hasTime true if the start date has a time component, false if
+	 * not
+	 * @return the compiled rule
+	 */
+	private static RRulePlan compile(Recurrence rrule, boolean hasTime) {
 		Frequency freq = rrule.getFrequency();
 
 		/*
@@ -145,8 +197,6 @@ public class RecurrenceIteratorFactory {
 
 		ICalDate until = rrule.getUntil();
 
-		DateValue untilUtc = (until == null) ? null : Google2445Utils.convert(until, tzid);
-
 		int count = toInt(rrule.getCount());
 		int interval = toInt(rrule.getInterval());
 		ByDay[] byDay = rrule.getByDay().toArray(new ByDay[0]);
@@ -203,39 +253,19 @@ public class RecurrenceIteratorFactory {
 			}
 		}
 
-		DateValue start = dtStart;
-		if (bySetPos.length > 0) {
-			/*
-			 * Roll back until the beginning of the period to make sure that any
-			 * positive indices are indexed properly. The actual iterator
-			 * implementation is responsible for anything < dtStart.
-			 */
-			switch (freq) {
-			case YEARLY:
-				start = (dtStart instanceof TimeValue) ? new DateTimeValueImpl(start.year(), 1, 1, 0, 0, 0) : new DateValueImpl(start.year(), 1, 1);
-				break;
-			case MONTHLY:
-				start = (dtStart instanceof TimeValue) ? new DateTimeValueImpl(start.year(), start.month(), 1, 0, 0, 0) : new DateValueImpl(start.year(), start.month(), 1);
-				break;
-			case WEEKLY:
-				int d = (7 + wkst.ordinal() - TimeUtils.dayOfWeek(dtStart).getCalendarConstant()) % 7;
-				start = TimeUtils.add(dtStart, new DateValueImpl(0, 0, -d));
-				break;
-			default:
-				break;
-			}
-		}
+		long serialStep = serialStep(freq, interval, hasTime, byDay, byMonth, byMonthDay, byWeekNo, byYearDay, bySetPos, byHour, byMinute, bySecond);
 
 		/*
 		 * Recurrences are implemented as a sequence of periodic generators.
 		 * First a year is generated, and then months, and within months, days.
 		 */
-		ThrottledGenerator yearGenerator = Generators.serialYearGenerator(freq == Frequency.YEARLY ? interval : 1, dtStart);
-		Generator monthGenerator = null;
-		Generator dayGenerator = null;
-		Generator secondGenerator = null;
-		Generator minuteGenerator = null;
-		Generator hourGenerator = null;
+		int yearInterval = (freq == Frequency.YEARLY) ? interval : 1;
+		int weekInterval = 0;
+		GeneratorFactory monthGenerator = null;
+		GeneratorFactory dayGenerator = null;
+		GeneratorFactory secondGenerator = null;
+		GeneratorFactory minuteGenerator = null;
+		GeneratorFactory hourGenerator = null;
 
 		/*
 		 * When multiple generators are specified for a period, they act as a
@@ -251,7 +281,7 @@ public class RecurrenceIteratorFactory {
 		switch (freq) {
 		case SECONDLY:
 			if (bySecond.length == 0 || interval != 1) {
-				secondGenerator = Generators.serialSecondGenerator(interval, dtStart);
+				secondGenerator = GeneratorFactory.serialSecond(interval);
 				if (bySecond.length > 0) {
 					filters.add(Filters.bySecondFilter(bySecond));
 				}
@@ -259,7 +289,7 @@ public class RecurrenceIteratorFactory {
 			break;
 		case MINUTELY:
 			if (byMinute.length == 0 || interval != 1) {
-				minuteGenerator = Generators.serialMinuteGenerator(interval, dtStart);
+				minuteGenerator = GeneratorFactory.serialMinute(interval);
 				if (byMinute.length > 0) {
 					filters.add(Filters.byMinuteFilter(byMinute));
 				}
@@ -267,7 +297,7 @@ public class RecurrenceIteratorFactory {
 			break;
 		case HOURLY:
 			if (byHour.length == 0 || interval != 1) {
-				hourGenerator = Generators.serialHourGenerator(interval, dtStart);
+				hourGenerator = GeneratorFactory.serialHour(interval);
 				if (byHour.length > 0) {
 					filters.add(Filters.byHourFilter(bySecond));
 				}
@@ -283,13 +313,14 @@ public class RecurrenceIteratorFactory {
 			 * dates within the proper week.
 			 */
 			if (byDay.length > 0) {
-				dayGenerator = Generators.byDayGenerator(byDay, false, start);
+				dayGenerator = GeneratorFactory.byDay(byDay, false);
 				byDay = NO_DAYS;
 				if (interval > 1) {
-					filters.add(Filters.weekIntervalFilter(interval, wkst, dtStart));
+					//the filter depends on the start date, so it is created when the rule is bound
+					weekInterval = interval;
 				}
 			} else {
-				dayGenerator = Generators.serialDayGenerator(interval * 7, dtStart);
+				dayGenerator = GeneratorFactory.serialDay(interval * 7);
 			}
 			break;
 		case YEARLY:
@@ -301,7 +332,7 @@ public class RecurrenceIteratorFactory {
 				 * 31st) and -306 represents the 306th to the last day of the
 				 * year (March 1st).
 				 */
-				dayGenerator = Generators.byYearDayGenerator(byYearDay, start);
+				dayGenerator = GeneratorFactory.byYearDay(byYearDay);
 				break;
 			}
 			// $FALL-THROUGH$
@@ -313,7 +344,7 @@ public class RecurrenceIteratorFactory {
 				 * example, -10 represents the tenth to the last day of the
 				 * month.
 				 */
-				dayGenerator = Generators.byMonthDayGenerator(byMonthDay, start);
+				dayGenerator = GeneratorFactory.byMonthDay(byMonthDay);
 				byMonthDay = NO_INTS;
 			} else if (byWeekNo.length > 0 && Frequency.YEARLY == freq) {
 				/*
@@ -321,7 +352,7 @@ public class RecurrenceIteratorFactory {
 				 * ordinals specifying weeks of the year. This rule part is only
 				 * valid for YEARLY rules.
 				 */
-				dayGenerator = Generators.byWeekNoGenerator(byWeekNo, wkst, start);
+				dayGenerator = GeneratorFactory.byWeekNo(byWeekNo, wkst);
 				byWeekNo = NO_INTS;
 			} else if (byDay.length > 0) {
 				/*
@@ -335,47 +366,47 @@ public class RecurrenceIteratorFactory {
 				 * within the specified frequency. For example, within a MONTHLY
 				 * rule, MO represents all Mondays within the month.
 				 */
-				dayGenerator = Generators.byDayGenerator(byDay, Frequency.YEARLY == freq && byMonth.length == 0, start);
+				dayGenerator = GeneratorFactory.byDay(byDay, Frequency.YEARLY == freq && byMonth.length == 0);
 				byDay = NO_DAYS;
 			} else {
 				if (Frequency.YEARLY == freq) {
-					monthGenerator = Generators.byMonthGenerator(new int[] { dtStart.month() }, start);
+					monthGenerator = GeneratorFactory.startMonth();
 				}
-				dayGenerator = Generators.byMonthDayGenerator(new int[] { dtStart.day() }, start);
+				dayGenerator = GeneratorFactory.startMonthDay();
 			}
 			break;
 		}
 
 		if (secondGenerator == null) {
-			secondGenerator = Generators.bySecondGenerator(bySecond, start);
+			secondGenerator = GeneratorFactory.bySecond(bySecond);
 		}
 		if (minuteGenerator == null) {
 			if (byMinute.length == 0 && freq.compareTo(Frequency.MINUTELY) < 0) {
-				minuteGenerator = Generators.serialMinuteGenerator(1, dtStart);
+				minuteGenerator = GeneratorFactory.serialMinute(1);
 			} else {
-				minuteGenerator = Generators.byMinuteGenerator(byMinute, start);
+				minuteGenerator = GeneratorFactory.byMinute(byMinute);
 			}
 		}
 		if (hourGenerator == null) {
 			if (byHour.length == 0 && freq.compareTo(Frequency.HOURLY) < 0) {
-				hourGenerator = Generators.serialHourGenerator(1, dtStart);
+				hourGenerator = GeneratorFactory.serialHour(1);
 			} else {
-				hourGenerator = Generators.byHourGenerator(byHour, start);
+				hourGenerator = GeneratorFactory.byHour(byHour);
 			}
 		}
 
 		if (dayGenerator == null) {
 			boolean dailyOrMoreOften = freq.compareTo(Frequency.DAILY) <= 0;
 			if (byMonthDay.length > 0) {
-				dayGenerator = Generators.byMonthDayGenerator(byMonthDay, start);
+				dayGenerator = GeneratorFactory.byMonthDay(byMonthDay);
 				byMonthDay = NO_INTS;
 			} else if (byDay.length > 0) {
-				dayGenerator = Generators.byDayGenerator(byDay, Frequency.YEARLY == freq, start);
+				dayGenerator = GeneratorFactory.byDay(byDay, Frequency.YEARLY == freq);
 				byDay = NO_DAYS;
 			} else if (dailyOrMoreOften) {
-				dayGenerator = Generators.serialDayGenerator(Frequency.DAILY == freq ? interval : 1, dtStart);
+				dayGenerator = GeneratorFactory.serialDay(Frequency.DAILY == freq ? interval : 1);
 			} else {
-				dayGenerator = Generators.byMonthDayGenerator(new int[] { dtStart.day() }, start);
+				dayGenerator = GeneratorFactory.startMonthDay();
 			}
 		}
 
@@ -390,42 +421,24 @@ public class RecurrenceIteratorFactory {
 
 		//generator inference common to all periods
 		if (byMonth.length > 0) {
-			monthGenerator = Generators.byMonthGenerator(byMonth, start);
+			monthGenerator = GeneratorFactory.byMonth(byMonth);
 		} else if (monthGenerator == null) {
-			monthGenerator = Generators.serialMonthGenerator(freq == Frequency.MONTHLY ? interval : 1, dtStart);
+			monthGenerator = GeneratorFactory.serialMonth(freq == Frequency.MONTHLY ? interval : 1);
 		}
 
 		/*
-		 * The condition tells the iterator when to halt. The condition is
-		 * exclusive, so the date that triggers it will not be included.
+		 * The count condition is stateful, so it is created each time the
+		 * compiled rule is iterated over. The UNTIL condition depends on the
+		 * timezone, so it is created when the rule is bound.
+		 * 
+		 * We can't shortcut if there is a COUNT because the countCondition
+		 * must see every generated instance.
+		 * 
+		 * TODO(msamuel): If count is large, we might try predicting the end
+		 * date so that we can convert the COUNT condition to an UNTIL
+		 * condition.
 		 */
-		Predicate<DateValue> condition;
-		boolean canShortcutAdvance = true;
-		if (count != 0) {
-			condition = Conditions.countCondition(count);
-
-			/*
-			 * We can't shortcut because the countCondition must see every
-			 * generated instance.
-			 * 
-			 * TODO(msamuel): If count is large, we might try predicting the end
-			 * date so that we can convert the COUNT condition to an UNTIL
-			 * condition.
-			 */
-			canShortcutAdvance = false;
-		} else if (untilUtc != null) {
-			if ((untilUtc instanceof TimeValue) != (dtStart instanceof TimeValue)) {
-				// TODO(msamuel): warn
-				if (dtStart instanceof TimeValue) {
-					untilUtc = TimeUtils.dayStart(untilUtc);
-				} else {
-					untilUtc = TimeUtils.toDateValue(untilUtc);
-				}
-			}
-			condition = Conditions.untilCondition(untilUtc);
-		} else {
-			condition = Predicates.<DateValue> alwaysTrue();
-		}
+		boolean canShortcutAdvance = (count == 0);
 
 		//combine filters into a single function
 		Predicate<? super DateValue> filter;
@@ -441,14 +454,40 @@ public class RecurrenceIteratorFactory {
 			break;
 		}
 
-		Generator instanceGenerator;
-		if (bySetPos.length > 0) {
-			instanceGenerator = InstanceGenerators.bySetPosInstanceGenerator(bySetPos, freq, wkst, filter, yearGenerator, monthGenerator, dayGenerator, hourGenerator, minuteGenerator, secondGenerator);
-		} else {
-			instanceGenerator = InstanceGenerators.serialInstanceGenerator(filter, yearGenerator, monthGenerator, dayGenerator, hourGenerator, minuteGenerator, secondGenerator);
+		return new RRulePlan(freq, wkst, bySetPos, yearInterval, weekInterval, monthGenerator, dayGenerator, hourGenerator, minuteGenerator, secondGenerator, filter, count, until, canShortcutAdvance, serialStep);
+	}
+
+	/**
+	 * Determines if the instances of a rule are a fixed distance apart in
+	 * local time. This is true of DAILY, WEEKLY, HOURLY, MINUTELY, and SECONDLY
+	 * rules that have no BYxxx rule parts.
+	 * @param freq the frequency
+	 * @param interval the interval
+	 * @param hasTime true if the start date has a time component, false if
+	 * not
+	 * @return the distance between each instance (in seconds if the start date
+	 * has a time component, in days if not) or zero if the instances are not a
+	 * fixed distance apart
+	 */
+	private static long serialStep(Frequency freq, int interval, boolean hasTime, ByDay[] byDay, int[] byMonth, int[] byMonthDay, int[] byWeekNo, int[] byYearDay, int[] bySetPos, int[] byHour, int[] byMinute, int[] bySecond) {
+		if (byDay.length > 0 || byMonth.length > 0 || byMonthDay.length > 0 || byWeekNo.length > 0 || byYearDay.length > 0 || bySetPos.length > 0 || byHour.length > 0 || byMinute.length > 0 || bySecond.length > 0) {
+			return 0;
 		}
 
-		return new RRuleIteratorImpl(dtStart, tzid, condition, instanceGenerator, yearGenerator, monthGenerator, dayGenerator, hourGenerator, minuteGenerator, secondGenerator, canShortcutAdvance);
+		switch (freq) {
+		case WEEKLY:
+			return interval * (hasTime ? 7 * 24 * 60 * 60L : 7);
+		case DAILY:
+			return interval * (hasTime ? 24 * 60 * 60L : 1);
+		case HOURLY:
+			return hasTime ? interval * 60 * 60L : 0;
+		case MINUTELY:
+			return hasTime ? interval * 60L : 0;
+		case SECONDLY:
+			return hasTime ? interval : 0;
+		default:
+			return 0;
+		}
 	}
 
 	/**
@@ -538,6 +577,55 @@ public class RecurrenceIteratorFactory {
 	private static final int[] NO_INTS = new int[0];
 	private static final ByDay[] NO_DAYS = new ByDay[0];
 
+	private static final int PLAN_CACHE_SIZE = 256;
+
+	/**
+	 * The most recently used compiled rules.
+	 */
+	private static final Map<PlanKey, RRulePlan> planCache = new LinkedHashMap<PlanKey, RRulePlan>(16, 0.75f, true) {
+		private static final long serialVersionUID = -3207938484011329484L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<PlanKey, RRulePlan> eldest) {
+			return size() > PLAN_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * The key of the compiled rule cache.
+	 */
+	private static class PlanKey {
+		private final Recurrence rrule;
+		private final boolean hasTime;
+		private final int hashCode;
+
+		public PlanKey(Recurrence rrule, boolean hasTime) {
+			this.rrule = rrule;
+			this.hasTime = hasTime;
+
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + rrule.hashCode();
+			result = prime * result + (hasTime ? 1231 : 1237);
+			hashCode = result;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof PlanKey)) return false;
+			PlanKey other = (PlanKey) obj;
+			if (hashCode != other.hashCode) return false;
+			if (hasTime != other.hasTime) return false;
+			return rrule.equals(other.rrule);
+		}
+	}
+
 	private RecurrenceIteratorFactory() {
 		//uninstantiable
 	}
@@ -0,0 +1,185 @@
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package biweekly.util.com.google.ical.iter;
+
+import java.util.TimeZone;
+
+import biweekly.util.com.google.ical.iter.Conditions.Condition;
+import biweekly.util.com.google.ical.values.DateValue;
+import biweekly.util.com.google.ical.values.PackedDateValue;
+import biweekly.util.com.google.ical.values.TimeValue;
+
+/**
+ * <p>
+ * Iterates over the dates of an RRULE whose instances are a fixed distance
+ * apart in local time. These are the DAILY, WEEKLY, HOURLY, MINUTELY, and
+ * SECONDLY rules that have no BYxxx rule parts (for example,
+ * "FREQ=DAILY;INTERVAL=3").
+ * </p>
+ * <p>
+ * The Nth instance of such a rule can be computed directly from the start
+ * date, so this iterator does not need any generators, and
+ * {@link #advanceTo} jumps straight to the requested date instead of
+ * generating every instance that comes before it.
+ * </p>
+ * @author Michael Angstadt
+ */
+final class SerialRRuleIteratorImpl implements PackedRecurrenceIterator {
+	private static final long NONE = Long.MIN_VALUE;
+
+	/**
+	 * How far to step back from the requested date in
+	 * {@link #advanceTo(DateValue)}, in seconds. This must be larger than the
+	 * difference between any two UTC offsets that a timezone can have.
+	 */
+	private static final long ADVANCE_MARGIN = 26L * 60 * 60;
+
+	private static final long SECS_PER_DAY = 24L * 60 * 60;
+
+	private final boolean hasTime;
+	private final long start;
+	private final long step;
+	private final int count;
+	private final Condition untilCondition;
+	private final UtcConverter utcConverter;
+
+	/**
+	 * The index of the next instance to compute.
+	 */
+	private long index = 0;
+
+	/**
+	 * A date that has been computed but not yet yielded to the user (packed),
+	 * or {@link #NONE}.
+	 */
+	private long pendingUtc = NONE;
+
+	private boolean done = false;
+
+	/**
+	 * @param dtStart the start date of the recurrence
+	 * @param tzid the timezone that resultant dates should be converted from
+	 * @param step the distance between each instance (in seconds if the start
+	 * date has a time component, in days if not)
+	 * @param count the maximum number of instances or zero for no maximum
+	 * @param untilCondition determines when the recurrence ends (ignored if
+	 * "count" is greater than zero)
+	 */
+	SerialRRuleIteratorImpl(DateValue dtStart, TimeZone tzid, long step, int count, Condition untilCondition) {
+		hasTime = dtStart instanceof TimeValue;
+		long startSecs = PackedDateValue.toEpochSecond(PackedDateValue.pack(dtStart));
+		start = hasTime ? startSecs : startSecs / SECS_PER_DAY;
+		this.step = step;
+		this.count = count;
+		this.untilCondition = (count > 0) ? Conditions.alwaysTrue() : untilCondition;
+		utcConverter = new UtcConverter(tzid);
+	}
+
+	public boolean hasNext() {
+		if (pendingUtc == NONE) {
+			fetchNext();
+		}
+		return pendingUtc != NONE;
+	}
+
+	public DateValue next() {
+		long next = nextPacked();
+		return (next == NONE) ? null : PackedDateValue.unpack(next);
+	}
+
+	public long nextPacked() {
+		if (pendingUtc == NONE) {
+			fetchNext();
+		}
+		long next = pendingUtc;
+		pendingUtc = NONE;
+		return next;
+	}
+
+	public void advanceTo(DateValue dateUtc) {
+		long dateUtcPacked = PackedDateValue.pack(dateUtc);
+		if (pendingUtc != NONE && dateUtcPacked <= pendingUtc) {
+			return;
+		}
+
+		/*
+		 * Jump to the last instance that is guaranteed to come before the
+		 * given date, no matter which UTC offset it has.
+		 */
+		long target = PackedDateValue.toEpochSecond(dateUtcPacked);
+		target = hasTime ? target - ADVANCE_MARGIN : target / SECS_PER_DAY - 1;
+		long skipTo = floorDiv(target - start, step);
+		if (skipTo > index) {
+			index = skipTo;
+		}
+
+		pendingUtc = NONE;
+		while (!done) {
+			fetchNext();
+			if (pendingUtc == NONE || pendingUtc >= dateUtcPacked) {
+				return;
+			}
+			pendingUtc = NONE;
+		}
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Computes the next instance.
+	 */
+	private void fetchNext() {
+		if (pendingUtc != NONE || done) {
+			return;
+		}
+
+		if (count > 0 && index >= count) {
+			done = true;
+			return;
+		}
+
+		long local = start + index * step;
+		long instanceUtc = hasTime ? utcConverter.toUtc(PackedDateValue.fromEpochSecond(local)) : PackedDateValue.fromEpochDay(local);
+		index++;
+
+		if (!untilCondition.apply(instanceUtc)) {
+			done = true;
+			return;
+		}
+
+		pendingUtc = instanceUtc;
+	}
+
+	private static long floorDiv(long x, long y) {
+		long result = x / y;
+		if ((x % y != 0) && ((x < 0) != (y < 0))) {
+			result--;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package biweekly.util.com.google.ical.iter;
+
+import java.util.TimeZone;
+
+import biweekly.util.com.google.ical.util.TimeUtils;
+import biweekly.util.com.google.ical.values.DateTimeValue;
+import biweekly.util.com.google.ical.values.DateTimeValueImpl;
+import biweekly.util.com.google.ical.values.PackedDateValue;
+
+/**
+ * <p>
+ * Converts packed local date-time values to UTC using integer arithmetic.
+ * </p>
+ * <p>
+ * {@link TimeUtils#toUtc} creates two {@link java.util.Calendar} objects per
+ * conversion. This class remembers the last UTC offset it used and reuses it
+ * as long as the timezone has no transitions within a day of the date being
+ * converted. Only dates that are close to a transition (or that fall outside
+ * of the range where the proleptic Gregorian calendar and
+ * {@link java.util.GregorianCalendar} agree) are converted using
+ * {@link TimeUtils#toUtc}, so the results are always the same.
+ * </p>
+ * <p>
+ * Instances of this class are not thread-safe.
+ * </p>
+ * @author Michael Angstadt
+ */
+final class UtcConverter {
+	private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+	private static final int MIN_FAST_YEAR = 1600;
+	private static final int MAX_FAST_YEAR = 100000;
+
+	private final TimeZone zone;
+	private final boolean utc;
+	private int offset;
+
+	/**
+	 * @param zone the timezone to convert from (null for UTC)
+	 */
+	UtcConverter(TimeZone zone) {
+		this.zone = zone;
+		utc = (zone == null || zone.hasSameRules(TimeUtils.utcTimezone()));
+		offset = utc ? 0 : zone.getRawOffset();
+	}
+
+	/**
+	 * Converts a packed value to UTC. Packed values that don't have a time
+	 * component are returned unchanged.
+	 * @param packedLocal the packed value, in local time
+	 * @return the packed value, in UTC
+	 */
+	long toUtc(long packedLocal) {
+		if (utc || !PackedDateValue.hasTime(packedLocal)) {
+			return packedLocal;
+		}
+
+		int year = PackedDateValue.year(packedLocal);
+		if (year == 0) {
+			//TimeUtils.toUtc() leaves these alone
+			return packedLocal;
+		}
+
+		if (year >= MIN_FAST_YEAR && year <= MAX_FAST_YEAR) {
+			long utcMillis = PackedDateValue.toEpochSecond(packedLocal) * 1000 - offset;
+			if (zone.getOffset(utcMillis) == offset && zone.getOffset(utcMillis - DAY_MILLIS) == offset && zone.getOffset(utcMillis + DAY_MILLIS) == offset) {
+				return PackedDateValue.fromEpochSecond(utcMillis / 1000);
+			}
+		}
+
+		//@formatter:off
+		DateTimeValue localValue = new DateTimeValueImpl(
+			year,
+			PackedDateValue.month(packedLocal),
+			PackedDateValue.day(packedLocal),
+			PackedDateValue.hour(packedLocal),
+			PackedDateValue.minute(packedLocal),
+			PackedDateValue.second(packedLocal)
+		);
+		//@formatter:on
+		long packedUtc = PackedDateValue.pack(TimeUtils.toUtc(localValue, zone));
+
+		if (year >= MIN_FAST_YEAR && year <= MAX_FAST_YEAR) {
+			offset = zone.getOffset(PackedDateValue.toEpochSecond(packedUtc) * 1000);
+		}
+		return packedUtc;
+	}
+}
@@ -0,0 +1,232 @@
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package biweekly.util.com.google.ical.values;
+
+import biweekly.util.com.google.ical.util.TimeUtils;
+
+/**
+ * <p>
+ * Encodes {@link DateValue} and {@link DateTimeValue} objects as primitive
+ * {@code long} values, so that large numbers of dates can be generated and
+ * compared without allocating objects.
+ * </p>
+ * <p>
+ * Packed values sort in the same order as {@link DateValue#compareTo}: they can
+ * be compared using the normal {@code <}, {@code ==}, and {@code >} operators.
+ * Like {@link DateValueImpl#compareTo}, a date value comes before all of the
+ * date-time values that fall on the same day.
+ * </p>
+ * <p>
+ * The bit layout, from least to most significant, is: second (6 bits), minute
+ * (6 bits), hour (5 bits), a flag that is set if the value has a time component
+ * (1 bit), day (5 bits), month (4 bits), and year (the remaining bits).
+ * </p>
+ * @author Michael Angstadt
+ */
+public final class PackedDateValue {
+	private static final int MINUTE_SHIFT = 6;
+	private static final int HOUR_SHIFT = 12;
+	private static final int TIME_FLAG_SHIFT = 17;
+	private static final int DAY_SHIFT = 18;
+	private static final int MONTH_SHIFT = 23;
+	private static final int YEAR_SHIFT = 27;
+
+	private static final long TIME_FLAG = 1L << TIME_FLAG_SHIFT;
+
+	private static final long SECS_PER_DAY = 24L * 60 * 60;
+	private static final int EPOCH_FIXED = TimeUtils.fixedFromGregorian(1970, 1, 1);
+
+	/**
+	 * Packs a date value.
+	 * @param year the year
+	 * @param month the month (1-12)
+	 * @param day the day (1-31)
+	 * @return the packed value
+	 */
+	public static long pack(int year, int month, int day) {
+		return ((long) year << YEAR_SHIFT) | ((long) month << MONTH_SHIFT) | ((long) day << DAY_SHIFT);
+	}
+
+	/**
+	 * Packs a date-time value.
+	 * @param year the year
+	 * @param month the month (1-12)
+	 * @param day the day (1-31)
+	 * @param hour the hour (0-23)
+	 * @param minute the minute (0-59)
+	 * @param second the second (0-59)
+	 * @return the packed value
+	 */
+	public static long pack(int year, int month, int day, int hour, int minute, int second) {
+		return pack(year, month, day) | TIME_FLAG | ((long) hour << HOUR_SHIFT) | ((long) minute << MINUTE_SHIFT) | second;
+	}
+
+	/**
+	 * Packs a {@link DateValue} or {@link DateTimeValue} object.
+	 * @param value the value to pack
+	 * @return the packed value
+	 */
+	public static long pack(DateValue value) {
+		if (value instanceof TimeValue) {
+			TimeValue time = (TimeValue) value;
+			return pack(value.year(), value.month(), value.day(), time.hour(), time.minute(), time.second());
+		}
+		return pack(value.year(), value.month(), value.day());
+	}
+
+	/**
+	 * Converts a packed value back into a {@link DateValue} or
+	 * {@link DateTimeValue} object.
+	 * @param packed the packed value
+	 * @return the date value (a {@link DateTimeValue} object if the value has a
+	 * time component)
+	 */
+	public static DateValue unpack(long packed) {
+		if (hasTime(packed)) {
+			return new DateTimeValueImpl(year(packed), month(packed), day(packed), hour(packed), minute(packed), second(packed));
+		}
+		return new DateValueImpl(year(packed), month(packed), day(packed));
+	}
+
+	/**
+	 * Determines if a packed value has a time component.
+	 * @param packed the packed value
+	 * @return true if it has a time component, false if not
+	 */
+	public static boolean hasTime(long packed) {
+		return (packed & TIME_FLAG) != 0;
+	}
+
+	/**
+	 * Gets the year of a packed value.
+	 * @param packed the packed value
+	 * @return the year
+	 */
+	public static int year(long packed) {
+		return (int) (packed >> YEAR_SHIFT);
+	}
+
+	/**
+	 * Gets the month of a packed value.
+	 * @param packed the packed value
+	 * @return the month (1-12)
+	 */
+	public static int month(long packed) {
+		return (int) (packed >> MONTH_SHIFT) & 0xf;
+	}
+
+	/**
+	 * Gets the day of a packed value.
+	 * @param packed the packed value
+	 * @return the day (1-31)
+	 */
+	public static int day(long packed) {
+		return (int) (packed >> DAY_SHIFT) & 0x1f;
+	}
+
+	/**
+	 * Gets the hour of a packed value.
+	 * @param packed the packed value
+	 * @return the hour (0-23) or 0 if the value doesn't have a time component
+	 */
+	public static int hour(long packed) {
+		return (int) (packed >> HOUR_SHIFT) & 0x1f;
+	}
+
+	/**
+	 * Gets the minute of a packed value.
+	 * @param packed the packed value
+	 * @return the minute (0-59) or 0 if the value doesn't have a time component
+	 */
+	public static int minute(long packed) {
+		return (int) (packed >> MINUTE_SHIFT) & 0x3f;
+	}
+
+	/**
+	 * Gets the second of a packed value.
+	 * @param packed the packed value
+	 * @return the second (0-59) or 0 if the value doesn't have a time component
+	 */
+	public static int second(long packed) {
+		return (int) packed & 0x3f;
+	}
+
+	/**
+	 * Converts a packed value to the number of seconds since 1970-01-01
+	 * 00:00:00, using the proleptic Gregorian calendar. Values without a time
+	 * component are treated as midnight.
+	 * @param packed the packed value
+	 * @return the number of seconds
+	 */
+	public static long toEpochSecond(long packed) {
+		long days = TimeUtils.fixedFromGregorian(year(packed), month(packed), day(packed)) - EPOCH_FIXED;
+		return days * SECS_PER_DAY + second(packed) + 60 * (minute(packed) + 60 * hour(packed));
+	}
+
+	/**
+	 * Converts a number of seconds since 1970-01-01 00:00:00 to a packed
+	 * date-time value, using the proleptic Gregorian calendar.
+	 * @param epochSecond the number of seconds
+	 * @return the packed value
+	 */
+	public static long fromEpochSecond(long epochSecond) {
+		long days = epochSecond / SECS_PER_DAY;
+		int secsInDay = (int) (epochSecond % SECS_PER_DAY);
+		if (secsInDay < 0) {
+			days--;
+			secsInDay += SECS_PER_DAY;
+		}
+
+		long date = fromEpochDay(days);
+		return pack(year(date), month(date), day(date), secsInDay / 3600, (secsInDay / 60) % 60, secsInDay % 60);
+	}
+
+	/**
+	 * Converts a number of days since 1970-01-01 to a packed date value, using
+	 * the proleptic Gregorian calendar.
+	 * @param epochDay the number of days
+	 * @return the packed value
+	 */
+	public static long fromEpochDay(long epochDay) {
+		/*
+		 * See: http://howardhinnant.github.io/date_algorithms.html
+		 */
+		long z = epochDay + 719468;
+		long era = ((z >= 0) ? z : z - 146096) / 146097;
+		long dayOfEra = z - era * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long monthIndex = (5 * dayOfYear + 2) / 153;
+		int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+		int month = (int) ((monthIndex < 10) ? monthIndex + 3 : monthIndex - 9);
+		int year = (int) (yearOfEra + era * 400 + ((month <= 2) ? 1 : 0));
+		return pack(year, month, day);
+	}
+
+	private PackedDateValue() {
+		//uninstantiable
+	}
+}
@@ -16,6 +16,13 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -121,6 +128,122 @@ public class BiweeklyTest {
 		assertFalse(it.hasNext());
 	}
 
+	@Test
+	public void parse_parallel_quoted_printable() throws Throwable {
+		//@formatter:off
+		String icalStr =
+		"BEGIN:VCALENDAR\r\n" +
+		"VERSION:1.0\r\n" +
+		"PRODID:one\r\n" +
+		"DESCRIPTION;ENCODING=QUOTED-PRINTABLE:soft line break=\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+		"END:VCALENDAR\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+		"VERSION:1.0\r\n" +
+		"PRODID:two\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<ICalendar> icals = Biweekly.parse(icalStr).parallel(executor).all();
+			assertEquals(Biweekly.parse(icalStr).all(), icals);
+			assertEquals(2, icals.size());
+			assertEquals("soft line breakBEGIN:VCALENDAR", icals.get(0).getDescriptions().get(0).getValue());
+			assertEquals("two", icals.get(1).getProductId().getValue());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parse_parallel_failure() throws Throwable {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("BEGIN:VCALENDAR\r\n");
+			sb.append("X-BLOCK:").append(i == 0 ? "fail" : "ok").append("\r\n");
+			sb.append("END:VCALENDAR\r\n");
+		}
+
+		final AtomicInteger submitted = new AtomicInteger();
+		ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>()) {
+			@Override
+			public void execute(Runnable command) {
+				submitted.incrementAndGet();
+				super.execute(command);
+			}
+		};
+		BlockingScribe scribe = new BlockingScribe();
+		try {
+			Biweekly.parse(sb.toString()).register(scribe).parallel(executor).all();
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("fail", e.getMessage());
+		} finally {
+			scribe.latch.countDown();
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		//the data stream was not read to the end
+		assertTrue(submitted.get() < 100);
+
+		//the calendars that were waiting to be parsed were cancelled
+		assertTrue(scribe.parsed.get() <= 2);
+	}
+
+	@Test
+	public void parse_parallel() throws Throwable {
+		//@formatter:off
+		String icalStr =
+		"junk\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:one\r\n" +
+		"DESCRIPTION:folded\r\n" +
+		" BEGIN:VCALENDAR\r\n" +
+		"END:VCALENDAR\r\n" +
+		"begin:vcalendar\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:two\r\n" +
+		"X-TEST;X-TEST=^'caret^':one\r\n" +
+		"END:VCALENDAR\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+		"VERSION:2.0\r\n" +
+		"PRODID:three\r\n" +
+		"DTSTART;TZID=Invalid:20130610T120000\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<List<ParseWarning>> warnings = new ArrayList<List<ParseWarning>>();
+			List<ICalendar> icals = Biweekly.parse(icalStr).caretDecoding(false).register(new TestPropertyMarshaller()).parallel(executor).warnings(warnings).all();
+			Iterator<ICalendar> it = icals.iterator();
+
+			ICalendar ical = it.next();
+			assertEquals(V2_0, ical.getVersion());
+			assertEquals("one", ical.getProductId().getValue());
+			assertEquals("foldedBEGIN:VCALENDAR", ical.getDescriptions().get(0).getValue());
+
+			ical = it.next();
+			assertEquals("two", ical.getProductId().getValue());
+			assertEquals("^'caret^'", ical.getProperty(TestProperty.class).getParameter("X-TEST"));
+
+			ical = it.next();
+			assertEquals("three", ical.getProductId().getValue());
+
+			assertFalse(it.hasNext());
+
+			assertEquals(3, warnings.size());
+			assertParseWarnings(warnings.get(0));
+			assertParseWarnings(warnings.get(1));
+			assertParseWarnings(warnings.get(2), 38);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 	@Test
 	public void parse_register() {
 		//@formatter:off
@@ -693,6 +816,39 @@ public class BiweeklyTest {
 		}
 	}
 
+	/**
+	 * Counts how many X-BLOCK properties are parsed. Parsing fails if the
+	 * value is "fail", and blocks until the latch is released otherwise.
+	 */
+	private class BlockingScribe extends ICalPropertyScribe<TestProperty> {
+		private final AtomicInteger parsed = new AtomicInteger();
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		private BlockingScribe() {
+			super(TestProperty.class, "X-BLOCK", null);
+		}
+
+		@Override
+		protected String _writeText(TestProperty property, WriteContext context) {
+			return null;
+		}
+
+		@Override
+		protected TestProperty _parseText(String value, ICalDataType dataType, ICalParameters parameters, ParseContext context) {
+			parsed.incrementAndGet();
+			if (value.equals("fail")) {
+				throw new IllegalStateException(value);
+			}
+
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			return new TestProperty(1);
+		}
+	}
+
 	private class TestPropertyMarshaller extends ICalPropertyScribe<TestProperty> {
 		private TestPropertyMarshaller() {
 			super(TestProperty.class, "X-TEST", null);
@@ -653,6 +653,81 @@ public class ICalComponentTest {
 		assertNotEquals(two, one);
 	}
 
+	@Test
+	public void equals_ignore_order_with_duplicates() {
+		ICalComponentImpl one = new ICalComponentImpl();
+		one.addExperimentalProperty("PROP", "one");
+		one.addExperimentalProperty("PROP", "one");
+		one.addExperimentalProperty("PROP", "two");
+		one.addExperimentalProperty("PROP", "three");
+		one.addExperimentalComponent("COMP");
+		one.addExperimentalComponent("COMP2");
+		one.addExperimentalComponent("COMP");
+
+		ICalComponentImpl two = new ICalComponentImpl();
+		two.addExperimentalComponent("COMP2");
+		two.addExperimentalComponent("COMP");
+		two.addExperimentalComponent("COMP");
+		two.addExperimentalProperty("PROP", "three");
+		two.addExperimentalProperty("PROP", "one");
+		two.addExperimentalProperty("PROP", "two");
+		two.addExperimentalProperty("PROP", "one");
+
+		assertEqualsAndHash(one, two);
+	}
+
+	@Test
+	public void equals_multiple_identical_components_not_equal() {
+		ICalComponentImpl one = new ICalComponentImpl();
+		one.addExperimentalComponent("COMP");
+		one.addExperimentalComponent("COMP");
+		one.addExperimentalComponent("COMP2");
+
+		ICalComponentImpl two = new ICalComponentImpl();
+		two.addExperimentalComponent("COMP");
+		two.addExperimentalComponent("COMP2");
+		two.addExperimentalComponent("COMP2");
+
+		assertNotEquals(one, two);
+		assertNotEquals(two, one);
+	}
+
+	@Test
+	public void equals_one_property_different() {
+		ICalComponentImpl one = new ICalComponentImpl();
+		one.addExperimentalProperty("PROP", "one");
+		one.addExperimentalProperty("PROP", "two");
+		one.addExperimentalProperty("PROP", "three");
+
+		ICalComponentImpl two = new ICalComponentImpl();
+		two.addExperimentalProperty("PROP", "three");
+		two.addExperimentalProperty("PROP", "two");
+		two.addExperimentalProperty("PROP", "four");
+
+		assertNotEquals(one, two);
+		assertNotEquals(two, one);
+	}
+
+	/**
+	 * The components have the same number of properties, but a different
+	 * number of properties of each type.
+	 */
+	@Test
+	public void equals_different_number_of_properties_of_same_type() {
+		ICalComponentImpl one = new ICalComponentImpl();
+		one.addExperimentalProperty("PROP", "one");
+		one.addExperimentalProperty("PROP", "two");
+		one.addProperty(new Summary("summary"));
+
+		ICalComponentImpl two = new ICalComponentImpl();
+		two.addExperimentalProperty("PROP", "one");
+		two.addProperty(new Summary("summary"));
+		two.addProperty(new Summary("summary"));
+
+		assertNotEquals(one, two);
+		assertNotEquals(two, one);
+	}
+
 	@Test
 	public void toString_() {
 		//@formatter:off
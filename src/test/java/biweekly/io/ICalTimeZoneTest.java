@@ -4,6 +4,7 @@ import static biweekly.util.TestUtils.utc;
 import static biweekly.util.TestUtils.vtimezoneNewYork;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Calendar;
@@ -332,6 +333,110 @@ public class ICalTimeZoneTest {
 		assertOffset(-4, 0, true, tz, 2014, 3, 10);
 	}
 
+	@Test
+	public void getOffset_utc() {
+		VTimezone component = vtimezoneNewYork();
+		ICalTimeZone tz = new ICalTimeZone(component);
+
+		//20140309T020000 (EST)
+		assertEquals(-5 * 60 * 60 * 1000, tz.getOffset(utc("2014-03-09 06:59:59").getTime()));
+		assertEquals(-4 * 60 * 60 * 1000, tz.getOffset(utc("2014-03-09 07:00:00").getTime()));
+
+		//20141102T020000 (EDT)
+		assertEquals(-4 * 60 * 60 * 1000, tz.getOffset(utc("2014-11-02 05:59:59").getTime()));
+		assertEquals(-5 * 60 * 60 * 1000, tz.getOffset(utc("2014-11-02 06:00:00").getTime()));
+
+		//before the first observance
+		assertEquals(-(4 * 60 + 56) * 60 * 1000, tz.getOffset(utc("1800-01-01 00:00:00").getTime()));
+	}
+
+	@Test
+	public void toUtc() {
+		VTimezone component = vtimezoneNewYork();
+		ICalTimeZone tz = new ICalTimeZone(component);
+
+		//@formatter:off
+		long[] times = {
+			utc("2014-11-02 02:00:00").getTime(),
+			utc("2014-03-08 12:00:00").getTime(),
+			utc("2014-03-09 01:59:59").getTime(),
+			utc("2014-03-09 02:30:00").getTime(), //skipped
+			utc("2014-03-09 03:00:00").getTime(),
+			utc("2014-11-02 00:59:59").getTime(),
+			utc("2014-11-02 01:30:00").getTime(), //repeated
+			utc("1800-01-01 00:00:00").getTime(), //before the first observance
+			0
+		};
+		//@formatter:on
+		tz.toUtc(times, times.length - 1);
+
+		assertEquals(utc("2014-11-02 07:00:00").getTime(), times[0]);
+		assertEquals(utc("2014-03-08 17:00:00").getTime(), times[1]);
+		assertEquals(utc("2014-03-09 06:59:59").getTime(), times[2]);
+		assertEquals(utc("2014-03-09 07:30:00").getTime(), times[3]);
+		assertEquals(utc("2014-03-09 07:00:00").getTime(), times[4]);
+		assertEquals(utc("2014-11-02 04:59:59").getTime(), times[5]);
+		assertEquals(utc("2014-11-02 06:30:00").getTime(), times[6]);
+		assertEquals(utc("1800-01-01 05:00:00").getTime(), times[7]);
+		assertEquals(0, times[8]);
+	}
+
+	@Test
+	public void toUtc_same_as_calendar() {
+		ICalTimeZone tz = new ICalTimeZone(vtimezoneNewYork());
+		TimeZone expectedTz = TimeZone.getTimeZone("America/New_York");
+
+		long start = utc("2000-01-01 00:00:00").getTime();
+		long end = utc("2030-01-01 00:00:00").getTime();
+		long step = 30 * 60 * 1000;
+		long[] times = new long[(int) ((end - start) / step)];
+		for (int i = 0; i < times.length; i++) {
+			times[i] = start + i * step;
+		}
+		tz.toUtc(times, times.length);
+
+		Calendar local = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		Calendar expected = Calendar.getInstance(expectedTz);
+		for (int i = 0; i < times.length; i++) {
+			local.setTimeInMillis(start + i * step);
+			expected.clear();
+			expected.set(local.get(Calendar.YEAR), local.get(Calendar.MONTH), local.get(Calendar.DATE), local.get(Calendar.HOUR_OF_DAY), local.get(Calendar.MINUTE));
+			assertEquals(local.getTime().toString(), expected.getTimeInMillis(), times[i]);
+		}
+	}
+
+	@Test
+	public void getOffset_outside_of_precomputed_window() {
+		VTimezone component = vtimezoneNewYork();
+		ICalTimeZone tz = new ICalTimeZone(component, 1);
+
+		assertOffset(-5, 0, false, tz, 2214, 3, 13, 1, 59, 59);
+		assertOffset(-4, 0, true, tz, 2214, 3, 13, 2, 0, 0);
+		assertEquals(-4 * 60 * 60 * 1000, tz.getOffset(utc("2314-07-01 00:00:00").getTime()));
+		assertOffset(-5, 0, false, tz, 2014, 11, 3);
+
+		Boundary boundary = tz.getObservanceBoundary(utc("2414-07-01 00:00:00"));
+		assertEquals(new DateTimeValueImpl(2414, 3, 9, 2, 0, 0), boundary.getObservanceInStart());
+	}
+
+	@Test
+	public void getNextTransitionStart() {
+		VTimezone component = vtimezoneNewYork();
+		ICalTimeZone tz = new ICalTimeZone(component, 1);
+
+		assertEquals(new DateTimeValueImpl(2014, 3, 9, 2, 0, 0), tz.getNextTransitionStart(utc("2014-01-07 09:34:00")));
+		assertEquals(new DateTimeValueImpl(2014, 11, 2, 2, 0, 0), tz.getNextTransitionStart(utc("2014-03-09 02:00:00")));
+
+		//outside of the precomputed window
+		assertEquals(new DateTimeValueImpl(2214, 3, 13, 2, 0, 0), tz.getNextTransitionStart(utc("2214-01-01 00:00:00")));
+	}
+
+	@Test
+	public void getNextTransitionStart_no_observances() {
+		ICalTimeZone tz = new ICalTimeZone(new VTimezone("id"));
+		assertNull(tz.getNextTransitionStart(utc("2014-01-07 09:34:00")));
+	}
+
 	@Test
 	public void createIterator() {
 		VTimezone component = vtimezoneNewYork();
@@ -0,0 +1,225 @@
+package biweekly.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import biweekly.component.DaylightSavingsTime;
+import biweekly.component.Observance;
+import biweekly.component.StandardTime;
+import biweekly.component.VTimezone;
+import biweekly.util.ByDay;
+import biweekly.util.DateTimeComponents;
+import biweekly.util.DayOfWeek;
+import biweekly.util.Frequency;
+import biweekly.util.Recurrence;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class JvmTimezoneGeneratorTest {
+	@Before
+	public void before() {
+		JvmTimezoneGenerator.clearCache();
+	}
+
+	@Test
+	public void same_offsets_as_jvm() {
+		String ids[] = { "America/New_York", "Europe/London", "Australia/Sydney", "America/Sao_Paulo", "Asia/Kolkata", "Pacific/Auckland", "America/St_Johns" };
+		JvmTimezoneGenerator generator = new JvmTimezoneGenerator();
+
+		Calendar c = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		c.clear();
+		c.set(1970, Calendar.JANUARY, 1);
+		long start = c.getTimeInMillis();
+		c.set(2050, Calendar.JANUARY, 1);
+		long end = c.getTimeInMillis();
+
+		for (String id : ids) {
+			TimeZone expected = TimeZone.getTimeZone(id);
+			ICalTimeZone actual = new ICalTimeZone(generator.generate(expected));
+
+			for (long time = start; time < end; time += 7 * 60 * 60 * 1000L) {
+				assertEquals(id + " " + time, expected.getOffset(time), actual.getOffset(time));
+			}
+		}
+	}
+
+	@Test
+	public void current_rules_use_rrules() {
+		TimeZone timezone = new SimpleTimeZone(-5 * 60 * 60 * 1000, "Custom", Calendar.MARCH, 8, -Calendar.SUNDAY, 2 * 60 * 60 * 1000, Calendar.NOVEMBER, 1, -Calendar.SUNDAY, 2 * 60 * 60 * 1000);
+		VTimezone component = new JvmTimezoneGenerator(2000).generate(timezone);
+		assertEquals("Custom", component.getTimezoneId().getValue());
+
+		/*
+		 * The state of the timezone at the start year, followed by the
+		 * recurring rules.
+		 */
+		List<StandardTime> standards = component.getStandardTimes();
+		assertEquals(2, standards.size());
+		assertObservance(standards.get(0), new DateTimeComponents(2000, 1, 1, 0, 0, 0, false), -5, -5, null);
+		assertObservance(standards.get(1), new DateTimeComponents(2000, 11, 5, 2, 0, 0, false), -4, -5, new Recurrence.Builder(Frequency.YEARLY).byMonth(11).byDay(1, DayOfWeek.SUNDAY).build());
+
+		List<DaylightSavingsTime> daylights = component.getDaylightSavingsTime();
+		assertEquals(1, daylights.size());
+		assertObservance(daylights.get(0), new DateTimeComponents(2000, 3, 12, 2, 0, 0, false), -5, -4, new Recurrence.Builder(Frequency.YEARLY).byMonth(3).byDay(2, DayOfWeek.SUNDAY).build());
+	}
+
+	@Test
+	public void last_week_of_month() {
+		TimeZone timezone = TimeZone.getTimeZone("Europe/Berlin");
+		VTimezone component = new JvmTimezoneGenerator(2000).generate(timezone);
+
+		Observance daylight = component.getDaylightSavingsTime().get(0);
+		Recurrence rrule = daylight.getRecurrenceRule().getValue();
+		assertEquals(new ByDay(-1, DayOfWeek.SUNDAY), rrule.getByDay().get(0));
+	}
+
+	@Test
+	public void no_daylight_savings() {
+		TimeZone timezone = TimeZone.getTimeZone("Asia/Tokyo");
+		VTimezone component = new JvmTimezoneGenerator(2000).generate(timezone);
+
+		assertEquals(0, component.getDaylightSavingsTime().size());
+		assertEquals(1, component.getStandardTimes().size());
+		StandardTime standard = component.getStandardTimes().get(0);
+		assertObservance(standard, new DateTimeComponents(2000, 1, 1, 0, 0, 0, false), 9, 9, null);
+	}
+
+	@Test
+	public void historical_transitions_use_rdates() {
+		//Brazil stopped observing daylight savings time in 2019
+		TimeZone timezone = TimeZone.getTimeZone("America/Sao_Paulo");
+		VTimezone component = new JvmTimezoneGenerator(2000).generate(timezone);
+
+		for (Observance observance : component.getStandardTimes()) {
+			assertNull(observance.getRecurrenceRule());
+		}
+		for (Observance observance : component.getDaylightSavingsTime()) {
+			assertNull(observance.getRecurrenceRule());
+		}
+
+		/*
+		 * The first observance is the state of the timezone at the start year,
+		 * the second contains the transitions.
+		 */
+		DaylightSavingsTime daylight = component.getDaylightSavingsTime().get(1);
+		assertEquals(new DateTimeComponents(2000, 10, 8, 0, 0, 0, false), daylight.getDateStart().getValue().getRawComponents());
+		assertEquals(18, daylight.getRecurrenceDates().get(0).getDates().size());
+	}
+
+	@Test
+	public void cache() {
+		JvmTimezoneGenerator generator = new JvmTimezoneGenerator();
+		TimeZone timezone = TimeZone.getTimeZone("America/New_York");
+		VTimezone component = generator.generate(timezone);
+		VTimezone cached = generator.generate(timezone);
+		assertNotSame(component, cached);
+		assertEquals(component, cached);
+		assertEquals(component, new JvmTimezoneGenerator().generate(TimeZone.getTimeZone("America/New_York")));
+
+		//modifying a returned component does not affect the cache
+		component.getDaylightSavingsTime().clear();
+		component.setLastModified(new Date());
+		assertEquals(cached, generator.generate(timezone));
+
+		//different start year
+		assertFalse(cached.equals(new JvmTimezoneGenerator(2000).generate(timezone)));
+
+		//same ID, different rules
+		TimeZone custom = new SimpleTimeZone(0, "America/New_York");
+		VTimezone customComponent = generator.generate(custom);
+		assertFalse(cached.equals(customComponent));
+		assertEquals(0, customComponent.getDaylightSavingsTime().size());
+	}
+
+	@Test
+	public void generateShared() {
+		JvmTimezoneGenerator generator = new JvmTimezoneGenerator();
+		TimeZone timezone = TimeZone.getTimeZone("America/New_York");
+		VTimezone shared = generator.generateShared(timezone);
+		assertSame(shared, generator.generateShared(timezone));
+		assertSame(shared, new JvmTimezoneGenerator().generateShared(TimeZone.getTimeZone("America/New_York")));
+		assertEquals(shared, generator.generate(timezone));
+		assertNotSame(shared, generator.generate(timezone));
+
+		//different start year
+		assertNotSame(shared, new JvmTimezoneGenerator(2000).generateShared(timezone));
+
+		//modifying the shared component does not affect the copies
+		VTimezone copy = generator.generate(timezone);
+		shared.getDaylightSavingsTime().clear();
+		assertEquals(copy, generator.generate(timezone));
+
+		JvmTimezoneGenerator.clearCache();
+		assertNotSame(shared, generator.generateShared(timezone));
+	}
+
+	@Test
+	public void cache_year_rollover() {
+		/*
+		 * The daylight savings rule of this timezone changes in 2010. The
+		 * first component is generated before the rule becomes current, so it
+		 * must not be returned once the search reaches past 2010.
+		 */
+		SimpleTimeZone timezone = new SimpleTimeZone(0, "Custom", Calendar.MARCH, 8, -Calendar.SUNDAY, 2 * 60 * 60 * 1000, Calendar.NOVEMBER, 1, -Calendar.SUNDAY, 2 * 60 * 60 * 1000, 60 * 60 * 1000);
+		timezone.setStartYear(2010);
+
+		JvmTimezoneGenerator generator = new JvmTimezoneGenerator(2000);
+		VTimezone before = generator.generate(timezone, 2000);
+		assertEquals(0, before.getDaylightSavingsTime().size());
+
+		VTimezone after = generator.generate(timezone, 2010);
+		assertEquals(1, after.getDaylightSavingsTime().size());
+		assertNotNull(after.getDaylightSavingsTime().get(0).getRecurrenceRule());
+	}
+
+	private static void assertObservance(Observance observance, DateTimeComponents start, int offsetFrom, int offsetTo, Recurrence rrule) {
+		assertEquals(start, observance.getDateStart().getValue().getRawComponents());
+		assertEquals(offsetFrom * 60 * 60 * 1000L, observance.getTimezoneOffsetFrom().getValue().getMillis());
+		assertEquals(offsetTo * 60 * 60 * 1000L, observance.getTimezoneOffsetTo().getValue().getMillis());
+		if (rrule == null) {
+			assertNull(observance.getRecurrenceRule());
+		} else {
+			assertEquals(rrule, observance.getRecurrenceRule().getValue());
+		}
+	}
+}
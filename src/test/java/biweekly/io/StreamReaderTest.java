@@ -6,12 +6,16 @@ import static biweekly.util.TestUtils.icalDate;
 import static biweekly.util.TestUtils.utc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -235,6 +239,87 @@ public class StreamReaderTest {
 		assertParseWarnings(reader, 39);
 	}
 
+	@Test
+	public void timezone_executor() throws Exception {
+		StreamReader reader = new StreamReaderImpl() {
+			@Override
+			protected ICalendar _readNext() {
+				ICalendar ical = new ICalendar();
+
+				VTimezone timezone = new VTimezone("tz");
+				{
+					StandardTime standard = new StandardTime();
+					standard.setDateStart(new DateTimeComponents(2014, 9, 1, 2, 0, 0, false));
+					standard.setTimezoneOffsetFrom(new UtcOffset(true, 10, 0));
+					standard.setTimezoneOffsetTo(new UtcOffset(true, 9, 0));
+					timezone.addStandardTime(standard);
+				}
+				ical.addComponent(timezone);
+
+				for (String tzid : new String[] { "tz", "America/New_York", "/Europe/Paris" }) {
+					TestProperty timezoned = new TestProperty(icalDate("2014-10-01T13:07:00"));
+					timezoned.getParameters().setTimezoneId(tzid);
+					context.addTimezonedDate(tzid, timezoned, timezoned.date);
+					ical.addProperty(timezoned);
+				}
+
+				return ical;
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			reader.setTimezoneExecutor(executor);
+			assertSame(executor, reader.getTimezoneExecutor());
+
+			ICalendar ical = reader.readNext();
+			Iterator<TestProperty> it = ical.getProperties(TestProperty.class).iterator();
+			assertEquals(utc("2014-10-01 04:07:00"), it.next().date);
+			assertEquals(utc("2014-10-01 17:07:00"), it.next().date);
+			assertEquals(utc("2014-10-01 11:07:00"), it.next().date);
+			assertFalse(it.hasNext());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void intern_timezones() throws Exception {
+		TimezoneRegistry.clear();
+		StreamReader reader = new StreamReaderImpl() {
+			@Override
+			protected ICalendar _readNext() {
+				ICalendar ical = new ICalendar();
+
+				VTimezone timezone = new VTimezone("tz");
+				{
+					StandardTime standard = new StandardTime();
+					standard.setDateStart(new DateTimeComponents(2014, 9, 1, 2, 0, 0, false));
+					standard.setTimezoneOffsetFrom(new UtcOffset(true, 10, 0));
+					standard.setTimezoneOffsetTo(new UtcOffset(true, 9, 0));
+					timezone.addStandardTime(standard);
+				}
+				ical.addComponent(timezone);
+
+				return ical;
+			}
+		};
+
+		TimezoneAssignment first = reader.readNext().getTimezoneInfo().getTimezones().iterator().next();
+		TimezoneAssignment second = reader.readNext().getTimezoneInfo().getTimezones().iterator().next();
+		assertNotSame(first.getComponent(), second.getComponent());
+		assertNotSame(first.getTimeZone(), second.getTimeZone());
+
+		reader.setInternTimezones(true);
+		first = reader.readNext().getTimezoneInfo().getTimezones().iterator().next();
+		second = reader.readNext().getTimezoneInfo().getTimezones().iterator().next();
+		assertSame(first.getComponent(), second.getComponent());
+		assertSame(first.getTimeZone(), second.getTimeZone());
+		assertEquals(1, TimezoneRegistry.size());
+
+		TimezoneRegistry.clear();
+	}
+
 	private abstract class StreamReaderImpl extends StreamReader {
 		public void close() throws IOException {
 			//empty
@@ -1,12 +1,17 @@
 package biweekly.io;
 
 import static biweekly.ICalVersion.V2_0;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -15,6 +20,7 @@ import biweekly.ICalVersion;
 import biweekly.ICalendar;
 import biweekly.component.ICalComponent;
 import biweekly.component.VEvent;
+import biweekly.component.VTimezone;
 import biweekly.property.ICalProperty;
 
 /*
@@ -106,7 +112,35 @@ public class StreamWriterTest {
 		verify(writer)._write(ical);
 	}
 
+	@Test
+	public void addTimezoneComponents() throws Exception {
+		TimeZone tz = TimeZone.getTimeZone("America/New_York");
+		VTimezone newYork = new VTimezone("America/New_York");
+		VTimezone newYorkCopy = new VTimezone("America/New_York");
+		VTimezone berlin = new VTimezone("Europe/Berlin");
+		VTimezone london = new VTimezone("Europe/London");
+
+		VEvent event = new VEvent();
+		ical.addEvent(event);
+		ical.addComponent(newYork);
+		ical.addComponent(berlin);
+		ical.getTimezoneInfo().setDefaultTimezone(new TimezoneAssignment(tz, newYork));
+		ical.getTimezoneInfo().getTimezones().add(new TimezoneAssignment(tz, newYorkCopy));
+		ical.getTimezoneInfo().getTimezones().add(new TimezoneAssignment(tz, london));
+
+		writer.write(ical);
+
+		List<Object> subComponents = writer.subComponents;
+		assertEquals(4, subComponents.size());
+		assertSame(london, subComponents.get(0));
+		assertSame(event, subComponents.get(1));
+		assertSame(newYork, subComponents.get(2));
+		assertSame(berlin, subComponents.get(3));
+	}
+
 	private class StreamWriterImpl extends StreamWriter {
+		private List<Object> subComponents;
+
 		@Override
 		protected ICalVersion getTargetVersion() {
 			return V2_0;
@@ -114,7 +148,8 @@ public class StreamWriterTest {
 
 		@Override
 		protected void _write(ICalendar ical) throws IOException {
-			//empty
+			subComponents = new ArrayList<Object>(ical.getComponents().values());
+			addTimezoneComponents(subComponents);
 		}
 
 		public void close() throws IOException {
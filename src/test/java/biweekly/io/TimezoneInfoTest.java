@@ -3,13 +3,18 @@ package biweekly.io;
 import static biweekly.util.TestUtils.assertCollectionContains;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Iterator;
 import java.util.TimeZone;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import biweekly.component.ICalComponent;
+import biweekly.component.VEvent;
 import biweekly.component.VTimezone;
 import biweekly.property.ICalProperty;
 import biweekly.util.TestUtils;
@@ -164,6 +169,104 @@ public class TimezoneInfoTest {
 		assertFalse(tzinfo.isFloating(property));
 	}
 
+	@Test
+	public void getTimezoneById() {
+		TimezoneAssignment timezone1 = new TimezoneAssignment(TimeZone.getDefault(), new VTimezone("one"));
+		TimezoneAssignment timezone2 = new TimezoneAssignment(TimeZone.getDefault(), new VTimezone("two"));
+		TimezoneAssignment timezone3 = new TimezoneAssignment(TimeZone.getDefault(), "America/New_York");
+		tzinfo.getTimezones().add(timezone1);
+		tzinfo.getTimezones().add(timezone2);
+		tzinfo.getTimezones().add(timezone3);
+
+		assertSame(timezone1, tzinfo.getTimezoneById("one"));
+		assertSame(timezone2, tzinfo.getTimezoneById("two"));
+		assertNull(tzinfo.getTimezoneById("America/New_York"));
+		assertNull(tzinfo.getTimezoneById("three"));
+
+		tzinfo.getTimezones().remove(timezone1);
+		assertNull(tzinfo.getTimezoneById("one"));
+
+		Iterator<TimezoneAssignment> it = tzinfo.getTimezones().iterator();
+		while (it.hasNext()) {
+			if (it.next() == timezone2) {
+				it.remove();
+			}
+		}
+		assertNull(tzinfo.getTimezoneById("two"));
+
+		tzinfo.getTimezones().add(timezone1);
+		assertSame(timezone1, tzinfo.getTimezoneById("one"));
+		tzinfo.getTimezones().clear();
+		assertNull(tzinfo.getTimezoneById("one"));
+	}
+
+	@Test
+	public void getTimezoneById_duplicate_ids() {
+		TimezoneAssignment timezone1 = new TimezoneAssignment(TimeZone.getDefault(), new VTimezone("tz"));
+		TimezoneAssignment timezone2 = new TimezoneAssignment(TimeZone.getDefault(), new VTimezone("tz"));
+		tzinfo.getTimezones().add(timezone1);
+		tzinfo.getTimezones().add(timezone2);
+		assertSame(timezone1, tzinfo.getTimezoneById("tz"));
+
+		tzinfo.getTimezones().remove(timezone1);
+		assertSame(timezone2, tzinfo.getTimezoneById("tz"));
+	}
+
+	@Test
+	public void getTimezoneById_id_modified() {
+		VTimezone component = new VTimezone("one");
+		TimezoneAssignment timezone = new TimezoneAssignment(TimeZone.getDefault(), component);
+		tzinfo.getTimezones().add(timezone);
+		assertSame(timezone, tzinfo.getTimezoneById("one"));
+
+		component.setTimezoneId("two");
+		assertNull(tzinfo.getTimezoneById("one"));
+		assertSame(timezone, tzinfo.getTimezoneById("two"));
+	}
+
+	@Test
+	public void componentTimezone() {
+		ICalComponent event1 = new VEvent();
+		ICalComponent event2 = new VEvent();
+		ICalProperty property1 = new ICalPropertyImpl();
+		ICalProperty property2 = new ICalPropertyImpl();
+		ICalProperty property3 = new ICalPropertyImpl();
+
+		TimezoneAssignment defaultTimezone = new TimezoneAssignment(TimeZone.getDefault(), new VTimezone("default"));
+		TimezoneAssignment timezone1 = new TimezoneAssignment(TestUtils.buildTimezone(1, 0), new VTimezone("custom"));
+		TimezoneAssignment timezone2 = new TimezoneAssignment(TestUtils.buildTimezone(2, 0), new VTimezone("custom2"));
+
+		tzinfo.setDefaultTimezone(defaultTimezone);
+		tzinfo.setComponentTimezone(event1, timezone1);
+		tzinfo.setTimezone(property2, timezone2);
+		tzinfo.setFloating(property3, true);
+		assertCollectionContains(tzinfo.getTimezones(), defaultTimezone, timezone1, timezone2);
+
+		assertSame(timezone1, tzinfo.getComponentTimezone(event1));
+		assertNull(tzinfo.getComponentTimezone(event2));
+
+		assertSame(timezone1, tzinfo.getTimezoneToWriteIn(property1, event1));
+		assertSame(timezone2, tzinfo.getTimezoneToWriteIn(property2, event1));
+		assertSame(defaultTimezone, tzinfo.getTimezoneToWriteIn(property1, event2));
+		assertSame(defaultTimezone, tzinfo.getTimezoneToWriteIn(property1));
+
+		assertFalse(tzinfo.isFloating(property1, event1));
+		assertTrue(tzinfo.isFloating(property3, event1));
+		tzinfo.setGlobalFloatingTime(true);
+		assertFalse(tzinfo.isFloating(property1, event1));
+		assertTrue(tzinfo.isFloating(property1, event2));
+		tzinfo.setGlobalFloatingTime(false);
+
+		tzinfo.setComponentTimezone(event1, null);
+		assertNull(tzinfo.getComponentTimezone(event1));
+		assertSame(defaultTimezone, tzinfo.getTimezoneToWriteIn(property1, event1));
+		assertCollectionContains(tzinfo.getTimezones(), defaultTimezone, timezone2);
+
+		tzinfo.setComponentTimezone(event1, timezone1);
+		tzinfo.getTimezones().remove(timezone1);
+		assertNull(tzinfo.getComponentTimezone(event1));
+	}
+
 	private class ICalPropertyImpl extends ICalProperty {
 		//empty
 	}
@@ -0,0 +1,114 @@
+package biweekly.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.After;
+import org.junit.Test;
+
+import biweekly.component.StandardTime;
+import biweekly.component.VTimezone;
+import biweekly.util.DateTimeComponents;
+import biweekly.util.UtcOffset;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class TimezoneRegistryTest {
+	@After
+	public void after() {
+		TimezoneRegistry.clear();
+	}
+
+	@Test
+	public void intern() {
+		VTimezone component1 = create("tz", 10);
+		VTimezone component2 = create("tz", 10);
+		VTimezone component3 = create("tz", 9);
+		VTimezone component4 = create("other", 10);
+
+		TimezoneAssignment assignment1 = TimezoneRegistry.intern(component1);
+		assertSame(component1, assignment1.getComponent());
+
+		TimezoneAssignment assignment2 = TimezoneRegistry.intern(component2);
+		assertSame(assignment1, assignment2);
+		assertSame(component1, assignment2.getComponent());
+
+		TimezoneAssignment assignment3 = TimezoneRegistry.intern(component3);
+		assertNotSame(assignment1, assignment3);
+		assertSame(component3, assignment3.getComponent());
+
+		TimezoneAssignment assignment4 = TimezoneRegistry.intern(component4);
+		assertNotSame(assignment1, assignment4);
+		assertEquals(3, TimezoneRegistry.size());
+
+		assertEquals(10 * 60 * 60 * 1000, assignment1.getTimeZone().getRawOffset());
+		assertEquals(9 * 60 * 60 * 1000, assignment3.getTimeZone().getRawOffset());
+	}
+
+	@Test
+	public void intern_modified() {
+		VTimezone component1 = create("tz", 10);
+		TimezoneAssignment assignment1 = TimezoneRegistry.intern(component1);
+
+		//modifying the original component does not change the registry key
+		component1.getStandardTimes().get(0).setTimezoneOffsetTo(new UtcOffset(true, 5, 0));
+		VTimezone component5 = create("tz", 5);
+		TimezoneAssignment assignment5 = TimezoneRegistry.intern(component5);
+		assertNotSame(assignment1, assignment5);
+		assertSame(component5, assignment5.getComponent());
+
+		//the modified component is no longer handed out
+		VTimezone component10 = create("tz", 10);
+		TimezoneAssignment assignment10 = TimezoneRegistry.intern(component10);
+		assertNotSame(assignment1, assignment10);
+		assertSame(component10, assignment10.getComponent());
+		assertSame(assignment10, TimezoneRegistry.intern(create("tz", 10)));
+		assertEquals(2, TimezoneRegistry.size());
+	}
+
+	@Test
+	public void clear() {
+		VTimezone component = create("tz", 10);
+		TimezoneAssignment assignment = TimezoneRegistry.intern(component);
+		TimezoneRegistry.clear();
+		assertEquals(0, TimezoneRegistry.size());
+		assertNotSame(assignment, TimezoneRegistry.intern(create("tz", 10)));
+	}
+
+	private static VTimezone create(String id, int offset) {
+		VTimezone component = new VTimezone(id);
+		StandardTime standard = new StandardTime();
+		standard.setDateStart(new DateTimeComponents(2000, 1, 1, 0, 0, 0, false));
+		standard.setTimezoneOffsetFrom(new UtcOffset(true, offset, 0));
+		standard.setTimezoneOffsetTo(new UtcOffset(true, offset, 0));
+		component.addStandardTime(standard);
+		return component;
+	}
+}
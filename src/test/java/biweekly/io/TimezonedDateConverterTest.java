@@ -0,0 +1,239 @@
+package biweekly.io;
+
+import static biweekly.util.TestUtils.utc;
+import static biweekly.util.TestUtils.vtimezoneNewYork;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import biweekly.component.VTimezone;
+import biweekly.io.ParseContext.TimezonedDate;
+import biweekly.io.text.ICalReader;
+import biweekly.util.DateTimeComponents;
+import biweekly.util.ICalDate;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class TimezonedDateConverterTest {
+	@Test
+	public void convert() {
+		TimeZone timezone = new ICalTimeZone(vtimezoneNewYork());
+		List<TimezonedDate> dates = dates();
+
+		TimezonedDateConverter.convert(dates, timezone);
+		assertConverted(dates, TimeZone.getTimeZone("America/New_York"));
+	}
+
+	@Test
+	public void convert_java_timezone() {
+		TimeZone timezone = TimeZone.getTimeZone("Europe/Paris");
+		List<TimezonedDate> dates = dates();
+
+		TimezonedDateConverter.convert(dates, timezone);
+		assertConverted(dates, timezone);
+	}
+
+	@Test
+	public void convert_half_hour_dst() throws Exception {
+		TimeZone timezone = new ICalTimeZone(vtimezoneLordHowe());
+		TimeZone expectedTimezone = TimeZone.getTimeZone("Australia/Lord_Howe");
+
+		List<TimezonedDate> dates = new ArrayList<TimezonedDate>();
+		Calendar local = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		local.clear();
+		local.set(2009, Calendar.JANUARY, 1);
+		while (local.get(Calendar.YEAR) < 2021) {
+			dates.add(date(local.get(Calendar.YEAR), local.get(Calendar.MONTH) + 1, local.get(Calendar.DATE), local.get(Calendar.HOUR_OF_DAY), local.get(Calendar.MINUTE), 0));
+			local.add(Calendar.MINUTE, 15);
+		}
+
+		//converted using the Calendar class, but with the same offsets
+		dates.add(date(2014, 10, 5, 1, 75, 0)); //skipped
+		dates.add(date(2014, 4, 6, 0, 105, 0)); //repeated
+
+		TimezonedDateConverter.convert(dates, timezone);
+		assertConverted(dates, expectedTimezone);
+
+		assertEquals(utc("2014-10-04 15:45:00").getTime(), dates.get(dates.size() - 2).getDate().getTime());
+		assertEquals(utc("2014-04-05 15:15:00").getTime(), dates.get(dates.size() - 1).getDate().getTime());
+
+		/*
+		 * Passing the timezone to a Calendar object gives a different result
+		 * for daylight time, because Calendar assumes that daylight time is
+		 * always one hour ahead of standard time.
+		 */
+		TimezonedDate summer = date(2015, 1, 1, 12, 0, 0);
+		TimezonedDateConverter.convert(Arrays.asList(summer), timezone);
+		assertEquals(utc("2015-01-01 01:00:00").getTime(), summer.getDate().getTime());
+		assertEquals(utc("2015-01-01 00:30:00").getTime(), summer.getDate().getRawComponents().toDate(Calendar.getInstance(timezone)).getTime());
+	}
+
+	@Test
+	public void convert_executor_interrupted() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.submit(new Callable<Void>() {
+			public Void call() throws Exception {
+				latch.await();
+				return null;
+			}
+		});
+
+		TimeZone timezone = new ICalTimeZone(vtimezoneNewYork());
+		List<TimezonedDate> dates1 = dates();
+		List<TimezonedDate> dates2 = dates();
+		TimezonedDateConverter converter = new TimezonedDateConverter();
+		converter.add(dates1, timezone);
+		converter.add(dates2, timezone);
+		for (List<TimezonedDate> dates : Arrays.asList(dates1, dates2)) {
+			for (TimezonedDate date : dates) {
+				date.getDate().setTime(0);
+			}
+		}
+
+		Thread.currentThread().interrupt();
+		try {
+			converter.convert(executor);
+			fail();
+		} catch (InterruptedException e) {
+			//expected
+		} finally {
+			latch.countDown();
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		//the queued groups were cancelled, not converted
+		assertFalse(Thread.interrupted());
+		for (List<TimezonedDate> dates : Arrays.asList(dates1, dates2)) {
+			for (TimezonedDate date : dates) {
+				assertEquals(0, date.getDate().getTime());
+			}
+		}
+	}
+
+	@Test
+	public void convert_executor() throws Exception {
+		TimeZone timezone1 = new ICalTimeZone(vtimezoneNewYork());
+		TimeZone timezone2 = TimeZone.getTimeZone("Europe/Paris");
+		List<TimezonedDate> dates1 = dates();
+		List<TimezonedDate> dates2 = dates();
+
+		TimezonedDateConverter converter = new TimezonedDateConverter();
+		converter.add(dates1, timezone1);
+		converter.add(dates2, timezone2);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			converter.convert(executor);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertConverted(dates1, TimeZone.getTimeZone("America/New_York"));
+		assertConverted(dates2, timezone2);
+	}
+
+	private static List<TimezonedDate> dates() {
+		List<TimezonedDate> dates = new ArrayList<TimezonedDate>();
+		dates.add(date(2014, 11, 2, 1, 30, 0));
+		dates.add(date(2014, 3, 9, 2, 30, 0));
+		dates.add(date(2014, 7, 4, 12, 0, 0));
+		dates.add(date(1990, 1, 1, 0, 0, 0));
+
+		//converted using the Calendar class
+		dates.add(date(2014, 2, 30, 12, 0, 0));
+		dates.add(date(2014, 12, 31, 23, 59, 60));
+		return dates;
+	}
+
+	private static VTimezone vtimezoneLordHowe() throws IOException {
+		//@formatter:off
+		String ical =
+		"BEGIN:VCALENDAR\r\n" +
+			"BEGIN:VTIMEZONE\r\n" +
+				"TZID:Australia/Lord_Howe\r\n" +
+				"BEGIN:STANDARD\r\n" +
+					"DTSTART:20080406T020000\r\n" +
+					"RRULE:FREQ=YEARLY;BYMONTH=4;BYDAY=1SU\r\n" +
+					"TZOFFSETFROM:+1100\r\n" +
+					"TZOFFSETTO:+1030\r\n" +
+				"END:STANDARD\r\n" +
+				"BEGIN:DAYLIGHT\r\n" +
+					"DTSTART:20081005T020000\r\n" +
+					"RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=1SU\r\n" +
+					"TZOFFSETFROM:+1030\r\n" +
+					"TZOFFSETTO:+1100\r\n" +
+				"END:DAYLIGHT\r\n" +
+			"END:VTIMEZONE\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalReader reader = new ICalReader(ical);
+		try {
+			return reader.readNext().getTimezoneInfo().getComponents().iterator().next();
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static TimezonedDate date(int year, int month, int date, int hour, int minute, int second) {
+		DateTimeComponents components = new DateTimeComponents(year, month, date, hour, minute, second, false);
+		return new TimezonedDate(new ICalDate(components, true), null);
+	}
+
+	/**
+	 * Asserts that the dates were converted the same way the Calendar class
+	 * converts them.
+	 * @param dates the dates
+	 * @param expectedTimezone the timezone to pass to the Calendar class
+	 */
+	private static void assertConverted(List<TimezonedDate> dates, TimeZone expectedTimezone) {
+		Calendar cal = Calendar.getInstance(expectedTimezone);
+		for (TimezonedDate timezonedDate : dates) {
+			ICalDate date = timezonedDate.getDate();
+			DateTimeComponents components = date.getRawComponents();
+			assertEquals(components.toString(), components.toDate(cal).getTime(), date.getTime());
+		}
+	}
+}
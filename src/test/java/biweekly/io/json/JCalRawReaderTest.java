@@ -1173,6 +1173,10 @@ public class JCalRawReaderTest {
 			readComponent_(parentHierarchy, name);
 		}
 
+		public void endComponent(List<String> parentHierarchy, String name) {
+			//empty
+		}
+
 		protected abstract void readProperty_(List<String> componentHierarchy, String name, ICalParameters parameters, ICalDataType dataType, JCalValue value);
 
 		protected abstract void readComponent_(List<String> parentHierarchy, String name);
@@ -144,6 +144,64 @@ public class JCalReaderTest {
 		assertParseWarnings(reader);
 	}
 
+	@Test
+	public void read_sibling_components() throws Throwable {
+		//@formatter:off
+		String json =
+		"[\"vcalendar\"," +
+			"[" +
+			"]," +
+			"[" +
+				"[\"vevent\"," +
+					"[" +
+						"[\"summary\", {}, \"text\", \"one\"]" +
+					"]," +
+					"[" +
+						"[\"valarm\"," +
+							"[" +
+								"[\"description\", {}, \"text\", \"alarm one\"]" +
+							"]," +
+							"[" +
+							"]" +
+						"]" +
+					"]" +
+				"]," +
+				"[\"vevent\"," +
+					"[" +
+						"[\"summary\", {}, \"text\", \"two\"]" +
+					"]," +
+					"[" +
+						"[\"valarm\"," +
+							"[" +
+								"[\"description\", {}, \"text\", \"alarm two\"]" +
+							"]," +
+							"[" +
+							"]" +
+						"]" +
+					"]" +
+				"]" +
+			"]" +
+		"]";
+		//@formatter:on
+
+		JCalReader reader = new JCalReader(json);
+		ICalendar ical = reader.readNext();
+		assertSize(ical, 2, 0);
+
+		VEvent event = ical.getEvents().get(0);
+		assertSize(event, 1, 1);
+		assertEquals("one", event.getSummary().getValue());
+		assertEquals("alarm one", event.getAlarms().get(0).getDescription().getValue());
+
+		event = ical.getEvents().get(1);
+		assertSize(event, 1, 1);
+		assertEquals("two", event.getSummary().getValue());
+		assertEquals("alarm two", event.getAlarms().get(0).getDescription().getValue());
+
+		assertNull(reader.readNext());
+		assertParseWarnings(reader);
+	}
+
 	@Test
 	public void read_multiple() throws Throwable {
 		//@formatter:off
@@ -5,8 +5,11 @@ import static biweekly.ICalVersion.V2_0;
 import static biweekly.ICalVersion.V2_0_DEPRECATED;
 import static biweekly.util.TestUtils.each;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import javax.xml.namespace.QName;
 
@@ -212,6 +215,57 @@ public class ScribeIndexTest {
 		assertNull(scribe);
 	}
 
+	@Test
+	public void getScribe_case_insensitive() {
+		assertTrue(index.getComponentScribe("vevent", V2_0) instanceof VEventScribe);
+		assertTrue(index.getPropertyScribe("uId", V2_0) instanceof UidScribe);
+		assertTrue(index.getPropertyScribe("dcreated", V1_0) instanceof CreatedScribe);
+
+		ICalPropertyScribe<? extends ICalProperty> scribe = index.getPropertyScribe("x-foo", V2_0);
+		assertTrue(scribe instanceof RawPropertyScribe);
+		assertEquals("X-FOO", scribe.getPropertyName(V2_0));
+	}
+
+	@Test
+	public void freeze() {
+		ICalComponentScribe<? extends ICalComponent> customComponentScribe = new ICalComponentImplScribe();
+		ICalPropertyScribe<? extends ICalProperty> customPropertyScribe = new ICalPropertyImplScribe();
+		index.register(customComponentScribe);
+		index.register(customPropertyScribe);
+		assertFalse(index.isFrozen());
+
+		ScribeIndex frozen = index.freeze();
+		assertTrue(frozen.isFrozen());
+		assertSame(frozen, frozen.freeze());
+
+		//changes to the original index are not reflected in the copy
+		index.unregister(customComponentScribe);
+		index.unregister(customPropertyScribe);
+
+		assertSame(customComponentScribe, frozen.getComponentScribe(ICalComponentImpl.class));
+		assertSame(customPropertyScribe, frozen.getPropertyScribe(ICalPropertyImpl.class));
+		assertSame(customPropertyScribe, frozen.getPropertyScribe("", V2_0));
+		assertTrue(frozen.getComponentScribe("vevent", V2_0) instanceof VEventScribe);
+		assertTrue(frozen.getComponentScribe("VFREEBUSY", V1_0) instanceof RawComponentScribe);
+		assertTrue(frozen.getPropertyScribe("UID", V1_0) instanceof UidScribe);
+		assertTrue(frozen.getPropertyScribe("DAYLIGHT", V2_0) instanceof RawPropertyScribe);
+		assertTrue(frozen.getPropertyScribe(Uid.class) instanceof UidScribe);
+		assertTrue(frozen.getPropertyScribe(new QName(XCalNamespaceContext.XCAL_NS, "uid")) instanceof UidScribe);
+
+		try {
+			frozen.register(customPropertyScribe);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//expected
+		}
+		try {
+			frozen.unregister(customComponentScribe);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//expected
+		}
+	}
+
 	private class ICalComponentImpl extends ICalComponent {
 		//empty
 	}
@@ -6,6 +6,7 @@ import static biweekly.util.TestUtils.date;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Date;
 import java.util.SimpleTimeZone;
@@ -63,6 +64,26 @@ public class ICalPropertyScribeTest extends ScribeTest<TestProperty> {
 		super(new ICalPropertyMarshallerImpl());
 	}
 
+	@Test
+	public void isXmlStreamable() {
+		assertFalse(scribe.isXmlStreamable());
+
+		//@formatter:off
+		ICalPropertyScribe<?>[] builtIn = {
+			new AttachmentScribe(), new AttendeeScribe(), new CategoriesScribe(),
+			new DateStartScribe(), new DateTimeStampScribe(), new DaylightScribe(),
+			new DurationPropertyScribe(), new ExceptionDatesScribe(), new FreeBusyScribe(),
+			new GeoScribe(), new ImageScribe(), new OrganizerScribe(),
+			new PriorityScribe(), new RecurrenceRuleScribe(), new RecurrenceDatesScribe(),
+			new RequestStatusScribe(), new SummaryScribe(), new TimezoneOffsetToScribe(),
+			new TriggerScribe(), new AudioAlarmScribe(), new VersionScribe()
+		};
+		//@formatter:on
+		for (ICalPropertyScribe<?> builtInScribe : builtIn) {
+			assertTrue(builtInScribe.getClass().getName(), builtInScribe.isXmlStreamable());
+		}
+	}
+
 	@Test
 	public void DateParser_timezone() {
 		String value = "20130611T134302Z";
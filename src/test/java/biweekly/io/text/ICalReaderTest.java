@@ -11,6 +11,7 @@ import static biweekly.util.TestUtils.assertValidate;
 import static biweekly.util.TestUtils.assertVersion;
 import static biweekly.util.TestUtils.date;
 import static biweekly.util.TestUtils.utc;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -18,6 +19,10 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -40,6 +45,7 @@ import biweekly.component.VFreeBusy;
 import biweekly.component.VJournal;
 import biweekly.component.VTimezone;
 import biweekly.component.VTodo;
+import biweekly.io.BinaryDataMode;
 import biweekly.io.ICalTimeZone;
 import biweekly.io.ParseContext;
 import biweekly.io.ParseWarning;
@@ -152,6 +158,55 @@ public class ICalReaderTest {
 		assertNull(reader.readNext());
 	}
 
+	@Test
+	public void binaryDataMode() throws Throwable {
+		//@formatter:off
+		String ical =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"ATTACH;FMTTYPE=text/plain;ENCODING=BASE64;VALUE=BINARY:ZGF0YQ==\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		{
+			ICalReader reader = new ICalReader(ical);
+			assertEquals(BinaryDataMode.DECODE, reader.getBinaryDataMode());
+
+			Attachment attach = reader.readNext().getProperty(Attachment.class);
+			assertNull(attach.getEncodedData());
+			assertArrayEquals("data".getBytes(), attach.getData());
+			assertParseWarnings(reader);
+		}
+
+		{
+			ICalReader reader = new ICalReader(ical);
+			reader.setBinaryDataMode(BinaryDataMode.LAZY);
+
+			Attachment attach = reader.readNext().getProperty(Attachment.class);
+			assertEquals("text/plain", attach.getFormatType());
+			assertEquals("ZGF0YQ==", attach.getEncodedData());
+			assertTrue(attach.hasData());
+
+			assertArrayEquals("data".getBytes(), attach.getData());
+			assertNull(attach.getEncodedData());
+			assertParseWarnings(reader);
+		}
+
+		{
+			ICalReader reader = new ICalReader(ical);
+			reader.setBinaryDataMode(BinaryDataMode.SKIP);
+
+			Attachment attach = reader.readNext().getProperty(Attachment.class);
+			assertEquals("text/plain", attach.getFormatType());
+			assertFalse(attach.hasData());
+			assertNull(attach.getData());
+			assertParseWarnings(reader);
+
+			//the property has no value, so it does not validate
+			assertValidate(attach).run(26);
+		}
+	}
+
 	@Test
 	public void read_multiple() throws Throwable {
 		//@formatter:off
@@ -205,6 +260,181 @@ public class ICalReaderTest {
 		assertNull(reader.readNext());
 	}
 
+	@Test
+	public void readNextComponent() throws Throwable {
+		//@formatter:off
+		String ical =
+		"BEGIN:VCALENDAR\r\n" +
+			"PRODID:prodid\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"SUMMARY:event 1\r\n" +
+				"BEGIN:VALARM\r\n" +
+					"ACTION:DISPLAY\r\n" +
+				"END:VALARM\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VTODO\r\n" +
+				"SUMMARY:todo\r\n" +
+			"END:VTODO\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"SUMMARY:event 2\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n" +
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"SUMMARY:event 3\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalReader reader = new ICalReader(ical);
+
+		VEvent event = reader.readNextComponent(VEvent.class);
+		assertSize(event, 1, 1);
+		assertEquals("event 1", event.getSummary().getValue());
+		assertEquals(1, event.getAlarms().size());
+		assertParseWarnings(reader);
+
+		event = reader.readNextComponent(VEvent.class);
+		assertSize(event, 0, 1);
+		assertEquals("event 2", event.getSummary().getValue());
+		assertParseWarnings(reader);
+
+		event = reader.readNextComponent(VEvent.class);
+		assertSize(event, 0, 1);
+		assertEquals("event 3", event.getSummary().getValue());
+		assertParseWarnings(reader);
+
+		assertNull(reader.readNextComponent(VEvent.class));
+		assertNull(reader.readNextComponent(VEvent.class));
+		assertNull(reader.getComponentTimezoneInfo());
+	}
+
+	@Test
+	public void readNextComponent_timezones() throws Throwable {
+		//@formatter:off
+		String ical =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"SUMMARY:event 1\r\n" +
+				"DTSTART;TZID=Custom:20130610T120000\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"SUMMARY:event 2\r\n" +
+				"DTSTART:20130610T120000\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VTIMEZONE\r\n" +
+				"TZID:Custom\r\n" +
+				"BEGIN:STANDARD\r\n" +
+					"DTSTART:19700101T000000\r\n" +
+					"TZOFFSETFROM:-0500\r\n" +
+					"TZOFFSETTO:-0500\r\n" +
+				"END:STANDARD\r\n" +
+			"END:VTIMEZONE\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"SUMMARY:event 3\r\n" +
+				"DTSTART;TZID=America/New_York:20130610T120000\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalReader reader = new ICalReader(ical);
+
+		//event is held back until the VTIMEZONE component is read
+		VEvent event = reader.readNextComponent(VEvent.class);
+		assertEquals("event 1", event.getSummary().getValue());
+		assertEquals(utc("2013-06-10 17:00:00"), event.getDateStart().getValue());
+		TimezoneInfo tzinfo = reader.getComponentTimezoneInfo();
+		assertEquals("Custom", tzinfo.getTimezone(event.getDateStart()).getComponent().getTimezoneId().getValue());
+		assertParseWarnings(reader);
+
+		event = reader.readNextComponent(VEvent.class);
+		assertEquals("event 2", event.getSummary().getValue());
+		tzinfo = reader.getComponentTimezoneInfo();
+		assertTrue(tzinfo.isFloating(event.getDateStart()));
+		assertParseWarnings(reader);
+
+		event = reader.readNextComponent(VEvent.class);
+		assertEquals("event 3", event.getSummary().getValue());
+		assertEquals(utc("2013-06-10 16:00:00"), event.getDateStart().getValue());
+		assertParseWarnings(reader, 37);
+
+		assertNull(reader.readNextComponent(VEvent.class));
+
+		reader = new ICalReader(ical);
+		VTimezone timezone = reader.readNextComponent(VTimezone.class);
+		assertEquals("Custom", timezone.getTimezoneId().getValue());
+		assertNull(reader.readNextComponent(VTimezone.class));
+	}
+
+	@Test
+	public void readNextComponent_undefined_timezone() throws Throwable {
+		int events = 5000;
+		StringBuilder sb = new StringBuilder();
+		sb.append("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n");
+		for (int i = 0; i < events; i++) {
+			sb.append("BEGIN:VEVENT\r\n");
+			sb.append("SUMMARY:event ").append(i).append("\r\n");
+			sb.append("DTSTART;TZID=Undefined:20130610T120000\r\n");
+			sb.append("END:VEVENT\r\n");
+		}
+		sb.append("END:VCALENDAR\r\n");
+		final String ical = sb.toString();
+
+		final int[] charsRead = { 0 };
+		Reader in = new FilterReader(new StringReader(ical)) {
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				int read = super.read(cbuf, off, len);
+				if (read > 0) {
+					charsRead[0] += read;
+				}
+				return read;
+			}
+		};
+
+		ICalReader reader = new ICalReader(in);
+		reader.setMaxPendingComponents(10);
+
+		//the first event is released once the limit is exceeded, not at the end of the VCALENDAR component
+		VEvent event = reader.readNextComponent(VEvent.class);
+		assertEquals("event 0", event.getSummary().getValue());
+		assertTrue(charsRead[0] < ical.length() / 2);
+		assertParseWarnings(reader, 38);
+
+		for (int i = 1; i < events; i++) {
+			event = reader.readNextComponent(VEvent.class);
+			assertEquals("event " + i, event.getSummary().getValue());
+		}
+		assertNull(reader.readNextComponent(VEvent.class));
+		reader.close();
+	}
+
+	@Test
+	public void readNextComponent_olsen_id() throws Throwable {
+		//@formatter:off
+		String ical =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"DTSTART;TZID=America/New_York:20130610T120000\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		ICalReader reader = new ICalReader(ical);
+
+		VEvent event = reader.readNextComponent(VEvent.class);
+		assertEquals(utc("2013-06-10 16:00:00"), event.getDateStart().getValue());
+		TimezoneInfo tzinfo = reader.getComponentTimezoneInfo();
+		assertEquals("America/New_York", tzinfo.getTimezone(event.getDateStart()).getTimeZone().getID());
+		assertParseWarnings(reader, 37);
+
+		assertNull(reader.readNextComponent(VEvent.class));
+	}
+
 	@Test
 	public void unrecognized_version_number() throws Throwable {
 		//@formatter:off
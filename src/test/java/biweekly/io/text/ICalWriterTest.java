@@ -9,8 +9,12 @@ import static biweekly.util.TestUtils.date;
 import static biweekly.util.TestUtils.each;
 import static biweekly.util.TestUtils.utc;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.TimeZone;
@@ -225,6 +229,34 @@ public class ICalWriterTest {
 		writer.write(ical);
 	}
 
+	@Test
+	public void no_property_marshaller_partial_output() throws Exception {
+		ICalendar ical = new ICalendar();
+		VEvent event = new VEvent();
+		event.setSummary("one");
+		event.addProperty(new TestProperty("value"));
+		ical.addEvent(event);
+
+		StringWriter sw = new StringWriter();
+		ICalWriter writer = new ICalWriter(sw, V2_0);
+		try {
+			writer.write(ical);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+		writer.flush();
+
+		//everything before the property has been written
+		String actual = sw.toString();
+		assertTrue(actual.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+		assertTrue(actual.contains("BEGIN:VEVENT\r\n"));
+		assertTrue(actual.contains("SUMMARY:one\r\n"));
+		assertFalse(actual.contains("X-TEST"));
+		assertFalse(actual.contains("END:VEVENT"));
+		assertFalse(actual.contains("END:VCALENDAR"));
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void no_component_marshaller() throws Exception {
 		ICalendar ical = new ICalendar();
@@ -420,6 +452,44 @@ public class ICalWriterTest {
 		assertRegex(expected, actual);
 	}
 
+	@Test
+	public void attachment_file() throws Exception {
+		byte[] data = new byte[20000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+
+		File file = tempFolder.newFile();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(data);
+		} finally {
+			out.close();
+		}
+
+		for (ICalVersion version : each(V2_0, V1_0)) {
+			ICalendar ical = new ICalendar();
+			ical.getProperties().clear();
+			ical.addProperty(new Attachment("image/png", data));
+			StringWriter expected = new StringWriter();
+			ICalWriter writer = new ICalWriter(expected, version);
+			writer.write(ical);
+			writer.close();
+
+			ical = new ICalendar();
+			ical.getProperties().clear();
+			Attachment attachment = new Attachment("image/png", (byte[]) null);
+			attachment.setFile(file);
+			ical.addProperty(attachment);
+			StringWriter actual = new StringWriter();
+			writer = new ICalWriter(actual, version);
+			writer.write(ical);
+			writer.close();
+
+			assertEquals(expected.toString(), actual.toString());
+		}
+	}
+
 	@Test
 	public void utf8() throws Exception {
 		ICalendar ical = new ICalendar();
@@ -661,6 +731,70 @@ public class ICalWriterTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void vcal_timezone_track_date_range_only() throws Throwable {
+		ICalendar ical = new ICalendar();
+		ical.getProperties().clear();
+		ical.addProperty(new DateStart(utc("2014-01-07 09:34:00")));
+		ical.addProperty(new DateStart(utc("2015-10-07 09:34:00")));
+
+		StringWriter sw = new StringWriter();
+		ICalWriter writer = new ICalWriter(sw, V1_0);
+		writer.setTrackDateRangeOnly(true);
+		ical.setTimezoneInfo(americaNewYork());
+		writer.write(ical);
+		writer.close();
+
+		//the daylight savings period in between the two dates is included
+		//@formatter:off
+		String expected = 
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:1.0\r\n" +
+			"DTSTART:20140107T043400\r\n" +
+			"DTSTART:20151007T053400\r\n" +
+			"TZ:-0500\r\n" +
+			"DAYLIGHT:TRUE;-0400;20140309T020000;20141102T020000;EST;EDT\r\n" +
+			"DAYLIGHT:TRUE;-0400;20150308T020000;20151101T020000;EST;EDT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		String actual = sw.toString();
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void vcal_timezone_daylight_range() throws Throwable {
+		ICalendar ical = new ICalendar();
+		ical.getProperties().clear();
+		VEvent event = new VEvent();
+		event.getProperties().clear();
+		event.setDateStart(utc("2014-10-07 09:34:00"));
+		ical.addEvent(event);
+
+		StringWriter sw = new StringWriter();
+		ICalWriter writer = new ICalWriter(sw, V1_0);
+		writer.setDaylightRange(utc("2014-01-01 00:00:00"), utc("2015-12-31 00:00:00"));
+		ical.setTimezoneInfo(americaNewYork());
+		writer.write(ical);
+		writer.close();
+
+		//@formatter:off
+		String expected = 
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:1.0\r\n" +
+			"TZ:-0500\r\n" +
+			"DAYLIGHT:TRUE;-0400;20140309T020000;20141102T020000;EST;EDT\r\n" +
+			"DAYLIGHT:TRUE;-0400;20150308T020000;20151101T020000;EST;EDT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"DTSTART:20141007T053400\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		String actual = sw.toString();
+		assertEquals(expected, actual);
+	}
+
 	@Test
 	public void vcal_Organizer_to_Attendee() throws Throwable {
 		ICalendar ical = new ICalendar();
@@ -804,6 +938,50 @@ public class ICalWriterTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void component_timezone() throws Throwable {
+		ICalendar ical = new ICalendar();
+		ical.getProperties().clear();
+
+		VEvent event1 = new VEvent();
+		event1.getProperties().clear();
+		event1.setDateStart(utc("1996-07-04 12:00:00"));
+		ical.addEvent(event1);
+
+		VEvent event2 = new VEvent();
+		event2.getProperties().clear();
+		event2.setDateStart(utc("1996-07-04 12:00:00"));
+		ical.addEvent(event2);
+
+		TimeZone nyTimezone = TimeZone.getTimeZone("America/New_York");
+		VTimezone nyComponent = new VTimezone(nyTimezone.getID());
+		ical.getTimezoneInfo().setComponentTimezone(event1, new TimezoneAssignment(nyTimezone, nyComponent));
+
+		StringWriter sw = new StringWriter();
+		ICalWriter writer = new ICalWriter(sw, V2_0);
+		writer.write(ical);
+		writer.close();
+
+		//@formatter:off
+		String expected =
+		"BEGIN:VCALENDAR\r\n" +
+			"VERSION:2.0\r\n" +
+			"BEGIN:VTIMEZONE\r\n" +
+				"TZID:America/New_York\r\n" +
+			"END:VTIMEZONE\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"DTSTART;TZID=America/New_York:19960704T080000\r\n" +
+			"END:VEVENT\r\n" +
+			"BEGIN:VEVENT\r\n" +
+				"DTSTART:19960704T120000Z\r\n" +
+			"END:VEVENT\r\n" +
+		"END:VCALENDAR\r\n";
+		//@formatter:on
+
+		String actual = sw.toString();
+		assertEquals(expected, actual);
+	}
+
 	@Test
 	public void example1() throws Throwable {
 		ICalendar ical = new ICalendar();
@@ -16,7 +16,9 @@ import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
 import biweekly.ICalDataType;
+import biweekly.io.xml.XCalElement.ParsedNode;
 import biweekly.io.xml.XCalElement.XCalValue;
+import biweekly.util.ListMultimap;
 import biweekly.util.XmlUtils;
 
 /*
@@ -395,6 +397,106 @@ public class XCalElementTest {
 		assertEquals(XmlUtils.toElementList(xcalElement.getElement().getChildNodes()), elements);
 	}
 
+	@Test
+	public void streaming() {
+		final StringBuilder sb = new StringBuilder();
+		XCalElement xcalElement = new XCalElement(new XCalElement.Sink() {
+			public void start(String localName) {
+				sb.append('<').append(localName).append('>');
+			}
+
+			public void text(String text) {
+				sb.append(text);
+			}
+
+			public void end(String localName) {
+				sb.append("</").append(localName).append('>');
+			}
+		});
+
+		assertNull(xcalElement.append(ICalDataType.TEXT, "one"));
+		XCalElement period = xcalElement.append(ICalDataType.PERIOD);
+		period.append("start", "20130101T000000Z");
+		period.append("end", "");
+		xcalElement.append("number", Arrays.asList("1", "2"));
+		xcalElement.append(ICalDataType.PERIOD).append("duration", "PT1H");
+		xcalElement.finish();
+
+		assertNull(xcalElement.getElement());
+		assertNull(xcalElement.document());
+		//@formatter:off
+		String expected =
+		"<text>one</text>" +
+		"<period><start>20130101T000000Z</start><end></end></period>" +
+		"<number>1</number>" +
+		"<number>2</number>" +
+		"<period><duration>PT1H</duration></period>";
+		//@formatter:on
+		assertEquals(expected, sb.toString());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void streaming_read() {
+		XCalElement xcalElement = new XCalElement(new XCalElement.Sink() {
+			public void start(String localName) {
+				//empty
+			}
+
+			public void text(String text) {
+				//empty
+			}
+
+			public void end(String localName) {
+				//empty
+			}
+		});
+		xcalElement.first(ICalDataType.TEXT);
+	}
+
+	@Test
+	public void childValues() {
+		//@formatter:off
+		XCalElement xcalElement = build(
+		"<prop>" +
+			"<freq>WEEKLY</freq>" +
+			"<byday>MO</byday>" +
+			"<byday>TU</byday>" +
+			"<ns:foo xmlns:ns=\"http://example.com\">bar</ns:foo>" +
+		"</prop>"
+		);
+		//@formatter:on
+
+		ListMultimap<String, String> expected = new ListMultimap<String, String>();
+		expected.put("freq", "WEEKLY");
+		expected.put("byday", "MO");
+		expected.put("byday", "TU");
+		assertEquals(expected, xcalElement.childValues());
+	}
+
+	@Test
+	public void parsed_node() {
+		ParsedNode prop = new ParsedNode(XCAL_NS, "prop", null);
+		ParsedNode text = prop.append(XCAL_NS, "text");
+		text.text("one");
+		ParsedNode other = prop.append("http://example.com", "text");
+		other.attribute("attr", "value");
+		other.text("two");
+
+		XCalElement xcalElement = new XCalElement(prop);
+		assertEquals("one", xcalElement.first(ICalDataType.TEXT));
+		assertEquals(Arrays.asList("one"), xcalElement.all(ICalDataType.TEXT));
+		assertEquals(ICalDataType.TEXT, xcalElement.firstValue().getDataType());
+
+		Element element = xcalElement.getElement();
+		assertEquals(XCAL_NS, element.getNamespaceURI());
+		assertEquals("prop", element.getLocalName());
+		assertEquals("onetwo", element.getTextContent());
+		List<Element> children = XmlUtils.toElementList(element.getChildNodes());
+		assertEquals(2, children.size());
+		assertEquals("value", children.get(1).getAttribute("attr"));
+		assertTrue(xcalElement.document() == element.getOwnerDocument());
+	}
+
 	private XCalElement build(String innerXml) {
 		return build(innerXml, null);
 	}
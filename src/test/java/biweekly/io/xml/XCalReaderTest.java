@@ -17,8 +17,11 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -505,6 +508,47 @@ public class XCalReaderTest {
 		reader.close();
 	}
 
+	@Test
+	public void read_bad_xml_after_first_icalendar() throws Exception {
+		//@formatter:off
+		String xml =
+		"<?xml version=\"1.0\" encoding=\"utf-8\" ?>" +
+		"<icalendar xmlns=\"" + XCAL_NS + "\">" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<prodid><text>value1</text></prodid>" +
+				"</properties>" +
+			"</vcalendar>" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<prodid><text>value2</prodid>" +
+				"</properties>" +
+			"</vcalendar>" +
+		"</icalendar>";
+		//@formatter:on
+
+		XCalReader reader = new XCalReader(xml);
+
+		{
+			ICalendar ical = reader.readNext();
+			assertSize(ical, 0, 1);
+
+			assertEquals("value1", ical.getProductId().getValue());
+
+			assertParseWarnings(reader);
+		}
+
+		try {
+			reader.readNext();
+			fail();
+		} catch (IOException e) {
+			assertTrue(e.getCause() instanceof TransformerException);
+		}
+
+		assertNull(reader.readNext());
+		reader.close();
+	}
+
 	@Test
 	public void read_multiple_icalendar_elements() throws Exception {
 		//@formatter:off
@@ -948,6 +992,208 @@ public class XCalReaderTest {
 		reader.close();
 	}
 
+	@Test
+	public void read_one_calendar_at_a_time() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		sb.append("<icalendar xmlns=\"" + XCAL_NS + "\">");
+		for (int i = 0; i < 10000; i++) {
+			sb.append("<vcalendar><properties><prodid><text>value" + i + "</text></prodid></properties></vcalendar>");
+		}
+		sb.append("</icalendar>");
+		String xml = sb.toString();
+
+		final int[] charsRead = { 0 };
+		Reader in = new StringReader(xml) {
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				int read = super.read(cbuf, off, len);
+				if (read > 0) {
+					charsRead[0] += read;
+				}
+				return read;
+			}
+		};
+
+		XCalReader reader = new XCalReader(in);
+
+		ICalendar ical = reader.readNext();
+		assertEquals("value0", ical.getProductId().getValue());
+		assertTrue(charsRead[0] < xml.length() / 10);
+
+		ical = reader.readNext();
+		assertEquals("value1", ical.getProductId().getValue());
+		assertTrue(charsRead[0] < xml.length() / 10);
+
+		reader.close();
+	}
+
+	@Test
+	public void read_unterminated_document() throws Exception {
+		//@formatter:off
+		String xml =
+		"<?xml version=\"1.0\" encoding=\"utf-8\" ?>" +
+		"<!-- <vcalendar> -->" +
+		"<x:icalendar xmlns:x=\"" + XCAL_NS + "\">" +
+			"<x:vcalendar>" +
+				"<x:properties>" +
+					"<x:prodid><x:text><![CDATA[</x:vcalendar>]]></x:text></x:prodid>" +
+				"</x:properties>" +
+			"</x:vcalendar>" +
+			"<x:vcalendar>" +
+				"<x:properties>" +
+					"<x:prodid><x:text>value2";
+		//@formatter:on
+
+		XCalReader reader = new XCalReader(xml);
+
+		ICalendar ical = reader.readNext();
+		assertSize(ical, 0, 1);
+		assertEquals("</x:vcalendar>", ical.getProductId().getValue());
+		assertParseWarnings(reader);
+
+		try {
+			reader.readNext();
+			fail();
+		} catch (IOException e) {
+			assertTrue(e.getCause() instanceof TransformerException);
+		}
+
+		assertNull(reader.readNext());
+		reader.close();
+	}
+
+	@Test
+	public void read_cdata_ending_in_bracket() throws Exception {
+		//@formatter:off
+		String xml =
+		"<icalendar xmlns=\"" + XCAL_NS + "\">" +
+			"<![CDATA[see [1]]]>" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<prodid><text><![CDATA[see [1]]]></text></prodid>" +
+					"<summary><text><![CDATA[a]]]]><![CDATA[>b]]></text></summary>" +
+				"</properties>" +
+			"</vcalendar>" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<prodid><text>value2</text></prodid>" +
+				"</properties>" +
+			"</vcalendar>" +
+		"</icalendar>";
+		//@formatter:on
+
+		XCalReader reader = new XCalReader(xml);
+
+		ICalendar ical = reader.readNext();
+		assertSize(ical, 0, 2);
+		assertEquals("see [1]", ical.getProductId().getValue());
+		assertEquals("a]]>b", ical.getProperty(Summary.class).getValue());
+		assertParseWarnings(reader);
+
+		ical = reader.readNext();
+		assertSize(ical, 0, 1);
+		assertEquals("value2", ical.getProductId().getValue());
+		assertParseWarnings(reader);
+
+		assertNull(reader.readNext());
+		reader.close();
+	}
+
+	@Test
+	public void read_empty_comment() throws Exception {
+		//@formatter:off
+		String xml =
+		"<!---->" +
+		"<icalendar xmlns=\"" + XCAL_NS + "\">" +
+			"<!---->" +
+			"<vcalendar>" +
+				"<!---->" +
+				"<properties>" +
+					"<prodid><text>value1</text></prodid>" +
+				"</properties>" +
+			"</vcalendar>" +
+			"<!-- - -->" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<prodid><text>value2</text></prodid>" +
+				"</properties>" +
+			"</vcalendar>" +
+		"</icalendar>";
+		//@formatter:on
+
+		XCalReader reader = new XCalReader(xml);
+
+		ICalendar ical = reader.readNext();
+		assertSize(ical, 0, 1);
+		assertEquals("value1", ical.getProductId().getValue());
+		assertParseWarnings(reader);
+
+		ical = reader.readNext();
+		assertSize(ical, 0, 1);
+		assertEquals("value2", ical.getProductId().getValue());
+		assertParseWarnings(reader);
+
+		assertNull(reader.readNext());
+		reader.close();
+	}
+
+	@Test
+	public void read_input_stream_encoding() throws Exception {
+		//@formatter:off
+		String xml =
+		"<?xml version=\"1.0\" encoding=\"ISO-8859-1\" ?>" +
+		"<icalendar xmlns=\"" + XCAL_NS + "\">" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<summary><text>caf\u00e9</text></summary>" +
+				"</properties>" +
+			"</vcalendar>" +
+		"</icalendar>";
+		//@formatter:on
+
+		for (String charset : Arrays.asList("ISO-8859-1", "UTF-16LE", "UTF-16BE")) {
+			String input = charset.equals("ISO-8859-1") ? xml : xml.replace("ISO-8859-1", charset);
+			XCalReader reader = new XCalReader(new ByteArrayInputStream(input.getBytes(charset)));
+
+			ICalendar ical = reader.readNext();
+			assertEquals(charset, "caf\u00e9", ical.getProperty(Summary.class).getValue());
+			assertNull(reader.readNext());
+			reader.close();
+		}
+	}
+
+	@Test
+	public void read_dom() throws Exception {
+		//@formatter:off
+		String xml =
+		"<root>" +
+			"<icalendar xmlns=\"" + XCAL_NS + "\">" +
+				"<vcalendar>" +
+					"<properties>" +
+						"<prodid><text>value1</text></prodid>" +
+					"</properties>" +
+				"</vcalendar>" +
+				"<vcalendar>" +
+					"<properties>" +
+						"<prodid><text>value2</text></prodid>" +
+					"</properties>" +
+				"</vcalendar>" +
+			"</icalendar>" +
+		"</root>";
+		//@formatter:on
+
+		XCalReader reader = new XCalReader(XmlUtils.toDocument(xml));
+
+		ICalendar ical = reader.readNext();
+		assertEquals("value1", ical.getProductId().getValue());
+
+		ical = reader.readNext();
+		assertEquals("value2", ical.getProductId().getValue());
+
+		assertNull(reader.readNext());
+		reader.close();
+	}
+
 	@Test
 	public void read_example1() throws Throwable {
 		XCalReader reader = read("rfc6321-example1.xml");
@@ -544,6 +544,42 @@ public class XCalWriterTest {
 		assertOutput(expected);
 	}
 
+	@Test
+	public void write_experimental_properties_streaming() throws Exception {
+		writer.registerScribe(new StreamingCompanyScribe());
+		Company company = new Company("John Doe");
+		company.setParameter("x-foo", "bar");
+		ical.addProperty(company);
+		ical.addProperty(new Company("skip-me"));
+		ical.addProperty(new Company("skip-me-later"));
+		writer.write(ical);
+
+		writer.close();
+
+		//@formatter:off
+		String expected =
+		"<icalendar xmlns=\"" + XCAL_NS + "\">" +
+			"<vcalendar>" +
+				"<properties>" +
+					"<version><text>2.0</text></version>" +
+					"<m:company xmlns:m=\"http://example.com\">" +
+						"<parameters>" +
+							"<x-foo><unknown>bar</unknown></x-foo>" +
+						"</parameters>" +
+						"<details>" +
+							"<boss>John Doe</boss>" +
+							"<staff/>" +
+						"</details>" +
+						"<integer>5</integer>" +
+					"</m:company>" +
+				"</properties>" +
+			"</vcalendar>" +
+		"</icalendar>";
+		//@formatter:on
+
+		assertOutput(expected);
+	}
+
 	@Test
 	public void write_experimental_component() throws Exception {
 		writer.registerScribe(new PartyScribe());
@@ -891,6 +927,27 @@ public class XCalWriterTest {
 		}
 	}
 
+	private class StreamingCompanyScribe extends CompanyScribe {
+		@Override
+		public boolean isXmlStreamable() {
+			return true;
+		}
+
+		@Override
+		protected void _writeXml(Company property, XCalElement element, WriteContext context) {
+			if (property.getBoss().equals("skip-me")) {
+				throw new SkipMeException("");
+			}
+			XCalElement details = element.append("details");
+			details.append("boss", property.getBoss());
+			details.append("staff", (String) null);
+			if (property.getBoss().equals("skip-me-later")) {
+				throw new SkipMeException("");
+			}
+			element.append(ICalDataType.INTEGER, "5");
+		}
+	}
+
 	private class Company extends ICalProperty {
 		private String boss;
 
@@ -8,13 +8,17 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
 
+import biweekly.util.Gobble;
+
 /*
  Copyright (c) 2013-2018, Michael Angstadt
  All rights reserved.
@@ -62,8 +66,16 @@ public class AttachmentTest {
 		property = new Attachment("image/png", file);
 		assertEquals("image/png", property.getFormatType());
 		assertNull(property.getUri());
-		assertEquals(file.length(), property.getData().length);
+		assertNull(property.getFile());
+		assertArrayEquals(new Gobble(file).asByteArray(), property.getData());
 		assertNull(property.getContentId());
+
+		try {
+			new Attachment("image/png", new File("does-not-exist"));
+			fail();
+		} catch (FileNotFoundException e) {
+			//expected
+		}
 	}
 
 	@Test
@@ -99,6 +111,18 @@ public class AttachmentTest {
 		assertEquals("uri", property.getUri());
 		assertNull(property.getData());
 		assertNull(property.getContentId());
+
+		File file = new File("pom.xml");
+		property.setFile(file);
+		assertEquals("image/jpeg", property.getFormatType());
+		assertNull(property.getUri());
+		assertEquals(file, property.getFile());
+		assertEquals(file.length(), property.getData().length);
+		assertNull(property.getContentId());
+
+		property.setData("data".getBytes());
+		assertNull(property.getFile());
+		assertArrayEquals("data".getBytes(), property.getData());
 	}
 
 	@Test
@@ -117,6 +141,76 @@ public class AttachmentTest {
 		assertValidate(attach).run();
 	}
 
+	@Test
+	public void file_equals() throws Exception {
+		File file = new File("pom.xml");
+
+		Attachment one = new Attachment("image/png", (byte[]) null);
+		one.setFile(file);
+		Attachment two = new Attachment("image/png", (byte[]) null);
+		two.setFile(new File("pom.xml"));
+		assertEquals(one, two);
+		assertEquals(one.hashCode(), two.hashCode());
+
+		//file contents are not compared
+		Attachment inMemory = new Attachment("image/png", file);
+		assertFalse(one.equals(inMemory));
+		assertFalse(inMemory.equals(one));
+	}
+
+	@Test
+	public void encoded_data() {
+		Attachment encoded = new Attachment("image/png", (byte[]) null);
+		encoded.setEncodedData("ZGF0YQ==");
+		Attachment decoded = new Attachment("image/png", "data".getBytes());
+
+		//equals() and hashCode() must not decode the data
+		assertEquals(encoded, decoded);
+		assertEquals(decoded, encoded);
+		assertEquals(encoded.hashCode(), decoded.hashCode());
+		assertEquals("ZGF0YQ==", encoded.getEncodedData());
+
+		Attachment encoded2 = new Attachment("image/png", (byte[]) null);
+		encoded2.setEncodedData("ZGF0YQ==");
+		assertEquals(encoded, encoded2);
+		assertEquals("ZGF0YQ==", encoded2.getEncodedData());
+
+		Attachment copy = new Attachment(encoded);
+		assertEquals("ZGF0YQ==", copy.getEncodedData());
+
+		assertArrayEquals("data".getBytes(), encoded.getData());
+		assertNull(encoded.getEncodedData());
+		assertEquals(encoded, decoded);
+		assertEquals(encoded.hashCode(), encoded2.hashCode());
+	}
+
+	@Test
+	public void encoded_data_equals() {
+		Attachment encoded = new Attachment("image/png", (byte[]) null);
+		encoded.setEncodedData("ZGF0YQ==");
+
+		//encoded text is compared ignoring whitespace
+		Attachment folded = new Attachment("image/png", (byte[]) null);
+		folded.setEncodedData("ZGF0\r\n YQ==");
+		assertEquals(encoded, folded);
+		assertEquals(encoded.hashCode(), folded.hashCode());
+		assertEquals(encoded.hashCode(), encoded.hashCode());
+
+		Attachment different = new Attachment("image/png", (byte[]) null);
+		different.setEncodedData("ZGF0Yg==");
+		assertFalse(encoded.equals(different));
+		assertFalse(encoded.equals(new Attachment("image/png", "datb".getBytes())));
+
+		//the cached hash code is discarded when the data changes
+		int hashCode = encoded.hashCode();
+		encoded.setEncodedData("ZGF0Yg==");
+		assertEquals(different.hashCode(), encoded.hashCode());
+		assertFalse(hashCode == encoded.hashCode());
+
+		assertEquals("ZGF0\r\n YQ==", folded.getEncodedData());
+		assertEquals("ZGF0Yg==", different.getEncodedData());
+	}
+
 	@Test
 	public void toStringValues() {
 		Attachment property = new Attachment(null, (String) null);
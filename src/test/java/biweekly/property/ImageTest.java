@@ -0,0 +1,72 @@
+package biweekly.property;
+
+import static biweekly.util.TestUtils.assertValidate;
+
+import java.io.File;
+
+import org.junit.Test;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class ImageTest {
+	@Test
+	public void validate() {
+		Image image = new Image(null, (byte[]) null);
+		assertValidate(image).run(26);
+
+		image = new Image(null, "http://example.com");
+		assertValidate(image).run();
+
+		image = new Image(null, "data".getBytes());
+		assertValidate(image).run(56);
+
+		image = new Image("image/png", "data".getBytes());
+		assertValidate(image).run();
+	}
+
+	@Test
+	public void validate_file() {
+		Image image = new Image(null, (byte[]) null);
+		image.setFile(new File("pom.xml"));
+		assertValidate(image).run(56);
+
+		image.setFormatType("image/png");
+		assertValidate(image).run();
+	}
+
+	@Test
+	public void validate_encoded_data() {
+		Image image = new Image(null, (byte[]) null);
+		image.setEncodedData("ZGF0YQ==");
+		assertValidate(image).run(56);
+
+		image.setFormatType("image/png");
+		assertValidate(image).run();
+	}
+}
@@ -0,0 +1,218 @@
+package biweekly.util;
+
+import static biweekly.util.TestUtils.date;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import biweekly.ICalendar;
+import biweekly.component.VAlarm;
+import biweekly.component.VEvent;
+import biweekly.component.VTimezone;
+import biweekly.property.Action;
+import biweekly.property.Summary;
+import biweekly.property.Trigger;
+import biweekly.util.CalendarDiff.ComponentChange;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class CalendarDiffTest {
+	@Test
+	public void diff_equal() {
+		ICalendar original = calendar();
+		ICalendar revised = new ICalendar(original);
+
+		CalendarDiff diff = CalendarDiff.diff(original, revised);
+		assertTrue(diff.isEmpty());
+	}
+
+	@Test
+	public void diff() {
+		ICalendar original = calendar();
+		ICalendar revised = new ICalendar(original);
+
+		VEvent changed = revised.getEvents().get(0);
+		changed.setSummary("Changed");
+		changed.setSequence(1);
+		changed.addAlarm(new VAlarm(Action.display(), new Trigger(date("2018-01-01"))));
+
+		VEvent removed = original.getEvents().get(1);
+		revised.removeComponent(revised.getEvents().get(1));
+
+		VEvent added = event("three", "Three");
+		revised.addEvent(added);
+
+		revised.setName("Name");
+
+		CalendarDiff diff = CalendarDiff.diff(original, revised);
+		assertFalse(diff.isEmpty());
+		assertEquals(Arrays.asList(revised.getNames().get(0)), diff.getAddedProperties());
+		assertEquals(Arrays.asList(), diff.getRemovedProperties());
+		assertEquals(Arrays.asList(added), diff.getAddedComponents());
+		assertEquals(Arrays.asList(removed), diff.getRemovedComponents());
+
+		assertEquals(1, diff.getChangedComponents().size());
+		ComponentChange change = diff.getChangedComponents().get(0);
+		assertSame(original.getEvents().get(0), change.getOriginal());
+		assertSame(changed, change.getRevised());
+		assertEquals(2, change.getAddedProperties().size());
+		assertTrue(change.getAddedProperties().contains(changed.getSummary()));
+		assertTrue(change.getAddedProperties().contains(changed.getSequence()));
+		assertEquals(Arrays.asList(original.getEvents().get(0).getSummary()), change.getRemovedProperties());
+		assertEquals(changed.getAlarms(), change.getAddedComponents());
+		assertEquals(Arrays.asList(), change.getRemovedComponents());
+	}
+
+	@Test
+	public void diff_recurrence_id() {
+		ICalendar original = new ICalendar();
+		original.addEvent(event("one", "Series"));
+		VEvent instance = event("one", "Instance");
+		instance.setRecurrenceId(date("2018-01-08"));
+		original.addEvent(instance);
+
+		ICalendar revised = new ICalendar(original);
+		revised.getEvents().get(1).setSummary("Instance changed");
+
+		CalendarDiff diff = CalendarDiff.diff(original, revised);
+		assertEquals(1, diff.getChangedComponents().size());
+		assertSame(instance, diff.getChangedComponents().get(0).getOriginal());
+		assertTrue(diff.getAddedComponents().isEmpty());
+		assertTrue(diff.getRemovedComponents().isEmpty());
+	}
+
+	@Test
+	public void diff_components_without_uid() {
+		ICalendar original = new ICalendar();
+		VEvent one = new VEvent();
+		one.setUid((String) null);
+		one.setSummary("One");
+		original.addEvent(one);
+
+		ICalendar revised = new ICalendar(original);
+		VEvent two = new VEvent();
+		two.setUid((String) null);
+		two.setSummary("Two");
+		revised.addEvent(two);
+
+		CalendarDiff diff = CalendarDiff.diff(original, revised);
+		assertEquals(Arrays.asList(two), diff.getAddedComponents());
+		assertTrue(diff.getRemovedComponents().isEmpty());
+		assertTrue(diff.getChangedComponents().isEmpty());
+	}
+
+	@Test
+	public void apply() {
+		ICalendar original = calendar();
+		VTimezone timezone = new VTimezone("America/New_York");
+		original.addComponent(timezone);
+
+		ICalendar revised = new ICalendar(original);
+		revised.getEvents().get(0).setSummary("Changed");
+		revised.getEvents().get(0).addAlarm(new VAlarm(Action.display(), new Trigger(date("2018-01-01"))));
+		revised.removeComponent(revised.getEvents().get(1));
+		revised.addEvent(event("three", "Three"));
+		revised.getComponent(VTimezone.class).setLastModified(date("2018-01-01"));
+		revised.setName("Name");
+
+		CalendarDiff diff = CalendarDiff.diff(original, revised);
+		ICalendar patched = new ICalendar(original);
+		diff.apply(patched);
+
+		assertEquals(revised, patched);
+		assertTrue(CalendarDiff.diff(revised, patched).isEmpty());
+	}
+
+	@Test
+	public void diff_sequence() {
+		ICalendar original = calendar();
+		ICalendar revised = new ICalendar(original);
+		revised.getEvents().get(0).setSequence(2);
+
+		CalendarDiff diff = CalendarDiff.diff(original, revised);
+		assertEquals(1, diff.getChangedComponents().size());
+		ComponentChange change = diff.getChangedComponents().get(0);
+		assertNull(change.getOriginalSequence());
+		assertEquals(Integer.valueOf(2), change.getRevisedSequence());
+		assertTrue(change.isRescheduled());
+		assertTrue(diff.getAddedComponents().isEmpty());
+		assertTrue(diff.getRemovedComponents().isEmpty());
+	}
+
+	@Test
+	public void diff_duplicate_uid_highest_sequence() {
+		ICalendar original = new ICalendar();
+		VEvent first = event("one", "First");
+		first.setSequence(1);
+		original.addEvent(first);
+		VEvent second = event("one", "Second");
+		second.setSequence(3);
+		original.addEvent(second);
+
+		ICalendar revised = new ICalendar();
+		VEvent event = event("one", "Second changed");
+		event.setSequence(4);
+		revised.addEvent(event);
+
+		CalendarDiff diff = CalendarDiff.diff(original, revised);
+		assertEquals(1, diff.getChangedComponents().size());
+		ComponentChange change = diff.getChangedComponents().get(0);
+		assertSame(second, change.getOriginal());
+		assertEquals(Integer.valueOf(3), change.getOriginalSequence());
+		assertEquals(Integer.valueOf(4), change.getRevisedSequence());
+		assertEquals(Arrays.asList(first), diff.getRemovedComponents());
+		assertTrue(diff.getAddedComponents().isEmpty());
+
+		ICalendar patched = new ICalendar(original);
+		diff.apply(patched);
+		assertEquals(revised, patched);
+	}
+
+	private static ICalendar calendar() {
+		ICalendar ical = new ICalendar();
+		ical.addEvent(event("one", "One"));
+		ical.addEvent(event("two", "Two"));
+		return ical;
+	}
+
+	private static VEvent event(String uid, String summary) {
+		VEvent event = new VEvent();
+		event.setUid(uid);
+		event.setDateTimeStamp(date("2018-01-01"));
+		event.setSummary(new Summary(summary));
+		event.setDateStart(date("2018-01-01"));
+		return event;
+	}
+}
@@ -3,6 +3,7 @@ package biweekly.util;
 import static biweekly.util.TestUtils.date;
 import static biweekly.util.TestUtils.utc;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import java.util.Date;
 
@@ -45,6 +46,16 @@ public class DateTimeComponentsTest {
 		assertParse(new DateTimeComponents(2013, 7, 22, 15, 6, 30, true), "2013-07-22T15:06:30Z");
 		assertParse(new DateTimeComponents(2013, 7, 22), "20130722");
 		assertParse(new DateTimeComponents(2013, 7, 22), "2013-07-22");
+
+		//trailing characters are ignored
+		assertParse(new DateTimeComponents(2013, 7, 22, 15, 6, 30, true), "20130722T150630Z-0500");
+		assertParse(new DateTimeComponents(2013, 7, 22, 15, 6, 30, false), "20130722T150630.123");
+		assertParse(new DateTimeComponents(2013, 7, 22), "20130722T1506");
+		assertParse(new DateTimeComponents(2013, 7, 22), "20130722foo");
+
+		//force time
+		assertEquals(new DateTimeComponents(2013, 7, 22, 0, 0, 0, false), DateTimeComponents.parse("20130722", true));
+		assertEquals(new DateTimeComponents(2013, 7, 22), DateTimeComponents.parse("20130722T150630Z", false));
 	}
 
 	private void assertParse(DateTimeComponents expected, String input) {
@@ -57,6 +68,18 @@ public class DateTimeComponentsTest {
 		DateTimeComponents.parse("invalid");
 	}
 
+	@Test
+	public void parse_invalid_partial() {
+		for (String input : new String[] { "", "2013", "2013-07", "2013-07-2", "2013--07-22", "２０１３0722" }) {
+			try {
+				DateTimeComponents.parse(input);
+				fail(input);
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		}
+	}
+
 	@Test
 	public void toString_() {
 		assertToString("20130722T150630", "2013-07-22T15:06:30", new DateTimeComponents(2013, 7, 22, 15, 6, 30, false), true);
@@ -0,0 +1,141 @@
+package biweekly.util;
+
+import static biweekly.util.TestUtils.utc;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import biweekly.ICalendar;
+import biweekly.component.VEvent;
+import biweekly.component.VFreeBusy;
+import biweekly.parameter.FreeBusyType;
+import biweekly.property.FreeBusy;
+import biweekly.property.Status;
+import biweekly.property.Transparency;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class FreeBusyCalculatorTest {
+	@Test
+	public void calculate() {
+		ICalendar work = new ICalendar();
+		{
+			VEvent event = event("2018-01-01 09:00:00", "2018-01-01 10:00:00");
+			event.setRecurrenceRule(new Recurrence.Builder(Frequency.DAILY).count(3).build());
+			work.addEvent(event);
+
+			//overlaps with the first occurrence
+			work.addEvent(event("2018-01-01 09:30:00", "2018-01-01 11:00:00"));
+
+			//adjacent to the second occurrence
+			work.addEvent(event("2018-01-02 10:00:00", "2018-01-02 10:30:00"));
+
+			event = event("2018-01-01 13:00:00", "2018-01-01 14:00:00");
+			event.setTransparency(Transparency.transparent());
+			work.addEvent(event);
+
+			event = event("2018-01-01 15:00:00", "2018-01-01 16:00:00");
+			event.setStatus(Status.cancelled());
+			work.addEvent(event);
+		}
+
+		ICalendar personal = new ICalendar();
+		{
+			//partially overlaps with a busy period
+			VEvent event = event("2018-01-03 08:00:00", "2018-01-03 09:30:00");
+			event.setStatus(Status.tentative());
+			personal.addEvent(event);
+
+			//partially outside of the window
+			personal.addEvent(event("2018-01-03 23:00:00", "2018-01-04 01:00:00"));
+		}
+
+		VFreeBusy freeBusy = FreeBusyCalculator.calculate(Arrays.asList(work, personal), utc("2018-01-01 00:00:00"), utc("2018-01-04 00:00:00"));
+		assertEquals(utc("2018-01-01 00:00:00"), freeBusy.getDateStart().getValue());
+		assertEquals(utc("2018-01-04 00:00:00"), freeBusy.getDateEnd().getValue());
+
+		List<FreeBusy> properties = freeBusy.getFreeBusy();
+		assertEquals(2, properties.size());
+
+		FreeBusy busy = properties.get(0);
+		assertEquals(FreeBusyType.BUSY, busy.getType());
+		assertPeriods(busy, //@formatter:off
+			"2018-01-01 09:00:00", "2018-01-01 11:00:00",
+			"2018-01-02 09:00:00", "2018-01-02 10:30:00",
+			"2018-01-03 09:00:00", "2018-01-03 10:00:00",
+			"2018-01-03 23:00:00", "2018-01-04 00:00:00"
+		); //@formatter:on
+
+		FreeBusy tentative = properties.get(1);
+		assertEquals(FreeBusyType.BUSY_TENTATIVE, tentative.getType());
+		assertPeriods(tentative, "2018-01-03 08:00:00", "2018-01-03 09:00:00");
+	}
+
+	@Test
+	public void add_period() {
+		FreeBusyCalculator calculator = new FreeBusyCalculator(utc("2018-01-01 00:00:00"), utc("2018-01-02 00:00:00"));
+		calculator.add(FreeBusyType.BUSY_TENTATIVE, utc("2018-01-01 08:00:00"), utc("2018-01-01 12:00:00"));
+		calculator.add(FreeBusyType.BUSY, utc("2018-01-01 09:00:00"), utc("2018-01-01 10:00:00"));
+
+		List<FreeBusy> properties = calculator.build().getFreeBusy();
+		assertEquals(2, properties.size());
+		assertPeriods(properties.get(0), "2018-01-01 09:00:00", "2018-01-01 10:00:00");
+		assertPeriods(properties.get(1), "2018-01-01 08:00:00", "2018-01-01 09:00:00", "2018-01-01 10:00:00", "2018-01-01 12:00:00");
+	}
+
+	@Test
+	public void empty() {
+		VFreeBusy freeBusy = new FreeBusyCalculator(utc("2018-01-01 00:00:00"), utc("2018-01-02 00:00:00")).build();
+		assertEquals(0, freeBusy.getFreeBusy().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void add_period_unsupported_type() {
+		new FreeBusyCalculator(utc("2018-01-01 00:00:00"), utc("2018-01-02 00:00:00")).add(FreeBusyType.FREE, utc("2018-01-01 08:00:00"), utc("2018-01-01 12:00:00"));
+	}
+
+	private static VEvent event(String start, String end) {
+		VEvent event = new VEvent();
+		event.setDateStart(utc(start));
+		event.setDateEnd(utc(end));
+		return event;
+	}
+
+	private static void assertPeriods(FreeBusy property, String... expected) {
+		List<Period> expectedPeriods = new ArrayList<Period>();
+		for (int i = 0; i < expected.length; i += 2) {
+			expectedPeriods.add(new Period(utc(expected[i]), utc(expected[i + 1])));
+		}
+		assertEquals(expectedPeriods, property.getValues());
+	}
+}
@@ -1,9 +1,11 @@
 package biweekly.util;
 
 import static biweekly.util.TestUtils.date;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
@@ -16,6 +18,8 @@ import biweekly.component.VEvent;
 import biweekly.property.ExceptionDates;
 import biweekly.property.ExceptionRule;
 import biweekly.property.RecurrenceDates;
+import biweekly.util.Google2445Utils.OccurrenceSink;
+import biweekly.util.com.google.ical.compat.javautil.DateIterator;
 
 /*
  Copyright (c) 2013-2018, Michael Angstadt
@@ -125,6 +129,75 @@ public class Google2445UtilsTest {
 		assertIteratorEquals(expectedList, Google2445Utils.getDateIterator(event, TimeZone.getTimeZone("UTC")));
 	}
 
+	@Test
+	public void occurrencesBetween() {
+		TimeZone tz = TimeZone.getTimeZone("America/Los_Angeles");
+
+		VEvent event = new VEvent();
+		event.setDateStart(date("2016-03-01 09:00:00", tz));
+		event.setRecurrenceRule(new Recurrence.Builder(Frequency.DAILY).interval(3).build());
+
+		ExceptionDates exdate = new ExceptionDates();
+		exdate.getValues().add(new ICalDate(date("2016-03-16 09:00:00", tz)));
+		event.addExceptionDates(exdate);
+
+		//start is inclusive, end is exclusive
+		long[] actual = Google2445Utils.occurrencesBetween(event, date("2016-03-10 09:00:00", tz), date("2016-03-22 09:00:00", tz), tz);
+
+		//@formatter:off
+		long[] expected = {
+			date("2016-03-10 09:00:00", tz).getTime(),
+			date("2016-03-13 09:00:00", tz).getTime(),
+			date("2016-03-19 09:00:00", tz).getTime()
+		};
+		//@formatter:on
+		assertArrayEquals(expected, actual);
+	}
+
+	@Test
+	public void occurrencesBetween_same_as_getDateIterator() {
+		TimeZone tz = TimeZone.getTimeZone("America/Los_Angeles");
+
+		VEvent event = new VEvent();
+		event.setDateStart(date("2016-01-31 23:30:00", tz));
+		event.setRecurrenceRule(new Recurrence.Builder(Frequency.MONTHLY).byDay(DayOfWeek.SUNDAY).build());
+
+		Date start = date("2017-03-01 00:00:00", tz);
+		Date end = date("2017-12-01 00:00:00", tz);
+
+		List<Long> expected = new ArrayList<Long>();
+		DateIterator it = Google2445Utils.getDateIterator(event, tz);
+		it.advanceTo(start);
+		while (it.hasNext()) {
+			Date next = it.next();
+			if (!next.before(end)) {
+				break;
+			}
+			expected.add(next.getTime());
+		}
+
+		final List<Long> actual = new ArrayList<Long>();
+		int count = Google2445Utils.occurrencesBetween(event, start, end, tz, new OccurrenceSink() {
+			public void add(long date) {
+				actual.add(date);
+			}
+		});
+
+		assertEquals(39, expected.size());
+		assertEquals(expected, actual);
+		assertEquals(expected.size(), count);
+	}
+
+	@Test
+	public void occurrencesBetween_empty() {
+		VEvent event = new VEvent();
+		assertEquals(0, Google2445Utils.occurrencesBetween(event, date("2016-01-01"), date("2017-01-01"), TimeZone.getDefault()).length);
+
+		event.setDateStart(date("2016-03-01"));
+		event.setRecurrenceRule(new Recurrence.Builder(Frequency.DAILY).build());
+		assertEquals(0, Google2445Utils.occurrencesBetween(event, date("2017-01-01"), date("2016-01-01"), TimeZone.getDefault()).length);
+	}
+
 	private static <T> void assertIteratorEquals(List<T> expectedList, Iterator<T> actualIt) {
 		Iterator<T> expectedIt = expectedList.iterator();
 		while (expectedIt.hasNext()) {
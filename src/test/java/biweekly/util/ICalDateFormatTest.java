@@ -7,6 +7,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.Calendar;
 import java.util.Date;
@@ -70,6 +71,45 @@ public class ICalDateFormatTest {
 		assertEquals("20060102T072030-0200", ICalDateFormat.DATE_TIME_BASIC.format(datetime, timezone));
 	}
 
+	@Test
+	public void format_same_as_DateFormat() throws Exception {
+		//@formatter:off
+		TimeZone timezones[] = {
+			null,
+			TimeZone.getTimeZone("UTC"),
+			TimeZone.getTimeZone("America/New_York"),
+			TimeZone.getTimeZone("Asia/Kolkata"),
+			TimeZone.getTimeZone("America/St_Johns"),
+			TimeZone.getTimeZone("Pacific/Kiritimati"),
+			buildTimezone(-2, 0)
+		};
+		Date dates[] = {
+			utc("1500-06-01 12:00:00"),
+			utc("1850-03-04 23:59:59"),
+			utc("1969-12-31 23:59:59"),
+			utc("1970-01-01 00:00:00"),
+			utc("2000-02-29 13:14:15"),
+			utc("2014-03-09 07:00:00"),
+			utc("2014-11-02 05:59:59"),
+			new Date(utc("2038-01-19 03:14:07").getTime() + 999),
+			utc("9999-12-31 23:59:59")
+		};
+		//@formatter:on
+
+		for (ICalDateFormat format : ICalDateFormat.values()) {
+			for (TimeZone timezone : timezones) {
+				for (Date date : dates) {
+					String expected = format.getDateFormat(timezone).format(date);
+					assertEquals(expected, format.format(date, timezone));
+
+					StringBuilder sb = new StringBuilder("prefix");
+					format.format(date, timezone, sb);
+					assertEquals("prefix" + expected, sb.toString());
+				}
+			}
+		}
+	}
+
 	@Test
 	public void parse() {
 		Date date = date("2012-07-01");
@@ -132,6 +172,18 @@ public class ICalDateFormatTest {
 		ICalDateFormat.parse("invalid");
 	}
 
+	@Test
+	public void parse_invalid_partial() {
+		for (String input : new String[] { "", "2012070", "20120701T", "20120701T0701", "20120701T070130.", "20120701T070130+", "20120701T070130+030", "20120701T070130+03:0", "20120701T070130Zfoo", "20120701foo" }) {
+			try {
+				ICalDateFormat.parse(input);
+				fail(input);
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		}
+	}
+
 	@Test
 	public void dateHasTime() {
 		assertFalse(ICalDateFormat.dateHasTime("20130601"));
@@ -146,6 +198,10 @@ public class ICalDateFormatTest {
 		assertTrue(ICalDateFormat.dateHasTimezone("20130601T120000-0100"));
 		assertTrue(ICalDateFormat.dateHasTimezone("2013-06-01T12:00:00+01:00"));
 		assertTrue(ICalDateFormat.dateHasTimezone("2013-06-01T12:00:00-01:00"));
+		assertTrue(ICalDateFormat.dateHasTimezone("20130601T120000-01:00"));
+		assertFalse(ICalDateFormat.dateHasTimezone("20130601T120000-010"));
+		assertFalse(ICalDateFormat.dateHasTimezone("-01:0"));
+		assertFalse(ICalDateFormat.dateHasTimezone(""));
 	}
 
 	@Test
@@ -0,0 +1,267 @@
+package biweekly.util;
+
+import static biweekly.util.TestUtils.date;
+import static biweekly.util.TestUtils.utc;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import biweekly.ICalendar;
+import biweekly.component.ICalComponent;
+import biweekly.component.VEvent;
+import biweekly.component.VTodo;
+import biweekly.property.ExceptionDates;
+import biweekly.property.RecurrenceId;
+import biweekly.util.OccurrenceIndex.Occurrence;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class OccurrenceIndexTest {
+	@ClassRule
+	public static final DefaultTimezoneRule tzRule = new DefaultTimezoneRule(1, 0);
+
+	@Test
+	public void getOccurrences() {
+		ICalendar ical = new ICalendar();
+
+		VEvent weekly = new VEvent();
+		weekly.setUid("weekly");
+		weekly.setDateStart(utc("2018-01-01 09:00:00"));
+		weekly.setDateEnd(utc("2018-01-01 10:00:00"));
+		weekly.setRecurrenceRule(new Recurrence.Builder(Frequency.WEEKLY).build());
+		ExceptionDates exdate = new ExceptionDates();
+		exdate.getValues().add(new ICalDate(utc("2018-01-15 09:00:00")));
+		weekly.addExceptionDates(exdate);
+		ical.addEvent(weekly);
+
+		VEvent override = new VEvent();
+		override.setUid("weekly");
+		override.setRecurrenceId(utc("2018-01-22 09:00:00"));
+		override.setDateStart(utc("2018-01-23 13:00:00"));
+		ical.addEvent(override);
+
+		VEvent single = new VEvent();
+		single.setUid("single");
+		single.setDateStart(utc("2018-01-07 22:00:00"));
+		single.setDuration(Duration.builder().hours(12).build());
+		ical.addEvent(single);
+
+		VTodo todo = new VTodo();
+		todo.setDateStart(utc("2018-01-10 00:00:00"));
+		ical.addTodo(todo);
+
+		OccurrenceIndex index = new OccurrenceIndex(ical, utc("2018-01-01 00:00:00"), utc("2019-01-01 00:00:00"));
+		assertEquals(53 - 1 + 2, index.size()); //53 Mondays in 2018, minus the EXDATE, plus the other two components
+
+		List<Occurrence> occurrences = index.getOccurrences(utc("2018-01-08 00:00:00"), utc("2018-01-31 00:00:00"));
+		assertOccurrences(occurrences, //@formatter:off
+			single, "2018-01-07 22:00:00", "2018-01-08 10:00:00",
+			weekly, "2018-01-08 09:00:00", "2018-01-08 10:00:00",
+			todo, "2018-01-10 00:00:00", "2018-01-10 00:00:00",
+			override, "2018-01-23 13:00:00", "2018-01-23 14:00:00",
+			weekly, "2018-01-29 09:00:00", "2018-01-29 10:00:00"
+		); //@formatter:on
+
+		//end is exclusive, start is inclusive
+		assertOccurrences(index.getOccurrences(utc("2018-01-10 00:00:00"), utc("2018-01-15 09:00:00")), todo, "2018-01-10 00:00:00", "2018-01-10 00:00:00");
+		assertOccurrences(index.getOccurrences(utc("2018-01-08 10:00:00"), utc("2018-01-10 00:00:00")));
+
+		//outside of the horizon
+		assertOccurrences(index.getOccurrences(utc("2019-01-01 00:00:00"), utc("2020-01-01 00:00:00")));
+	}
+
+	@Test
+	public void reindex() {
+		ICalendar ical = new ICalendar();
+
+		VEvent daily = new VEvent();
+		daily.setUid("daily");
+		daily.setDateStart(utc("2018-01-01 09:00:00"));
+		daily.setRecurrenceRule(new Recurrence.Builder(Frequency.DAILY).count(10).build());
+		ical.addEvent(daily);
+
+		VEvent single = new VEvent();
+		single.setDateStart(utc("2018-01-03 12:00:00"));
+		ical.addEvent(single);
+
+		OccurrenceIndex index = new OccurrenceIndex(ical, utc("2018-01-01 00:00:00"), utc("2018-02-01 00:00:00"));
+		assertEquals(11, index.size());
+
+		//modify a component
+		daily.setRecurrenceRule(new Recurrence.Builder(Frequency.DAILY).count(2).build());
+		index.reindex(daily);
+		assertEquals(3, index.size());
+		assertOccurrences(index.getOccurrences(utc("2018-01-01 00:00:00"), utc("2018-02-01 00:00:00")), //@formatter:off
+			daily, "2018-01-01 09:00:00", "2018-01-01 09:00:00",
+			daily, "2018-01-02 09:00:00", "2018-01-02 09:00:00",
+			single, "2018-01-03 12:00:00", "2018-01-03 12:00:00"
+		); //@formatter:on
+
+		//add an override
+		VEvent override = new VEvent();
+		override.setUid("daily");
+		override.setRecurrenceId(utc("2018-01-02 09:00:00"));
+		override.setDateStart(utc("2018-01-05 09:00:00"));
+		ical.addEvent(override);
+		index.reindex(override);
+		assertOccurrences(index.getOccurrences(utc("2018-01-01 00:00:00"), utc("2018-02-01 00:00:00")), //@formatter:off
+			daily, "2018-01-01 09:00:00", "2018-01-01 09:00:00",
+			single, "2018-01-03 12:00:00", "2018-01-03 12:00:00",
+			override, "2018-01-05 09:00:00", "2018-01-05 09:00:00"
+		); //@formatter:on
+
+		//move the override to another series
+		override.setUid("other");
+		override.setRecurrenceId((RecurrenceId) null);
+		index.reindex(override);
+		assertOccurrences(index.getOccurrences(utc("2018-01-01 00:00:00"), utc("2018-02-01 00:00:00")), //@formatter:off
+			daily, "2018-01-01 09:00:00", "2018-01-01 09:00:00",
+			daily, "2018-01-02 09:00:00", "2018-01-02 09:00:00",
+			single, "2018-01-03 12:00:00", "2018-01-03 12:00:00",
+			override, "2018-01-05 09:00:00", "2018-01-05 09:00:00"
+		); //@formatter:on
+
+		//remove a component
+		index.remove(daily);
+		assertOccurrences(index.getOccurrences(utc("2018-01-01 00:00:00"), utc("2018-02-01 00:00:00")), //@formatter:off
+			single, "2018-01-03 12:00:00", "2018-01-03 12:00:00",
+			override, "2018-01-05 09:00:00", "2018-01-05 09:00:00"
+		); //@formatter:on
+	}
+
+	@Test
+	public void reindex_multiple() {
+		ICalendar ical = new ICalendar();
+
+		VEvent daily = new VEvent();
+		daily.setUid("daily");
+		daily.setDateStart(utc("2018-01-01 09:00:00"));
+		daily.setRecurrenceRule(new Recurrence.Builder(Frequency.DAILY).count(10).build());
+		ical.addEvent(daily);
+
+		VEvent single = new VEvent();
+		single.setDateStart(utc("2018-01-03 12:00:00"));
+		ical.addEvent(single);
+
+		OccurrenceIndex index = new OccurrenceIndex(ical, utc("2018-01-01 00:00:00"), utc("2018-02-01 00:00:00"));
+		assertEquals(11, index.size());
+
+		//modify a component and add an override in one update
+		daily.setRecurrenceRule(new Recurrence.Builder(Frequency.DAILY).count(2).build());
+		VEvent override = new VEvent();
+		override.setUid("daily");
+		override.setRecurrenceId(utc("2018-01-02 09:00:00"));
+		override.setDateStart(utc("2018-01-05 09:00:00"));
+		ical.addEvent(override);
+		single.setDateStart(utc("2018-01-04 12:00:00"));
+		index.reindex(Arrays.asList(daily, override, single));
+		assertOccurrences(index.getOccurrences(utc("2018-01-01 00:00:00"), utc("2018-02-01 00:00:00")), //@formatter:off
+			daily, "2018-01-01 09:00:00", "2018-01-01 09:00:00",
+			single, "2018-01-04 12:00:00", "2018-01-04 12:00:00",
+			override, "2018-01-05 09:00:00", "2018-01-05 09:00:00"
+		); //@formatter:on
+
+		//remove components in one update
+		index.remove(Arrays.asList(override, single));
+		assertOccurrences(index.getOccurrences(utc("2018-01-01 00:00:00"), utc("2018-02-01 00:00:00")), //@formatter:off
+			daily, "2018-01-01 09:00:00", "2018-01-01 09:00:00",
+			daily, "2018-01-02 09:00:00", "2018-01-02 09:00:00"
+		); //@formatter:on
+
+		//nothing to update
+		index.remove(Arrays.asList(override));
+		index.reindex(Collections.<VEvent> emptyList());
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	public void all_day() {
+		ICalendar ical = new ICalendar();
+
+		VEvent event = new VEvent();
+		event.setDateStart(date("2018-01-01"), false);
+		ical.addEvent(event);
+
+		OccurrenceIndex index = new OccurrenceIndex(ical, date("2018-01-01"), date("2018-02-01"));
+		assertEquals(1, index.getOccurrences(date("2018-01-01 23:00:00"), date("2018-01-02 00:00:00")).size());
+		assertEquals(0, index.getOccurrences(date("2018-01-02 00:00:00"), date("2018-01-03 00:00:00")).size());
+	}
+
+	@Test
+	public void large() {
+		ICalendar ical = new ICalendar();
+		for (int i = 0; i < 1000; i++) {
+			VEvent event = new VEvent();
+			event.setDateStart(utc("2018-01-01 00:00:00"));
+			event.setDateEnd(utc("2018-01-01 01:00:00"));
+			event.setRecurrenceRule(new Recurrence.Builder(Frequency.HOURLY).interval(i % 24 + 1).build());
+			ical.addEvent(event);
+		}
+
+		OccurrenceIndex index = new OccurrenceIndex(ical, utc("2018-01-01 00:00:00"), utc("2018-01-08 00:00:00"));
+
+		//compare against a linear scan
+		long start = utc("2018-01-03 05:30:00").getTime();
+		long end = utc("2018-01-03 17:00:00").getTime();
+		int expected = 0;
+		for (ICalComponent component : ical.getEvents()) {
+			int interval = ((VEvent) component).getRecurrenceRule().getValue().getInterval();
+			long t = utc("2018-01-01 00:00:00").getTime();
+			for (; t < end; t += interval * 3600000L) {
+				if (t + 3600000L > start) {
+					expected++;
+				}
+			}
+		}
+		assertEquals(expected, index.getOccurrences(start, end).size());
+	}
+
+	private static void assertOccurrences(List<Occurrence> actual, Object... expected) {
+		List<String> expectedList = new ArrayList<String>();
+		for (int i = 0; i < expected.length; i += 3) {
+			expectedList.add(utc((String) expected[i + 1]) + " - " + utc((String) expected[i + 2]));
+		}
+		List<String> actualList = new ArrayList<String>();
+		for (Occurrence occurrence : actual) {
+			actualList.add(occurrence.getStart() + " - " + occurrence.getEnd());
+		}
+		assertEquals(expectedList, actualList);
+
+		for (int i = 0; i < actual.size(); i++) {
+			assertSame(expected[i * 3], actual.get(i).getComponent());
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package biweekly.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import biweekly.util.org.apache.commons.codec.binary.Base64;
+
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * @author Michael Angstadt
+ */
+public class StreamingBase64Test {
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void encode() throws Exception {
+		Random random = new Random(1);
+		int chunkSize = 3 * 4096;
+		int lengths[] = { 0, 1, 2, 3, 4, 5, 6, 7, chunkSize - 1, chunkSize, chunkSize + 1, chunkSize * 2 + 2 };
+		for (int length : lengths) {
+			byte[] data = new byte[length];
+			random.nextBytes(data);
+
+			StringWriter writer = new StringWriter();
+			StreamingBase64.encode(new ByteArrayInputStream(data), writer);
+
+			String expected = Base64.encodeBase64String(data);
+			assertEquals(expected, writer.toString());
+			assertEquals(expected.length(), StreamingBase64.encodedLength(length));
+		}
+	}
+
+	@Test
+	public void encode_file() throws Exception {
+		byte[] data = new byte[10000];
+		new Random(1).nextBytes(data);
+
+		File file = tempFolder.newFile();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(data);
+		} finally {
+			out.close();
+		}
+
+		assertEquals(Base64.encodeBase64String(data), StreamingBase64.encode(file));
+	}
+}
@@ -43,11 +43,14 @@ import static biweekly.util.TestUtils.assertIterator;
 import static biweekly.util.TestUtils.date;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.SimpleTimeZone;
 import java.util.TimeZone;
 
 import org.junit.Test;
@@ -61,6 +64,7 @@ import biweekly.util.com.google.ical.util.TimeUtils;
 import biweekly.util.com.google.ical.values.DateTimeValueImpl;
 import biweekly.util.com.google.ical.values.DateValue;
 import biweekly.util.com.google.ical.values.DateValueImpl;
+import biweekly.util.com.google.ical.values.PackedDateValue;
 
 /**
  * @author mikesamuel+svn@gmail.com (Mike Samuel)
@@ -83,6 +87,81 @@ public class RRuleIteratorImplTest {
 		RecurrenceIteratorFactory.createRecurrenceIterator(recur, start, UTC);
 	}
 
+	@Test
+	public void compiledRecurrenceIsCached() {
+		Recurrence recur = new Recurrence.Builder(Frequency.WEEKLY).byDay(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY).build();
+		Recurrence sameRecur = new Recurrence.Builder(Frequency.WEEKLY).byDay(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY).build();
+		DateValue start = new DateValueImpl(2006, 1, 2);
+
+		RRulePlan plan = RecurrenceIteratorFactory.compileRecurrence(recur, start, UTC).getPlan();
+		assertSame(plan, RecurrenceIteratorFactory.compileRecurrence(sameRecur, new DateValueImpl(2006, 1, 2), UTC).getPlan());
+		assertNotSame(plan, RecurrenceIteratorFactory.compileRecurrence(recur, new DateTimeValueImpl(2006, 1, 2, 0, 0, 0), UTC).getPlan());
+
+		//the start date and timezone are not part of the cache key
+		assertSame(plan, RecurrenceIteratorFactory.compileRecurrence(sameRecur, new DateValueImpl(2007, 5, 17), UTC).getPlan());
+		assertSame(plan, RecurrenceIteratorFactory.compileRecurrence(sameRecur, start, PST).getPlan());
+		assertSame(plan, RecurrenceIteratorFactory.compileRecurrence(sameRecur, start, new SimpleTimeZone(0, "UTC")).getPlan());
+
+		RecurrenceIteratorFactory.clearRecurrenceCache();
+		assertNotSame(plan, RecurrenceIteratorFactory.compileRecurrence(recur, start, UTC).getPlan());
+	}
+
+	@Test
+	public void compiledRecurrenceIsBoundToStartDate() {
+		Recurrence recur = new Recurrence.Builder(Frequency.WEEKLY).interval(2).byDay(DayOfWeek.MONDAY).until(new ICalDate(date("2006-02-14"), false)).build();
+		RecurrenceIteratorFactory.clearRecurrenceCache();
+
+		CompiledRRule first = RecurrenceIteratorFactory.compileRecurrence(recur, new DateValueImpl(2006, 1, 2), UTC);
+		CompiledRRule second = RecurrenceIteratorFactory.compileRecurrence(recur, new DateValueImpl(2006, 1, 9), PST);
+		assertSame(first.getPlan(), second.getPlan());
+
+		RecurrenceIterator it = first.iterator();
+		assertEquals(new DateValueImpl(2006, 1, 2), it.next());
+		assertEquals(new DateValueImpl(2006, 1, 16), it.next());
+		assertEquals(new DateValueImpl(2006, 1, 30), it.next());
+		assertEquals(new DateValueImpl(2006, 2, 13), it.next());
+		assertFalse(it.hasNext());
+
+		it = second.iterator();
+		assertEquals(new DateValueImpl(2006, 1, 9), it.next());
+		assertEquals(new DateValueImpl(2006, 1, 23), it.next());
+		assertEquals(new DateValueImpl(2006, 2, 6), it.next());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void compiledRecurrenceIteratorsAreIndependent() {
+		Recurrence recur = new Recurrence.Builder(Frequency.DAILY).count(3).build();
+		DateValue start = new DateValueImpl(2006, 1, 20);
+		CompiledRRule plan = RecurrenceIteratorFactory.compileRecurrence(recur, start, UTC);
+
+		RecurrenceIterator it1 = plan.iterator();
+		assertEquals(new DateValueImpl(2006, 1, 20), it1.next());
+		assertEquals(new DateValueImpl(2006, 1, 21), it1.next());
+
+		RecurrenceIterator it2 = plan.iterator();
+		assertEquals(new DateValueImpl(2006, 1, 20), it2.next());
+		assertEquals(new DateValueImpl(2006, 1, 22), it1.next());
+		assertFalse(it1.hasNext());
+		assertEquals(new DateValueImpl(2006, 1, 21), it2.next());
+		assertEquals(new DateValueImpl(2006, 1, 22), it2.next());
+		assertFalse(it2.hasNext());
+	}
+
+	@Test
+	public void nextPacked() {
+		Recurrence recur = new Recurrence.Builder(Frequency.HOURLY).interval(12).count(4).build();
+		DateValue start = new DateTimeValueImpl(2007, 3, 10, 13, 0, 0);
+		PackedRecurrenceIterator it = RecurrenceIteratorFactory.compileRecurrence(recur, start, PST).iterator();
+
+		//the time in UTC shifts by an hour after daylight savings starts
+		assertEquals(PackedDateValue.pack(2007, 3, 10, 21, 0, 0), it.nextPacked());
+		assertEquals(new DateTimeValueImpl(2007, 3, 11, 9, 0, 0), it.next());
+		assertEquals(PackedDateValue.pack(2007, 3, 11, 20, 0, 0), it.nextPacked());
+		assertEquals(PackedDateValue.pack(2007, 3, 12, 8, 0, 0), it.nextPacked());
+		assertFalse(it.hasNext());
+	}
+
 	@Test
 	public void simpleDaily() {
 		Recurrence recur = new Recurrence.Builder(Frequency.DAILY).build();
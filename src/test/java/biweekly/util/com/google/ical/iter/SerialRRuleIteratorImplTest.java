@@ -0,0 +1,177 @@
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package biweekly.util.com.google.ical.iter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import biweekly.util.Frequency;
+import biweekly.util.Recurrence;
+import biweekly.util.com.google.ical.values.DateTimeValueImpl;
+import biweekly.util.com.google.ical.values.DateValue;
+import biweekly.util.com.google.ical.values.DateValueImpl;
+import biweekly.util.com.google.ical.values.TimeValue;
+
+/**
+ * @author Michael Angstadt
+ */
+public class SerialRRuleIteratorImplTest {
+	private static final TimeZone PST = TimeZone.getTimeZone("America/Los_Angeles");
+	private static final TimeZone SYDNEY = TimeZone.getTimeZone("Australia/Sydney");
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	@Test
+	public void used_for_serial_rules() {
+		DateValue start = new DateTimeValueImpl(2006, 1, 1, 9, 0, 0);
+
+		assertTrue(iterator(new Recurrence.Builder(Frequency.DAILY).interval(3).build(), start, PST) instanceof SerialRRuleIteratorImpl);
+		assertTrue(iterator(new Recurrence.Builder(Frequency.WEEKLY).build(), start, PST) instanceof SerialRRuleIteratorImpl);
+		assertTrue(iterator(new Recurrence.Builder(Frequency.MINUTELY).interval(15).build(), start, PST) instanceof SerialRRuleIteratorImpl);
+
+		assertFalse(iterator(new Recurrence.Builder(Frequency.MONTHLY).build(), start, PST) instanceof SerialRRuleIteratorImpl);
+		assertFalse(iterator(new Recurrence.Builder(Frequency.DAILY).byHour(9, 10).build(), start, PST) instanceof SerialRRuleIteratorImpl);
+
+		//sub-daily rules with date values are handled by the general iterator
+		assertFalse(iterator(new Recurrence.Builder(Frequency.HOURLY).build(), new DateValueImpl(2006, 1, 1), PST) instanceof SerialRRuleIteratorImpl);
+	}
+
+	@Test
+	public void same_as_general_iterator() {
+		DateValue dateTime = new DateTimeValueImpl(2006, 3, 1, 1, 30, 0);
+		DateValue date = new DateValueImpl(2006, 3, 1);
+		Date until = new Date(1167609600000L); //2007-01-01 00:00:00 UTC
+
+		List<Recurrence.Builder> rules = new ArrayList<Recurrence.Builder>();
+		rules.add(new Recurrence.Builder(Frequency.DAILY).count(400));
+		rules.add(new Recurrence.Builder(Frequency.DAILY).interval(3).until(until));
+		rules.add(new Recurrence.Builder(Frequency.WEEKLY).interval(2).count(40));
+		rules.add(new Recurrence.Builder(Frequency.HOURLY).interval(7).until(until));
+		rules.add(new Recurrence.Builder(Frequency.MINUTELY).interval(45).count(2000));
+		rules.add(new Recurrence.Builder(Frequency.SECONDLY).interval(3601).count(2000));
+
+		for (Recurrence.Builder builder : rules) {
+			for (TimeZone tz : new TimeZone[] { PST, SYDNEY, UTC }) {
+				for (DateValue start : new DateValue[] { dateTime, date }) {
+					Recurrence serial = builder.build();
+					if (start == date && serial.getFrequency().compareTo(Frequency.DAILY) < 0) {
+						continue;
+					}
+
+					//add a BYxxx rule part that does not change the result to force the general iterator to be used
+					Recurrence general = generalEquivalent(serial, start);
+					RecurrenceIterator expected = iterator(general, start, tz);
+					RecurrenceIterator actual = iterator(serial, start, tz);
+					assertTrue(actual instanceof SerialRRuleIteratorImpl);
+					assertFalse(expected instanceof SerialRRuleIteratorImpl);
+
+					String message = serial + " " + start + " " + tz.getID();
+					int instances = 0;
+					while (expected.hasNext()) {
+						assertTrue(message, actual.hasNext());
+						assertEquals(message, expected.next(), actual.next());
+						instances++;
+					}
+					assertFalse(message, actual.hasNext());
+					assertTrue(message, instances > 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void advanceTo() {
+		Recurrence recur = new Recurrence.Builder(Frequency.DAILY).interval(3).build();
+		DateValue start = new DateTimeValueImpl(2006, 1, 1, 9, 0, 0);
+
+		//skips directly to the requested date
+		RecurrenceIterator it = iterator(recur, start, PST);
+		it.advanceTo(new DateTimeValueImpl(2106, 1, 1, 0, 0, 0));
+		assertEquals(new DateTimeValueImpl(2106, 1, 2, 17, 0, 0), it.next());
+		assertEquals(new DateTimeValueImpl(2106, 1, 5, 17, 0, 0), it.next());
+
+		//the requested date is inclusive
+		it = iterator(recur, start, PST);
+		it.advanceTo(new DateTimeValueImpl(2006, 1, 4, 17, 0, 0));
+		assertEquals(new DateTimeValueImpl(2006, 1, 4, 17, 0, 0), it.next());
+
+		//does not go backwards
+		it.advanceTo(new DateTimeValueImpl(2000, 1, 1, 0, 0, 0));
+		assertEquals(new DateTimeValueImpl(2006, 1, 7, 17, 0, 0), it.next());
+	}
+
+	@Test
+	public void advanceTo_count() {
+		Recurrence recur = new Recurrence.Builder(Frequency.DAILY).count(10).build();
+		DateValue start = new DateValueImpl(2006, 1, 1);
+
+		RecurrenceIterator it = iterator(recur, start, PST);
+		it.advanceTo(new DateValueImpl(2006, 1, 9));
+		assertEquals(new DateValueImpl(2006, 1, 9), it.next());
+		assertEquals(new DateValueImpl(2006, 1, 10), it.next());
+		assertFalse(it.hasNext());
+
+		it = iterator(recur, start, PST);
+		it.advanceTo(new DateValueImpl(2006, 2, 1));
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void advanceTo_until() {
+		Recurrence recur = new Recurrence.Builder(Frequency.WEEKLY).until(new Date(1136764800000L)).build(); //2006-01-09 00:00:00 UTC
+		DateValue start = new DateTimeValueImpl(2006, 1, 1, 9, 0, 0);
+
+		RecurrenceIterator it = iterator(recur, start, UTC);
+		it.advanceTo(new DateTimeValueImpl(2006, 1, 2, 0, 0, 0));
+		assertEquals(new DateTimeValueImpl(2006, 1, 8, 9, 0, 0), it.next());
+		assertFalse(it.hasNext());
+	}
+
+	private static Recurrence generalEquivalent(Recurrence recur, DateValue start) {
+		Recurrence.Builder builder = new Recurrence.Builder(recur);
+		if (!(start instanceof TimeValue)) {
+			builder.byMonth(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+		} else if (recur.getFrequency() == Frequency.SECONDLY) {
+			for (int i = 0; i < 60; i++) {
+				builder.bySecond(i);
+			}
+		} else {
+			builder.bySecond(((TimeValue) start).second());
+		}
+		return builder.build();
+	}
+
+	private static RecurrenceIterator iterator(Recurrence recur, DateValue start, TimeZone tz) {
+		return RecurrenceIteratorFactory.createRecurrenceIterator(recur, start, tz);
+	}
+}
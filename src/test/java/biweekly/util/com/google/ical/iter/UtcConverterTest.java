@@ -0,0 +1,89 @@
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package biweekly.util.com.google.ical.iter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import biweekly.util.com.google.ical.util.DTBuilder;
+import biweekly.util.com.google.ical.util.TimeUtils;
+import biweekly.util.com.google.ical.values.DateTimeValue;
+import biweekly.util.com.google.ical.values.DateValueImpl;
+import biweekly.util.com.google.ical.values.PackedDateValue;
+
+/**
+ * @author Michael Angstadt
+ */
+public class UtcConverterTest {
+	@Test
+	public void utc() {
+		UtcConverter converter = new UtcConverter(TimeUtils.utcTimezone());
+		long packed = PackedDateValue.pack(2006, 3, 12, 2, 30, 0);
+		assertEquals(packed, converter.toUtc(packed));
+	}
+
+	@Test
+	public void date_values_are_not_converted() {
+		UtcConverter converter = new UtcConverter(TimeZone.getTimeZone("America/Los_Angeles"));
+		long packed = PackedDateValue.pack(2006, 3, 12);
+		assertEquals(packed, converter.toUtc(packed));
+	}
+
+	@Test
+	public void same_as_calendar() {
+		//daylight savings shifts, a half-hour shift, and a skipped day
+		assertSameAsCalendar("America/Los_Angeles", 2006, 2007);
+		assertSameAsCalendar("Australia/Lord_Howe", 2006, 2007);
+		assertSameAsCalendar("Pacific/Apia", 2011, 2012);
+		assertSameAsCalendar("America/Los_Angeles", 1500, 1501);
+	}
+
+	/**
+	 * Converts every 15 minutes within a range of years using both
+	 * {@link UtcConverter} and {@link TimeUtils#toUtc}, and asserts that the
+	 * results are the same.
+	 * @param tzid the timezone ID
+	 * @param startYear the first year
+	 * @param endYear the last year (exclusive)
+	 */
+	private static void assertSameAsCalendar(String tzid, int startYear, int endYear) {
+		TimeZone tz = TimeZone.getTimeZone(tzid);
+		UtcConverter converter = new UtcConverter(tz);
+
+		DTBuilder builder = new DTBuilder(new DateValueImpl(startYear, 1, 1));
+		while (builder.year < endYear) {
+			DateTimeValue local = builder.toDateTime();
+			long expected = PackedDateValue.pack(TimeUtils.toUtc(local, tz));
+			long actual = converter.toUtc(PackedDateValue.pack(local));
+			assertEquals(tzid + " " + local, PackedDateValue.unpack(expected), PackedDateValue.unpack(actual));
+
+			builder.minute += 15;
+		}
+	}
+}
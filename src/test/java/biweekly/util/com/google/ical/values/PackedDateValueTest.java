@@ -0,0 +1,105 @@
+/*
+ Copyright (c) 2013-2018, Michael Angstadt
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions are met: 
+
+ 1. Redistributions of source code must retain the above copyright notice, this
+ list of conditions and the following disclaimer. 
+ 2. Redistributions in binary form must reproduce the above copyright notice,
+ this list of conditions and the following disclaimer in the documentation
+ and/or other materials provided with the distribution. 
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package biweekly.util.com.google.ical.values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Michael Angstadt
+ */
+public class PackedDateValueTest {
+	@Test
+	public void pack_unpack() {
+		DateValue date = new DateValueImpl(2006, 12, 31);
+		long packed = PackedDateValue.pack(date);
+		assertFalse(PackedDateValue.hasTime(packed));
+		assertEquals(date, PackedDateValue.unpack(packed));
+		assertFalse(PackedDateValue.unpack(packed) instanceof TimeValue);
+
+		DateTimeValue dateTime = new DateTimeValueImpl(2006, 12, 31, 23, 59, 59);
+		packed = PackedDateValue.pack(dateTime);
+		assertTrue(PackedDateValue.hasTime(packed));
+		assertEquals(2006, PackedDateValue.year(packed));
+		assertEquals(12, PackedDateValue.month(packed));
+		assertEquals(31, PackedDateValue.day(packed));
+		assertEquals(23, PackedDateValue.hour(packed));
+		assertEquals(59, PackedDateValue.minute(packed));
+		assertEquals(59, PackedDateValue.second(packed));
+
+		DateValue unpacked = PackedDateValue.unpack(packed);
+		assertTrue(unpacked instanceof DateTimeValue);
+		assertEquals(dateTime, unpacked);
+
+		dateTime = new DateTimeValueImpl(-1, 1, 1, 0, 0, 0);
+		assertEquals(dateTime, PackedDateValue.unpack(PackedDateValue.pack(dateTime)));
+	}
+
+	@Test
+	public void ordering() {
+		//@formatter:off
+		DateValue[] values = {
+			new DateValueImpl(-1, 12, 31),
+			new DateTimeValueImpl(0, 1, 1, 0, 0, 0),
+			new DateValueImpl(2006, 1, 31),
+			new DateTimeValueImpl(2006, 1, 31, 0, 0, 0),
+			new DateTimeValueImpl(2006, 1, 31, 0, 0, 1),
+			new DateTimeValueImpl(2006, 1, 31, 23, 59, 59),
+			new DateValueImpl(2006, 2, 1),
+			new DateTimeValueImpl(2006, 12, 1, 12, 0, 0),
+			new DateValueImpl(2007, 1, 1)
+		};
+		//@formatter:on
+
+		for (DateValue left : values) {
+			for (DateValue right : values) {
+				int expected = Integer.signum(left.compareTo(right));
+				int actual = Long.signum(PackedDateValue.pack(left) - PackedDateValue.pack(right));
+				assertEquals(left + " vs " + right, expected, actual);
+			}
+		}
+	}
+
+	@Test
+	public void epoch_conversions() {
+		assertEquals(0, PackedDateValue.toEpochSecond(PackedDateValue.pack(1970, 1, 1)));
+		assertEquals(1136214245, PackedDateValue.toEpochSecond(PackedDateValue.pack(2006, 1, 2, 15, 4, 5)));
+		assertEquals(-1, PackedDateValue.toEpochSecond(PackedDateValue.pack(1969, 12, 31, 23, 59, 59)));
+
+		assertEquals(PackedDateValue.pack(2006, 1, 2, 15, 4, 5), PackedDateValue.fromEpochSecond(1136214245));
+		assertEquals(PackedDateValue.pack(1969, 12, 31, 23, 59, 59), PackedDateValue.fromEpochSecond(-1));
+		assertEquals(PackedDateValue.pack(2000, 2, 29), PackedDateValue.fromEpochDay(11016));
+
+		//round trip every day across several centuries
+		for (long day = -200000; day < 200000; day++) {
+			long packed = PackedDateValue.fromEpochDay(day);
+			assertEquals(day * 24 * 60 * 60, PackedDateValue.toEpochSecond(packed));
+		}
+	}
+}